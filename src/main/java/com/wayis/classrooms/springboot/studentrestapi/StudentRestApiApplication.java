@@ -1,11 +1,74 @@
 package com.wayis.classrooms.springboot.studentrestapi;
 
+import com.wayis.classrooms.springboot.studentrestapi.service.StudentArchive;
+import com.wayis.classrooms.springboot.studentrestapi.service.StudentService;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
 import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.ComponentScan;
 
 @SpringBootApplication
 public class StudentRestApiApplication {
-    public static void main(String[] args) {
-		      SpringApplication.run(StudentRestApiApplication.class, args);
+    public static void main(String[] args) throws IOException {
+        if (args.length > 0 && (args[0].equals("export") || args[0].equals("import"))) {
+            System.exit(archive(args));
+        }
+        SpringApplication application = new SpringApplication(StudentRestApiApplication.class);
+        // Étapes du démarrage, chargement des étudiants compris, publiées sur /actuator/startup
+        application.setApplicationStartup(new BufferingApplicationStartup(2048));
+        application.run(args);
 	}
+
+    // Mode ligne de commande : export|import <fichier .ndjson.gz> [--replace] [--propriété=valeur...]
+    // Les propriétés choisissent le dépôt à lire ou à remplir (students.repository, students.persistence...)
+    static int archive(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: export|import <file.ndjson.gz> [--replace] [--property=value...]");
+            return 2;
+        }
+        boolean replace = false;
+        List<String> properties = new ArrayList<>();
+        for (int i = 2; i < args.length; i++) {
+            if (args[i].equals("--replace")) {
+                replace = true;
+            } else {
+                properties.add(args[i]);
+            }
+        }
+
+        SpringApplication application = new SpringApplication(ArchiveCommand.class);
+        application.setWebApplicationType(WebApplicationType.NONE);
+        Path file = Paths.get(args[1]);
+        try (ConfigurableApplicationContext context = application.run(properties.toArray(new String[0]))) {
+            StudentArchive archive = context.getBean(StudentArchive.class);
+            if (args[0].equals("export")) {
+                try (OutputStream out = Files.newOutputStream(file)) {
+                    archive.export(out);
+                }
+            } else {
+                try (InputStream in = Files.newInputStream(file)) {
+                    archive.importFrom(in, replace);
+                }
+            }
+        }
+        return 0;
+    }
+
+    // Contexte du mode ligne de commande : les services seulement, sans serveur web ni contrôleurs.
+    // Sans @Configuration, la recherche des composants de l'application ne le trouve pas.
+    @EnableAutoConfiguration
+    @ComponentScan(basePackageClasses = StudentService.class)
+    static class ArchiveCommand {
+    }
 }
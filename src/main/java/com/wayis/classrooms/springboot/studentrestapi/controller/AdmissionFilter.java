@@ -0,0 +1,199 @@
+package com.wayis.classrooms.springboot.studentrestapi.controller;
+
+import com.wayis.classrooms.springboot.studentrestapi.service.AdmissionControl;
+import com.wayis.classrooms.springboot.studentrestapi.service.AdmissionControl.Priority;
+import com.wayis.classrooms.springboot.studentrestapi.service.ClusterClient;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Admission des requêtes sur {@code /students}, {@code /export} et
+ * {@code /import} ({@link AdmissionControl}), avant le relais au nœud
+ * propriétaire et avant tout traitement : une requête refusée reçoit aussitôt
+ * {@code 429} ou {@code 503} avec {@code Retry-After}.
+ * <p>
+ * La place est rendue quand la réponse est terminée : une réponse en flux ou
+ * asynchrone la garde jusqu'à la fin de son envoi.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class AdmissionFilter extends OncePerRequestFilter {
+
+    // Requêtes sur ces chemins qu'aucune route ne sert : une seule route
+    static final String OTHER = "other";
+
+    @Autowired
+    private AdmissionControl admission;
+
+    @Autowired
+    private ClusterClient clusterClient;
+
+    @Value("${students.admission.enabled:false}")
+    private boolean enabled;
+
+    // En-tête qui identifie le client pour la limitation de débit ; à défaut, son adresse IP
+    @Value("${students.admission.client-header:X-Client-Id}")
+    private String clientHeader = "X-Client-Id";
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || route(path(request), request.getMethod(), null) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String path = path(request);
+        String method = request.getMethod();
+        String route = route(path, method, request.getQueryString());
+        // Une requête relayée par un autre nœud (avec le secret du cluster) a déjà été comptée pour son client
+        String client = clusterClient.isForwarded(request.getHeader(ClusterClient.FORWARDED_HEADER)) ? null
+                : request.getHeader(clientHeader) != null ? request.getHeader(clientHeader)
+                : request.getRemoteAddr();
+
+        AdmissionControl.Admission decision = admission.admit(route, priority(route, method), client);
+        if (!decision.isAdmitted()) {
+            response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(decision.getRetryAfterSeconds()));
+            response.sendError(decision.getStatus());
+            return;
+        }
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            if (request.isAsyncStarted()) {
+                // Flux NDJSON, export : la place est rendue à la fin de l'envoi, sans mesurer
+                // une durée qui dépend surtout du débit du client
+                request.getAsyncContext().addListener(new ReleaseOnComplete(decision));
+            } else {
+                decision.release(true);
+            }
+        }
+    }
+
+    // Rend la place d'une requête asynchrone ; onComplete suit aussi une erreur ou un délai dépassé
+    private static final class ReleaseOnComplete implements AsyncListener {
+
+        private final AdmissionControl.Admission decision;
+
+        ReleaseOnComplete(AdmissionControl.Admission decision) {
+            this.decision = decision;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            decision.release(false);
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // Un nouveau cycle asynchrone oublie les écouteurs : celui-ci se réinscrit
+            event.getAsyncContext().addListener(this);
+        }
+    }
+
+    private static String path(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+
+    /**
+     * Modèle de la route de StudentController (ou d'ArchiveController pour
+     * {@code /export} et {@code /import}) qui traitera la requête,
+     * {@code null} hors de ces chemins. Le nom est pris dans une liste
+     * fixe : une méthode ou un chemin que StudentController ne sert pas donne
+     * {@link #OTHER}, pour que les limites et les jauges par route restent en
+     * nombre borné quelles que soient les requêtes reçues.
+     */
+    static String route(String path, String method, String query) {
+        // HEAD est servi par la route GET
+        String verb = "HEAD".equals(method) ? "GET" : method;
+        if (path.equals("/export")) {
+            return "GET".equals(verb) ? "GET /export" : OTHER;
+        }
+        if (path.equals("/import")) {
+            if ("POST".equals(verb)) {
+                return "POST /import";
+            }
+            return "GET".equals(verb) ? "GET /import" : OTHER;
+        }
+        if (!path.equals("/students") && !path.startsWith("/students/")) {
+            return null;
+        }
+        String[] segments = path.substring(1).split("/");
+        switch (segments.length) {
+            case 1:
+                if ("GET".equals(verb)) {
+                    if (query != null && hasParam(query, "ids")) {
+                        return "GET /students?ids";
+                    }
+                    return query != null && hasParam(query, "limit") ? "GET /students?limit" : "GET /students";
+                }
+                return "POST".equals(verb) ? "POST /students" : OTHER;
+            case 2:
+                if ("batch".equals(segments[1]) && "POST".equals(verb)) {
+                    return "POST /students/batch";
+                }
+                return "GET".equals(verb) ? "GET /students/{studentId}" : OTHER;
+            case 3:
+                if (!"courses".equals(segments[2])) {
+                    return OTHER;
+                }
+                if ("GET".equals(verb)) {
+                    return "GET /students/{studentId}/courses";
+                }
+                return "POST".equals(verb) ? "POST /students/{studentId}/courses" : OTHER;
+            case 4:
+                if (!"courses".equals(segments[2])) {
+                    return OTHER;
+                }
+                if ("batch-enroll".equals(segments[3])) {
+                    return "POST".equals(verb) ? "POST /students/{studentId}/courses/batch-enroll" : OTHER;
+                }
+                if ("batch-delete".equals(segments[3])) {
+                    return "POST".equals(verb) ? "POST /students/{studentId}/courses/batch-delete" : OTHER;
+                }
+                if ("GET".equals(verb) || "PUT".equals(verb) || "DELETE".equals(verb)) {
+                    return verb + " /students/{studentId}/courses/{courseId}";
+                }
+                return OTHER;
+            default:
+                return OTHER;
+        }
+    }
+
+    static Priority priority(String route, String method) {
+        if (route.equals("GET /students") || route.endsWith("/batch") || route.contains("/batch-")
+                || route.equals("GET /export") || route.equals("POST /import")) {
+            return Priority.BULK;
+        }
+        return "GET".equals(method) || "HEAD".equals(method) ? Priority.INTERACTIVE : Priority.WRITE;
+    }
+
+    private static boolean hasParam(String query, String name) {
+        for (String pair : query.split("&")) {
+            if (pair.equals(name) || pair.startsWith(name + "=")) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,83 @@
+package com.wayis.classrooms.springboot.studentrestapi.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.wayis.classrooms.springboot.studentrestapi.service.StudentArchive;
+import com.wayis.classrooms.springboot.studentrestapi.service.StudentArchive.ArchiveReport;
+import jakarta.servlet.http.HttpServletRequest;
+import java.io.EOFException;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.zip.ZipException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+@RestController
+public class ArchiveController {
+
+    static final String APPLICATION_GZIP_VALUE = "application/gzip";
+
+    @Autowired
+    private StudentArchive archive;
+
+    @Autowired
+    private StudentResponseCache responseCache;
+
+    //Route permettant de sauvegarder le catalogue et les étudiants de ce nœud en NDJSON compressé (gzip).
+    //L'archive est écrite au fil de la lecture du dépôt : la mémoire utilisée ne dépend pas de sa taille.
+    @GetMapping(value = "/export", produces = APPLICATION_GZIP_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportStudents() {
+        ContentDisposition disposition = ContentDisposition.attachment()
+                .filename("students-" + LocalDate.now() + ".ndjson.gz")
+                .build();
+        StreamingResponseBody body = out -> archive.export(out);
+
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, disposition.toString())
+                .contentType(MediaType.parseMediaType(APPLICATION_GZIP_VALUE))
+                .body(body);
+    }
+
+    //Route permettant de restaurer une archive produite par /export, appliquée par lots ;
+    //replace=true retire d'abord les étudiants présents, sinon ceux de l'archive remplacent ceux de même identifiant
+    @PostMapping(value = "/import", consumes = APPLICATION_GZIP_VALUE)
+    public ResponseEntity<ArchiveReport> importStudents(@RequestParam(defaultValue = "false") boolean replace,
+            HttpServletRequest request) throws IOException {
+        ArchiveReport report;
+        try {
+            report = archive.importFrom(request.getInputStream(), replace);
+        } catch (JsonProcessingException | ZipException | EOFException e) {
+            // Archive illisible ou tronquée : les lots déjà appliqués restent en place, rien n'est retiré
+            return ResponseEntity.badRequest().body(archive.getLastImport());
+        } finally {
+            responseCache.clear();
+        }
+
+        // Un autre import est en cours
+        if (report == null) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(archive.getLastImport());
+        }
+
+        return ResponseEntity.ok(report);
+    }
+
+    //Route permettant de suivre l'import en cours (done=false) ou de relire le bilan du dernier
+    @GetMapping("/import")
+    public ResponseEntity<ArchiveReport> retrieveImportProgress() {
+        ArchiveReport report = archive.getLastImport();
+
+        if (report == null) {
+            return ResponseEntity.notFound().build();
+        }
+
+        return ResponseEntity.ok(report);
+    }
+}
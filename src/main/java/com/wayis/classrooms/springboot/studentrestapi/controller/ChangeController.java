@@ -0,0 +1,115 @@
+package com.wayis.classrooms.springboot.studentrestapi.controller;
+
+import com.wayis.classrooms.springboot.studentrestapi.model.ChangeBatch;
+import com.wayis.classrooms.springboot.studentrestapi.model.ChangeEvent;
+import com.wayis.classrooms.springboot.studentrestapi.service.ChangeFeed;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Flux des changements d'inscription, lu par offset ({@code /changes}) ou
+ * poussé en Server-Sent Events ({@code /changes/stream}). Les attentes se
+ * font sur des threads virtuels : un abonné lent n'occupe ni un thread de
+ * Tomcat ni l'écrivain.
+ */
+@RestController
+public class ChangeController {
+
+    static final int MAX_WAIT_SECONDS = 30;
+    // Intervalle des commentaires envoyés à un abonné SSE quand rien ne change
+    static final Duration KEEPALIVE = Duration.ofSeconds(15);
+
+    @Autowired
+    private ChangeFeed changes;
+
+    @Value("${students.changes.stream-timeout:30m}")
+    private Duration streamTimeout;
+
+    private final ExecutorService waiters = Executors.newVirtualThreadPerTaskExecutor();
+
+    @PreDestroy
+    public void stop() {
+        waiters.shutdownNow();
+    }
+
+    //Route permettant de lire les changements à partir d'un offset : /changes?from=42&limit=100&wait=10
+    @GetMapping("/changes")
+    public CompletableFuture<ChangeBatch> retrieveChanges(@RequestParam(required = false) Long from,
+            @RequestParam(defaultValue = "100") int limit, @RequestParam(defaultValue = "0") int wait) {
+        long start = from == null ? changes.oldest() : from;
+        int size = StudentController.pageSize(limit);
+        Duration timeout = Duration.ofSeconds(Math.max(0, Math.min(wait, MAX_WAIT_SECONDS)));
+        if (timeout.isZero() || changes.head() > start) {
+            return CompletableFuture.completedFuture(changes.read(start, size));
+        }
+        // Attente longue : la réponse part au premier changement ou à l'expiration du délai
+        return CompletableFuture.supplyAsync(() -> {
+            changes.await(start, timeout);
+            return changes.read(start, size);
+        }, waiters);
+    }
+
+    //Route poussant les changements en Server-Sent Events ; reprend après Last-Event-ID ou à partir de ?from=
+    @GetMapping(value = "/changes/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChanges(@RequestParam(required = false) Long from,
+            @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        long start = from != null ? from : lastEventId != null ? lastEventId + 1 : changes.head();
+        SseEmitter emitter = new SseEmitter(streamTimeout.toMillis());
+        AtomicBoolean open = new AtomicBoolean(true);
+        Thread subscriber = Thread.ofVirtual().unstarted(() -> push(emitter, open, start));
+        Runnable close = () -> {
+            open.set(false);
+            subscriber.interrupt();
+        };
+        emitter.onCompletion(close);
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(error -> close.run());
+        subscriber.start();
+        return emitter;
+    }
+
+    private void push(SseEmitter emitter, AtomicBoolean open, long from) {
+        long next = from;
+        try {
+            while (open.get()) {
+                ChangeBatch batch = changes.read(next, StudentController.STREAM_CHUNK_SIZE);
+                if (batch.isTruncated()) {
+                    // Changements perdus : l'abonné doit relire l'état complet avant de continuer
+                    Map<String, Long> reset = new LinkedHashMap<>();
+                    reset.put("from", next);
+                    reset.put("next", batch.getEvents().isEmpty() ? batch.getNext()
+                            : batch.getEvents().get(0).getOffset());
+                    emitter.send(SseEmitter.event().name("reset").data(reset, MediaType.APPLICATION_JSON));
+                }
+                for (ChangeEvent event : batch.getEvents()) {
+                    emitter.send(SseEmitter.event()
+                            .id(Long.toString(event.getOffset()))
+                            .name("change")
+                            .data(event, MediaType.APPLICATION_JSON));
+                }
+                next = batch.getNext();
+                if (batch.getEvents().isEmpty() && !changes.await(next, KEEPALIVE) && open.get()) {
+                    emitter.send(SseEmitter.event().comment("keepalive"));
+                }
+            }
+        } catch (IOException | IllegalStateException e) {
+            // Client parti ou émetteur déjà terminé
+            open.set(false);
+        }
+    }
+}
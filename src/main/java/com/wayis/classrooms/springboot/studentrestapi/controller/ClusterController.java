@@ -0,0 +1,76 @@
+package com.wayis.classrooms.springboot.studentrestapi.controller;
+
+import com.wayis.classrooms.springboot.studentrestapi.model.Student;
+import com.wayis.classrooms.springboot.studentrestapi.service.ClusterClient;
+import com.wayis.classrooms.springboot.studentrestapi.service.StudentCluster;
+import java.util.List;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+// Routes échangées entre les nœuds du mode partitionné (students.cluster.enabled) ;
+// les écritures exigent le secret partagé dans l'en-tête X-Students-Forwarded
+@RestController
+public class ClusterController {
+
+    @Autowired
+    private StudentCluster cluster;
+
+    @Autowired
+    private ClusterClient client;
+
+    //Route permettant de connaître les membres de l'anneau
+    @GetMapping("/cluster/nodes")
+    public List<String> retrieveNodes() {
+        return cluster.nodes();
+    }
+
+    //Route appelée par un nœud qui démarre pour rejoindre l'anneau : /cluster/nodes?node=http://host:port
+    @PostMapping("/cluster/nodes")
+    public ResponseEntity<List<String>> joinCluster(@RequestParam String node,
+            @RequestHeader(value = ClusterClient.FORWARDED_HEADER, required = false) String forwarded) {
+        if (!cluster.isEnabled()) {
+            return ResponseEntity.notFound().build();
+        }
+        if (!client.isForwarded(forwarded)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        return ResponseEntity.ok(cluster.join(node));
+    }
+
+    //Route permettant de diffuser la nouvelle liste des membres
+    @PutMapping("/cluster/nodes")
+    public ResponseEntity<Void> updateNodes(@RequestBody List<String> nodes,
+            @RequestHeader(value = ClusterClient.FORWARDED_HEADER, required = false) String forwarded) {
+        if (!cluster.isEnabled()) {
+            return ResponseEntity.notFound().build();
+        }
+        if (!client.isForwarded(forwarded)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        cluster.adopt(nodes);
+        return ResponseEntity.noContent().build();
+    }
+
+    //Route recevant les étudiants transférés par leur ancien propriétaire ;
+    //replace=true pour un étudiant modifié chez lui après un premier envoi
+    @PostMapping("/cluster/students")
+    public ResponseEntity<Integer> acceptStudents(@RequestBody List<Student> students,
+            @RequestParam(defaultValue = "false") boolean replace,
+            @RequestHeader(value = ClusterClient.FORWARDED_HEADER, required = false) String forwarded) {
+        if (!cluster.isEnabled()) {
+            return ResponseEntity.notFound().build();
+        }
+        if (!client.isForwarded(forwarded)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        return ResponseEntity.ok(cluster.accept(students, replace));
+    }
+}
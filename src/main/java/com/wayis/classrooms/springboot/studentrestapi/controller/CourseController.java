@@ -0,0 +1,96 @@
+package com.wayis.classrooms.springboot.studentrestapi.controller;
+
+import com.wayis.classrooms.springboot.studentrestapi.model.Course;
+import com.wayis.classrooms.springboot.studentrestapi.model.Page;
+import com.wayis.classrooms.springboot.studentrestapi.model.Student;
+import com.wayis.classrooms.springboot.studentrestapi.service.StudentService;
+import java.net.URI;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+@RestController
+public class CourseController {
+
+    @Autowired
+    private StudentService studentService;
+
+    //Route permettant de récupérer le catalogue des cours
+    @GetMapping("/courses")
+    public MappingJacksonValue retrieveAllCourses(@RequestParam(required = false) String fields) {
+        Projection projection = Projection.ofCourses(fields);
+        return Projection.apply(projection, studentService.retrieveCatalog());
+    }
+
+    //Route permettant de récupérer un cours du catalogue
+    @GetMapping("/courses/{courseId}")
+    public MappingJacksonValue retrieveCourse(@PathVariable String courseId,
+            @RequestParam(required = false) String fields) {
+        Projection projection = Projection.ofCourses(fields);
+        return Projection.apply(projection, studentService.retrieveCatalogCourse(courseId));
+    }
+
+    //Route permettant de rechercher des cours par mots, du plus pertinent au moins pertinent.
+    //Le dernier mot est un préfixe : ?q=integration cont trouve "Intégration continue"
+    @GetMapping("/search/courses")
+    public MappingJacksonValue searchCourses(@RequestParam String q,
+            @RequestParam(defaultValue = "20") int limit, @RequestParam(required = false) String fields) {
+        Projection projection = Projection.ofCourses(fields);
+        return Projection.apply(projection, studentService.searchCourses(q, StudentController.pageSize(limit)));
+    }
+
+    //Route permettant de lister les étudiants inscrits à un cours, page par page ;
+    //l'en-tête X-Total-Count donne le nombre d'inscrits
+    @GetMapping("/courses/{courseId}/students")
+    public ResponseEntity<MappingJacksonValue> retrieveCourseStudents(@PathVariable String courseId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "100") int limit,
+            @RequestParam(required = false) String fields, @RequestParam(required = false) String expand) {
+        Projection projection = Projection.ofStudents(fields, expand);
+        Page<Student> page = studentService.retrieveCourseStudents(courseId, cursor, StudentController.pageSize(limit));
+
+        if (page == null) {
+            return ResponseEntity.notFound().build();
+        }
+
+        return ResponseEntity.ok()
+                .header("X-Total-Count", String.valueOf(studentService.countCourseStudents(courseId)))
+                .body(Projection.apply(projection, page));
+    }
+
+    //Route permettant d'ajouter un cours au catalogue
+    @PostMapping("/courses")
+    public ResponseEntity<Void> addCourseToCatalog(@RequestBody Course newCourse) {
+        Course course = studentService.addCatalogCourse(newCourse);
+
+        if (course == null) {
+            return ResponseEntity.noContent().build();
+        }
+
+        URI location = ServletUriComponentsBuilder.fromCurrentRequest().path(
+                "/{id}").buildAndExpand(course.getId()).toUri();
+
+        return ResponseEntity.created(location).build();
+    }
+
+    //Route permettant de modifier un cours pour tous les étudiants inscrits
+    @PutMapping("/courses/{courseId}")
+    public ResponseEntity<Course> updateCourse(@PathVariable String courseId,
+            @RequestBody Course course) {
+        Course updated = studentService.updateCatalogCourse(courseId, course);
+
+        if (updated == null) {
+            return ResponseEntity.notFound().build();
+        }
+
+        return ResponseEntity.ok(updated);
+    }
+}
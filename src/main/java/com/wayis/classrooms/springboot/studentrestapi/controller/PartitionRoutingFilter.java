@@ -0,0 +1,107 @@
+package com.wayis.classrooms.springboot.studentrestapi.controller;
+
+import com.wayis.classrooms.springboot.studentrestapi.service.ClusterClient;
+import com.wayis.classrooms.springboot.studentrestapi.service.StudentCluster;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.UriUtils;
+
+/**
+ * En mode partitionné, relaie au nœud propriétaire toute requête sur
+ * {@code /students/{studentId}} et ses sous-ressources. La requête et la
+ * réponse sont recopiées telles quelles (statut, en-têtes, ETag, corps
+ * éventuellement compressé).
+ */
+@Component
+public class PartitionRoutingFilter extends OncePerRequestFilter {
+
+    // En-têtes propres à une connexion, ou que le client HTTP du JDK fixe lui-même
+    private static final Set<String> HOP_BY_HOP = Set.of("connection", "content-length", "expect", "host",
+            "upgrade", "keep-alive", "transfer-encoding", "te", "trailer", "proxy-connection",
+            "proxy-authenticate", "proxy-authorization");
+
+    @Autowired
+    private StudentCluster cluster;
+
+    @Autowired
+    private ClusterClient client;
+
+    // Une requête relayée par un autre nœud (secret partagé) est toujours traitée localement
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !cluster.isEnabled() || client.isForwarded(request.getHeader(ClusterClient.FORWARDED_HEADER));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String studentId = studentId(request.getRequestURI().substring(request.getContextPath().length()),
+                request.getMethod());
+        if (studentId == null || cluster.isLocal(studentId)) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        String owner = cluster.owner(studentId);
+        Map<String, List<String>> headers = new LinkedHashMap<>();
+        for (String name : Collections.list(request.getHeaderNames())) {
+            // L'en-tête des nœuds est posé par ClusterClient ; celui d'un client n'est pas relayé
+            if (!HOP_BY_HOP.contains(name.toLowerCase()) && !ClusterClient.FORWARDED_HEADER.equalsIgnoreCase(name)) {
+                headers.put(name, Collections.list(request.getHeaders(name)));
+            }
+        }
+        String query = request.getQueryString();
+        HttpResponse<InputStream> forwarded;
+        try {
+            forwarded = client.exchange(owner, request.getMethod(), request.getRequestURI()
+                    + (query == null ? "" : "?" + query), headers, request.getInputStream().readAllBytes());
+        } catch (IOException e) {
+            response.sendError(HttpServletResponse.SC_BAD_GATEWAY, owner + " is unavailable");
+            return;
+        }
+
+        response.setStatus(forwarded.statusCode());
+        forwarded.headers().map().forEach((name, values) -> {
+            if (!HOP_BY_HOP.contains(name.toLowerCase())) {
+                values.forEach(value -> response.addHeader(name, value));
+            }
+        });
+        try (InputStream body = forwarded.body()) {
+            body.transferTo(response.getOutputStream());
+        }
+    }
+
+    /**
+     * Identifiant d'étudiant d'une route {@code /students/{studentId}/...},
+     * {@code null} pour les routes de la collection.
+     */
+    static String studentId(String path, String method) {
+        String prefix = "/students/";
+        if (!path.startsWith(prefix)) {
+            return null;
+        }
+        String rest = path.substring(prefix.length());
+        int slash = rest.indexOf('/');
+        String segment = slash < 0 ? rest : rest.substring(0, slash);
+        // POST /students/batch est l'ajout groupé, réparti par StudentController
+        boolean last = slash < 0 || slash == rest.length() - 1;
+        if (segment.isEmpty() || last && "batch".equals(segment) && "POST".equals(method)) {
+            return null;
+        }
+        return UriUtils.decode(segment, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,136 @@
+package com.wayis.classrooms.springboot.studentrestapi.controller;
+
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.fasterxml.jackson.databind.ser.FilterProvider;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.TreeSet;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Champs à sérialiser d'après {@code ?fields=} et {@code ?expand=}.
+ * <p>
+ * Pour un étudiant, {@code fields} liste ses champs ({@code id}, {@code name},
+ * {@code description}, {@code courses}) et {@code courses.<champ>} ceux de ses
+ * cours. Sans {@code expand=courses}, un cours n'est sérialisé que par son
+ * {@code id}. Pour un cours, {@code fields} liste directement ses champs.
+ * Sans aucun des deux paramètres, la réponse est complète, comme avant.
+ * <p>
+ * Les champs exclus ne sont jamais lus ni écrits : Jackson filtre les
+ * propriétés avant de les sérialiser.
+ */
+final class Projection {
+
+    static final String STUDENT_FILTER = "student";
+    static final String COURSE_FILTER = "course";
+
+    private static final Set<String> STUDENT_FIELDS = fields("id", "name", "description", "courses");
+    private static final Set<String> COURSE_FIELDS = fields("id", "name", "description", "steps");
+
+    private final FilterProvider filters;
+    // Forme canonique, pour distinguer les réponses en cache
+    private final String key;
+
+    private Projection(Set<String> studentFields, Set<String> courseFields) {
+        this.filters = new SimpleFilterProvider()
+                .addFilter(STUDENT_FILTER, SimpleBeanPropertyFilter.filterOutAllExcept(studentFields))
+                .addFilter(COURSE_FILTER, SimpleBeanPropertyFilter.filterOutAllExcept(courseFields));
+        this.key = new TreeSet<>(studentFields) + ";" + new TreeSet<>(courseFields);
+    }
+
+    /**
+     * @return {@code null} si la réponse doit être complète
+     */
+    static Projection ofStudents(String fields, String expand) {
+        if (fields == null && expand == null) {
+            return null;
+        }
+        boolean expandCourses = expand != null && split(expand).contains("courses");
+        Set<String> studentFields = new LinkedHashSet<>();
+        Set<String> courseFields = new LinkedHashSet<>();
+        for (String field : fields == null ? STUDENT_FIELDS : split(fields)) {
+            if (field.startsWith("courses.")) {
+                studentFields.add("courses");
+                courseFields.add(check(field.substring("courses.".length()), COURSE_FIELDS));
+            } else {
+                studentFields.add(check(field, STUDENT_FIELDS));
+            }
+        }
+        if (courseFields.isEmpty()) {
+            courseFields.addAll(expandCourses ? COURSE_FIELDS : Collections.singleton("id"));
+        } else {
+            courseFields.add("id");
+        }
+        return new Projection(studentFields, courseFields);
+    }
+
+    /**
+     * @return {@code null} si la réponse doit être complète
+     */
+    static Projection ofCourses(String fields) {
+        if (fields == null) {
+            return null;
+        }
+        Set<String> courseFields = new LinkedHashSet<>();
+        for (String field : split(fields)) {
+            courseFields.add(check(field, COURSE_FIELDS));
+        }
+        return new Projection(STUDENT_FIELDS, courseFields);
+    }
+
+    // Corps de réponse que le convertisseur Jackson de Spring sérialise avec ces filtres ;
+    // null reste une réponse vide
+    static MappingJacksonValue apply(Projection projection, Object body) {
+        if (body == null) {
+            return null;
+        }
+        MappingJacksonValue value = new MappingJacksonValue(body);
+        if (projection != null) {
+            value.setFilters(projection.filters);
+        }
+        return value;
+    }
+
+    FilterProvider getFilters() {
+        return filters;
+    }
+
+    String getKey() {
+        return key;
+    }
+
+    private static Set<String> split(String list) {
+        Set<String> values = new LinkedHashSet<>();
+        for (String value : list.split(",")) {
+            if (!value.trim().isEmpty()) {
+                values.add(value.trim());
+            }
+        }
+        return values;
+    }
+
+    private static String check(String field, Set<String> known) {
+        if (!known.contains(field)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown field: " + field);
+        }
+        return field;
+    }
+
+    private static Set<String> fields(String... names) {
+        return Collections.unmodifiableSet(new LinkedHashSet<>(Arrays.asList(names)));
+    }
+
+    @JsonFilter(STUDENT_FILTER)
+    abstract static class StudentMixIn {
+    }
+
+    @JsonFilter(COURSE_FILTER)
+    abstract static class CourseMixIn {
+    }
+}
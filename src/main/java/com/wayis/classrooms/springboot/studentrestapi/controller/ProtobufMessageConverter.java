@@ -0,0 +1,89 @@
+package com.wayis.classrooms.springboot.studentrestapi.controller;
+
+import com.fasterxml.jackson.databind.ser.FilterProvider;
+import com.wayis.classrooms.springboot.studentrestapi.model.Page;
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.Collection;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.json.MappingJacksonValue;
+
+/**
+ * Lit et écrit {@code application/x-protobuf} pour les étudiants, les cours,
+ * leurs listes et leurs pages, selon {@code students.proto}. Les autres
+ * réponses (résultats de lots) restent en JSON, CBOR ou Smile.
+ */
+class ProtobufMessageConverter extends AbstractGenericHttpMessageConverter<Object> {
+
+    private final ResponseFormats formats;
+
+    ProtobufMessageConverter(ResponseFormats formats) {
+        super(ResponseFormats.PROTOBUF);
+        this.formats = formats;
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return ResponseFormats.isStudentOrCourse(clazz);
+    }
+
+    @Override
+    public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+        return type instanceof Class && supports((Class<?>) type) && canRead(mediaType);
+    }
+
+    // Appelée par getSupportedMediaTypes(Class) quand Spring liste les types produisibles :
+    // doit accepter les mêmes valeurs que la variante générique
+    @Override
+    public boolean canWrite(Class<?> clazz, MediaType mediaType) {
+        return canWrite(null, clazz, mediaType);
+    }
+
+    @Override
+    public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+        if (!canWrite(mediaType)) {
+            return false;
+        }
+        // Les routes projetées renvoient un MappingJacksonValue d'étudiants ou de cours
+        if (MappingJacksonValue.class.isAssignableFrom(clazz)) {
+            return true;
+        }
+        ResolvableType resolved = type == null ? ResolvableType.forClass(clazz) : ResolvableType.forType(type);
+        for (Class<?> container : new Class<?>[] {Collection.class, Page.class}) {
+            if (container.isAssignableFrom(resolved.toClass())) {
+                Class<?> element = resolved.as(container).resolveGeneric(0);
+                return element != null && supports(element);
+            }
+        }
+        return supports(resolved.toClass());
+    }
+
+    @Override
+    public Object read(Type type, Class<?> contextClass, HttpInputMessage inputMessage) throws IOException {
+        return readInternal((Class<?>) type, inputMessage);
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) throws IOException {
+        try {
+            return formats.read(ResponseFormats.PROTOBUF, inputMessage.getBody(), clazz);
+        } catch (IOException e) {
+            throw new HttpMessageNotReadableException("Invalid protobuf message: " + e.getMessage(), e, inputMessage);
+        }
+    }
+
+    @Override
+    protected void writeInternal(Object value, Type type, HttpOutputMessage outputMessage) throws IOException {
+        FilterProvider filters = null;
+        if (value instanceof MappingJacksonValue) {
+            filters = ((MappingJacksonValue) value).getFilters();
+            value = ((MappingJacksonValue) value).getValue();
+        }
+        outputMessage.getBody().write(formats.write(ResponseFormats.PROTOBUF, value, filters));
+    }
+}
@@ -0,0 +1,169 @@
+package com.wayis.classrooms.springboot.studentrestapi.controller;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.ser.FilterProvider;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.protobuf.ProtobufFactory;
+import com.fasterxml.jackson.dataformat.protobuf.schema.ProtobufSchema;
+import com.fasterxml.jackson.dataformat.protobuf.schema.ProtobufSchemaLoader;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.wayis.classrooms.springboot.studentrestapi.model.Course;
+import com.wayis.classrooms.springboot.studentrestapi.model.Page;
+import com.wayis.classrooms.springboot.studentrestapi.model.Student;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Encodages des étudiants et des cours : JSON, CBOR, Smile et Protobuf.
+ * <p>
+ * Les quatre formats partagent la configuration Jackson de l'application
+ * (projections comprises). Protobuf suit le schéma {@code students.proto} ;
+ * une liste y est encodée comme un message {@code Students} ou
+ * {@code Courses}, une page comme {@code StudentPage} ou {@code CoursePage}.
+ */
+@Component
+public class ResponseFormats {
+
+    public static final MediaType CBOR = MediaType.APPLICATION_CBOR;
+    public static final MediaType SMILE = new MediaType("application", "x-jackson-smile");
+    public static final MediaType PROTOBUF = new MediaType("application", "x-protobuf");
+
+    // Par ordre de préférence lorsque le client accepte plusieurs formats
+    private static final List<MediaType> FORMATS = List.of(MediaType.APPLICATION_JSON, CBOR, SMILE, PROTOBUF);
+
+    private final ObjectMapper json;
+    private final ObjectMapper cbor;
+    private final ObjectMapper smile;
+    private final ObjectMapper protobuf;
+    private final ProtobufSchema studentSchema;
+    private final ProtobufSchema courseSchema;
+    private final ProtobufSchema studentsSchema;
+    private final ProtobufSchema coursesSchema;
+    private final ProtobufSchema studentPageSchema;
+    private final ProtobufSchema coursePageSchema;
+
+    @Autowired
+    public ResponseFormats(ObjectMapper objectMapper, Jackson2ObjectMapperBuilder builder) throws IOException {
+        json = objectMapper;
+        cbor = builder.factory(new CBORFactory()).build();
+        smile = builder.factory(new SmileFactory()).build();
+        // Protobuf ne sait pas représenter null : un champ null est simplement absent
+        protobuf = builder.factory(new ProtobufFactory())
+                .serializationInclusion(JsonInclude.Include.NON_NULL)
+                .build();
+
+        try (InputStream proto = ResponseFormats.class.getResourceAsStream("/students.proto")) {
+            studentSchema = ProtobufSchemaLoader.std.load(proto, "Student");
+        }
+        courseSchema = studentSchema.withRootType("Course");
+        studentsSchema = studentSchema.withRootType("Students");
+        coursesSchema = studentSchema.withRootType("Courses");
+        studentPageSchema = studentSchema.withRootType("StudentPage");
+        coursePageSchema = studentSchema.withRootType("CoursePage");
+    }
+
+    /**
+     * Format à utiliser d'après l'en-tête {@code Accept} : le premier format
+     * connu compatible avec le type de plus haute qualité, JSON sinon.
+     */
+    public MediaType negotiate(String accept) {
+        if (accept == null || accept.isEmpty()) {
+            return MediaType.APPLICATION_JSON;
+        }
+        List<MediaType> accepted = new ArrayList<>(MediaType.parseMediaTypes(accept));
+        accepted.sort(Comparator.comparingDouble(MediaType::getQualityValue).reversed());
+        for (MediaType type : accepted) {
+            for (MediaType format : FORMATS) {
+                if (type.getQualityValue() > 0 && type.isCompatibleWith(format)) {
+                    return format;
+                }
+            }
+        }
+        return MediaType.APPLICATION_JSON;
+    }
+
+    /**
+     * Encode un étudiant, un cours, ou une liste ou une page de l'un ou de l'autre.
+     *
+     * @param filters projection à appliquer, ou {@code null}
+     */
+    public byte[] write(MediaType format, Object body, FilterProvider filters) throws IOException {
+        ObjectWriter writer;
+        Object value = body;
+        if (PROTOBUF.equals(format)) {
+            if (body instanceof Collection) {
+                boolean courses = isCourseList((Collection<?>) body);
+                writer = protobuf.writer(courses ? coursesSchema : studentsSchema);
+                value = Collections.singletonMap(courses ? "courses" : "students", body);
+            } else if (body instanceof Page) {
+                writer = protobuf.writer(isCourseList(((Page<?>) body).getItems()) ? coursePageSchema : studentPageSchema);
+            } else {
+                writer = protobuf.writer(body instanceof Course ? courseSchema : studentSchema);
+            }
+        } else {
+            writer = mapper(format).writer();
+        }
+        if (filters != null) {
+            writer = writer.with(filters);
+        }
+        return writer.writeValueAsBytes(value);
+    }
+
+    public <T> T read(MediaType format, InputStream body, Class<T> type) throws IOException {
+        ObjectReader reader = mapper(format).readerFor(type);
+        if (PROTOBUF.equals(format)) {
+            reader = reader.with(Course.class.equals(type) ? courseSchema : studentSchema);
+        }
+        return reader.readValue(body);
+    }
+
+    public <T> List<T> readList(MediaType format, byte[] body, Class<T> elementType) throws IOException {
+        ObjectMapper mapper = mapper(format);
+        JavaType listType = mapper.getTypeFactory().constructCollectionType(List.class, elementType);
+        if (!PROTOBUF.equals(format)) {
+            return mapper.readerFor(listType).readValue(body);
+        }
+        boolean courses = Course.class.equals(elementType);
+        JavaType wrapperType = mapper.getTypeFactory().constructMapType(Map.class,
+                mapper.constructType(String.class), listType);
+        Map<String, List<T>> wrapper = mapper.readerFor(wrapperType)
+                .with(courses ? coursesSchema : studentsSchema)
+                .readValue(body);
+        List<T> items = wrapper.get(courses ? "courses" : "students");
+        return items == null ? new ArrayList<>() : items;
+    }
+
+    ObjectMapper mapper(MediaType format) {
+        if (CBOR.equals(format)) {
+            return cbor;
+        } else if (SMILE.equals(format)) {
+            return smile;
+        } else if (PROTOBUF.equals(format)) {
+            return protobuf;
+        }
+        return json;
+    }
+
+    // Une liste vide s'encode de la même façon quel que soit son type
+    private static boolean isCourseList(Collection<?> items) {
+        return !items.isEmpty() && items.iterator().next() instanceof Course;
+    }
+
+    static boolean isStudentOrCourse(Class<?> type) {
+        return Student.class.isAssignableFrom(type) || Course.class.isAssignableFrom(type);
+    }
+}
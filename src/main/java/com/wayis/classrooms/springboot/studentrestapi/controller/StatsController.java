@@ -0,0 +1,45 @@
+package com.wayis.classrooms.springboot.studentrestapi.controller;
+
+import com.wayis.classrooms.springboot.studentrestapi.model.CourseEnrollment;
+import com.wayis.classrooms.springboot.studentrestapi.model.EnrollmentReport;
+import com.wayis.classrooms.springboot.studentrestapi.service.StudentService;
+import java.util.List;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+public class StatsController {
+
+    @Autowired
+    private StudentService studentService;
+
+    //Route permettant de lire les statistiques des inscriptions et les cours les plus suivis ;
+    //recompute=true les recalcule sur tous les étudiants au lieu de lire les agrégats
+    @GetMapping("/stats")
+    public EnrollmentReport retrieveStats(@RequestParam(defaultValue = "10") int top,
+            @RequestParam(defaultValue = "false") boolean recompute) {
+        return studentService.retrieveStats(StudentController.pageSize(top), recompute);
+    }
+
+    //Route permettant de lister les cours par nombre d'inscrits décroissant
+    @GetMapping("/stats/courses")
+    public List<CourseEnrollment> retrieveTopCourses(@RequestParam(defaultValue = "10") int limit) {
+        return studentService.retrieveTopCourses(StudentController.pageSize(limit));
+    }
+
+    //Route permettant de connaître le nombre d'inscrits à un cours du catalogue
+    @GetMapping("/stats/courses/{courseId}")
+    public ResponseEntity<CourseEnrollment> retrieveCourseStats(@PathVariable String courseId) {
+        CourseEnrollment enrollment = studentService.retrieveCourseStats(courseId);
+
+        if (enrollment == null) {
+            return ResponseEntity.notFound().build();
+        }
+
+        return ResponseEntity.ok(enrollment);
+    }
+}
@@ -1,41 +1,146 @@
 package com.wayis.classrooms.springboot.studentrestapi.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.ser.FilterProvider;
+import com.wayis.classrooms.springboot.studentrestapi.model.BatchResult;
 import com.wayis.classrooms.springboot.studentrestapi.model.Course;
+import com.wayis.classrooms.springboot.studentrestapi.model.Page;
+import com.wayis.classrooms.springboot.studentrestapi.model.Student;
+import com.wayis.classrooms.springboot.studentrestapi.service.ClusterClient;
+import com.wayis.classrooms.springboot.studentrestapi.service.StudentCluster;
+import com.wayis.classrooms.springboot.studentrestapi.service.StudentRepository;
 import com.wayis.classrooms.springboot.studentrestapi.service.StudentService;
+import jakarta.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.URI;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.MappingJacksonValue;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.server.ResponseStatusException;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import org.springframework.web.util.UriUtils;
 
 @RestController
 public class StudentController {
 
+    static final int MAX_PAGE_SIZE = 1000;
+    static final int MAX_BATCH_SIZE = 10000;
+    // Nombre d'étudiants lus puis écrits à la fois en mode flux
+    static final int STREAM_CHUNK_SIZE = 256;
+
     @Autowired
     private StudentService studentService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private StudentResponseCache responseCache;
+
+    @Autowired
+    private ResponseFormats formats;
+
+    @Autowired
+    private HttpServletRequest request;
+
+    @Autowired
+    private StudentCluster cluster;
+
+    @Autowired
+    private ClusterClient client;
+
+    // Les réponses en cache sont compressées ici, une fois par version ; Tomcat compresse les autres
+    @Value("${server.compression.enabled:false}")
+    private boolean compression;
+
+    @Value("${server.compression.min-response-size:2KB}")
+    private DataSize compressionMinSize;
 	
 	//Route permettant de récupérer un étudiant avec sa liste de cours
     @GetMapping("/students/{studentId}/courses")
-    public List<Course> retrieveCoursesForStudent(@PathVariable String studentId) {
-        return studentService.retrieveCourses(studentId);
+    public ResponseEntity<byte[]> retrieveCoursesForStudent(@PathVariable String studentId,
+            @RequestParam(required = false) String fields) throws IOException {
+        Projection projection = Projection.ofCourses(fields);
+        long stamp = studentService.writeStamp(studentId);
+        long catalogVersion = studentService.catalogVersion();
+        Student student = studentService.retrieveStudent(studentId);
+
+        if (student == null) {
+            return ResponseEntity.ok().build();
+        }
+
+        return cachedResponse(student, stamp, catalogVersion, "courses", student.getCourses(), projection);
+    }
+
+    //Route permettant de parcourir les cours d'un étudiant page par page
+    @GetMapping(value = "/students/{studentId}/courses", params = "limit")
+    public ResponseEntity<MappingJacksonValue> retrieveCoursesPageForStudent(@PathVariable String studentId,
+            @RequestParam(required = false) String cursor, @RequestParam int limit,
+            @RequestParam(required = false) String fields) {
+        Projection projection = Projection.ofCourses(fields);
+        Page<Course> page = studentService.retrieveCoursesPage(studentId, cursor, pageSize(limit));
+
+        if (page == null) {
+            return ResponseEntity.notFound().build();
+        }
+
+        return ResponseEntity.ok(Projection.apply(projection, page));
     }
 
     @GetMapping("/students/{studentId}/courses/{courseId}")
-    public Course retrieveDetailsForCourse(@PathVariable String studentId,
-            @PathVariable String courseId) {
-        return studentService.retrieveCourse(studentId, courseId);
+    public ResponseEntity<byte[]> retrieveDetailsForCourse(@PathVariable String studentId,
+            @PathVariable String courseId, @RequestParam(required = false) String fields)
+            throws IOException {
+        Projection projection = Projection.ofCourses(fields);
+        long stamp = studentService.writeStamp(studentId);
+        long catalogVersion = studentService.catalogVersion();
+        Student student = studentService.retrieveStudent(studentId);
+        Course course = student == null ? null : student.getCourse(courseId);
+
+        if (course == null) {
+            return ResponseEntity.ok().build();
+        }
+
+        return cachedResponse(student, stamp, catalogVersion, "courses/" + courseId, course, projection);
     }
 
     @PostMapping("/students/{studentId}/courses")
     public ResponseEntity<Void> registerStudentForCourse(
             @PathVariable String studentId, @RequestBody Course newCourse) {
         Course course = studentService.addCourse(studentId, newCourse);
+        responseCache.invalidate(studentId);
 
         if (course == null) {
             return ResponseEntity.noContent().build();
@@ -47,38 +152,418 @@ public class StudentController {
         return ResponseEntity.created(location).build();
     }
     
+    //Route permettant d'inscrire un étudiant à un cours existant du catalogue
+    @PutMapping("/students/{studentId}/courses/{courseId}")
+    public ResponseEntity<Course> enrollStudentInCourse(
+            @PathVariable String studentId, @PathVariable String courseId) {
+        Course course = studentService.enrollStudent(studentId, courseId);
+        responseCache.invalidate(studentId);
+
+        if (course == null) {
+            return ResponseEntity.notFound().build();
+        }
+
+        return ResponseEntity.ok(course);
+    }
+
+    //Route permettant d'inscrire un étudiant à plusieurs cours du catalogue en une requête
+    @PostMapping("/students/{studentId}/courses/batch-enroll")
+    public ResponseEntity<List<BatchResult>> enrollStudentInCourses(
+            @PathVariable String studentId, @RequestBody List<String> courseIds) {
+        if (courseIds.size() > MAX_BATCH_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        List<BatchResult> results = studentService.enrollStudent(studentId, courseIds);
+        responseCache.invalidate(studentId);
+
+        if (results == null) {
+            return ResponseEntity.notFound().build();
+        }
+
+        return ResponseEntity.ok(results);
+    }
+
+    //Route permettant de supprimer plusieurs cours à un étudiant en une requête
+    @PostMapping("/students/{studentId}/courses/batch-delete")
+    public ResponseEntity<List<BatchResult>> deleteCoursesForAStudent(
+            @PathVariable String studentId, @RequestBody List<String> courseIds) {
+        if (courseIds.size() > MAX_BATCH_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        List<BatchResult> results = studentService.deleteCourses(studentId, courseIds);
+        responseCache.invalidate(studentId);
+
+        if (results == null) {
+            return ResponseEntity.notFound().build();
+        }
+
+        return ResponseEntity.ok(results);
+    }
+
     //Route permettant de supprimer un cours à un étudiant
     @DeleteMapping("/students/{studentId}/courses/{courseId}")
     public boolean deleteCourseForAStudent(
             @PathVariable String studentId, @PathVariable String courseId) {
-        return studentService.deleteCourse(studentId, courseId);
+        boolean deleted = studentService.deleteCourse(studentId, courseId);
+        if (deleted) {
+            responseCache.invalidate(studentId);
+        }
+        return deleted;
     }
     
-    //Route permettant de récupérer un étudiant avec sa liste de cours
+    //Route permettant de récupérer un étudiant avec sa liste de cours.
+    //?fields=id,name,courses.name ne sérialise que ces champs ; ?expand=courses détaille les cours
     @GetMapping("/students/{studentId}")
-    public List<Student> retrieveAllAStudentWithAllCourses(@PathVariable String studentId) {
-        return studentService.retrieveCourses(studentId);
+    public ResponseEntity<byte[]> retrieveAllAStudentWithAllCourses(@PathVariable String studentId,
+            @RequestParam(required = false) String fields, @RequestParam(required = false) String expand)
+            throws IOException {
+        Projection projection = Projection.ofStudents(fields, expand);
+        long stamp = studentService.writeStamp(studentId);
+        long catalogVersion = studentService.catalogVersion();
+        Student student = studentService.retrieveStudent(studentId);
+
+        if (student == null) {
+            return ResponseEntity.ok().build();
+        }
+
+        return cachedResponse(student, stamp, catalogVersion, "", student, projection);
     }
     
     //Route permettant de récupérer la liste des étudiants
 	@GetMapping("/students")
-	public List<Student> retrieveAllStudents() {
-		return studentService.retrieveAllStudents();
+	public MappingJacksonValue retrieveAllStudents(@RequestParam(required = false) String fields,
+			@RequestParam(required = false) String expand) {
+		Projection projection = Projection.ofStudents(fields, expand);
+		if (scatter()) {
+			return Projection.apply(projection, gatherAllStudents());
+			}
+		return Projection.apply(projection, studentService.retrieveAllStudents());
 		}
+
+    //Route permettant de récupérer plusieurs étudiants par identifiant : /students?ids=S-001,S-002
+    @GetMapping(value = "/students", params = "ids")
+    public ResponseEntity<MappingJacksonValue> retrieveStudentsByIds(@RequestParam List<String> ids,
+            @RequestParam(required = false) String fields, @RequestParam(required = false) String expand) {
+        if (ids.size() > MAX_BATCH_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        Projection projection = Projection.ofStudents(fields, expand);
+        if (scatter()) {
+            return ResponseEntity.ok(Projection.apply(projection, gatherStudents(ids)));
+        }
+        return ResponseEntity.ok(Projection.apply(projection, studentService.retrieveStudents(ids)));
+    }
+
+    //Route permettant de parcourir la liste des étudiants page par page
+    @GetMapping(value = "/students", params = "limit")
+    public ResponseEntity<MappingJacksonValue> retrieveStudentsPage(
+            @RequestParam(required = false) String cursor, @RequestParam int limit,
+            @RequestParam(required = false) String fields, @RequestParam(required = false) String expand) {
+        Projection projection = Projection.ofStudents(fields, expand);
+        Page<Student> page = scatter() ? gatherStudentsPage(cursor, pageSize(limit))
+                : studentService.retrieveStudentsPage(cursor, pageSize(limit));
+
+        if (page == null) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        return ResponseEntity.ok(Projection.apply(projection, page));
+    }
+
+    //Route permettant de recevoir la liste des étudiants en flux NDJSON, un étudiant par ligne.
+    //Les étudiants sont lus par blocs : la mémoire utilisée ne dépend pas de la taille de la liste.
+    @GetMapping(value = "/students", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public StreamingResponseBody streamAllStudents(@RequestParam(required = false) String fields,
+            @RequestParam(required = false) String expand) {
+        Projection projection = Projection.ofStudents(fields, expand);
+        ObjectWriter writer = objectMapper.writerFor(Student.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        if (projection != null) {
+            writer = writer.with(projection.getFilters());
+        }
+        ObjectWriter studentWriter = writer;
+        // En mode partitionné, les flux des autres nœuds sont recopiés à la suite, dans l'ordre de l'anneau
+        List<String> nodes = scatter() ? cluster.nodes() : List.of(cluster.self());
+        String query = request.getQueryString();
+        return out -> {
+            for (String node : nodes) {
+                if (!node.equals(cluster.self())) {
+                    streamFrom(node, query, out);
+                    continue;
+                }
+                try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+                    generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                    generator.setRootValueSeparator(new SerializedString("\n"));
+                    // Parcours par position : un étudiant retiré entre deux lots n'interrompt pas le flux
+                    int from = 0;
+                    while (true) {
+                        StudentRepository.Snapshot chunk = studentService.retrieveStudentsRange(from, STREAM_CHUNK_SIZE);
+                        for (Student student : chunk.getStudents()) {
+                            studentWriter.writeValue(generator, student);
+                        }
+                        generator.flush();
+                        if (!chunk.hasMore()) {
+                            break;
+                        }
+                        from = chunk.getNext();
+                    }
+                    if (generator.getOutputContext().getEntryCount() > 0) {
+                        generator.writeRaw('\n');
+                    }
+                }
+            }
+        };
+    }
 		
     //Route permettant d’ajouter un étudiant à la liste des étudiants
     @PostMapping("/students")
     public ResponseEntity<Void> addStudentToStudentsList(@RequestBody Student newStudent) {
+        if (scatter() && !cluster.isLocal(newStudent.getId())) {
+            return forwardStudent(cluster.owner(newStudent.getId()), newStudent);
+        }
         Student student = studentService.addStudent(newStudent);
+        responseCache.invalidate(newStudent.getId());
 
         if (student == null) {
             return ResponseEntity.noContent().build();
         }
         
         URI location = ServletUriComponentsBuilder.fromCurrentRequest().path(
-                "/").buildAndExpand(course.getId()).toUri();
+                "/{id}").buildAndExpand(student.getId()).toUri();
 
         return ResponseEntity.created(location).build();
     }
-    
+
+    //Route permettant d'ajouter plusieurs étudiants en une requête, avec un résultat par étudiant
+    @PostMapping("/students/batch")
+    public ResponseEntity<List<BatchResult>> addStudentsToStudentsList(@RequestBody List<Student> newStudents) {
+        if (newStudents.size() > MAX_BATCH_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        List<BatchResult> results = scatter() ? scatterStudents(newStudents) : studentService.addStudents(newStudents);
+        for (BatchResult result : results) {
+            responseCache.invalidate(result.getId());
+        }
+
+        return ResponseEntity.ok(results);
+    }
+
+    // Mode partitionné, sauf pour une requête relayée par un autre nœud : elle ne porte que sur ses données
+    private boolean scatter() {
+        return cluster.isEnabled() && !client.isForwarded(request.getHeader(ClusterClient.FORWARDED_HEADER));
+    }
+
+    // Étudiants de tous les nœuds, interrogés en parallèle, dans l'ordre de l'anneau
+    private List<Student> gatherAllStudents() {
+        Map<String, CompletableFuture<HttpResponse<byte[]>>> responses = new LinkedHashMap<>();
+        for (String node : cluster.nodes()) {
+            if (!node.equals(cluster.self())) {
+                responses.put(node, client.send(node, "GET", "/students", null));
+            }
+        }
+        List<Student> local = studentService.retrieveAllStudents();
+        List<Student> students = new ArrayList<>();
+        for (String node : cluster.nodes()) {
+            students.addAll(node.equals(cluster.self()) ? local
+                    : this.<List<Student>>gather(node, responses.get(node), client.listOf(Student.class)));
+        }
+        return students;
+    }
+
+    // Chaque identifiant est demandé à son propriétaire ; l'ordre demandé est conservé
+    private List<Student> gatherStudents(List<String> ids) {
+        Map<String, List<String>> idsByNode = new LinkedHashMap<>();
+        for (String id : ids) {
+            idsByNode.computeIfAbsent(cluster.owner(id), node -> new ArrayList<>()).add(id);
+        }
+        Map<String, CompletableFuture<HttpResponse<byte[]>>> responses = new LinkedHashMap<>();
+        idsByNode.forEach((node, nodeIds) -> {
+            if (!node.equals(cluster.self())) {
+                responses.put(node, client.send(node, "GET", "/students?ids=" + nodeIds.stream()
+                        .map(id -> UriUtils.encodeQueryParam(id, StandardCharsets.UTF_8))
+                        .collect(Collectors.joining(",")), null));
+            }
+        });
+        Map<String, Student> found = new HashMap<>();
+        for (Map.Entry<String, List<String>> entry : idsByNode.entrySet()) {
+            List<Student> students = entry.getKey().equals(cluster.self())
+                    ? studentService.retrieveStudents(entry.getValue())
+                    : gather(entry.getKey(), responses.get(entry.getKey()), client.listOf(Student.class));
+            students.forEach(student -> found.put(student.getId(), student));
+        }
+        List<Student> result = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            Student student = found.get(id);
+            if (student != null) {
+                result.add(student);
+            }
+        }
+        return result;
+    }
+
+    // Les nœuds sont parcourus dans l'ordre de l'anneau : la page reprend chez le propriétaire du curseur,
+    // puis continue au début des nœuds suivants. La dernière page peut être vide.
+    private Page<Student> gatherStudentsPage(String cursor, int limit) {
+        List<String> nodes = cluster.nodes();
+        List<Student> items = new ArrayList<>(limit);
+        String nodeCursor = cursor;
+        boolean more = false;
+        int first = cursor == null ? 0 : nodes.indexOf(cluster.owner(cursor));
+        for (int i = first; i < nodes.size() && items.size() < limit; i++) {
+            String node = nodes.get(i);
+            int remaining = limit - items.size();
+            Page<Student> part;
+            if (node.equals(cluster.self())) {
+                part = studentService.retrieveStudentsPage(nodeCursor, remaining);
+            } else {
+                String query = "/students?limit=" + remaining + (nodeCursor == null ? ""
+                        : "&cursor=" + UriUtils.encodeQueryParam(nodeCursor, StandardCharsets.UTF_8));
+                HttpResponse<byte[]> response = join(node, client.send(node, "GET", query, null));
+                // Curseur inconnu de son propriétaire
+                if (response.statusCode() == HttpStatus.BAD_REQUEST.value()) {
+                    return null;
+                }
+                JsonNode page = read(node, response, client.type(JsonNode.class));
+                List<Student> students = objectMapper.convertValue(page.path("items"), client.listOf(Student.class));
+                JsonNode next = page.path("nextCursor");
+                part = new Page<>(students, next.isTextual() ? next.asText() : null);
+            }
+            if (part == null) {
+                return null;
+            }
+            items.addAll(part.getItems());
+            nodeCursor = null;
+            more = part.getNextCursor() != null || i + 1 < nodes.size();
+        }
+        String nextCursor = more && !items.isEmpty() ? items.get(items.size() - 1).getId() : null;
+        return new Page<>(items, nextCursor);
+    }
+
+    // Recopie le flux NDJSON d'un autre nœud, avec la même projection
+    private void streamFrom(String node, String query, OutputStream out) throws IOException {
+        Map<String, List<String>> headers = Map.of(HttpHeaders.ACCEPT, List.of(MediaType.APPLICATION_NDJSON_VALUE));
+        HttpResponse<InputStream> response = client.exchange(node, "GET",
+                "/students" + (query == null ? "" : "?" + query), headers, null);
+        try (InputStream body = response.body()) {
+            if (response.statusCode() >= 400) {
+                throw new IOException(node + " answered " + response.statusCode());
+            }
+            body.transferTo(out);
+        }
+        out.flush();
+    }
+
+    // Ajout d'un étudiant dont un autre nœud est propriétaire ; son statut et sa Location sont repris
+    private ResponseEntity<Void> forwardStudent(String owner, Student student) {
+        HttpResponse<byte[]> response = join(owner, client.send(owner, "POST", "/students", student));
+        ResponseEntity.BodyBuilder forwarded = ResponseEntity.status(response.statusCode());
+        response.headers().firstValue(HttpHeaders.LOCATION)
+                .ifPresent(location -> forwarded.location(URI.create(location)));
+        return forwarded.build();
+    }
+
+    // Ajout groupé réparti par propriétaire ; les résultats gardent l'ordre du lot
+    private List<BatchResult> scatterStudents(List<Student> batch) {
+        Map<String, List<Integer>> positionsByNode = new LinkedHashMap<>();
+        for (int i = 0; i < batch.size(); i++) {
+            Student student = batch.get(i);
+            String owner = cluster.owner(student == null ? null : student.getId());
+            positionsByNode.computeIfAbsent(owner, node -> new ArrayList<>()).add(i);
+        }
+        Map<String, CompletableFuture<HttpResponse<byte[]>>> responses = new LinkedHashMap<>();
+        positionsByNode.forEach((node, positions) -> {
+            if (!node.equals(cluster.self())) {
+                responses.put(node, client.send(node, "POST", "/students/batch",
+                        positions.stream().map(batch::get).collect(Collectors.toList())));
+            }
+        });
+        BatchResult[] results = new BatchResult[batch.size()];
+        for (Map.Entry<String, List<Integer>> entry : positionsByNode.entrySet()) {
+            List<Integer> positions = entry.getValue();
+            List<BatchResult> nodeResults = new ArrayList<>(positions.size());
+            if (entry.getKey().equals(cluster.self())) {
+                nodeResults = studentService.addStudents(
+                        positions.stream().map(batch::get).collect(Collectors.toList()));
+            } else {
+                JsonNode remote = gather(entry.getKey(), responses.get(entry.getKey()), client.type(JsonNode.class));
+                for (JsonNode result : remote) {
+                    nodeResults.add(new BatchResult(result.path("id").isTextual() ? result.get("id").asText() : null,
+                            BatchResult.Status.valueOf(result.path("status").asText())));
+                }
+            }
+            for (int i = 0; i < positions.size(); i++) {
+                results[positions.get(i)] = nodeResults.get(i);
+            }
+        }
+        return Arrays.asList(results);
+    }
+
+    private <T> T gather(String node, CompletableFuture<HttpResponse<byte[]>> response, JavaType type) {
+        return read(node, join(node, response), type);
+    }
+
+    private HttpResponse<byte[]> join(String node, CompletableFuture<HttpResponse<byte[]>> response) {
+        try {
+            return ClusterClient.join(response);
+        } catch (IOException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_GATEWAY, node + " is unavailable", e);
+        }
+    }
+
+    private <T> T read(String node, HttpResponse<byte[]> response, JavaType type) {
+        try {
+            return client.read(node, response, type);
+        } catch (IOException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_GATEWAY, e.getMessage(), e);
+        }
+    }
+
+    // Réponse sérialisée une seule fois par version de l'étudiant, avec un ETag fort :
+    // Spring répond 304 lorsque If-None-Match correspond. Chaque format (Accept), chaque projection
+    // et la variante gzip ont leur propre entrée et leur propre ETag.
+    private ResponseEntity<byte[]> cachedResponse(Student student, long stamp, long catalogVersion, String resource,
+            Object body, Projection projection) throws IOException {
+        MediaType format = formats.negotiate(request.getHeader(HttpHeaders.ACCEPT));
+        StudentResponseCache.CachedResponse cached;
+        if (projection == null && MediaType.APPLICATION_JSON.equals(format)) {
+            cached = responseCache.get(student.getId(), stamp, catalogVersion, resource, body);
+        } else {
+            FilterProvider filters = projection == null ? null : projection.getFilters();
+            String key = resource + "?" + format.getSubtype() + (projection == null ? "" : ";" + projection.getKey());
+            cached = responseCache.get(student.getId(), stamp, catalogVersion, key, body,
+                    value -> formats.write(format, value, filters));
+        }
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(format)
+                .varyBy(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING);
+        if (compression && cached.getBody().length >= compressionMinSize.toBytes() && acceptsGzip()) {
+            cached = cached.gzipped();
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.eTag(cached.getETag()).body(cached.getBody());
+    }
+
+    private boolean acceptsGzip() {
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                return parts.length == 1 || !parts[1].replace(" ", "").matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+
+    static int pageSize(int limit) {
+        return Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+    }
+
 }
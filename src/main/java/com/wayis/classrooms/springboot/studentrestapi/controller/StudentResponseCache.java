@@ -0,0 +1,284 @@
+package com.wayis.classrooms.springboot.studentrestapi.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wayis.classrooms.springboot.studentrestapi.service.FrequencySketch;
+import com.wayis.classrooms.springboot.studentrestapi.service.StudentService;
+import jakarta.annotation.PostConstruct;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.GZIPOutputStream;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+
+/**
+ * Cache des réponses JSON déjà sérialisées, par étudiant.
+ * <p>
+ * Une entrée est rangée sous le compteur d'écritures de l'étudiant
+ * ({@link StudentService#writeStamp}) et la version du catalogue, tous deux
+ * lus avant l'étudiant : elle reste valide tant qu'aucun des deux n'a
+ * avancé, quel que soit le dépôt (celui sur fichier rend une nouvelle
+ * instance à chaque lecture). Les écritures retirent aussi explicitement
+ * l'étudiant pour libérer la mémoire.
+ * <p>
+ * Au-delà de {@code students.response-cache.max-students} étudiants,
+ * l'éviction suit W-TinyLFU, comme le cache du dépôt sur fichier : fenêtre
+ * LRU de 1 %, puis zone probatoire et zone protégée, et un étudiant n'entre
+ * dans la zone principale que s'il a été demandé plus souvent que celui
+ * qu'il évincerait ({@link FrequencySketch}). Une lecture en cache note
+ * l'accès dans un tampon sans verrou, reporté dans la politique par le
+ * premier thread qui en obtient le verrou.
+ */
+@Component
+public class StudentResponseCache {
+
+    private static final int READ_BUFFER_SIZE = 128;
+    private static final int READ_BUFFER_MASK = READ_BUFFER_SIZE - 1;
+    private static final double WINDOW_SHARE = 0.01;
+    private static final double PROTECTED_SHARE = 0.8;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${students.response-cache.max-students:10000}")
+    private int maxStudents;
+
+    private final Map<String, StudentEntries> entries = new ConcurrentHashMap<>();
+
+    private final AtomicReferenceArray<String> readBuffer = new AtomicReferenceArray<>(READ_BUFFER_SIZE);
+    private final AtomicLong readsRecorded = new AtomicLong();
+    // Écrit sous le verrou de la politique
+    private volatile long readsDrained;
+
+    // Politique d'éviction, protégée par policyLock ; chaque file va du moins récemment lu au plus récent
+    private final ReentrantLock policyLock = new ReentrantLock();
+    private final LinkedHashMap<String, Boolean> window = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<String, Boolean> probation = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<String, Boolean> protectedQueue = new LinkedHashMap<>(16, 0.75f, true);
+    private FrequencySketch sketch;
+    private int windowMaximum;
+    private int protectedMaximum;
+
+    @PostConstruct
+    void init() {
+        sketch = new FrequencySketch(maxStudents);
+        windowMaximum = Math.max(1, (int) (maxStudents * WINDOW_SHARE));
+        protectedMaximum = (int) ((maxStudents - windowMaximum) * PROTECTED_SHARE);
+    }
+
+    /**
+     * Retourne la réponse sérialisée de {@code resource} pour l'étudiant, en
+     * encodant {@code body} seulement si elle n'est pas en cache.
+     *
+     * @param stamp          compteur d'écritures de l'étudiant, lu avant lui
+     * @param catalogVersion version du catalogue, lue avant l'étudiant
+     */
+    public CachedResponse get(String studentId, long stamp, long catalogVersion, String resource, Object body)
+            throws IOException {
+        return get(studentId, stamp, catalogVersion, resource, body, objectMapper::writeValueAsBytes);
+    }
+
+    /**
+     * Comme {@link #get(String, long, long, String, Object)}, en encodant
+     * avec {@code encoder} (autre format, projection...) ; {@code resource}
+     * doit alors distinguer cet encodage.
+     */
+    public CachedResponse get(String studentId, long stamp, long catalogVersion, String resource, Object body,
+            Encoder encoder) throws IOException {
+        StudentEntries studentEntries = entries.get(studentId);
+        if (studentEntries == null || studentEntries.stamp != stamp
+                || studentEntries.catalogVersion != catalogVersion) {
+            studentEntries = new StudentEntries(stamp, catalogVersion);
+            admit(studentId, studentEntries);
+        } else {
+            recordRead(studentId);
+        }
+
+        CachedResponse cached = studentEntries.responses.get(resource);
+        if (cached == null) {
+            cached = new CachedResponse(encoder.encode(body));
+            studentEntries.responses.put(resource, cached);
+        }
+        return cached;
+    }
+
+    public void invalidate(String studentId) {
+        if (studentId == null) {
+            return;
+        }
+        policyLock.lock();
+        try {
+            if (entries.remove(studentId) != null) {
+                unlink(studentId);
+            }
+        } finally {
+            policyLock.unlock();
+        }
+    }
+
+    public void clear() {
+        policyLock.lock();
+        try {
+            entries.clear();
+            window.clear();
+            probation.clear();
+            protectedQueue.clear();
+        } finally {
+            policyLock.unlock();
+        }
+    }
+
+    // Range les entrées de l'étudiant ; un nouvel étudiant entre par la fenêtre
+    private void admit(String studentId, StudentEntries studentEntries) {
+        policyLock.lock();
+        try {
+            drainReads();
+            if (entries.put(studentId, studentEntries) != null) {
+                onAccess(studentId);
+                return;
+            }
+            sketch.increment(studentId);
+            window.put(studentId, Boolean.TRUE);
+            evict();
+        } finally {
+            policyLock.unlock();
+        }
+    }
+
+    private void recordRead(String studentId) {
+        long recorded = readsRecorded.get();
+        long pending = recorded - readsDrained;
+        // Tampon plein ou place prise par un autre thread : l'accès n'est pas noté
+        if (pending < READ_BUFFER_SIZE && readsRecorded.compareAndSet(recorded, recorded + 1)) {
+            readBuffer.lazySet((int) recorded & READ_BUFFER_MASK, studentId);
+        }
+        if (pending >= READ_BUFFER_SIZE / 2 && policyLock.tryLock()) {
+            try {
+                drainReads();
+            } finally {
+                policyLock.unlock();
+            }
+        }
+    }
+
+    // Reporte les accès notés dans la politique, sous son verrou
+    private void drainReads() {
+        long drained = readsDrained;
+        long recorded = readsRecorded.get();
+        for (; drained < recorded; drained++) {
+            int index = (int) drained & READ_BUFFER_MASK;
+            String studentId = readBuffer.get(index);
+            if (studentId == null) {
+                // Place réservée mais pas encore remplie : reprise au prochain passage
+                break;
+            }
+            readBuffer.lazySet(index, null);
+            onAccess(studentId);
+        }
+        readsDrained = drained;
+    }
+
+    // Un étudiant déjà évincé ou invalidé n'est dans aucune file : l'accès ne compte que pour sa fréquence
+    private void onAccess(String studentId) {
+        sketch.increment(studentId);
+        if (window.get(studentId) != null || protectedQueue.get(studentId) != null) {
+            return;
+        }
+        if (probation.remove(studentId) != null) {
+            // Relu en probation : promu dans la zone protégée, dont les plus anciens redescendent
+            protectedQueue.put(studentId, Boolean.TRUE);
+            while (protectedQueue.size() > protectedMaximum) {
+                probation.put(protectedQueue.pollFirstEntry().getKey(), Boolean.TRUE);
+            }
+        }
+    }
+
+    private void evict() {
+        // Les plus anciens de la fenêtre passent en fin de probation, où ils sont candidats
+        while (window.size() > windowMaximum) {
+            probation.put(window.pollFirstEntry().getKey(), Boolean.TRUE);
+        }
+        while (entries.size() > maxStudents) {
+            String victim;
+            if (probation.isEmpty()) {
+                victim = (protectedQueue.isEmpty() ? window : protectedQueue).firstEntry().getKey();
+            } else {
+                // Le candidat, dernier entré en probation, n'évince la victime, la plus ancienne, que s'il est plus demandé
+                victim = probation.firstEntry().getKey();
+                String candidate = probation.lastEntry().getKey();
+                if (sketch.frequency(candidate) <= sketch.frequency(victim)) {
+                    victim = candidate;
+                }
+            }
+            unlink(victim);
+            entries.remove(victim);
+        }
+    }
+
+    private void unlink(String studentId) {
+        if (window.remove(studentId) == null && probation.remove(studentId) == null) {
+            protectedQueue.remove(studentId);
+        }
+    }
+
+    public interface Encoder {
+
+        byte[] encode(Object body) throws IOException;
+    }
+
+    public static final class CachedResponse {
+
+        private final byte[] body;
+        private final String etag;
+        // Variante gzip, compressée une seule fois à la première demande
+        private volatile CachedResponse gzipped;
+
+        CachedResponse(byte[] body) {
+            this.body = body;
+            this.etag = "\"" + DigestUtils.md5DigestAsHex(body) + "\"";
+        }
+
+        public CachedResponse gzipped() {
+            CachedResponse variant = gzipped;
+            if (variant == null) {
+                ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 4 + 64);
+                try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+                    gzip.write(body);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                variant = new CachedResponse(out.toByteArray());
+                gzipped = variant;
+            }
+            return variant;
+        }
+
+        public byte[] getBody() {
+            return body;
+        }
+
+        public String getETag() {
+            return etag;
+        }
+    }
+
+    private static final class StudentEntries {
+
+        final long stamp;
+        final long catalogVersion;
+        final Map<String, CachedResponse> responses = new ConcurrentHashMap<>();
+
+        StudentEntries(long stamp, long catalogVersion) {
+            this.stamp = stamp;
+            this.catalogVersion = catalogVersion;
+        }
+    }
+}
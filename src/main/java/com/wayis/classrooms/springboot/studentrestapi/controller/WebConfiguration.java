@@ -0,0 +1,52 @@
+package com.wayis.classrooms.springboot.studentrestapi.controller;
+
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.wayis.classrooms.springboot.studentrestapi.model.Course;
+import com.wayis.classrooms.springboot.studentrestapi.model.Student;
+import java.util.List;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.PathMatchConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class WebConfiguration implements WebMvcConfigurer {
+
+    @Autowired
+    private ResponseFormats formats;
+
+    // Spring 6 ne confond plus /students/S-001/ et /students/S-001 : on garde le comportement d'origine
+    @Override
+    @SuppressWarnings("deprecation")
+    public void configurePathMatch(PathMatchConfigurer configurer) {
+        configurer.setUseTrailingSlashMatch(true);
+    }
+
+    // Formats binaires négociés par l'en-tête Accept, après JSON qui reste le format par défaut.
+    // Les convertisseurs CBOR et Smile par défaut de Spring ignorent la configuration Jackson de l'application.
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.removeIf(converter -> converter instanceof MappingJackson2CborHttpMessageConverter
+                || converter instanceof MappingJackson2SmileHttpMessageConverter);
+        converters.add(new MappingJackson2CborHttpMessageConverter(formats.mapper(ResponseFormats.CBOR)));
+        converters.add(new MappingJackson2SmileHttpMessageConverter(formats.mapper(ResponseFormats.SMILE)));
+        converters.add(new ProtobufMessageConverter(formats));
+    }
+
+    // Filtres nommés sur Student et Course pour les projections (?fields=) ;
+    // sans projection, le filtre par défaut sérialise tous les champs.
+    // Statique : ResponseFormats en dépend et cette configuration dépend de ResponseFormats
+    @Bean
+    public static Jackson2ObjectMapperBuilderCustomizer projectionFilters() {
+        return builder -> builder
+                .mixIn(Student.class, Projection.StudentMixIn.class)
+                .mixIn(Course.class, Projection.CourseMixIn.class)
+                .filters(new SimpleFilterProvider().setDefaultFilter(SimpleBeanPropertyFilter.serializeAll()));
+    }
+}
@@ -0,0 +1,25 @@
+package com.wayis.classrooms.springboot.studentrestapi.model;
+
+// Résultat d'un élément d'une opération groupée
+public class BatchResult {
+
+    public enum Status {
+        CREATED, ENROLLED, REMOVED, DUPLICATE, ALREADY_ENROLLED, INVALID, NOT_FOUND
+    }
+
+    private final String id;
+    private final Status status;
+
+    public BatchResult(String id, Status status) {
+        this.id = id;
+        this.status = status;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+}
@@ -0,0 +1,47 @@
+package com.wayis.classrooms.springboot.studentrestapi.model;
+
+import java.util.List;
+
+/**
+ * Changements lus à partir d'un offset. Relire avec {@code next} donne la
+ * suite ; {@code truncated} signale que des changements demandés ont déjà
+ * été écrasés et qu'il faut relire l'état complet. Les offsets repartent de
+ * zéro à chaque démarrage : {@code epoch} change alors.
+ */
+public class ChangeBatch {
+
+    private final List<ChangeEvent> events;
+    private final long next;
+    private final long head;
+    private final boolean truncated;
+    private final long epoch;
+
+    public ChangeBatch(List<ChangeEvent> events, long next, long head, boolean truncated, long epoch) {
+        this.events = events;
+        this.next = next;
+        this.head = head;
+        this.truncated = truncated;
+        this.epoch = epoch;
+    }
+
+    public List<ChangeEvent> getEvents() {
+        return events;
+    }
+
+    public long getNext() {
+        return next;
+    }
+
+    // Offset du prochain changement qui sera écrit
+    public long getHead() {
+        return head;
+    }
+
+    public boolean isTruncated() {
+        return truncated;
+    }
+
+    public long getEpoch() {
+        return epoch;
+    }
+}
@@ -0,0 +1,48 @@
+package com.wayis.classrooms.springboot.studentrestapi.model;
+
+// Modification d'un étudiant ou de ses inscriptions, à sa position (offset) dans le flux des changements
+public class ChangeEvent {
+
+    public enum Type {
+        STUDENT_ADDED, COURSE_ADDED, COURSE_REMOVED, STUDENT_REMOVED,
+        // Tous les étudiants ont été remplacés (vidage, chargement) : l'état complet est à relire
+        RESET
+    }
+
+    private final long offset;
+    private final Type type;
+    private final String studentId;
+    private final String courseId;
+    private final long timestamp;
+
+    public ChangeEvent(long offset, Type type, String studentId, String courseId, long timestamp) {
+        this.offset = offset;
+        this.type = type;
+        this.studentId = studentId;
+        this.courseId = courseId;
+        this.timestamp = timestamp;
+    }
+
+    public long getOffset() {
+        return offset;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    // null pour RESET
+    public String getStudentId() {
+        return studentId;
+    }
+
+    // null pour STUDENT_ADDED et STUDENT_REMOVED
+    public String getCourseId() {
+        return courseId;
+    }
+
+    // Heure de l'écriture, en millisecondes depuis l'époque Unix
+    public long getTimestamp() {
+        return timestamp;
+    }
+}
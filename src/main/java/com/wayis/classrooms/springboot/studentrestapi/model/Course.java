@@ -7,6 +7,7 @@ public class Course {
     private String id;
     private String name;
     private String description;
+    // Codées dans le dictionnaire du catalogue quand le cours y est enregistré
     private List<String> steps;
 
     public Course() {
@@ -41,11 +42,13 @@ public class Course {
         return steps;
     }
 
+    public void setSteps(List<String> steps) {
+        this.steps = steps;
+    }
+
     @Override
     public String toString() {
-        return String.format(
-                "Course [id=%s, name=%s, description=%s, steps=%s]", id, name,
-                description, steps);
+        return "Course [id=" + id + ", name=" + name + ", description=" + description + ", steps=" + steps + "]";
     }
 
     @Override
@@ -77,5 +80,4 @@ public class Course {
         }
         return true;
     }
-
 }
@@ -0,0 +1,27 @@
+package com.wayis.classrooms.springboot.studentrestapi.model;
+
+// Nombre d'étudiants inscrits à un cours
+public class CourseEnrollment {
+
+    private final String id;
+    private final String name;
+    private final long students;
+
+    public CourseEnrollment(String id, String name, long students) {
+        this.id = id;
+        this.name = name;
+        this.students = students;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getStudents() {
+        return students;
+    }
+}
@@ -0,0 +1,34 @@
+package com.wayis.classrooms.springboot.studentrestapi.model;
+
+/**
+ * Référence partagée vers un cours du catalogue.
+ * <p>
+ * Tous les étudiants inscrits à un cours pointent vers la même référence :
+ * modifier le cours dans le catalogue remplace son contenu ici, sans
+ * réécrire les étudiants.
+ */
+public final class CourseRef {
+
+    private final String id;
+    private volatile Course course;
+
+    public CourseRef(Course course) {
+        this.id = course.getId();
+        this.course = course;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public Course getCourse() {
+        return course;
+    }
+
+    public void setCourse(Course course) {
+        if (id == null ? course.getId() != null : !id.equals(course.getId())) {
+            throw new IllegalArgumentException("Course id mismatch: " + id + " / " + course.getId());
+        }
+        this.course = course;
+    }
+}
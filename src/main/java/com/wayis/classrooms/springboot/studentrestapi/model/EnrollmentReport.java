@@ -0,0 +1,53 @@
+package com.wayis.classrooms.springboot.studentrestapi.model;
+
+import java.util.List;
+import java.util.SortedMap;
+
+/**
+ * Statistiques des inscriptions : totaux, répartition des étudiants selon
+ * leur nombre de cours, et cours les plus suivis. {@code recomputed} vaut
+ * vrai si le rapport a été recalculé sur tous les étudiants plutôt que lu
+ * dans les agrégats tenus à jour à chaque écriture.
+ */
+public class EnrollmentReport {
+
+    private final long students;
+    private final long enrollments;
+    private final SortedMap<Integer, Long> coursesPerStudent;
+    private final List<CourseEnrollment> topCourses;
+    private final boolean recomputed;
+
+    public EnrollmentReport(long students, long enrollments, SortedMap<Integer, Long> coursesPerStudent,
+            List<CourseEnrollment> topCourses, boolean recomputed) {
+        this.students = students;
+        this.enrollments = enrollments;
+        this.coursesPerStudent = coursesPerStudent;
+        this.topCourses = topCourses;
+        this.recomputed = recomputed;
+    }
+
+    public long getStudents() {
+        return students;
+    }
+
+    public long getEnrollments() {
+        return enrollments;
+    }
+
+    public double getAverageCoursesPerStudent() {
+        return students == 0 ? 0 : enrollments / (double) students;
+    }
+
+    // Nombre de cours suivis -> nombre d'étudiants qui en suivent autant
+    public SortedMap<Integer, Long> getCoursesPerStudent() {
+        return coursesPerStudent;
+    }
+
+    public List<CourseEnrollment> getTopCourses() {
+        return topCourses;
+    }
+
+    public boolean isRecomputed() {
+        return recomputed;
+    }
+}
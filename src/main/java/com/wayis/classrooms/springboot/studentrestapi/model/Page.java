@@ -0,0 +1,23 @@
+package com.wayis.classrooms.springboot.studentrestapi.model;
+
+import java.util.List;
+
+// Page de résultats ; nextCursor vaut null sur la dernière page
+public class Page<T> {
+
+    private final List<T> items;
+    private final String nextCursor;
+
+    public Page(List<T> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+}
@@ -1,13 +1,31 @@
 package com.wayis.classrooms.springboot.studentrestapi.model;
 
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 
 public class Student {
 
+    private static final CourseRef[] NO_COURSES = new CourseRef[0];
+
     private String id;
     private String name;
     private String description;
-    private List<Course> courses;
+    // Références vers le catalogue, dans l'ordre d'inscription, indexées par identifiant.
+    // Une fois l'étudiant stocké, ces tableaux ne sont plus modifiés :
+    // withCourse/withoutCourse retournent une copie.
+    private CourseRef[] courseRefs = NO_COURSES;
+    private Map<String, CourseRef> coursesById = Collections.emptyMap();
+    private final List<Course> courses = new CourseList();
+
+    public Student() {
+
+    }
 
     public Student(String id, String name, String description,
             List<Course> courses) {
@@ -15,7 +33,7 @@ public class Student {
         this.id = id;
         this.name = name;
         this.description = description;
-        this.courses = courses;
+        setCourses(courses);
     }
 
     public String getId() {
@@ -47,13 +65,115 @@ public class Student {
     }
 
     public void setCourses(List<Course> courses) {
-        this.courses = courses;
+        Map<String, CourseRef> index = new LinkedHashMap<>();
+        if (courses != null) {
+            for (Course course : courses) {
+                index.put(course.getId(), new CourseRef(course));
+            }
+        }
+        index(index);
+    }
+
+    public Course getCourse(String courseId) {
+        CourseRef ref = coursesById.get(courseId);
+        return ref == null ? null : ref.getCourse();
+    }
+
+    public List<CourseRef> courseRefs() {
+        return Collections.unmodifiableList(Arrays.asList(courseRefs));
+    }
+
+    public Student withCourse(CourseRef course) {
+        Map<String, CourseRef> index = new LinkedHashMap<>(coursesById);
+        index.put(course.getId(), course);
+        return copyWith(index);
+    }
+
+    public Student withoutCourse(String courseId) {
+        if (!coursesById.containsKey(courseId)) {
+            return this;
+        }
+        Map<String, CourseRef> index = new LinkedHashMap<>(coursesById);
+        index.remove(courseId);
+        return copyWith(index);
+    }
+
+    public Student withCourses(List<CourseRef> courses) {
+        if (courses.isEmpty()) {
+            return this;
+        }
+        Map<String, CourseRef> index = new LinkedHashMap<>(coursesById);
+        for (CourseRef course : courses) {
+            index.put(course.getId(), course);
+        }
+        return copyWith(index);
+    }
+
+    public Student withoutCourses(Collection<String> courseIds) {
+        Map<String, CourseRef> index = new LinkedHashMap<>(coursesById);
+        if (!index.keySet().removeAll(courseIds)) {
+            return this;
+        }
+        return copyWith(index);
+    }
+
+    public Student withCourseRefs(List<CourseRef> courses) {
+        Map<String, CourseRef> index = new LinkedHashMap<>();
+        for (CourseRef course : courses) {
+            index.put(course.getId(), course);
+        }
+        return copyWith(index);
+    }
+
+    // Même identifiant, même nom, même description et mêmes cours dans le même ordre.
+    // Le contenu des cours appartient au catalogue et n'est pas comparé.
+    public boolean sameState(Student other) {
+        if (other == this) {
+            return true;
+        }
+        if (other == null || !Objects.equals(id, other.id) || !Objects.equals(name, other.name)
+                || !Objects.equals(description, other.description)
+                || courseRefs.length != other.courseRefs.length) {
+            return false;
+        }
+        for (int i = 0; i < courseRefs.length; i++) {
+            if (!Objects.equals(courseRefs[i].getId(), other.courseRefs[i].getId())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Student copyWith(Map<String, CourseRef> index) {
+        Student copy = new Student();
+        copy.id = id;
+        copy.name = name;
+        copy.description = description;
+        copy.index(index);
+        return copy;
+    }
+
+    private void index(Map<String, CourseRef> index) {
+        this.coursesById = Collections.unmodifiableMap(index);
+        this.courseRefs = index.values().toArray(NO_COURSES);
     }
 
     @Override
     public String toString() {
-        return String.format(
-                "Student [id=%s, name=%s, description=%s, courses=%s]", id,
-                name, description, courses);
+        return "Student [id=" + id + ", name=" + name + ", description=" + description + ", courses=" + courses + "]";
+    }
+
+    // Vue en lecture seule : chaque cours est lu dans le catalogue au moment de l'accès
+    private final class CourseList extends AbstractList<Course> {
+
+        @Override
+        public Course get(int index) {
+            return courseRefs[index].getCourse();
+        }
+
+        @Override
+        public int size() {
+            return courseRefs.length;
+        }
     }
 }
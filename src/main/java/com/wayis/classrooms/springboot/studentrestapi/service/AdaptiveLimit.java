@@ -0,0 +1,100 @@
+package com.wayis.classrooms.springboot.studentrestapi.service;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Limite de requêtes simultanées ajustée d'après la latence mesurée.
+ * <p>
+ * Deux moyennes glissantes de la latence sont tenues : une courte, qui suit
+ * la charge du moment, et une longue qui sert de référence. Tant que la
+ * courte reste sous {@code TOLERANCE} fois la longue, la limite grandit
+ * d'environ sa racine carrée ; au-delà, elle est réduite en proportion, au
+ * plus de moitié. Une limite qui n'est pas atteinte ne grandit pas.
+ */
+final class AdaptiveLimit {
+
+    // Latence courte tolérée par rapport à la référence avant de réduire la limite
+    private static final double TOLERANCE = 1.5;
+    private static final double SHORT_WINDOW = 10;
+    private static final double LONG_WINDOW = 600;
+    // Part de la nouvelle estimation dans la limite publiée
+    private static final double SMOOTHING = 0.2;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile int limit;
+
+    // Modifiés sous le moniteur, dans update
+    private double estimate;
+    private double shortRtt;
+    private double longRtt;
+
+    AdaptiveLimit(int initialLimit, int minLimit, int maxLimit) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.estimate = Math.max(minLimit, Math.min(initialLimit, maxLimit));
+        this.limit = (int) estimate;
+    }
+
+    int limit() {
+        return limit;
+    }
+
+    int inFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * Réserve une place si la limite le permet.
+     *
+     * @return le nombre de requêtes en cours avant celle-ci, -1 si la limite est atteinte
+     */
+    int tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                return -1;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return current;
+            }
+        }
+    }
+
+    void release() {
+        inFlight.decrementAndGet();
+    }
+
+    /**
+     * Libère la place et prend en compte la latence de la requête.
+     *
+     * @param inFlightAtStart valeur retournée par {@link #tryAcquire()}
+     */
+    void release(long rttNanos, int inFlightAtStart) {
+        inFlight.decrementAndGet();
+        update(rttNanos, inFlightAtStart);
+    }
+
+    private synchronized void update(long rttNanos, int inFlightAtStart) {
+        double rtt = Math.max(1, rttNanos);
+        if (longRtt == 0) {
+            shortRtt = rtt;
+            longRtt = rtt;
+        }
+        shortRtt += (rtt - shortRtt) / SHORT_WINDOW;
+        longRtt += (rtt - longRtt) / LONG_WINDOW;
+        // La charge a nettement baissé : la référence rejoint la latence actuelle plus vite
+        if (longRtt / shortRtt > 2) {
+            longRtt *= 0.95;
+        }
+
+        double gradient = Math.max(0.5, Math.min(1.0, TOLERANCE * longRtt / shortRtt));
+        double next = estimate * gradient + Math.sqrt(estimate);
+        if (inFlightAtStart + 1 < estimate / 2) {
+            next = Math.min(next, estimate);
+        }
+        estimate = Math.max(minLimit, Math.min(maxLimit, estimate * (1 - SMOOTHING) + next * SMOOTHING));
+        limit = (int) estimate;
+    }
+}
@@ -0,0 +1,266 @@
+package com.wayis.classrooms.springboot.studentrestapi.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Contrôle d'admission : décide avant tout traitement si une requête est
+ * acceptée, et sinon avec quel statut et après quel délai la retenter.
+ * <p>
+ * Trois vérifications, de la moins chère à la plus chère :
+ * <ol>
+ * <li>le seau à jetons du client ({@code 429}) ; une requête coûte d'autant
+ * plus de jetons que sa classe de priorité est lourde ;</li>
+ * <li>la part de {@code students.admission.max-concurrency} laissée à sa
+ * classe ({@code 503}) : en surcharge, les lectures de masse sont refusées
+ * les premières et les lectures interactives les dernières ;</li>
+ * <li>la limite adaptative de sa route ({@code 503}), qui baisse quand la
+ * latence de la route monte.</li>
+ * </ol>
+ */
+@Component
+public class AdmissionControl {
+
+    public enum Priority {
+        // Lecture d'un étudiant, d'un cours ou d'une page
+        INTERACTIVE("interactive", 1.0, 1),
+        // Écriture unitaire
+        WRITE("write", 0.75, 2),
+        // Liste complète, flux NDJSON, écritures groupées
+        BULK("bulk", 0.5, 10);
+
+        final String tag;
+        // Part des requêtes simultanées que la classe peut occuper
+        final double share;
+        // Jetons pris dans le seau du client
+        final int cost;
+
+        Priority(String tag, double share, int cost) {
+            this.tag = tag;
+            this.share = share;
+            this.cost = cost;
+        }
+    }
+
+    enum Outcome {
+        ADMITTED("admitted"), RATE_LIMITED("rate-limited"), OVERLOADED("overloaded");
+
+        final String tag;
+
+        Outcome(String tag) {
+            this.tag = tag;
+        }
+    }
+
+    private final MeterRegistry registry;
+    private final Counter[] decisions = new Counter[Priority.values().length * Outcome.values().length];
+    private final Map<String, AdaptiveLimit> routes = new ConcurrentHashMap<>();
+    private final Map<String, TokenBucket> clients = new ConcurrentHashMap<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile long nextSweep;
+
+    @Value("${students.admission.max-concurrency:200}")
+    private int maxConcurrency = 200;
+
+    // Limites de chaque route : initiale, puis bornes de l'ajustement
+    @Value("${students.admission.route-limit:20}")
+    private int routeLimit = 20;
+
+    @Value("${students.admission.route-min-limit:2}")
+    private int routeMinLimit = 2;
+
+    // Jetons par seconde et par client ; 0 désactive la limitation de débit
+    @Value("${students.admission.rate:0}")
+    private double rate;
+
+    @Value("${students.admission.burst:0}")
+    private double burst;
+
+    @Value("${students.admission.max-clients:10000}")
+    private int maxClients = 10000;
+
+    @Autowired
+    public AdmissionControl(MeterRegistry registry) {
+        this.registry = registry;
+        for (Priority priority : Priority.values()) {
+            for (Outcome outcome : Outcome.values()) {
+                decisions[index(priority, outcome)] = Counter.builder("students.admission")
+                        .description("Décisions du contrôle d'admission")
+                        .tag("priority", priority.tag)
+                        .tag("outcome", outcome.tag)
+                        .register(registry);
+            }
+        }
+        Gauge.builder("students.admission.inflight", inFlight, AtomicInteger::get)
+                .description("Requêtes admises en cours de traitement")
+                .register(registry);
+    }
+
+    // Sans Spring : limites explicites
+    AdmissionControl(MeterRegistry registry, int maxConcurrency, int routeLimit, int routeMinLimit,
+            double rate, double burst) {
+        this(registry);
+        this.maxConcurrency = maxConcurrency;
+        this.routeLimit = routeLimit;
+        this.routeMinLimit = routeMinLimit;
+        this.rate = rate;
+        this.burst = burst;
+    }
+
+    /**
+     * Décide de l'admission d'une requête.
+     *
+     * @param route  modèle de la route, par exemple {@code GET /students/{studentId}}
+     * @param client identifiant du client, {@code null} pour ne pas limiter son débit
+     * @return un jeton à libérer en fin de requête si elle est admise, sinon un refus
+     */
+    public Admission admit(String route, Priority priority, String client) {
+        return admit(route, priority, client, System.nanoTime());
+    }
+
+    Admission admit(String route, Priority priority, String client, long now) {
+        if (client != null && rate > 0) {
+            long wait = bucket(client, now).tryConsume(priority.cost, now);
+            if (wait > 0) {
+                count(priority, Outcome.RATE_LIMITED);
+                return Admission.rejected(429, seconds(wait));
+            }
+        }
+
+        int share = Math.max(1, (int) (maxConcurrency * priority.share));
+        if (inFlight.incrementAndGet() > share) {
+            inFlight.decrementAndGet();
+            count(priority, Outcome.OVERLOADED);
+            return Admission.rejected(503, 1);
+        }
+        AdaptiveLimit limit = limit(route);
+        int before = limit.tryAcquire();
+        if (before < 0) {
+            inFlight.decrementAndGet();
+            count(priority, Outcome.OVERLOADED);
+            return Admission.rejected(503, 1);
+        }
+        count(priority, Outcome.ADMITTED);
+        return new Admission(this, limit, before, now);
+    }
+
+    int limitOf(String route) {
+        return limit(route).limit();
+    }
+
+    private AdaptiveLimit limit(String route) {
+        AdaptiveLimit limit = routes.get(route);
+        if (limit != null) {
+            return limit;
+        }
+        return routes.computeIfAbsent(route, name -> {
+            AdaptiveLimit created = new AdaptiveLimit(routeLimit, routeMinLimit, maxConcurrency);
+            Gauge.builder("students.admission.limit", created, AdaptiveLimit::limit)
+                    .description("Requêtes simultanées admises sur la route")
+                    .tag("route", name)
+                    .register(registry);
+            return created;
+        });
+    }
+
+    private TokenBucket bucket(String client, long now) {
+        TokenBucket bucket = clients.get(client);
+        if (bucket != null) {
+            return bucket;
+        }
+        // Oublie au plus une fois par seconde les clients dont le seau s'est rempli
+        if (clients.size() >= maxClients && now - nextSweep > 0) {
+            nextSweep = now + TimeUnit.SECONDS.toNanos(1);
+            clients.values().removeIf(idle -> idle.isFull(now));
+        }
+        return clients.computeIfAbsent(client, key -> new TokenBucket(rate, Math.max(burst, rate), now));
+    }
+
+    private void count(Priority priority, Outcome outcome) {
+        decisions[index(priority, outcome)].increment();
+    }
+
+    private static int index(Priority priority, Outcome outcome) {
+        return priority.ordinal() * Outcome.values().length + outcome.ordinal();
+    }
+
+    private static long seconds(long nanos) {
+        return Math.max(1, (nanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+    }
+
+    /**
+     * Décision d'admission. Une requête admise doit appeler
+     * {@link #release(boolean)} une fois traitée.
+     */
+    public static final class Admission {
+
+        private final AdmissionControl control;
+        private final AdaptiveLimit limit;
+        private final int inFlightAtStart;
+        private final long start;
+        private final int status;
+        private final long retryAfterSeconds;
+
+        private Admission(AdmissionControl control, AdaptiveLimit limit, int inFlightAtStart, long start) {
+            this.control = control;
+            this.limit = limit;
+            this.inFlightAtStart = inFlightAtStart;
+            this.start = start;
+            this.status = 0;
+            this.retryAfterSeconds = 0;
+        }
+
+        private Admission(int status, long retryAfterSeconds) {
+            this.control = null;
+            this.limit = null;
+            this.inFlightAtStart = 0;
+            this.start = 0;
+            this.status = status;
+            this.retryAfterSeconds = retryAfterSeconds;
+        }
+
+        static Admission rejected(int status, long retryAfterSeconds) {
+            return new Admission(status, retryAfterSeconds);
+        }
+
+        public boolean isAdmitted() {
+            return status == 0;
+        }
+
+        // 429 ou 503 pour une requête refusée
+        public int getStatus() {
+            return status;
+        }
+
+        public long getRetryAfterSeconds() {
+            return retryAfterSeconds;
+        }
+
+        /**
+         * Libère la place occupée par la requête.
+         *
+         * @param measured {@code false} si la durée ne reflète pas le coût de
+         *                 la requête (réponse asynchrone qui continue ailleurs)
+         */
+        public void release(boolean measured) {
+            release(measured, System.nanoTime());
+        }
+
+        void release(boolean measured, long now) {
+            if (measured) {
+                limit.release(now - start, inFlightAtStart);
+            } else {
+                limit.release();
+            }
+            control.inFlight.decrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.wayis.classrooms.springboot.studentrestapi.service;
+
+// Encodage d'une valeur de 128 bits en 26 caractères base 32, sans passer par BigInteger
+final class Base32 {
+
+    static final int LENGTH = 26;
+
+    private Base32() {
+    }
+
+    /**
+     * Les caractères de {@code alphabet} doivent être triés : l'ordre
+     * lexicographique des chaînes suit alors l'ordre des valeurs.
+     */
+    static String encode(long high, long low, char[] alphabet) {
+        char[] chars = new char[LENGTH];
+        // 26 x 5 = 130 bits : les deux bits de poids fort du premier caractère valent zéro
+        for (int i = LENGTH - 1; i >= 0; i--) {
+            chars[i] = alphabet[(int) (low & 31)];
+            low = (low >>> 5) | (high << 59);
+            high >>>= 5;
+        }
+        return new String(chars);
+    }
+}
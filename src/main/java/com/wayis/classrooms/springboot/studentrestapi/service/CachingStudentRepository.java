@@ -0,0 +1,542 @@
+package com.wayis.classrooms.springboot.studentrestapi.service;
+
+import com.wayis.classrooms.springboot.studentrestapi.model.Student;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.ToIntFunction;
+
+/**
+ * Cache des étudiants devant un autre dépôt, borné en poids.
+ * <p>
+ * Éviction W-TinyLFU : un étudiant chargé entre dans une fenêtre LRU (1 % du
+ * poids). À sa sortie il rejoint la zone principale (SLRU : probatoire, puis
+ * protégée s'il est relu), où il n'est gardé que s'il a été demandé plus
+ * souvent que l'étudiant qu'il évincerait, d'après un
+ * {@link FrequencySketch}. Une lecture de toute la liste ne chasse donc pas
+ * les étudiants les plus demandés.
+ * <p>
+ * Une lecture en cache ne prend aucun verrou : l'accès est noté dans un
+ * tampon circulaire que le premier thread à obtenir le verrou de la
+ * politique reporte dans les files ; quand le tampon est plein, l'accès est
+ * perdu, ce qui ne fausse que l'ordre et la fréquence. Les défauts
+ * simultanés sur un même étudiant n'entraînent qu'un chargement. Toute
+ * écriture invalide les étudiants concernés, et un chargement recouvert par
+ * l'écriture n'est pas mis en cache.
+ * <p>
+ * Les plages lues par {@link #range} (listes complètes, pages, exports) sont
+ * gardées à part, dans l'ordre de leur dernière lecture, jusqu'à la moitié
+ * du poids maximal ; la moins récemment lue sort la première. Toute écriture
+ * les invalide toutes : une plage n'est servie que si le dépôt n'a pas changé
+ * depuis qu'elle a été lue.
+ */
+final class CachingStudentRepository implements StudentRepository {
+
+    private static final int READ_BUFFER_SIZE = 128;
+    private static final int READ_BUFFER_MASK = READ_BUFFER_SIZE - 1;
+    private static final double WINDOW_SHARE = 0.01;
+    private static final double PROTECTED_SHARE = 0.8;
+    private static final double PAGES_SHARE = 0.5;
+
+    private static final int WINDOW = 0;
+    private static final int PROBATION = 1;
+    private static final int PROTECTED = 2;
+    private static final int REMOVED = -1;
+
+    private final StudentRepository delegate;
+    private final long maximumWeight;
+    private final ToIntFunction<Student> weigher;
+    private final Map<String, Node> data = new ConcurrentHashMap<>();
+    // Chargements en cours ; une écriture retire celui de son étudiant
+    private final Map<String, CompletableFuture<Student>> loading = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder pageHits = new LongAdder();
+    private final LongAdder pageMisses = new LongAdder();
+
+    private final AtomicReferenceArray<Node> readBuffer = new AtomicReferenceArray<>(READ_BUFFER_SIZE);
+    private final AtomicLong readsRecorded = new AtomicLong();
+    // Écrit sous le verrou de la politique
+    private volatile long readsDrained;
+
+    // Politique d'éviction, protégée par policyLock
+    private final ReentrantLock policyLock = new ReentrantLock();
+    private final FrequencySketch sketch;
+    private final AccessQueue window = new AccessQueue();
+    private final AccessQueue probation = new AccessQueue();
+    private final AccessQueue protectedQueue = new AccessQueue();
+    private final long windowMaximum;
+    private final long protectedMaximum;
+    private long windowWeight;
+    private long protectedWeight;
+    private volatile long weight;
+    // Plages lues, de la moins récemment lue à la plus récente ; vidées par chaque écriture
+    private final Map<Long, Page> pages = new LinkedHashMap<>(16, 0.75f, true);
+    private final long pagesMaximum;
+    private long pagesWeight;
+    // Écritures vues par le cache ; une plage lue pendant une écriture n'est pas gardée
+    private long writes;
+
+    /**
+     * @param maximumWeight poids total au-delà duquel des étudiants sont évincés
+     * @param weigher       poids d'un étudiant, au moins 1
+     */
+    CachingStudentRepository(StudentRepository delegate, long maximumWeight, ToIntFunction<Student> weigher) {
+        this.delegate = delegate;
+        this.maximumWeight = maximumWeight;
+        this.weigher = weigher;
+        this.sketch = new FrequencySketch(maximumWeight);
+        this.windowMaximum = Math.max(1, (long) (maximumWeight * WINDOW_SHARE));
+        this.protectedMaximum = (long) ((maximumWeight - windowMaximum) * PROTECTED_SHARE);
+        this.pagesMaximum = (long) (maximumWeight * PAGES_SHARE);
+    }
+
+    @Override
+    public Student get(String studentId) {
+        if (studentId == null) {
+            return null;
+        }
+        Node node = data.get(studentId);
+        if (node != null) {
+            hits.increment();
+            recordRead(node);
+            return node.student;
+        }
+        misses.increment();
+        CompletableFuture<Student> load = new CompletableFuture<>();
+        CompletableFuture<Student> running = loading.putIfAbsent(studentId, load);
+        if (running != null) {
+            return join(running);
+        }
+        // Un chargement a pu se terminer entre les deux recherches
+        node = data.get(studentId);
+        if (node != null) {
+            loading.remove(studentId, load);
+            load.complete(node.student);
+            return node.student;
+        }
+
+        Student student;
+        try {
+            loads.increment();
+            student = delegate.get(studentId);
+        } catch (RuntimeException | Error e) {
+            loading.remove(studentId, load);
+            load.completeExceptionally(e);
+            throw e;
+        }
+        policyLock.lock();
+        try {
+            sketch.increment(studentId);
+            // Promesse retirée : une écriture a recouvert le chargement, le résultat peut être périmé.
+            // Mis en cache avant le retrait de la promesse, pour qu'un défaut tardif le trouve
+            if (loading.get(studentId) == load && student != null) {
+                insert(studentId, student);
+            }
+            loading.remove(studentId, load);
+            drainReads();
+        } finally {
+            policyLock.unlock();
+        }
+        load.complete(student);
+        return student;
+    }
+
+    private static Student join(CompletableFuture<Student> load) {
+        try {
+            return load.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public void put(Student student) {
+        delegate.put(student);
+        invalidate(student.getId());
+    }
+
+    @Override
+    public void putAll(List<Student> students) {
+        delegate.putAll(students);
+        for (Student student : students) {
+            invalidate(student.getId());
+        }
+    }
+
+    @Override
+    public Student remove(String studentId) {
+        Student removed = delegate.remove(studentId);
+        if (removed != null) {
+            invalidate(studentId);
+        }
+        return removed;
+    }
+
+    @Override
+    public void clear() {
+        delegate.clear();
+        invalidateAll();
+    }
+
+    @Override
+    public Snapshot range(int from, int limit) {
+        Long key = ((long) from << 32) | limit;
+        long seen;
+        policyLock.lock();
+        try {
+            Page page = pages.get(key);
+            if (page != null) {
+                pageHits.increment();
+                return page.snapshot;
+            }
+            seen = writes;
+        } finally {
+            policyLock.unlock();
+        }
+        pageMisses.increment();
+        Snapshot snapshot = delegate.range(from, limit);
+        long pageWeight = 0;
+        for (Student student : snapshot.getStudents()) {
+            pageWeight += Math.max(1, weigher.applyAsInt(student));
+        }
+        policyLock.lock();
+        try {
+            // Une écriture a pu croiser la lecture : la plage n'est gardée que si aucune n'a eu lieu
+            if (writes == seen && pageWeight <= pagesMaximum) {
+                Page previous = pages.put(key, new Page(snapshot, pageWeight));
+                pagesWeight += pageWeight - (previous == null ? 0 : previous.weight);
+                Iterator<Page> oldest = pages.values().iterator();
+                while (pagesWeight > pagesMaximum) {
+                    pagesWeight -= oldest.next().weight;
+                    oldest.remove();
+                }
+            }
+        } finally {
+            policyLock.unlock();
+        }
+        return snapshot;
+    }
+
+    @Override
+    public int position(String studentId) {
+        return delegate.position(studentId);
+    }
+
+    @Override
+    public int size() {
+        return delegate.size();
+    }
+
+    @Override
+    public void close() throws IOException {
+        invalidateAll();
+        delegate.close();
+    }
+
+    Stats stats() {
+        return new Stats(hits.sum(), misses.sum(), loads.sum(), evictions.sum(), data.size(), weight,
+                pageHits.sum(), pageMisses.sum());
+    }
+
+    private void recordRead(Node node) {
+        long recorded = readsRecorded.get();
+        long pending = recorded - readsDrained;
+        // Tampon plein ou place prise par un autre thread : l'accès n'est pas noté
+        if (pending < READ_BUFFER_SIZE && readsRecorded.compareAndSet(recorded, recorded + 1)) {
+            readBuffer.lazySet((int) recorded & READ_BUFFER_MASK, node);
+        }
+        if (pending >= READ_BUFFER_SIZE / 2 && policyLock.tryLock()) {
+            try {
+                drainReads();
+            } finally {
+                policyLock.unlock();
+            }
+        }
+    }
+
+    // Reporte les accès notés dans la politique, sous son verrou
+    private void drainReads() {
+        long drained = readsDrained;
+        long recorded = readsRecorded.get();
+        for (; drained < recorded; drained++) {
+            int index = (int) drained & READ_BUFFER_MASK;
+            Node node = readBuffer.get(index);
+            if (node == null) {
+                // Place réservée mais pas encore remplie : reprise au prochain passage
+                break;
+            }
+            readBuffer.lazySet(index, null);
+            onAccess(node);
+        }
+        readsDrained = drained;
+    }
+
+    private void onAccess(Node node) {
+        if (node.queue == REMOVED) {
+            return;
+        }
+        sketch.increment(node.key);
+        if (node.queue == WINDOW) {
+            window.moveToEnd(node);
+        } else if (node.queue == PROTECTED) {
+            protectedQueue.moveToEnd(node);
+        } else {
+            // Relu en probation : promu dans la zone protégée, dont les plus anciens redescendent
+            probation.remove(node);
+            protectedQueue.addLast(node);
+            node.queue = PROTECTED;
+            protectedWeight += node.weight;
+            while (protectedWeight > protectedMaximum) {
+                Node demoted = protectedQueue.first;
+                protectedQueue.remove(demoted);
+                protectedWeight -= demoted.weight;
+                probation.addLast(demoted);
+                demoted.queue = PROBATION;
+            }
+        }
+    }
+
+    private void insert(String studentId, Student student) {
+        int nodeWeight = Math.max(1, weigher.applyAsInt(student));
+        if (nodeWeight > maximumWeight) {
+            return;
+        }
+        Node node = new Node(studentId, student, nodeWeight);
+        Node previous = data.put(studentId, node);
+        if (previous != null) {
+            unlink(previous);
+        }
+        window.addLast(node);
+        windowWeight += nodeWeight;
+        weight += nodeWeight;
+        evict();
+    }
+
+    private void evict() {
+        // Les plus anciens de la fenêtre passent en fin de probation, où ils sont candidats
+        while (windowWeight > windowMaximum) {
+            Node candidate = window.first;
+            window.remove(candidate);
+            windowWeight -= candidate.weight;
+            probation.addLast(candidate);
+            candidate.queue = PROBATION;
+        }
+        while (weight > maximumWeight) {
+            Node victim = probation.first;
+            Node candidate = probation.last;
+            if (victim == null) {
+                victim = protectedQueue.first != null ? protectedQueue.first : window.first;
+            } else if (victim != candidate && sketch.frequency(candidate.key) <= sketch.frequency(victim.key)) {
+                // Le candidat n'est pas plus demandé que la victime : c'est lui qui sort
+                victim = candidate;
+            }
+            data.remove(victim.key, victim);
+            unlink(victim);
+            evictions.increment();
+        }
+    }
+
+    private void unlink(Node node) {
+        if (node.queue == WINDOW) {
+            window.remove(node);
+            windowWeight -= node.weight;
+        } else if (node.queue == PROBATION) {
+            probation.remove(node);
+        } else if (node.queue == PROTECTED) {
+            protectedQueue.remove(node);
+            protectedWeight -= node.weight;
+        } else {
+            return;
+        }
+        node.queue = REMOVED;
+        weight -= node.weight;
+    }
+
+    private void invalidate(String studentId) {
+        policyLock.lock();
+        try {
+            clearPages();
+            loading.remove(studentId);
+            Node node = data.remove(studentId);
+            if (node != null) {
+                unlink(node);
+            }
+        } finally {
+            policyLock.unlock();
+        }
+    }
+
+    private void invalidateAll() {
+        policyLock.lock();
+        try {
+            clearPages();
+            loading.clear();
+            for (Node node : data.values()) {
+                unlink(node);
+            }
+            data.clear();
+        } finally {
+            policyLock.unlock();
+        }
+    }
+
+    // Sous le verrou de la politique
+    private void clearPages() {
+        writes++;
+        pages.clear();
+        pagesWeight = 0;
+    }
+
+    /**
+     * Statistiques du cache depuis sa création. {@code misses} compte toutes
+     * les lectures absentes du cache ; {@code loads} seulement celles qui ont
+     * lu le dépôt, les autres ayant attendu un chargement déjà en cours.
+     */
+    static final class Stats {
+
+        private final long hits;
+        private final long misses;
+        private final long loads;
+        private final long evictions;
+        private final int size;
+        private final long weight;
+        private final long pageHits;
+        private final long pageMisses;
+
+        Stats(long hits, long misses, long loads, long evictions, int size, long weight, long pageHits,
+                long pageMisses) {
+            this.hits = hits;
+            this.misses = misses;
+            this.loads = loads;
+            this.evictions = evictions;
+            this.size = size;
+            this.weight = weight;
+            this.pageHits = pageHits;
+            this.pageMisses = pageMisses;
+        }
+
+        long getHits() {
+            return hits;
+        }
+
+        long getMisses() {
+            return misses;
+        }
+
+        long getLoads() {
+            return loads;
+        }
+
+        long getEvictions() {
+            return evictions;
+        }
+
+        int getSize() {
+            return size;
+        }
+
+        long getWeight() {
+            return weight;
+        }
+
+        // Plages de range() servies par le cache, et lues dans le dépôt
+        long getPageHits() {
+            return pageHits;
+        }
+
+        long getPageMisses() {
+            return pageMisses;
+        }
+
+        double hitRate() {
+            long requests = hits + misses;
+            return requests == 0 ? 1.0 : hits / (double) requests;
+        }
+    }
+
+    private static final class Page {
+
+        final Snapshot snapshot;
+        final long weight;
+
+        Page(Snapshot snapshot, long weight) {
+            this.snapshot = snapshot;
+            this.weight = weight;
+        }
+    }
+
+    private static final class Node {
+
+        final String key;
+        final Student student;
+        final int weight;
+        int queue = WINDOW;
+        Node previous;
+        Node next;
+
+        Node(String key, Student student, int weight) {
+            this.key = key;
+            this.student = student;
+            this.weight = weight;
+        }
+    }
+
+    // Liste doublement chaînée, de l'accès le plus ancien (first) au plus récent (last)
+    private static final class AccessQueue {
+
+        Node first;
+        Node last;
+
+        void addLast(Node node) {
+            node.previous = last;
+            node.next = null;
+            if (last == null) {
+                first = node;
+            } else {
+                last.next = node;
+            }
+            last = node;
+        }
+
+        void remove(Node node) {
+            if (node.previous == null) {
+                first = node.next;
+            } else {
+                node.previous.next = node.next;
+            }
+            if (node.next == null) {
+                last = node.previous;
+            } else {
+                node.next.previous = node.previous;
+            }
+            node.previous = null;
+            node.next = null;
+        }
+
+        void moveToEnd(Node node) {
+            if (node != last) {
+                remove(node);
+                addLast(node);
+            }
+        }
+    }
+}
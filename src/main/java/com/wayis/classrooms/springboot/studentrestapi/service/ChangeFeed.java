@@ -0,0 +1,200 @@
+package com.wayis.classrooms.springboot.studentrestapi.service;
+
+import com.wayis.classrooms.springboot.studentrestapi.model.ChangeBatch;
+import com.wayis.classrooms.springboot.studentrestapi.model.ChangeEvent;
+import com.wayis.classrooms.springboot.studentrestapi.model.CourseRef;
+import com.wayis.classrooms.springboot.studentrestapi.model.Student;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Flux des changements d'inscription : chaque écriture du magasin produit un
+ * ou plusieurs {@link ChangeEvent} numérotés par un offset croissant.
+ * <p>
+ * Les événements sont gardés dans un tampon circulaire de taille fixe. Le
+ * magasin les y écrit sous son verrou d'écriture, sans jamais attendre les
+ * lecteurs : un lecteur trop lent voit les événements qu'il n'a pas lus
+ * écrasés, et le lot qu'il reçoit est marqué tronqué. Les lecteurs en attente
+ * sont réveillés par un thread dédié ; l'écrivain ne fait que le signaler.
+ */
+@Component
+public class ChangeFeed {
+
+    private final AtomicReferenceArray<ChangeEvent> ring;
+    private final int mask;
+    // Offset du prochain événement ; publié après l'écriture de l'événement dans le tampon
+    private volatile long head;
+    private final long epoch = System.currentTimeMillis();
+
+    private final Set<Thread> waiters = ConcurrentHashMap.newKeySet();
+    private final Thread notifier;
+    private volatile boolean running = true;
+
+    public ChangeFeed(@Value("${students.changes.capacity:65536}") int capacity) {
+        // Capacité arrondie à la puissance de deux supérieure : l'indice est offset & mask
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.ring = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+        this.notifier = Thread.ofPlatform().daemon().name("students-changes").start(this::wakeWaiters);
+    }
+
+    // Les écritures rejouées ou chargées au démarrage ne sont pas des changements
+    @EventListener(ApplicationReadyEvent.class)
+    public void attach() {
+        StudentService.store().setChangeFeed(this);
+    }
+
+    @PreDestroy
+    public void detach() {
+        StudentService.store().setChangeFeed(null);
+        running = false;
+        LockSupport.unpark(notifier);
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+
+    public long head() {
+        return head;
+    }
+
+    // Plus petit offset encore lisible
+    public long oldest() {
+        return Math.max(0, head - capacity());
+    }
+
+    public long epoch() {
+        return epoch;
+    }
+
+    /**
+     * Enregistre les changements entre deux états d'un étudiant ; appelé par
+     * le magasin sous son verrou d'écriture, donc par un seul écrivain à la fois.
+     *
+     * @param before {@code null} si l'étudiant vient d'être ajouté
+     * @param after {@code null} si l'étudiant vient d'être retiré
+     */
+    void studentChanged(Student before, Student after) {
+        long timestamp = System.currentTimeMillis();
+        long next = head;
+        if (before == null) {
+            next = append(next, ChangeEvent.Type.STUDENT_ADDED, after.getId(), null, timestamp);
+        }
+        if (after == null) {
+            next = append(next, ChangeEvent.Type.STUDENT_REMOVED, before.getId(), null, timestamp);
+        } else {
+            if (before != null) {
+                for (CourseRef ref : before.courseRefs()) {
+                    if (after.getCourse(ref.getId()) == null) {
+                        next = append(next, ChangeEvent.Type.COURSE_REMOVED, after.getId(), ref.getId(), timestamp);
+                    }
+                }
+            }
+            for (CourseRef ref : after.courseRefs()) {
+                if (before == null || before.getCourse(ref.getId()) == null) {
+                    next = append(next, ChangeEvent.Type.COURSE_ADDED, after.getId(), ref.getId(), timestamp);
+                }
+            }
+        }
+        if (next != head) {
+            head = next;
+            LockSupport.unpark(notifier);
+        }
+    }
+
+    /**
+     * Enregistre le remplacement de tous les étudiants (vidage, chargement)
+     * par un seul événement {@link ChangeEvent.Type#RESET} ; appelé par le
+     * magasin sous son verrou d'écriture.
+     */
+    void studentsReset() {
+        head = append(head, ChangeEvent.Type.RESET, null, null, System.currentTimeMillis());
+        LockSupport.unpark(notifier);
+    }
+
+    private long append(long offset, ChangeEvent.Type type, String studentId, String courseId, long timestamp) {
+        ring.lazySet((int) offset & mask, new ChangeEvent(offset, type, studentId, courseId, timestamp));
+        return offset + 1;
+    }
+
+    /**
+     * Lit au plus {@code limit} événements à partir de l'offset {@code from}.
+     * Si une partie a déjà été écrasée, la lecture reprend au plus ancien
+     * événement disponible et le lot est marqué tronqué.
+     */
+    public ChangeBatch read(long from, int limit) {
+        long end = head;
+        long start = Math.max(from, 0);
+        boolean truncated = false;
+        if (start < end - capacity()) {
+            start = end - capacity();
+            truncated = true;
+        }
+        start = Math.min(start, end);
+        List<ChangeEvent> events = new ArrayList<>((int) Math.min(limit, end - start));
+        long offset = start;
+        while (offset < end && events.size() < limit) {
+            ChangeEvent event = ring.get((int) offset & mask);
+            if (event == null || event.getOffset() != offset) {
+                // Écrasé pendant la lecture : les événements déjà lus restent contigus, la suite est tronquée
+                if (!events.isEmpty()) {
+                    break;
+                }
+                truncated = true;
+                end = head;
+                offset = Math.max(offset + 1, end - capacity());
+                continue;
+            }
+            events.add(event);
+            offset++;
+        }
+        return new ChangeBatch(Collections.unmodifiableList(events), offset, end, truncated, epoch);
+    }
+
+    /**
+     * Attend qu'un événement d'offset au moins {@code offset} soit écrit.
+     *
+     * @return {@code false} si le délai a expiré ou si le thread a été interrompu
+     */
+    public boolean await(long offset, Duration timeout) {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        Thread current = Thread.currentThread();
+        while (head <= offset) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0 || current.isInterrupted() || !running) {
+                return false;
+            }
+            waiters.add(current);
+            try {
+                // Vérifié après l'inscription : un réveil ne peut pas être perdu
+                if (head <= offset) {
+                    LockSupport.parkNanos(this, remaining);
+                }
+            } finally {
+                waiters.remove(current);
+            }
+        }
+        return true;
+    }
+
+    private void wakeWaiters() {
+        while (running) {
+            LockSupport.park(this);
+            for (Thread waiter : waiters) {
+                LockSupport.unpark(waiter);
+            }
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.wayis.classrooms.springboot.studentrestapi.service;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Appels HTTP entre les nœuds du mode partitionné.
+ * <p>
+ * Chaque requête porte l'en-tête {@link #FORWARDED_HEADER}, qui a pour valeur
+ * le secret partagé {@code students.cluster.secret} : le nœud qui la reçoit
+ * la traite avec ses seules données, sans la router à nouveau. Un en-tête
+ * d'une autre valeur est ignoré ({@link #isForwarded}).
+ */
+@Component
+public class ClusterClient {
+
+    public static final String FORWARDED_HEADER = "X-Students-Forwarded";
+
+    private final ObjectMapper objectMapper;
+    private final HttpClient http;
+    private final Duration timeout;
+    private final byte[] secret;
+
+    @Autowired
+    public ClusterClient(ObjectMapper objectMapper, @Value("${students.cluster.timeout:5s}") Duration timeout,
+            @Value("${students.cluster.secret:}") String secret) {
+        this.objectMapper = objectMapper;
+        this.timeout = timeout;
+        this.secret = secret.getBytes(StandardCharsets.UTF_8);
+        // HTTP/1.1 : pas de tentative de passage en HTTP/2 en clair à chaque connexion
+        this.http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(timeout)
+                .build();
+    }
+
+    /**
+     * Envoie {@code body} en JSON (ou rien s'il est {@code null}) et attend
+     * une réponse JSON, quel que soit son statut.
+     */
+    public CompletableFuture<HttpResponse<byte[]>> send(String node, String method, String pathAndQuery, Object body) {
+        byte[] json;
+        try {
+            json = body == null ? null : objectMapper.writeValueAsBytes(body);
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        HttpRequest.Builder request = request(node, pathAndQuery)
+                .header("Accept", "application/json")
+                .method(method, json == null ? HttpRequest.BodyPublishers.noBody()
+                        : HttpRequest.BodyPublishers.ofByteArray(json));
+        if (json != null) {
+            request.header("Content-Type", "application/json");
+        }
+        return http.sendAsync(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    // Comme send, en attendant la réponse et en la lisant comme type
+    public <T> T call(String node, String method, String pathAndQuery, Object body, JavaType type) throws IOException {
+        return read(node, join(send(node, method, pathAndQuery, body)), type);
+    }
+
+    /**
+     * Relaie une requête telle quelle ; le corps de la réponse est lu en flux.
+     * Les en-têtes que le client HTTP gère lui-même doivent déjà être retirés.
+     */
+    public HttpResponse<InputStream> exchange(String node, String method, String pathAndQuery,
+            Map<String, List<String>> headers, byte[] body) throws IOException {
+        HttpRequest.Builder request = request(node, pathAndQuery)
+                .method(method, body == null || body.length == 0 ? HttpRequest.BodyPublishers.noBody()
+                        : HttpRequest.BodyPublishers.ofByteArray(body));
+        headers.forEach((name, values) -> values.forEach(value -> request.header(name, value)));
+        try {
+            return http.send(request.build(), HttpResponse.BodyHandlers.ofInputStream());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while calling " + node);
+        }
+    }
+
+    /**
+     * Corps JSON d'une réponse réussie.
+     *
+     * @throws IOException si le nœud a répondu par une erreur
+     */
+    public <T> T read(String node, HttpResponse<byte[]> response, JavaType type) throws IOException {
+        if (response.statusCode() >= 400) {
+            throw new IOException(node + " answered " + response.statusCode() + " to " + response.request().uri());
+        }
+        if (type == null || response.body().length == 0) {
+            return null;
+        }
+        return objectMapper.readValue(response.body(), type);
+    }
+
+    public JavaType listOf(Class<?> elementType) {
+        return objectMapper.getTypeFactory().constructCollectionType(List.class, elementType);
+    }
+
+    public JavaType type(Class<?> type) {
+        return objectMapper.getTypeFactory().constructType(type);
+    }
+
+    // Attend une réponse de send ; l'échec d'un nœud devient une IOException
+    public static <T> T join(CompletableFuture<T> response) throws IOException {
+        try {
+            return response.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for a node");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException(e.getCause());
+        }
+    }
+
+    public boolean hasSecret() {
+        return secret.length > 0;
+    }
+
+    /**
+     * Vrai si la valeur de {@link #FORWARDED_HEADER} est le secret partagé :
+     * la requête vient d'un autre nœud. Comparaison en temps constant.
+     */
+    public boolean isForwarded(String header) {
+        return header != null && hasSecret()
+                && MessageDigest.isEqual(secret, header.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private HttpRequest.Builder request(String node, String pathAndQuery) {
+        return HttpRequest.newBuilder(URI.create(node + pathAndQuery))
+                .timeout(timeout)
+                .header(FORWARDED_HEADER, new String(secret, StandardCharsets.UTF_8));
+    }
+}
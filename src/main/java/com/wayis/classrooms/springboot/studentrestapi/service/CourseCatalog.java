@@ -0,0 +1,268 @@
+package com.wayis.classrooms.springboot.studentrestapi.service;
+
+import com.wayis.classrooms.springboot.studentrestapi.model.Course;
+import com.wayis.classrooms.springboot.studentrestapi.model.CourseRef;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Catalogue global des cours, trié par identifiant.
+ * <p>
+ * Chaque cours n'y existe qu'une fois, derrière une {@link CourseRef} que
+ * les étudiants partagent. Les lectures sont sans verrou ; les écritures,
+ * rares, sont sérialisées pour que l'observateur les voie dans l'ordre.
+ * <p>
+ * Un cours ajouté par {@link #add} appartient au catalogue. Un cours créé
+ * par une inscription ({@link #register}) est implicite : il est retiré,
+ * avec son entrée dans l'index de recherche, quand son dernier inscrit le
+ * quitte ({@link #removeIfUnreferenced}). Le modifier par {@link #replace}
+ * le fait entrer au catalogue.
+ */
+class CourseCatalog {
+
+    // Libellés d'étapes distincts codés au plus ; les suivants restent des chaînes
+    static final int MAX_STEP_LABELS = 1 << 16;
+
+    private final ConcurrentNavigableMap<String, CourseRef> courses = new ConcurrentSkipListMap<>();
+    // Incrémentée à chaque modification du contenu d'un cours existant
+    private final AtomicLong version = new AtomicLong();
+    private final CourseIndex index = new CourseIndex();
+    // Libellés d'étapes des cours enregistrés ; remplacé par clear()
+    private StepPool steps = new StepPool(MAX_STEP_LABELS);
+    // Cours créés par une inscription, retirés avec leur dernier inscrit
+    private final Set<String> implicit = ConcurrentHashMap.newKeySet();
+    private volatile StoreListener listener;
+    // Dépôt sur fichier qui garde aussi le catalogue ; indépendant de la persistance
+    private volatile Consumer<Course> storage;
+    private volatile Consumer<String> storageRemoval;
+
+    public void setListener(StoreListener listener) {
+        this.listener = listener;
+    }
+
+    void setStorage(Consumer<Course> written, Consumer<String> removed) {
+        this.storage = written;
+        this.storageRemoval = removed;
+    }
+
+    public CourseRef get(String courseId) {
+        if (courseId == null) {
+            return null;
+        }
+        return courses.get(courseId);
+    }
+
+    /**
+     * Retourne la référence du catalogue pour ce cours, en l'ajoutant s'il
+     * n'existe pas. Si l'identifiant est déjà connu, l'entrée existante est
+     * conservée.
+     */
+    public CourseRef register(Course course) {
+        CourseRef existing = get(course.getId());
+        if (existing != null) {
+            return existing;
+        }
+        synchronized (this) {
+            existing = courses.get(course.getId());
+            if (existing != null) {
+                return existing;
+            }
+            encodeSteps(course);
+            CourseRef created = new CourseRef(course);
+            courses.put(course.getId(), created);
+            implicit.add(course.getId());
+            index.put(course);
+            notifyWritten(course);
+            return created;
+        }
+    }
+
+    /**
+     * Ajoute un nouveau cours.
+     *
+     * @return {@code null} si l'identifiant existe déjà
+     */
+    public synchronized CourseRef add(Course course) {
+        if (courses.containsKey(course.getId())) {
+            return null;
+        }
+        encodeSteps(course);
+        CourseRef created = new CourseRef(course);
+        courses.put(course.getId(), created);
+        implicit.remove(course.getId());
+        index.put(course);
+        notifyWritten(course);
+        return created;
+    }
+
+    /**
+     * Remplace le contenu d'un cours ; tous les étudiants inscrits voient la
+     * nouvelle version.
+     *
+     * @return {@code false} si le cours est inconnu
+     */
+    public synchronized boolean replace(Course course) {
+        CourseRef ref = get(course.getId());
+        if (ref == null) {
+            return false;
+        }
+        encodeSteps(course);
+        ref.setCourse(course);
+        implicit.remove(course.getId());
+        index.put(course);
+        version.incrementAndGet();
+        notifyWritten(course);
+        return true;
+    }
+
+    // Ajoute le cours ou remplace son contenu ; sert au rechargement depuis le disque
+    public synchronized CourseRef put(Course course, boolean implicitCourse) {
+        CourseRef ref = get(course.getId());
+        encodeSteps(course);
+        if (ref == null) {
+            ref = new CourseRef(course);
+            courses.put(course.getId(), ref);
+        } else {
+            ref.setCourse(course);
+            version.incrementAndGet();
+        }
+        if (implicitCourse) {
+            implicit.add(course.getId());
+        } else {
+            implicit.remove(course.getId());
+        }
+        index.put(course);
+        notifyWritten(course);
+        return ref;
+    }
+
+    // Cours créé par une inscription plutôt qu'ajouté au catalogue
+    public boolean isImplicit(String courseId) {
+        return implicit.contains(courseId);
+    }
+
+    /**
+     * Retire un cours implicite que plus aucun étudiant ne suit.
+     *
+     * @return {@code true} si le cours a été retiré
+     */
+    public synchronized boolean removeIfUnreferenced(String courseId, IndexedStudentRepository students) {
+        if (!implicit.contains(courseId) || students.enrolledCount(courseId) > 0) {
+            return false;
+        }
+        CourseRef removed = courses.remove(courseId);
+        // Inscription arrivée entre-temps : sinon retain, qui suit chaque inscription, verra le cours absent
+        if (removed == null || students.enrolledCount(courseId) > 0) {
+            if (removed != null) {
+                courses.put(courseId, removed);
+            }
+            return false;
+        }
+        implicit.remove(courseId);
+        index.remove(courseId);
+        notifyRemoved(courseId);
+        return true;
+    }
+
+    // Retire le cours sans condition ; sert au rechargement depuis le disque
+    synchronized boolean remove(String courseId) {
+        if (courses.remove(courseId) == null) {
+            return false;
+        }
+        implicit.remove(courseId);
+        index.remove(courseId);
+        notifyRemoved(courseId);
+        return true;
+    }
+
+    /**
+     * Remet au catalogue un cours retiré pendant qu'un étudiant s'y
+     * inscrivait : l'étudiant garde la même référence que le catalogue.
+     */
+    public void retain(CourseRef ref) {
+        if (courses.get(ref.getId()) != null) {
+            return;
+        }
+        synchronized (this) {
+            if (courses.putIfAbsent(ref.getId(), ref) == null) {
+                implicit.add(ref.getId());
+                index.put(ref.getCourse());
+                notifyWritten(ref.getCourse());
+            }
+        }
+    }
+
+    public long version() {
+        return version.get();
+    }
+
+    public List<Course> list() {
+        List<Course> result = new ArrayList<>(courses.size());
+        for (CourseRef ref : courses.values()) {
+            result.add(ref.getCourse());
+        }
+        return result;
+    }
+
+    public synchronized void clear() {
+        courses.clear();
+        implicit.clear();
+        index.clear();
+        steps = new StepPool(MAX_STEP_LABELS);
+        version.incrementAndGet();
+    }
+
+    /**
+     * Recherche plein texte dans le nom, la description et les étapes des cours.
+     *
+     * @return au plus {@code limit} cours, du plus pertinent au moins pertinent
+     */
+    public List<Course> search(String query, int limit) {
+        List<String> ids = index.search(query, limit);
+        List<Course> result = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            CourseRef ref = courses.get(id);
+            if (ref != null) {
+                result.add(ref.getCourse());
+            }
+        }
+        return result;
+    }
+
+    public int size() {
+        return courses.size();
+    }
+
+    // Les cours déjà lus gardent leur liste, liée à l'ancien dictionnaire
+    private void encodeSteps(Course course) {
+        course.setSteps(steps.encode(course.getSteps()));
+    }
+
+    private void notifyRemoved(String courseId) {
+        StoreListener current = listener;
+        if (current != null) {
+            current.courseRemoved(courseId);
+        }
+        Consumer<String> target = storageRemoval;
+        if (target != null) {
+            target.accept(courseId);
+        }
+    }
+
+    private void notifyWritten(Course course) {
+        StoreListener current = listener;
+        if (current != null) {
+            current.courseWritten(course);
+        }
+        Consumer<Course> target = storage;
+        if (target != null) {
+            target.accept(course);
+        }
+    }
+}
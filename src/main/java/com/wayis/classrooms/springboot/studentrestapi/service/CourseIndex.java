@@ -0,0 +1,544 @@
+package com.wayis.classrooms.springboot.studentrestapi.service;
+
+import com.wayis.classrooms.springboot.studentrestapi.model.Course;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Index inversé des cours du catalogue : nom, description et étapes.
+ * <p>
+ * Les termes sont mis en minuscules et sans accents ("Intégration" et
+ * "integration" sont le même terme). Une requête retient les cours qui
+ * contiennent tous ses termes ; le dernier terme, ou tout terme terminé par
+ * {@code *}, est un préfixe. Les résultats sont classés par score : poids du
+ * champ (nom &gt; étape &gt; description) multiplié par la rareté du terme.
+ * <p>
+ * Chaque version indexée d'un cours reçoit un numéro de document croissant ;
+ * les listes de documents d'un terme sont donc triées. Une mise à jour
+ * marque l'ancien document comme supprimé et en ajoute un nouveau ; une
+ * liste est compactée quand elle contient autant de documents supprimés que
+ * de vivants. Quand les numéros supprimés dépassent les vivants, l'index est
+ * renuméroté de façon dense dans une nouvelle génération, publiée d'un bloc :
+ * le nombre de numéros reste proportionnel au nombre de cours. Les écritures
+ * sont faites sous le verrou du catalogue ; les recherches ne prennent aucun
+ * verrou.
+ * <p>
+ * Un préfixe s'étend aux termes qui commencent par lui : le terme exact
+ * s'il existe, puis au plus {@value #MAX_PREFIX_EXPANSIONS} autres, ceux
+ * présents dans le plus de cours. Un préfixe court ne parcourt donc pas les
+ * listes de documents de tout le vocabulaire.
+ */
+class CourseIndex {
+
+    private static final float NAME_WEIGHT = 3f;
+    private static final float STEP_WEIGHT = 2f;
+    private static final float DESCRIPTION_WEIGHT = 1f;
+    private static final int INITIAL_DOCUMENTS = 1024;
+    static final int MAX_PREFIX_EXPANSIONS = 64;
+    // Le terme le moins présent en tête de file, à égalité le plus grand
+    private static final Comparator<Expansion> NARROWEST_FIRST = Comparator.<Expansion>comparingInt(e -> e.live)
+            .thenComparing(e -> e.term, Comparator.reverseOrder());
+
+    private volatile Generation generation = new Generation(INITIAL_DOCUMENTS);
+    // Utilisée uniquement par les écrivains
+    private final Map<String, Document> byCourse = new HashMap<>();
+
+    // Tableaux de travail rendus par les recherches terminées ; au plus un par processeur est gardé
+    private final BlockingQueue<Scratch> scratches =
+            new ArrayBlockingQueue<>(Runtime.getRuntime().availableProcessors());
+
+    /**
+     * Indexe le cours, ou remplace ses termes s'il était déjà indexé.
+     */
+    void put(Course course) {
+        remove(course.getId());
+        Map<String, Float> weights = new LinkedHashMap<>();
+        addTerms(weights, course.getName(), NAME_WEIGHT);
+        addTerms(weights, course.getDescription(), DESCRIPTION_WEIGHT);
+        if (course.getSteps() != null) {
+            for (String step : course.getSteps()) {
+                addTerms(weights, step, STEP_WEIGHT);
+            }
+        }
+
+        Generation current = generation;
+        int number = current.documentCount;
+        Document document = new Document(course.getId(), weights.keySet().toArray(new String[0]));
+        Document[] table = current.documents;
+        if (number == table.length) {
+            table = Arrays.copyOf(table, number * 2);
+        }
+        table[number] = document;
+        current.documents = table;
+        current.documentCount = number + 1;
+
+        for (Map.Entry<String, Float> weight : weights.entrySet()) {
+            current.terms.computeIfAbsent(weight.getKey(), t -> new Postings()).append(number, weight.getValue());
+        }
+        byCourse.put(course.getId(), document);
+        current.liveCount++;
+    }
+
+    void remove(String courseId) {
+        Document document = byCourse.remove(courseId);
+        if (document == null) {
+            return;
+        }
+        Generation current = generation;
+        document.removed = true;
+        current.liveCount--;
+        for (String term : document.terms) {
+            Postings postings = current.terms.get(term);
+            if (postings != null && postings.removeOne(current.documents) == 0) {
+                current.terms.remove(term);
+            }
+        }
+        if (current.documentCount - current.liveCount > Math.max(current.liveCount, INITIAL_DOCUMENTS)) {
+            renumber();
+        }
+    }
+
+    void clear() {
+        byCourse.clear();
+        generation = new Generation(INITIAL_DOCUMENTS);
+    }
+
+    // Numéros attribués, supprimés compris ; borne la taille des tableaux de travail
+    int documentCount() {
+        return generation.documentCount;
+    }
+
+    /**
+     * Recopie les documents vivants sous des numéros consécutifs, dans leur
+     * ordre : les listes recopiées restent triées. Les recherches en cours
+     * terminent sur l'ancienne génération.
+     */
+    private void renumber() {
+        Generation old = generation;
+        int count = old.documentCount;
+        Document[] table = old.documents;
+        Generation next = new Generation(Math.max(INITIAL_DOCUMENTS, old.liveCount * 2));
+        int[] numbers = new int[count];
+        int live = 0;
+        for (int i = 0; i < count; i++) {
+            if (!table[i].removed) {
+                numbers[i] = live;
+                next.documents[live++] = table[i];
+            }
+        }
+        for (Map.Entry<String, Postings> entry : old.terms.entrySet()) {
+            Block block = entry.getValue().block;
+            Postings postings = new Postings();
+            for (int i = 0; i < block.size; i++) {
+                int document = block.documents[i];
+                if (!table[document].removed) {
+                    postings.append(numbers[document], block.weights[i]);
+                }
+            }
+            if (postings.live > 0) {
+                next.terms.put(entry.getKey(), postings);
+            }
+        }
+        next.liveCount = live;
+        next.documentCount = live;
+        generation = next;
+    }
+
+    /**
+     * @return au plus {@code limit} identifiants de cours, du plus pertinent au moins pertinent
+     */
+    List<String> search(String query, int limit) {
+        List<String> tokens = new ArrayList<>();
+        List<Boolean> prefixes = new ArrayList<>();
+        for (String part : query.trim().split("\\s+")) {
+            boolean prefix = part.endsWith("*");
+            for (String token : tokenize(prefix ? part.substring(0, part.length() - 1) : part)) {
+                tokens.add(token);
+                prefixes.add(prefix);
+            }
+        }
+        if (tokens.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+        // Recherche au fil de la frappe : le dernier mot peut être incomplet
+        prefixes.set(prefixes.size() - 1, true);
+
+        // Lecture cohérente : une seule génération, tableau publié avant le nombre de documents
+        Generation current = generation;
+        int count = current.documentCount;
+        Document[] table = current.documents;
+        float documentsAlive = Math.max(1, current.liveCount);
+
+        // Les termes les plus rares d'abord : la liste de candidats reste courte
+        List<List<Postings>> matches = new ArrayList<>(tokens.size());
+        for (int i = 0; i < tokens.size(); i++) {
+            List<Postings> expansions = expand(current.terms, tokens.get(i), prefixes.get(i));
+            if (expansions.isEmpty()) {
+                return Collections.emptyList();
+            }
+            matches.add(expansions);
+        }
+        matches.sort((a, b) -> Long.compare(postingCount(a), postingCount(b)));
+
+        Scratch work = scratches.poll();
+        if (work == null) {
+            work = new Scratch();
+        }
+        try {
+            work.ensure(count);
+            return search(matches, limit, count, table, documentsAlive, work);
+        } finally {
+            // Un tableau devenu trop grand après une renumérotation n'est pas gardé
+            if (work.capacity() <= Math.max(INITIAL_DOCUMENTS, 2 * generation.documentCount)) {
+                scratches.offer(work);
+            }
+        }
+    }
+
+    private static List<String> search(List<List<Postings>> matches, int limit, int count, Document[] table,
+            float documentsAlive, Scratch work) {
+        int[] candidates = null;
+        int candidateCount = 0;
+        for (List<Postings> expansions : matches) {
+            int round = work.nextRound();
+            if (candidates != null) {
+                for (int i = 0; i < candidateCount; i++) {
+                    work.eligible[candidates[i]] = round;
+                }
+            }
+            int[] next = work.next(candidates);
+            int nextCount = 0;
+            boolean probe = candidates != null && probeCost(candidateCount, expansions) < postingCount(expansions);
+            for (Postings postings : expansions) {
+                Block block = postings.block;
+                int size = block.size;
+                float idf = (float) Math.log(1 + documentsAlive / Math.max(1, postings.live));
+                if (probe) {
+                    // Peu de candidats : recherche dichotomique de chacun dans la liste
+                    for (int i = 0; i < candidateCount; i++) {
+                        int at = Arrays.binarySearch(block.documents, 0, size, candidates[i]);
+                        if (at >= 0) {
+                            nextCount = work.score(candidates[i], block.weights[at] * idf, round, next, nextCount);
+                        }
+                    }
+                } else {
+                    for (int i = 0; i < size; i++) {
+                        int document = block.documents[i];
+                        // Les documents supprimés sont écartés à la fin, sur les seuls candidats
+                        if (document >= count || candidates != null && work.eligible[document] != round) {
+                            continue;
+                        }
+                        nextCount = work.score(document, block.weights[i] * idf, round, next, nextCount);
+                    }
+                }
+            }
+            if (nextCount == 0) {
+                return Collections.emptyList();
+            }
+            for (int i = 0; i < nextCount; i++) {
+                int document = next[i];
+                work.total[document] = (candidates == null ? 0 : work.total[document]) + work.best[document];
+            }
+            candidates = next;
+            candidateCount = nextCount;
+        }
+
+        PriorityQueue<ScoredId> top = new PriorityQueue<>(Math.min(limit, candidateCount));
+        for (int i = 0; i < candidateCount; i++) {
+            int document = candidates[i];
+            float score = work.total[document];
+            if (top.size() == limit && score <= top.peek().score || table[document].removed) {
+                continue;
+            }
+            if (top.size() < limit) {
+                top.add(new ScoredId(table[document].courseId, score));
+            } else {
+                top.poll();
+                top.add(new ScoredId(table[document].courseId, score));
+            }
+        }
+        String[] ranked = new String[top.size()];
+        for (int i = ranked.length - 1; i >= 0; i--) {
+            ranked[i] = top.poll().id;
+        }
+        return Arrays.asList(ranked);
+    }
+
+    private static List<Postings> expand(ConcurrentSkipListMap<String, Postings> terms, String token,
+            boolean prefix) {
+        if (!prefix) {
+            Postings postings = terms.get(token);
+            return postings == null ? Collections.emptyList() : Collections.singletonList(postings);
+        }
+        // Sélection des termes les plus présents ; seules leurs listes de documents seront parcourues
+        PriorityQueue<Expansion> widest = new PriorityQueue<>(MAX_PREFIX_EXPANSIONS + 1, NARROWEST_FIRST);
+        for (Map.Entry<String, Postings> entry
+                : terms.subMap(token, false, token + Character.MAX_VALUE, false).entrySet()) {
+            widest.add(new Expansion(entry.getKey(), entry.getValue()));
+            if (widest.size() > MAX_PREFIX_EXPANSIONS) {
+                widest.poll();
+            }
+        }
+        List<Postings> expansions = new ArrayList<>(widest.size() + 1);
+        Postings exact = terms.get(token);
+        if (exact != null) {
+            expansions.add(exact);
+        }
+        for (Expansion expansion : widest) {
+            expansions.add(expansion.postings);
+        }
+        return expansions;
+    }
+
+    // Recherches dichotomiques nécessaires pour vérifier chaque candidat dans chaque liste
+    private static long probeCost(int candidates, List<Postings> expansions) {
+        long cost = 0;
+        for (Postings postings : expansions) {
+            cost += candidates * (long) (32 - Integer.numberOfLeadingZeros(postings.block.size));
+        }
+        return cost;
+    }
+
+    private static long postingCount(List<Postings> expansions) {
+        long count = 0;
+        for (Postings postings : expansions) {
+            count += postings.block.size;
+        }
+        return count;
+    }
+
+    private static void addTerms(Map<String, Float> weights, String text, float weight) {
+        for (String token : tokenize(text)) {
+            weights.merge(token, weight, Float::sum);
+        }
+    }
+
+    /**
+     * Découpe le texte en termes en minuscules, sans accents ; les lettres
+     * et les chiffres forment les termes, tout le reste les sépare.
+     */
+    static List<String> tokenize(String text) {
+        if (text == null || text.isEmpty()) {
+            return Collections.emptyList();
+        }
+        String folded = text;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) > 0x7f) {
+                folded = Normalizer.normalize(text, Normalizer.Form.NFD);
+                break;
+            }
+        }
+        List<String> tokens = new ArrayList<>();
+        StringBuilder token = new StringBuilder();
+        for (int i = 0; i <= folded.length(); i++) {
+            char c = i < folded.length() ? folded.charAt(i) : ' ';
+            if (Character.getType(c) == Character.NON_SPACING_MARK) {
+                continue;
+            }
+            if (Character.isLetterOrDigit(c)) {
+                token.append(Character.toLowerCase(c));
+            } else if (token.length() > 0) {
+                tokens.add(token.toString());
+                token.setLength(0);
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Termes et documents numérotés ; remplacée d'un bloc à chaque renumérotation.
+     */
+    private static final class Generation {
+
+        final ConcurrentSkipListMap<String, Postings> terms = new ConcurrentSkipListMap<>();
+        // Documents par numéro ; le tableau est publié avant le nombre de documents
+        volatile Document[] documents;
+        volatile int documentCount;
+        volatile int liveCount;
+
+        Generation(int capacity) {
+            this.documents = new Document[capacity];
+        }
+    }
+
+    private static final class Document {
+
+        final String courseId;
+        final String[] terms;
+        volatile boolean removed;
+
+        Document(String courseId, String[] terms) {
+            this.courseId = courseId;
+            this.terms = terms;
+        }
+    }
+
+    /**
+     * Documents d'un terme, triés par numéro, et poids du terme dans chacun.
+     */
+    private static final class Postings {
+
+        volatile Block block = new Block(new int[4], new float[4], 0);
+        // Documents non supprimés, pour la rareté du terme
+        volatile int live;
+
+        void append(int document, float weight) {
+            Block current = block;
+            int size = current.size;
+            if (size == current.documents.length) {
+                current = new Block(Arrays.copyOf(current.documents, size * 2),
+                        Arrays.copyOf(current.weights, size * 2), size);
+            }
+            current.documents[size] = document;
+            current.weights[size] = weight;
+            block = current;
+            current.size = size + 1;
+            live++;
+        }
+
+        /**
+         * Compte un document supprimé et compacte la liste si nécessaire.
+         *
+         * @return le nombre de documents vivants restants
+         */
+        int removeOne(Document[] table) {
+            int remaining = --live;
+            Block current = block;
+            if (remaining > 0 && current.size > 2 * remaining + 16) {
+                int[] documents = new int[Math.max(4, remaining * 2)];
+                float[] weights = new float[documents.length];
+                int kept = 0;
+                for (int i = 0; i < current.size; i++) {
+                    if (!table[current.documents[i]].removed) {
+                        documents[kept] = current.documents[i];
+                        weights[kept] = current.weights[i];
+                        kept++;
+                    }
+                }
+                block = new Block(documents, weights, kept);
+            }
+            return remaining;
+        }
+    }
+
+    private static final class Block {
+
+        final int[] documents;
+        final float[] weights;
+        volatile int size;
+
+        Block(int[] documents, float[] weights, int size) {
+            this.documents = documents;
+            this.weights = weights;
+            this.size = size;
+        }
+    }
+
+    /**
+     * Tableaux de travail d'une recherche, indexés par numéro de document et
+     * prêtés d'une recherche à l'autre. Les tampons {@code stamp} et
+     * {@code eligible} évitent de les remettre à zéro.
+     */
+    private static final class Scratch {
+
+        int[] stamp = new int[0];
+        int[] eligible = new int[0];
+        float[] best = new float[0];
+        float[] total = new float[0];
+        int[] buffer = new int[0];
+        int[] spare = new int[0];
+        int round;
+
+        void ensure(int count) {
+            if (stamp.length < count) {
+                int capacity = Math.max(count, stamp.length * 2);
+                stamp = new int[capacity];
+                eligible = new int[capacity];
+                best = new float[capacity];
+                total = new float[capacity];
+                buffer = new int[capacity];
+                spare = new int[capacity];
+                round = 0;
+            }
+        }
+
+        int capacity() {
+            return stamp.length;
+        }
+
+        int nextRound() {
+            if (++round == Integer.MAX_VALUE) {
+                Arrays.fill(stamp, 0);
+                Arrays.fill(eligible, 0);
+                round = 1;
+            }
+            return round;
+        }
+
+        // Tampon qui reçoit les candidats du terme courant, distinct de celui des candidats précédents
+        int[] next(int[] candidates) {
+            if (candidates == buffer) {
+                int[] swap = buffer;
+                buffer = spare;
+                spare = swap;
+            }
+            return buffer;
+        }
+
+        int score(int document, float score, int round, int[] next, int nextCount) {
+            if (stamp[document] != round) {
+                stamp[document] = round;
+                best[document] = score;
+                next[nextCount] = document;
+                return nextCount + 1;
+            }
+            if (score > best[document]) {
+                best[document] = score;
+            }
+            return nextCount;
+        }
+    }
+
+    // Terme d'une expansion, avec son nombre de documents lu une seule fois pendant la sélection
+    private static final class Expansion {
+
+        final String term;
+        final Postings postings;
+        final int live;
+
+        Expansion(String term, Postings postings) {
+            this.term = term;
+            this.postings = postings;
+            this.live = postings.live;
+        }
+    }
+
+    private static final class ScoredId implements Comparable<ScoredId> {
+
+        final String id;
+        final float score;
+
+        ScoredId(String id, float score) {
+            this.id = id;
+            this.score = score;
+        }
+
+        // Le moins pertinent en tête de file, à égalité l'identifiant le plus grand
+        @Override
+        public int compareTo(ScoredId other) {
+            int byScore = Float.compare(score, other.score);
+            return byScore != 0 ? byScore : other.id.compareTo(id);
+        }
+    }
+}
@@ -0,0 +1,276 @@
+package com.wayis.classrooms.springboot.studentrestapi.service;
+
+import com.wayis.classrooms.springboot.studentrestapi.model.Course;
+import com.wayis.classrooms.springboot.studentrestapi.model.CourseEnrollment;
+import com.wayis.classrooms.springboot.studentrestapi.model.CourseRef;
+import com.wayis.classrooms.springboot.studentrestapi.model.EnrollmentReport;
+import com.wayis.classrooms.springboot.studentrestapi.model.Student;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Agrégats des inscriptions, tenus à jour par {@link IndexedStudentRepository} à chaque écriture
+ * ({@link #studentChanged}) : nombre d'étudiants et d'inscriptions,
+ * répartition des étudiants par nombre de cours, inscrits par cours et
+ * classement des cours par inscrits.
+ * <p>
+ * Le dépôt appelle ces méthodes sous son verrou d'écriture, qui les ordonne ;
+ * les agrégats n'ajoutent aucun verrou. Avec un seul écrivain à la fois, les
+ * totaux sont de simples champs {@code volatile} et les lectures ne bloquent
+ * jamais : un rapport lu pendant une écriture peut n'en refléter qu'une
+ * partie. Une lecture coûte O(1) pour un cours et O(k) pour les k premiers.
+ * <p>
+ * {@link #compute} recalcule les mêmes agrégats en une passe fork-join sur
+ * une liste d'étudiants ; il sert après un chargement et aux vérifications.
+ * Après un chargement ou un vidage, de nouveaux agrégats sont construits à
+ * part puis publiés d'un bloc : un lecteur voit les anciens ou les nouveaux,
+ * jamais des compteurs remis à zéro.
+ */
+public class EnrollmentStats {
+
+    // Au-dessous, une tâche fork-join compte elle-même ses étudiants
+    private static final int SPLIT_THRESHOLD = 4096;
+
+    // Du plus suivi au moins suivi, puis par identifiant
+    private static final Comparator<Ranked> RANKING = Comparator.comparingLong((Ranked ranked) -> -ranked.students)
+            .thenComparing(ranked -> ranked.courseId);
+
+    private final CourseCatalog catalog;
+    private volatile Aggregates aggregates = new Aggregates();
+
+    EnrollmentStats(CourseCatalog catalog) {
+        this.catalog = catalog;
+    }
+
+    /**
+     * Reporte une écriture du dépôt.
+     *
+     * @param before {@code null} si l'étudiant vient d'être ajouté
+     * @param after {@code null} si l'étudiant vient d'être retiré
+     */
+    void studentChanged(Student before, Student after) {
+        Aggregates current = aggregates;
+        // Vues préallouées de l'étudiant, parcourues par indice : une écriture n'alloue ici que le classement
+        if (before == null) {
+            current.students++;
+        } else {
+            List<Course> courses = before.getCourses();
+            current.countStudent(courses.size(), -1);
+            current.enrollments -= courses.size();
+            for (int i = 0; i < courses.size(); i++) {
+                String courseId = courses.get(i).getId();
+                if (after == null || after.getCourse(courseId) == null) {
+                    current.countCourse(courseId, -1);
+                }
+            }
+        }
+        if (after == null) {
+            current.students--;
+            return;
+        }
+        List<Course> courses = after.getCourses();
+        current.countStudent(courses.size(), 1);
+        current.enrollments += courses.size();
+        for (int i = 0; i < courses.size(); i++) {
+            String courseId = courses.get(i).getId();
+            if (before == null || before.getCourse(courseId) == null) {
+                current.countCourse(courseId, 1);
+            }
+        }
+    }
+
+    // Remplace les agrégats par ceux de ces étudiants (chargement complet du dépôt)
+    void rebuild(List<Student> loaded) {
+        Counts counts = compute(loaded);
+        Aggregates rebuilt = new Aggregates();
+        rebuilt.students = counts.students;
+        rebuilt.enrollments = counts.enrollments;
+        counts.coursesPerStudent.forEach((courses, count) -> rebuilt.countStudent(courses, count));
+        counts.byCourse.forEach((courseId, count) -> rebuilt.countCourse(courseId, count));
+        aggregates = rebuilt;
+    }
+
+    void clear() {
+        aggregates = new Aggregates();
+    }
+
+    public long students(String courseId) {
+        Ranked ranked = aggregates.byCourse.get(courseId);
+        return ranked == null ? 0 : ranked.students;
+    }
+
+    // Les limit cours les plus suivis, du plus suivi au moins suivi
+    public List<CourseEnrollment> topCourses(int limit) {
+        return topCourses(aggregates, limit);
+    }
+
+    private List<CourseEnrollment> topCourses(Aggregates current, int limit) {
+        List<CourseEnrollment> top = new ArrayList<>(Math.min(limit, current.byCourse.size()));
+        for (Ranked ranked : current.ranking) {
+            if (top.size() >= limit) {
+                break;
+            }
+            // Entrée déjà remplacée par un écrivain en cours
+            if (current.byCourse.get(ranked.courseId) == ranked) {
+                top.add(enrollment(ranked.courseId, ranked.students));
+            }
+        }
+        return top;
+    }
+
+    public EnrollmentReport report(int top) {
+        // Un seul jeu d'agrégats pour tout le rapport, même si un chargement le remplace entre-temps
+        Aggregates current = aggregates;
+        SortedMap<Integer, Long> distribution = new TreeMap<>();
+        current.coursesPerStudent.forEach((courses, count) -> {
+            long value = count.value;
+            if (value != 0) {
+                distribution.put(courses, value);
+            }
+        });
+        return new EnrollmentReport(current.students, current.enrollments, distribution,
+                topCourses(current, top), false);
+    }
+
+    /**
+     * Rapport recalculé sur ces étudiants, sans les agrégats tenus à jour.
+     * Coûte une passe sur tous les étudiants et un tri des cours.
+     */
+    public EnrollmentReport recompute(List<Student> all, int top) {
+        Counts counts = compute(all);
+        List<Ranked> ranked = new ArrayList<>(counts.byCourse.size());
+        counts.byCourse.forEach((courseId, count) -> ranked.add(new Ranked(courseId, count)));
+        ranked.sort(RANKING);
+        List<CourseEnrollment> topCourses = new ArrayList<>(Math.min(top, ranked.size()));
+        for (int i = 0; i < ranked.size() && i < top; i++) {
+            topCourses.add(enrollment(ranked.get(i).courseId, ranked.get(i).students));
+        }
+        return new EnrollmentReport(counts.students, counts.enrollments,
+                new TreeMap<>(counts.coursesPerStudent), topCourses, true);
+    }
+
+    // Agrégats de ces étudiants, calculés en parallèle sur le pool fork-join commun
+    static Counts compute(List<Student> all) {
+        return ForkJoinPool.commonPool().invoke(new CountTask(all, 0, all.size()));
+    }
+
+    private CourseEnrollment enrollment(String courseId, long count) {
+        CourseRef ref = catalog.get(courseId);
+        Course course = ref == null ? null : ref.getCourse();
+        return new CourseEnrollment(courseId, course == null ? null : course.getName(), count);
+    }
+
+    /**
+     * Agrégats tenus à jour, modifiés par un seul écrivain à la fois : les
+     * compteurs sont incrémentés sans opération atomique et publiés par
+     * écriture {@code volatile}.
+     */
+    private static final class Aggregates {
+
+        volatile long students;
+        volatile long enrollments;
+        final Map<Integer, Counter> coursesPerStudent = new ConcurrentHashMap<>();
+        // Entrée courante de chaque cours suivi ; le classement peut garder brièvement l'entrée précédente
+        final Map<String, Ranked> byCourse = new ConcurrentHashMap<>();
+        final ConcurrentSkipListSet<Ranked> ranking = new ConcurrentSkipListSet<>(RANKING);
+
+        void countStudent(int courses, long delta) {
+            coursesPerStudent.computeIfAbsent(courses, key -> new Counter()).value += delta;
+        }
+
+        // La nouvelle entrée est classée avant le retrait de l'ancienne
+        void countCourse(String courseId, long delta) {
+            Ranked previous = byCourse.get(courseId);
+            long count = (previous == null ? 0 : previous.students) + delta;
+            if (count <= 0) {
+                byCourse.remove(courseId);
+            } else {
+                Ranked current = new Ranked(courseId, count);
+                ranking.add(current);
+                byCourse.put(courseId, current);
+            }
+            if (previous != null) {
+                ranking.remove(previous);
+            }
+        }
+    }
+
+    private static final class Counter {
+
+        volatile long value;
+    }
+
+    /**
+     * Agrégats calculés d'un bloc, comparables à ceux tenus à jour.
+     */
+    static final class Counts {
+
+        long students;
+        long enrollments;
+        final Map<Integer, Long> coursesPerStudent = new HashMap<>();
+        final Map<String, Long> byCourse = new HashMap<>();
+
+        Counts merge(Counts other) {
+            students += other.students;
+            enrollments += other.enrollments;
+            other.coursesPerStudent.forEach((courses, count) -> coursesPerStudent.merge(courses, count, Long::sum));
+            other.byCourse.forEach((courseId, count) -> byCourse.merge(courseId, count, Long::sum));
+            return this;
+        }
+    }
+
+    private static final class CountTask extends RecursiveTask<Counts> {
+
+        private final List<Student> students;
+        private final int from;
+        private final int to;
+
+        CountTask(List<Student> students, int from, int to) {
+            this.students = students;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Counts compute() {
+            if (to - from > SPLIT_THRESHOLD) {
+                int middle = (from + to) >>> 1;
+                CountTask left = new CountTask(students, from, middle);
+                left.fork();
+                Counts right = new CountTask(students, middle, to).compute();
+                return left.join().merge(right);
+            }
+            Counts counts = new Counts();
+            for (int i = from; i < to; i++) {
+                List<CourseRef> refs = students.get(i).courseRefs();
+                counts.students++;
+                counts.enrollments += refs.size();
+                counts.coursesPerStudent.merge(refs.size(), 1L, Long::sum);
+                for (CourseRef ref : refs) {
+                    counts.byCourse.merge(ref.getId(), 1L, Long::sum);
+                }
+            }
+            return counts;
+        }
+    }
+
+    private static final class Ranked {
+
+        final String courseId;
+        final long students;
+
+        Ranked(String courseId, long students) {
+            this.courseId = courseId;
+            this.students = students;
+        }
+    }
+}
@@ -0,0 +1,463 @@
+package com.wayis.classrooms.springboot.studentrestapi.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.wayis.classrooms.springboot.studentrestapi.model.Course;
+import com.wayis.classrooms.springboot.studentrestapi.model.CourseRef;
+import com.wayis.classrooms.springboot.studentrestapi.model.Student;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Dépôt des étudiants sur disque : un fichier d'enregistrements
+ * {@link MutationRecord} au format du journal ({@code [longueur][CRC32][JSON]}),
+ * où chaque écriture ajoute l'état complet de l'étudiant ou son retrait.
+ * <p>
+ * Seul l'index tient en mémoire : emplacement du dernier enregistrement de
+ * chaque étudiant et ordre d'insertion. Chaque lecture relit et décode
+ * l'enregistrement ; {@link CachingStudentRepository} garde les étudiants
+ * les plus demandés et les dernières plages lues en mémoire.
+ * <p>
+ * À l'ouverture, le fichier est relu puis réécrit sans les enregistrements
+ * remplacés ; il est compacté de même quand ceux-ci dépassent la moitié du
+ * fichier. Le compactage garde les positions d'insertion, et donc les
+ * curseurs de {@link #range} ; seule l'ouverture les renumérote. Le catalogue
+ * y est gardé aussi : chaque ajout ou modification d'un cours y écrit son
+ * état, remis dans le catalogue à l'ouverture. Les écritures ne sont pas
+ * forcées sur disque ({@code fsync}) : elles survivent à l'arrêt du
+ * processus, pas à celui de la machine.
+ */
+final class FileStudentRepository implements StudentRepository {
+
+    // Pas de compactage en dessous de cette taille
+    private static final long MIN_COMPACTION_BYTES = 1 << 20;
+
+    private final Path file;
+    private final ObjectReader reader;
+    private final ObjectWriter writer;
+    private final CourseCatalog catalog;
+    // Lectures sous le verrou partagé ; écritures et compactage sous le verrou exclusif
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Entry> index = new HashMap<>();
+    // Longueur du dernier enregistrement de chaque cours écrit dans le fichier
+    private final Map<String, Integer> courses = new HashMap<>();
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(4096);
+    // Ordre d'insertion ; null à la place d'un étudiant retiré
+    private String[] roster = new String[16];
+    private int rosterSize;
+    private FileChannel channel;
+    private long end;
+    // Octets des enregistrements encore utiles, pour décider du compactage
+    private long liveBytes;
+    private volatile int size;
+    private volatile long version;
+
+    FileStudentRepository(Path file, ObjectMapper objectMapper, CourseCatalog catalog) throws IOException {
+        this.file = file;
+        this.reader = objectMapper.readerFor(MutationRecord.class);
+        this.writer = objectMapper.writerFor(MutationRecord.class);
+        this.catalog = catalog;
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        // Dernier état de chaque étudiant, à la position de son premier ajout
+        Map<String, MutationRecord> students = new LinkedHashMap<>();
+        Map<String, MutationRecord> courses = new LinkedHashMap<>();
+        if (Files.exists(file)) {
+            MutationLog.replay(file, objectMapper, true, record -> {
+                if (MutationRecord.COURSE.equals(record.getType())) {
+                    courses.put(record.getId(), record);
+                } else if (MutationRecord.COURSE_REMOVED.equals(record.getType())) {
+                    courses.remove(record.getId());
+                } else if (MutationRecord.STUDENT_REMOVED.equals(record.getType())) {
+                    students.remove(record.getId());
+                } else {
+                    students.put(record.getId(), record);
+                }
+            });
+        }
+        List<Course> loaded = new ArrayList<>(courses.size());
+        for (MutationRecord record : courses.values()) {
+            loaded.add(record.getCourse());
+            catalog.put(record.getCourse(), record.isImplicit());
+        }
+        rewrite(loaded, new ArrayList<>(students.values()), null);
+        catalog.setStorage(this::courseWritten, this::courseRemoved);
+    }
+
+    @Override
+    public Student get(String studentId) {
+        if (studentId == null) {
+            return null;
+        }
+        lock.readLock().lock();
+        try {
+            Entry entry = index.get(studentId);
+            return entry == null ? null : toStudent(read(entry));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Snapshot range(int from, int limit) {
+        lock.readLock().lock();
+        try {
+            List<Student> students = new ArrayList<>(Math.max(0, Math.min(limit, size)));
+            int i = from;
+            for (; i < rosterSize && students.size() < limit; i++) {
+                String studentId = roster[i];
+                if (studentId != null) {
+                    students.add(toStudent(read(index.get(studentId))));
+                }
+            }
+            // Les places restantes peuvent n'être que des étudiants retirés
+            int following = i;
+            while (following < rosterSize && roster[following] == null) {
+                following++;
+            }
+            return new Snapshot(version, Collections.unmodifiableList(students), following < rosterSize, i);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public int position(String studentId) {
+        if (studentId == null) {
+            return -1;
+        }
+        lock.readLock().lock();
+        try {
+            Entry entry = index.get(studentId);
+            return entry == null ? -1 : entry.position;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void put(Student student) {
+        lock.writeLock().lock();
+        try {
+            write(student);
+            version = version + 1;
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Écrits sous une seule prise du verrou et publiés dans une même version
+    @Override
+    public void putAll(List<Student> students) {
+        lock.writeLock().lock();
+        try {
+            for (Student student : students) {
+                write(student);
+            }
+            version = version + 1;
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Nouvel enregistrement ; un étudiant déjà présent garde sa position
+    private void write(Student student) {
+        Entry entry = index.get(student.getId());
+        if (entry == null) {
+            insert(student);
+            return;
+        }
+        writeCourses(student);
+        Entry replaced = append(MutationRecord.of(student), entry.position);
+        index.put(student.getId(), replaced);
+        liveBytes += replaced.length - entry.length;
+    }
+
+    @Override
+    public Student remove(String studentId) {
+        if (studentId == null) {
+            return null;
+        }
+        lock.writeLock().lock();
+        try {
+            Entry entry = index.get(studentId);
+            if (entry == null) {
+                return null;
+            }
+            Student current = toStudent(read(entry));
+            append(MutationRecord.removed(studentId), -1);
+            index.remove(studentId);
+            roster[entry.position] = null;
+            size = index.size();
+            liveBytes -= entry.length;
+            version = version + 1;
+            compactIfNeeded();
+            return current;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            channel.truncate(0);
+            end = 0;
+            reset();
+            rosterReset();
+            // Le catalogue n'est pas vidé avec les étudiants
+            for (Course course : catalog.list()) {
+                writeCourse(course);
+            }
+            version = version + 1;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot truncate " + file, e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.writeLock().lock();
+        try {
+            catalog.setStorage(null, null);
+            channel.force(true);
+            channel.close();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Taille du fichier, enregistrements remplacés compris
+    long fileSize() {
+        return end;
+    }
+
+    private void insert(Student student) {
+        writeCourses(student);
+        Entry entry = append(MutationRecord.of(student), rosterSize);
+        index.put(student.getId(), entry);
+        if (rosterSize == roster.length) {
+            roster = Arrays.copyOf(roster, rosterSize * 2);
+        }
+        roster[rosterSize++] = student.getId();
+        size = index.size();
+        liveBytes += entry.length;
+    }
+
+    // Écrit les cours que le fichier ne contient pas encore (ajoutés avant l'ouverture), pour les retrouver ensuite
+    private void writeCourses(Student student) {
+        for (CourseRef ref : student.courseRefs()) {
+            if (!courses.containsKey(ref.getId())) {
+                writeCourse(ref.getCourse());
+            }
+        }
+    }
+
+    // Appelé par le catalogue à chaque ajout ou modification d'un cours
+    private void courseWritten(Course course) {
+        lock.writeLock().lock();
+        try {
+            writeCourse(course);
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Appelé par le catalogue quand un cours en est retiré
+    private void courseRemoved(String courseId) {
+        lock.writeLock().lock();
+        try {
+            Integer previous = courses.remove(courseId);
+            if (previous != null) {
+                append(MutationRecord.courseRemoved(courseId), -1);
+                liveBytes -= previous;
+                compactIfNeeded();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Le nouvel enregistrement du cours remplace le précédent
+    private void writeCourse(Course course) {
+        int length = append(MutationRecord.of(course, catalog.isImplicit(course.getId())), -1).length;
+        Integer previous = courses.put(course.getId(), length);
+        liveBytes += length - (previous == null ? 0 : previous);
+    }
+
+    // Ajoute l'enregistrement en fin de fichier, sous le verrou exclusif
+    private Entry append(MutationRecord record, int position) {
+        try {
+            buffer.reset();
+            MutationLog.writeFrame(new DataOutputStream(buffer), writer.writeValueAsBytes(record));
+            ByteBuffer bytes = ByteBuffer.wrap(buffer.toByteArray());
+            long offset = end;
+            while (bytes.hasRemaining()) {
+                channel.write(bytes, offset + bytes.position());
+            }
+            end = offset + bytes.capacity();
+            return new Entry(offset, bytes.capacity(), position);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write to " + file, e);
+        }
+    }
+
+    private MutationRecord read(Entry entry) {
+        try {
+            ByteBuffer bytes = ByteBuffer.allocate(entry.length);
+            while (bytes.hasRemaining()) {
+                if (channel.read(bytes, entry.offset + bytes.position()) < 0) {
+                    throw new EOFException("Record at " + entry.offset + " is truncated");
+                }
+            }
+            // L'en-tête (longueur, CRC) a été vérifié à l'ouverture ou écrit par ce dépôt
+            return reader.readValue(bytes.array(), 8, entry.length - 8);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read " + file, e);
+        }
+    }
+
+    private Student toStudent(MutationRecord record) {
+        List<CourseRef> refs = new ArrayList<>();
+        if (record.getCourses() != null) {
+            for (String courseId : record.getCourses()) {
+                // Une lecture ne modifie pas le catalogue : un cours inconnu reste une référence locale
+                CourseRef ref = catalog.get(courseId);
+                refs.add(ref != null ? ref : new CourseRef(new Course(courseId, null, null, null)));
+            }
+        }
+        Student student = new Student(record.getId(), record.getName(), record.getDescription(), new ArrayList<>());
+        return student.withCourseRefs(refs);
+    }
+
+    private void compactIfNeeded() {
+        if (end < MIN_COMPACTION_BYTES || liveBytes > end / 2) {
+            return;
+        }
+        List<MutationRecord> students = new ArrayList<>(index.size());
+        int[] positions = new int[index.size()];
+        for (int i = 0; i < rosterSize; i++) {
+            if (roster[i] != null) {
+                positions[students.size()] = i;
+                students.add(read(index.get(roster[i])));
+            }
+        }
+        try {
+            rewrite(catalog.list(), students, positions);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot compact " + file, e);
+        }
+    }
+
+    /**
+     * Remplace le fichier par ces cours, les autres cours cités et ces
+     * étudiants, dans cet ordre, puis reconstruit l'index. Le nouveau fichier
+     * est écrit à côté et renommé : un arrêt pendant la réécriture laisse
+     * l'ancien intact.
+     *
+     * @param positions position de chaque étudiant, conservée par un
+     *        compactage ; {@code null} à l'ouverture pour les renuméroter
+     */
+    private void rewrite(Collection<Course> catalogCourses, List<MutationRecord> students, int[] positions)
+            throws IOException {
+        Path compacted = file.resolveSibling(file.getFileName() + ".compact");
+        if (channel != null) {
+            channel.close();
+        }
+        channel = FileChannel.open(compacted, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        end = 0;
+        reset();
+        if (positions == null) {
+            rosterReset();
+        }
+        for (Course course : catalogCourses) {
+            writeCourse(course);
+        }
+        for (MutationRecord record : students) {
+            if (record.getCourses() != null) {
+                for (String courseId : record.getCourses()) {
+                    CourseRef ref = catalog.get(courseId);
+                    if (ref != null && !courses.containsKey(courseId)) {
+                        writeCourse(ref.getCourse());
+                    }
+                }
+            }
+        }
+        for (int i = 0; i < students.size(); i++) {
+            MutationRecord record = students.get(i);
+            if (positions == null) {
+                if (rosterSize == roster.length) {
+                    roster = Arrays.copyOf(roster, rosterSize * 2);
+                }
+                roster[rosterSize++] = record.getId();
+            }
+            Entry entry = append(record, positions == null ? rosterSize - 1 : positions[i]);
+            index.put(record.getId(), entry);
+            liveBytes += entry.length;
+        }
+        channel.force(true);
+        channel.close();
+        Files.move(compacted, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        size = index.size();
+    }
+
+    // Vide l'index ; l'ordre d'insertion est gardé par un compactage
+    private void reset() {
+        index.clear();
+        courses.clear();
+        liveBytes = 0;
+        size = 0;
+    }
+
+    private void rosterReset() {
+        roster = new String[16];
+        rosterSize = 0;
+    }
+
+    // Emplacement du dernier enregistrement d'un étudiant et sa position d'insertion
+    private static final class Entry {
+
+        final long offset;
+        final int length;
+        final int position;
+
+        Entry(long offset, int length, int position) {
+            this.offset = offset;
+            this.length = length;
+            this.position = position;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.wayis.classrooms.springboot.studentrestapi.service;
+
+/**
+ * Estimation de la fréquence d'accès des clés (count-min sketch à compteurs
+ * de 4 bits, quatre fonctions de hachage), pour l'admission W-TinyLFU de
+ * {@link CachingStudentRepository} et du cache des réponses du contrôleur.
+ * <p>
+ * Après {@code 10 × maximumSize} incréments, tous les compteurs sont divisés
+ * par deux : la fréquence reflète les accès récents et une clé autrefois
+ * populaire finit par céder sa place. Non synchronisé : utilisé sous le
+ * verrou de la politique d'éviction.
+ */
+public final class FrequencySketch {
+
+    private static final long[] SEEDS = {
+            0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L};
+    // Efface le bit de poids fort de chaque compteur après le décalage
+    private static final long RESET_MASK = 0x7777777777777777L;
+    private static final long COUNTER_MAX = 0xfL;
+
+    // Seize compteurs de 4 bits par long
+    private final long[] table;
+    private final int counterMask;
+    private final int sampleSize;
+    private int additions;
+
+    public FrequencySketch(long maximumSize) {
+        int size = (int) Math.min(Math.max(maximumSize, 1), 1 << 26);
+        this.table = new long[ceilingPowerOfTwo(size)];
+        this.counterMask = table.length * 16 - 1;
+        this.sampleSize = (int) Math.min(10L * size, Integer.MAX_VALUE);
+    }
+
+    // Fréquence estimée, entre 0 et 15 ; jamais sous-estimée
+    public int frequency(Object key) {
+        int hash = spread(key.hashCode());
+        int frequency = Integer.MAX_VALUE;
+        for (int i = 0; i < SEEDS.length; i++) {
+            int index = indexOf(hash, i);
+            int count = (int) ((table[index >>> 4] >>> ((index & 15) << 2)) & COUNTER_MAX);
+            frequency = Math.min(frequency, count);
+        }
+        return frequency;
+    }
+
+    public void increment(Object key) {
+        int hash = spread(key.hashCode());
+        boolean added = false;
+        for (int i = 0; i < SEEDS.length; i++) {
+            added |= incrementAt(indexOf(hash, i));
+        }
+        if (added && ++additions >= sampleSize) {
+            reset();
+        }
+    }
+
+    private boolean incrementAt(int index) {
+        int offset = (index & 15) << 2;
+        long mask = COUNTER_MAX << offset;
+        if ((table[index >>> 4] & mask) == mask) {
+            return false;
+        }
+        table[index >>> 4] += 1L << offset;
+        return true;
+    }
+
+    private void reset() {
+        for (int i = 0; i < table.length; i++) {
+            table[i] = (table[i] >>> 1) & RESET_MASK;
+        }
+        additions >>>= 1;
+    }
+
+    private int indexOf(int hash, int i) {
+        long h = (hash + SEEDS[i]) * SEEDS[i];
+        h += h >>> 32;
+        return (int) h & counterMask;
+    }
+
+    private static int spread(int x) {
+        x = ((x >>> 16) ^ x) * 0x45d9f3b;
+        x = ((x >>> 16) ^ x) * 0x45d9f3b;
+        return (x >>> 16) ^ x;
+    }
+
+    private static int ceilingPowerOfTwo(int x) {
+        return 1 << -Integer.numberOfLeadingZeros(x - 1);
+    }
+}
@@ -0,0 +1,75 @@
+package com.wayis.classrooms.springboot.studentrestapi.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Anneau de hachage cohérent : chaque nœud y occupe plusieurs points
+ * virtuels et un identifiant appartient au premier point qui suit son
+ * empreinte.
+ * <p>
+ * Immuable : un changement de membres produit un nouvel anneau. Ajouter un
+ * nœud ne déplace vers lui que les identifiants des arcs qui précèdent ses
+ * points ; les autres gardent leur propriétaire.
+ */
+final class HashRing {
+
+    private final NavigableMap<Long, String> points;
+    private final List<String> nodes;
+    private final int virtualNodes;
+
+    HashRing(Collection<String> nodes, int virtualNodes) {
+        this.virtualNodes = virtualNodes;
+        this.nodes = Collections.unmodifiableList(new ArrayList<>(new TreeSet<>(nodes)));
+        TreeMap<Long, String> ring = new TreeMap<>();
+        for (String node : this.nodes) {
+            for (int i = 0; i < virtualNodes; i++) {
+                // En cas de collision, le nœud le plus petit garde le point : tous les membres calculent le même anneau
+                ring.putIfAbsent(hash(node + "#" + i), node);
+            }
+        }
+        this.points = ring;
+    }
+
+    // Nœuds triés : le même ordre sur tous les membres
+    List<String> nodes() {
+        return nodes;
+    }
+
+    String owner(String key) {
+        if (points.isEmpty()) {
+            return null;
+        }
+        Map.Entry<Long, String> point = points.ceilingEntry(hash(key));
+        return point != null ? point.getValue() : points.firstEntry().getValue();
+    }
+
+    HashRing with(String node) {
+        List<String> members = new ArrayList<>(nodes);
+        members.add(node);
+        return new HashRing(members, virtualNodes);
+    }
+
+    // Empreinte stable d'une JVM à l'autre : les 64 premiers bits du MD5
+    static long hash(String key) {
+        try {
+            byte[] digest = MessageDigest.getInstance("MD5").digest(key.getBytes(StandardCharsets.UTF_8));
+            long hash = 0;
+            for (int i = 0; i < 8; i++) {
+                hash = hash << 8 | (digest[i] & 0xff);
+            }
+            return hash;
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.wayis.classrooms.springboot.studentrestapi.service;
+
+/**
+ * Stratégie de génération des identifiants de cours.
+ * <p>
+ * Choisie par la propriété {@code students.id-generator} :
+ * {@code secure} (par défaut, comportement historique), {@code random} ou
+ * {@code time-ordered}.
+ */
+public interface IdGenerator {
+
+    String nextId();
+}
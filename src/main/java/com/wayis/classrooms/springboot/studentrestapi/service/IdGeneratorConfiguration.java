@@ -0,0 +1,24 @@
+package com.wayis.classrooms.springboot.studentrestapi.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class IdGeneratorConfiguration {
+
+    @Bean
+    public IdGenerator idGenerator(@Value("${students.id-generator:secure}") String mode,
+            @Value("${students.node-id:0}") int nodeId) {
+        switch (mode) {
+            case "secure":
+                return new SecureRandomIdGenerator();
+            case "random":
+                return new ThreadLocalRandomIdGenerator();
+            case "time-ordered":
+                return new TimeOrderedIdGenerator(nodeId);
+            default:
+                throw new IllegalArgumentException("Unknown students.id-generator: " + mode);
+        }
+    }
+}
@@ -0,0 +1,488 @@
+package com.wayis.classrooms.springboot.studentrestapi.service;
+
+import com.wayis.classrooms.springboot.studentrestapi.model.CourseRef;
+import com.wayis.classrooms.springboot.studentrestapi.model.Student;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+
+/**
+ * Écritures des étudiants au-dessus d'un {@link StudentRepository}, qui ne
+ * fait que les stocker.
+ * <p>
+ * Les écritures sont sérialisées par un verrou : une lecture suivie d'une
+ * écriture ({@link #update}, {@link #remove(String, Student)}) est atomique
+ * quel que soit le dépôt. Sous ce verrou, une fois l'écriture faite dans le
+ * dépôt, sont tenus à jour l'index inverse cours -> étudiants, le nombre
+ * d'inscriptions et le numéro de version, puis sont prévenus l'observateur,
+ * le flux des changements et les statistiques. Les lectures ne prennent
+ * aucun verrou et vont au dépôt, sauf celles par cours, servies par l'index.
+ * <p>
+ * {@link StudentService} en garde une seule instance ; {@link #use} change le
+ * dépôt sous-jacent.
+ */
+final class IndexedStudentRepository implements StudentRepository {
+
+    // Cases des compteurs d'écritures (puissance de deux)
+    private static final int STAMP_STRIPES = 4096;
+
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private volatile StudentRepository delegate;
+    // Index inverse cours -> étudiants inscrits, tenu à jour sous le verrou d'écriture
+    private final Map<String, Enrollments> enrolled = new ConcurrentHashMap<>();
+    // Nombre total d'inscriptions, tenu à jour sous le verrou d'écriture
+    private volatile long enrollments;
+    // Écritures publiées
+    private volatile long version;
+    // Écritures par étudiant, réparties par hachage de l'identifiant
+    private final AtomicLongArray stamps = new AtomicLongArray(STAMP_STRIPES);
+    private volatile StoreListener listener;
+    private volatile ChangeFeed changes;
+    private volatile EnrollmentStats stats;
+
+    IndexedStudentRepository(StudentRepository delegate) {
+        this.delegate = delegate;
+        reindexAll(delegate.snapshot().getStudents());
+    }
+
+    /**
+     * Remplace le dépôt sous-jacent ; l'index et les statistiques sont
+     * recalculés à partir de son contenu, qu'il n'a pas notifié.
+     */
+    void use(StudentRepository repository) {
+        writeLock.lock();
+        try {
+            List<Student> students = repository.snapshot().getStudents();
+            delegate = repository;
+            reindexAll(students);
+            version = version + 1;
+            stampAll();
+            notifyReset();
+            EnrollmentStats aggregates = stats;
+            if (aggregates != null) {
+                aggregates.rebuild(students);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    void setListener(StoreListener listener) {
+        this.listener = listener;
+    }
+
+    void setChangeFeed(ChangeFeed changes) {
+        this.changes = changes;
+    }
+
+    // Agrégats des inscriptions, mis à jour à chaque écriture et recalculés par load()
+    void setStats(EnrollmentStats stats) {
+        this.stats = stats;
+    }
+
+    long version() {
+        return version;
+    }
+
+    // Nombre total d'inscriptions
+    long enrollments() {
+        return enrollments;
+    }
+
+    /**
+     * Compteur des écritures de l'étudiant, incrémenté une fois l'écriture
+     * faite dans le dépôt. Lu avant l'étudiant, il ne peut pas être plus
+     * récent que l'état lu : ce qui est rangé sous ce compteur n'est plus
+     * reconnu dès l'écriture suivante. Les étudiants d'une même case
+     * partagent le compteur ; l'écriture de l'un invalide aussi l'autre.
+     */
+    long stamp(String studentId) {
+        return stamps.get(stripe(studentId));
+    }
+
+    @Override
+    public Student get(String studentId) {
+        return delegate.get(studentId);
+    }
+
+    @Override
+    public Snapshot range(int from, int limit) {
+        return delegate.range(from, limit);
+    }
+
+    @Override
+    public int position(String studentId) {
+        return delegate.position(studentId);
+    }
+
+    @Override
+    public int size() {
+        return delegate.size();
+    }
+
+    /**
+     * Lit au plus {@code limit} étudiants inscrits au cours, par identifiant
+     * croissant, à partir de l'identifiant qui suit {@code after}. Le coût ne
+     * dépend que du nombre d'étudiants lus.
+     */
+    Snapshot enrolled(String courseId, String after, int limit) {
+        long at = version;
+        Enrollments enrollment = enrolled.get(courseId);
+        if (enrollment == null) {
+            return new Snapshot(at, Collections.emptyList(), false, -1);
+        }
+        List<Student> students = new ArrayList<>(Math.min(limit, enrollment.count));
+        Iterator<String> ids = (after == null ? enrollment.students
+                : enrollment.students.tailSet(after, false)).iterator();
+        while (ids.hasNext() && students.size() < limit) {
+            Student student = enrolledStudent(ids.next(), courseId);
+            if (student != null) {
+                students.add(student);
+            }
+        }
+        // Une suite faite d'étudiants déjà désinscrits donnerait une page vide
+        boolean hasMore = false;
+        while (!hasMore && ids.hasNext()) {
+            hasMore = enrolledStudent(ids.next(), courseId) != null;
+        }
+        return new Snapshot(at, Collections.unmodifiableList(students), hasMore, -1);
+    }
+
+    // Un écrivain concurrent a pu désinscrire l'étudiant dans le dépôt avant de le retirer de l'index
+    private Student enrolledStudent(String studentId, String courseId) {
+        Student student = get(studentId);
+        return student != null && student.getCourse(courseId) != null ? student : null;
+    }
+
+    int enrolledCount(String courseId) {
+        Enrollments enrollment = enrolled.get(courseId);
+        return enrollment == null ? 0 : enrollment.count;
+    }
+
+    /**
+     * Ajoute l'étudiant s'il n'existe pas encore.
+     *
+     * @return {@code false} si un étudiant portait déjà cet identifiant
+     */
+    boolean add(Student student) {
+        writeLock.lock();
+        try {
+            if (delegate.position(student.getId()) >= 0) {
+                return false;
+            }
+            delegate.put(student);
+            written(null, student);
+            return true;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Ajoute plusieurs étudiants en une seule écriture du dépôt. Rien n'est
+     * écrit si tous les identifiants existaient déjà.
+     *
+     * @return pour chaque étudiant, {@code false} si son identifiant existait déjà
+     */
+    boolean[] addAll(List<Student> students) {
+        boolean[] added = new boolean[students.size()];
+        writeLock.lock();
+        try {
+            List<Student> inserted = new ArrayList<>(added.length);
+            Set<String> ids = new HashSet<>();
+            for (int i = 0; i < added.length; i++) {
+                Student student = students.get(i);
+                if (delegate.position(student.getId()) < 0 && ids.add(student.getId())) {
+                    inserted.add(student);
+                    added[i] = true;
+                }
+            }
+            if (inserted.isEmpty()) {
+                return added;
+            }
+            delegate.putAll(inserted);
+            for (Student student : inserted) {
+                written(null, student);
+            }
+            return added;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Remplace l'étudiant par le résultat de {@code change}. Si {@code change}
+     * retourne la même instance ou {@code null}, rien n'est écrit.
+     *
+     * @return {@code true} si une nouvelle version a été publiée
+     */
+    boolean update(String studentId, UnaryOperator<Student> change) {
+        if (studentId == null) {
+            return false;
+        }
+        writeLock.lock();
+        try {
+            Student current = delegate.get(studentId);
+            if (current == null) {
+                return false;
+            }
+            Student updated = change.apply(current);
+            if (updated == null || updated == current) {
+                return false;
+            }
+            delegate.put(updated);
+            written(current, updated);
+            return true;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    // Ajoute l'étudiant ou remplace celui qui porte le même identifiant
+    @Override
+    public void put(Student student) {
+        writeLock.lock();
+        try {
+            Student current = delegate.get(student.getId());
+            if (current == student) {
+                return;
+            }
+            delegate.put(student);
+            written(current, student);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Retire l'étudiant ; sa position reste réservée jusqu'au prochain chargement.
+     *
+     * @return l'étudiant retiré, {@code null} s'il était inconnu
+     */
+    @Override
+    public Student remove(String studentId) {
+        if (studentId == null) {
+            return null;
+        }
+        writeLock.lock();
+        try {
+            Student removed = delegate.remove(studentId);
+            if (removed == null) {
+                return null;
+            }
+            reindex(removed, null);
+            enrollments -= removed.getCourses().size();
+            version = version + 1;
+            stamps.incrementAndGet(stripe(studentId));
+            StoreListener target = listener;
+            if (target != null) {
+                target.studentRemoved(studentId);
+            }
+            notifyChanged(removed, null);
+            return removed;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Retire l'étudiant seulement s'il est encore dans l'état {@code expected}
+     * ({@link Student#sameState}) ; une écriture survenue entre-temps est conservée.
+     *
+     * @return {@code true} si l'étudiant a été retiré
+     */
+    boolean remove(String studentId, Student expected) {
+        if (studentId == null) {
+            return false;
+        }
+        writeLock.lock();
+        try {
+            Student current = delegate.get(studentId);
+            if (current == null || !current.sameState(expected)) {
+                return false;
+            }
+            remove(studentId);
+            return true;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Remplace tout le contenu par ces étudiants, écrits ensemble dans le
+     * dépôt ; sert au chargement initial. L'index inverse est construit en
+     * parallèle, cours par cours, à partir d'identifiants triés.
+     *
+     * @return le nombre d'étudiants ignorés car leur identifiant apparaissait déjà
+     */
+    int load(List<Student> students) {
+        writeLock.lock();
+        try {
+            Set<String> ids = new HashSet<>();
+            List<Student> kept = new ArrayList<>(students.size());
+            for (Student student : students) {
+                if (ids.add(student.getId())) {
+                    kept.add(student);
+                }
+            }
+            delegate.clear();
+            delegate.putAll(kept);
+            reindexAll(kept);
+            version = version + 1;
+            stampAll();
+            notifyReset();
+            for (Student student : kept) {
+                notifyWritten(student);
+            }
+            EnrollmentStats aggregates = stats;
+            if (aggregates != null) {
+                aggregates.rebuild(kept);
+            }
+            return students.size() - kept.size();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        writeLock.lock();
+        try {
+            delegate.clear();
+            enrolled.clear();
+            enrollments = 0;
+            version = version + 1;
+            stampAll();
+            notifyReset();
+            EnrollmentStats aggregates = stats;
+            if (aggregates != null) {
+                aggregates.clear();
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        delegate.close();
+    }
+
+    // Après l'écriture dans le dépôt, sous le verrou d'écriture
+    private void written(Student before, Student after) {
+        reindex(before, after);
+        enrollments += after.getCourses().size() - (before == null ? 0 : before.getCourses().size());
+        version = version + 1;
+        stamps.incrementAndGet(stripe(after.getId()));
+        notifyWritten(after);
+        notifyChanged(before, after);
+    }
+
+    // Tout le contenu a pu changer : chaque case avance
+    private void stampAll() {
+        for (int i = 0; i < STAMP_STRIPES; i++) {
+            stamps.incrementAndGet(i);
+        }
+    }
+
+    private static int stripe(String studentId) {
+        int hash = studentId.hashCode();
+        return (hash ^ (hash >>> 16)) & (STAMP_STRIPES - 1);
+    }
+
+    private void notifyWritten(Student student) {
+        StoreListener current = listener;
+        if (current != null) {
+            current.studentWritten(student);
+        }
+    }
+
+    // Un seul événement pour le flux, plutôt qu'un par étudiant remplacé
+    private void notifyReset() {
+        ChangeFeed current = changes;
+        if (current != null) {
+            current.studentsReset();
+        }
+    }
+
+    private void notifyChanged(Student before, Student after) {
+        ChangeFeed current = changes;
+        if (current != null) {
+            current.studentChanged(before, after);
+        }
+        EnrollmentStats aggregates = stats;
+        if (aggregates != null) {
+            aggregates.studentChanged(before, after);
+        }
+    }
+
+    // Reconstruit l'index inverse et le nombre d'inscriptions pour ces étudiants
+    private void reindexAll(List<Student> students) {
+        Map<String, List<String>> idsByCourse = students.parallelStream()
+                .flatMap(student -> student.courseRefs().stream()
+                        .map(ref -> new String[] {ref.getId(), student.getId()}))
+                .collect(Collectors.groupingBy(pair -> pair[0],
+                        Collectors.mapping(pair -> pair[1], Collectors.toList())));
+        enrolled.clear();
+        idsByCourse.entrySet().parallelStream().forEach(entry -> {
+            List<String> ids = entry.getValue();
+            // Insérés dans l'ordre, les identifiants s'ajoutent en fin de liste chaînée
+            ids.sort(null);
+            Enrollments enrollment = new Enrollments();
+            enrollment.students.addAll(ids);
+            enrollment.count = enrollment.students.size();
+            enrolled.put(entry.getKey(), enrollment);
+        });
+        long total = 0;
+        for (Student student : students) {
+            total += student.getCourses().size();
+        }
+        enrollments = total;
+    }
+
+    // Reporte dans l'index inverse les cours quittés et rejoints par l'étudiant (after vaut null s'il est retiré)
+    private void reindex(Student before, Student after) {
+        if (before != null) {
+            for (CourseRef ref : before.courseRefs()) {
+                if (after == null || after.getCourse(ref.getId()) == null) {
+                    Enrollments enrollment = enrolled.get(ref.getId());
+                    if (enrollment != null && enrollment.students.remove(before.getId())) {
+                        enrollment.count--;
+                        if (enrollment.count == 0) {
+                            enrolled.remove(ref.getId());
+                        }
+                    }
+                }
+            }
+        }
+        if (after == null) {
+            return;
+        }
+        for (CourseRef ref : after.courseRefs()) {
+            if (before == null || before.getCourse(ref.getId()) == null) {
+                Enrollments enrollment = enrolled.computeIfAbsent(ref.getId(), id -> new Enrollments());
+                if (enrollment.students.add(after.getId())) {
+                    enrollment.count++;
+                }
+            }
+        }
+    }
+
+    private static final class Enrollments {
+
+        final ConcurrentSkipListSet<String> students = new ConcurrentSkipListSet<>();
+        // Tenu à part : size() parcourt tout l'ensemble
+        volatile int count;
+    }
+}
@@ -0,0 +1,46 @@
+package com.wayis.classrooms.springboot.studentrestapi.service;
+
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import java.util.Set;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MetricsConfiguration {
+
+    /**
+     * Publie un histogramme et les percentiles configurés pour les routes HTTP
+     * ({@code http.server.requests}, par modèle d'URI) et les opérations de
+     * {@link StudentService} listées ; {@code *} les sélectionne toutes.
+     */
+    @Bean
+    public MeterFilter studentHistograms(@Value("${students.metrics.percentiles:0.5,0.99}") double[] percentiles,
+            @Value("${students.metrics.histogram-routes:*}") Set<String> routes,
+            @Value("${students.metrics.histogram-operations:*}") Set<String> operations) {
+        DistributionStatisticConfig histogram = DistributionStatisticConfig.builder()
+                .percentilesHistogram(true)
+                .percentiles(percentiles)
+                .build();
+        return new MeterFilter() {
+            @Override
+            public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+                if (selected(id, "http.server.requests", "uri", routes)
+                        || selected(id, "students.service", "operation", operations)) {
+                    return histogram.merge(config);
+                }
+                return config;
+            }
+        };
+    }
+
+    private static boolean selected(Meter.Id id, String name, String tag, Set<String> values) {
+        if (!name.equals(id.getName())) {
+            return false;
+        }
+        String value = id.getTag(tag);
+        return value != null && (values.contains("*") || values.contains(value));
+    }
+}
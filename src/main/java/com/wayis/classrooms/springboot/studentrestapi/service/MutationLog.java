@@ -0,0 +1,298 @@
+package com.wayis.classrooms.springboot.studentrestapi.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+import java.util.zip.CRC32;
+
+/**
+ * Journal d'écriture anticipée (WAL) des {@link MutationRecord}.
+ * <p>
+ * Chaque enregistrement est écrit sous la forme {@code [longueur][CRC32][JSON]}.
+ * Les écrivains déposent leurs enregistrements dans une file et attendent
+ * ({@link #awaitDurable()}) qu'un unique thread les écrive puis appelle
+ * {@code fsync} : un seul {@code fsync} couvre tous les enregistrements
+ * arrivés pendant le précédent (group commit).
+ * <p>
+ * Le journal est découpé en segments {@code wal-<séquence>.log}, nommés
+ * d'après la séquence de leur premier enregistrement. Après
+ * {@code rollEvery} enregistrements, un nouveau segment est ouvert et
+ * {@code onRoll} est appelé avec sa séquence de départ, pour qu'un instantané
+ * rende les segments précédents inutiles.
+ */
+final class MutationLog implements Closeable {
+
+    private static final Pending CLOSE = new Pending(-1, null);
+    private static final int MAX_GROUP = 4096;
+    // Au-delà, une longueur lue au relecture est tenue pour corrompue
+    static final int MAX_RECORD_SIZE = 64 * 1024 * 1024;
+
+    private final Path directory;
+    private final ObjectWriter writer;
+    private final int rollEvery;
+    private final LongConsumer onRoll;
+    private final BlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+    private final ThreadLocal<long[]> lastAppended = ThreadLocal.withInitial(() -> new long[] {-1});
+    // Verrou plutôt que moniteur : un thread virtuel en attente libère son thread porteur
+    private final ReentrantLock durableLock = new ReentrantLock();
+    private final Condition durable = durableLock.newCondition();
+    private final Thread flusher;
+
+    // Protégé par this : la séquence et l'ordre dans la file doivent coïncider
+    private long nextSequence;
+    private volatile long durableSequence;
+    private volatile IOException failure;
+
+    // Utilisés uniquement par le thread d'écriture
+    private FileChannel channel;
+    private int segmentRecords;
+
+    MutationLog(Path directory, long firstSequence, ObjectMapper objectMapper, int rollEvery,
+            LongConsumer onRoll) throws IOException {
+        this.directory = directory;
+        this.writer = objectMapper.writerFor(MutationRecord.class);
+        this.rollEvery = rollEvery;
+        this.onRoll = onRoll;
+        this.nextSequence = firstSequence;
+        this.durableSequence = firstSequence - 1;
+        this.channel = openSegment(firstSequence);
+        this.flusher = new Thread(this::flushLoop, "mutation-log");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    static Path segmentPath(Path directory, long firstSequence) {
+        return directory.resolve(String.format("wal-%020d.log", firstSequence));
+    }
+
+    static Path snapshotPath(Path directory, long sequence) {
+        return directory.resolve(String.format("snapshot-%020d.dat", sequence));
+    }
+
+    // Séquence encodée dans le nom d'un segment ou d'un instantané
+    static long sequenceOf(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(name.indexOf('-') + 1, name.indexOf('.')));
+    }
+
+    /**
+     * Dépose un enregistrement ; il sera durable quand {@link #awaitDurable()}
+     * rendra la main dans ce thread.
+     */
+    void append(MutationRecord record) {
+        synchronized (this) {
+            long sequence = nextSequence++;
+            queue.add(new Pending(sequence, record));
+            lastAppended.get()[0] = sequence;
+        }
+    }
+
+    /**
+     * Attend que le dernier enregistrement déposé par ce thread soit sur disque.
+     */
+    void awaitDurable() {
+        long sequence = lastAppended.get()[0];
+        if (sequence <= durableSequence) {
+            checkFailure();
+            return;
+        }
+        durableLock.lock();
+        try {
+            while (durableSequence < sequence && failure == null) {
+                durable.await();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new UncheckedIOException(new InterruptedIOException("Interrupted while waiting for fsync"));
+        } finally {
+            durableLock.unlock();
+        }
+        checkFailure();
+    }
+
+    private void checkFailure() {
+        if (failure != null) {
+            throw new UncheckedIOException("Mutation log is unavailable", failure);
+        }
+    }
+
+    private void flushLoop() {
+        List<Pending> group = new ArrayList<>();
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(64 * 1024);
+        boolean closing = false;
+        while (!closing) {
+            group.clear();
+            try {
+                group.add(queue.take());
+            } catch (InterruptedException e) {
+                break;
+            }
+            queue.drainTo(group, MAX_GROUP);
+            if (group.remove(CLOSE)) {
+                closing = true;
+            }
+            if (group.isEmpty()) {
+                continue;
+            }
+            try {
+                buffer.reset();
+                DataOutputStream out = new DataOutputStream(buffer);
+                for (Pending pending : group) {
+                    writeFrame(out, writer.writeValueAsBytes(pending.record));
+                }
+                ByteBuffer bytes = ByteBuffer.wrap(buffer.toByteArray());
+                while (bytes.hasRemaining()) {
+                    channel.write(bytes);
+                }
+                channel.force(false);
+                segmentRecords += group.size();
+            } catch (IOException e) {
+                failure = e;
+            }
+            durableLock.lock();
+            try {
+                if (failure == null) {
+                    durableSequence = group.get(group.size() - 1).sequence;
+                }
+                durable.signalAll();
+            } finally {
+                durableLock.unlock();
+            }
+            if (failure == null && segmentRecords >= rollEvery) {
+                roll(group.get(group.size() - 1).sequence + 1);
+            }
+        }
+    }
+
+    private void roll(long firstSequence) {
+        try {
+            channel.close();
+            channel = openSegment(firstSequence);
+            segmentRecords = 0;
+            onRoll.accept(firstSequence);
+        } catch (IOException e) {
+            failure = e;
+        }
+    }
+
+    private FileChannel openSegment(long firstSequence) throws IOException {
+        return FileChannel.open(segmentPath(directory, firstSequence), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    @Override
+    public void close() throws IOException {
+        queue.add(CLOSE);
+        try {
+            flusher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        channel.close();
+    }
+
+    static void writeFrame(DataOutputStream out, byte[] payload) throws IOException {
+        CRC32 crc = new CRC32();
+        crc.update(payload, 0, payload.length);
+        out.writeInt(payload.length);
+        out.writeInt((int) crc.getValue());
+        out.write(payload);
+    }
+
+    static void writeFrame(OutputStream out, ObjectWriter writer, MutationRecord record) throws IOException {
+        writeFrame(new DataOutputStream(out), writer.writeValueAsBytes(record));
+    }
+
+    /**
+     * Relit les enregistrements d'un segment ou d'un instantané. La lecture
+     * s'arrête au premier enregistrement incomplet (en-tête compris), de
+     * longueur impossible ou dont le CRC ne correspond pas ; si {@code truncate} est vrai, le fichier est coupé à
+     * cet endroit (fin d'écriture interrompue par un arrêt brutal).
+     *
+     * @return le nombre d'enregistrements valides
+     */
+    static long replay(Path file, ObjectMapper objectMapper, boolean truncate,
+            Consumer<MutationRecord> consumer) throws IOException {
+        ObjectReader reader = objectMapper.readerFor(MutationRecord.class);
+        long count = 0;
+        long validBytes = 0;
+        boolean torn = false;
+        long size = Files.size(file);
+        try (InputStream in = Files.newInputStream(file);
+                DataInputStream data = new DataInputStream(new BufferedInputStream(in, 64 * 1024))) {
+            while (true) {
+                // Seule une fin de fichier avant le premier octet d'un enregistrement est une fin propre
+                int first = data.read();
+                if (first < 0) {
+                    break;
+                }
+                try {
+                    int length = (first << 24) | (data.readUnsignedByte() << 16)
+                            | (data.readUnsignedByte() << 8) | data.readUnsignedByte();
+                    int expectedCrc = data.readInt();
+                    // Longueur corrompue : ni allocation démesurée, ni lecture au-delà du fichier
+                    if (length < 0 || length > MAX_RECORD_SIZE || length > size - validBytes - 8) {
+                        torn = true;
+                        break;
+                    }
+                    byte[] payload = new byte[length];
+                    data.readFully(payload);
+                    CRC32 crc = new CRC32();
+                    crc.update(payload, 0, length);
+                    if ((int) crc.getValue() != expectedCrc) {
+                        torn = true;
+                        break;
+                    }
+                    consumer.accept(reader.readValue(payload));
+                    validBytes += 8 + length;
+                    count++;
+                } catch (EOFException e) {
+                    torn = true;
+                    break;
+                }
+            }
+        }
+        if (torn && truncate) {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                channel.truncate(validBytes);
+                channel.force(true);
+            }
+        }
+        return count;
+    }
+
+    private static final class Pending {
+
+        final long sequence;
+        final MutationRecord record;
+
+        Pending(long sequence, MutationRecord record) {
+            this.sequence = sequence;
+            this.record = record;
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.wayis.classrooms.springboot.studentrestapi.service;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.wayis.classrooms.springboot.studentrestapi.model.Course;
+import com.wayis.classrooms.springboot.studentrestapi.model.CourseRef;
+import com.wayis.classrooms.springboot.studentrestapi.model.Student;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Enregistrement du journal et des instantanés : l'état complet d'un
+ * étudiant (ses cours par identifiant), son retrait, un cours du catalogue
+ * ou son retrait.
+ * <p>
+ * Chaque enregistrement remplace l'état précédent de la même clé : rejouer
+ * la fin du journal sur un instantané plus récent donne le même résultat.
+ */
+public class MutationRecord {
+
+    public static final String STUDENT = "student";
+    public static final String COURSE = "course";
+    public static final String STUDENT_REMOVED = "student-removed";
+    public static final String COURSE_REMOVED = "course-removed";
+
+    private String type;
+    private String id;
+    private String name;
+    private String description;
+    private List<String> courses;
+    private Course course;
+    // Cours créé par une inscription (CourseCatalog#isImplicit) ; absent du JSON sinon
+    @JsonInclude(JsonInclude.Include.NON_DEFAULT)
+    private boolean implicit;
+
+    public MutationRecord() {
+
+    }
+
+    static MutationRecord of(Student student) {
+        MutationRecord record = new MutationRecord();
+        record.type = STUDENT;
+        record.id = student.getId();
+        record.name = student.getName();
+        record.description = student.getDescription();
+        List<CourseRef> refs = student.courseRefs();
+        record.courses = new ArrayList<>(refs.size());
+        for (CourseRef ref : refs) {
+            record.courses.add(ref.getId());
+        }
+        return record;
+    }
+
+    static MutationRecord removed(String studentId) {
+        MutationRecord record = new MutationRecord();
+        record.type = STUDENT_REMOVED;
+        record.id = studentId;
+        return record;
+    }
+
+    static MutationRecord of(Course course, boolean implicit) {
+        MutationRecord record = new MutationRecord();
+        record.type = COURSE;
+        record.id = course.getId();
+        record.course = course;
+        record.implicit = implicit;
+        return record;
+    }
+
+    static MutationRecord courseRemoved(String courseId) {
+        MutationRecord record = new MutationRecord();
+        record.type = COURSE_REMOVED;
+        record.id = courseId;
+        return record;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    public List<String> getCourses() {
+        return courses;
+    }
+
+    public void setCourses(List<String> courses) {
+        this.courses = courses;
+    }
+
+    public Course getCourse() {
+        return course;
+    }
+
+    public void setCourse(Course course) {
+        this.course = course;
+    }
+
+    public boolean isImplicit() {
+        return implicit;
+    }
+
+    public void setImplicit(boolean implicit) {
+        this.implicit = implicit;
+    }
+}
@@ -0,0 +1,326 @@
+package com.wayis.classrooms.springboot.studentrestapi.service;
+
+import com.fasterxml.jackson.databind.ObjectReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Lecture parallèle d'un fichier CSV, JSON (tableau d'objets) ou NDJSON.
+ * <p>
+ * Le fichier est découpé en tranches qui commencent et finissent sur une
+ * frontière d'enregistrement : une fin de ligne pour CSV et NDJSON, la fin
+ * d'un objet de premier niveau pour JSON. Chaque tranche est projetée en
+ * mémoire et analysée par un thread différent ; les résultats gardent
+ * l'ordre du fichier.
+ */
+final class RosterFile {
+
+    enum Format {
+        CSV, JSON, NDJSON;
+
+        static Format of(Path file) {
+            String name = file.getFileName().toString().toLowerCase();
+            if (name.endsWith(".csv")) {
+                return CSV;
+            } else if (name.endsWith(".ndjson") || name.endsWith(".jsonl")) {
+                return NDJSON;
+            } else if (name.endsWith(".json")) {
+                return JSON;
+            }
+            throw new IllegalArgumentException("Unsupported roster file (csv, json, ndjson): " + file);
+        }
+    }
+
+    // Taille des lectures lors de la recherche des frontières
+    private static final int PROBE_SIZE = 64 * 1024;
+
+    private final Path file;
+    private final Format format;
+    private final long chunkSize;
+
+    RosterFile(Path file, long chunkSize) {
+        this.file = file;
+        this.format = Format.of(file);
+        this.chunkSize = chunkSize;
+    }
+
+    Format getFormat() {
+        return format;
+    }
+
+    /**
+     * Analyse tout le fichier sur {@code pool}.
+     *
+     * @param reader lecteur Jackson d'un enregistrement (JSON et NDJSON)
+     * @param row conversion d'une ligne CSV, sans la ligne d'en-tête
+     */
+    <T> List<T> read(ObjectReader reader, Function<String[], T> row, ForkJoinPool pool) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long[] boundaries = boundaries(channel);
+            try {
+                List<List<T>> chunks = pool.submit(() -> IntStream.range(0, boundaries.length - 1)
+                        .parallel()
+                        .mapToObj(i -> readChunk(channel, boundaries[i], boundaries[i + 1], i == 0, reader, row))
+                        .collect(Collectors.toList()))
+                        .get();
+                List<T> records = new ArrayList<>(chunks.stream().mapToInt(List::size).sum());
+                chunks.forEach(records::addAll);
+                return records;
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof UncheckedIOException) {
+                    throw ((UncheckedIOException) e.getCause()).getCause();
+                }
+                throw new IOException("Cannot read " + file, e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while reading " + file, e);
+            }
+        }
+    }
+
+    // Positions de début de chaque tranche, suivies de la taille du fichier
+    long[] boundaries(FileChannel channel) throws IOException {
+        long size = channel.size();
+        List<Long> boundaries = new ArrayList<>();
+        boundaries.add(0L);
+        if (format == Format.JSON) {
+            jsonBoundaries(channel, size, boundaries);
+        } else {
+            for (long target = chunkSize; target < size; ) {
+                long next = nextLine(channel, target, size);
+                if (next >= size) {
+                    break;
+                }
+                boundaries.add(next);
+                target = next + chunkSize;
+            }
+        }
+        boundaries.add(size);
+        return boundaries.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    // Position qui suit la première fin de ligne à partir de from
+    private static long nextLine(FileChannel channel, long from, long size) throws IOException {
+        ByteBuffer probe = ByteBuffer.allocate(PROBE_SIZE);
+        long position = from;
+        while (position < size) {
+            probe.clear();
+            int read = channel.read(probe, position);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (probe.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+        return size;
+    }
+
+    // Parcours séquentiel, sans analyse Jackson : on ne suit que la profondeur et les chaînes
+    private void jsonBoundaries(FileChannel channel, long size, List<Long> boundaries) throws IOException {
+        ByteBuffer probe = ByteBuffer.allocate(PROBE_SIZE);
+        JsonScanner scanner = new JsonScanner();
+        long target = chunkSize;
+        for (long position = 0; position < size; ) {
+            probe.clear();
+            int read = channel.read(probe, position);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (scanner.next(probe.get(i)) == JsonScanner.OBJECT_END && position + i + 1 >= target
+                        && position + i + 1 < size) {
+                    boundaries.add(position + i + 1);
+                    target = position + i + 1 + chunkSize;
+                }
+            }
+            position += read;
+        }
+    }
+
+    private <T> List<T> readChunk(FileChannel channel, long start, long end, boolean first,
+            ObjectReader reader, Function<String[], T> row) {
+        try {
+            MappedByteBuffer chunk = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+            List<T> records = new ArrayList<>();
+            byte[] buffer = new byte[4096];
+            int limit = chunk.limit();
+
+            if (format == Format.JSON) {
+                JsonScanner scanner = new JsonScanner();
+                int objectStart = -1;
+                for (int i = 0; i < limit; i++) {
+                    int event = scanner.next(chunk.get(i));
+                    if (event == JsonScanner.OBJECT_START) {
+                        objectStart = i;
+                    } else if (event == JsonScanner.OBJECT_END) {
+                        buffer = copy(chunk, objectStart, i + 1, buffer);
+                        records.add(reader.readValue(buffer, 0, i + 1 - objectStart));
+                    }
+                }
+                return records;
+            }
+
+            int lineStart = 0;
+            // La ligne d'en-tête CSV est la première ligne du fichier
+            boolean skip = first && format == Format.CSV;
+            for (int i = 0; i <= limit; i++) {
+                if (i < limit && chunk.get(i) != '\n') {
+                    continue;
+                }
+                int lineEnd = i > lineStart && chunk.get(i - 1) == '\r' ? i - 1 : i;
+                if (skip) {
+                    skip = false;
+                } else if (!isBlank(chunk, lineStart, lineEnd)) {
+                    buffer = copy(chunk, lineStart, lineEnd, buffer);
+                    int length = lineEnd - lineStart;
+                    records.add(format == Format.CSV
+                            ? row.apply(csvFields(buffer, length))
+                            : reader.readValue(buffer, 0, length));
+                }
+                lineStart = i + 1;
+            }
+            return records;
+        } catch (IOException e) {
+            throw new UncheckedIOException(new IOException(file + " near byte " + start + ": " + e.getMessage(), e));
+        }
+    }
+
+    private static byte[] copy(ByteBuffer chunk, int from, int to, byte[] buffer) {
+        int length = to - from;
+        if (buffer.length < length) {
+            buffer = new byte[Math.max(length, buffer.length * 2)];
+        }
+        chunk.get(from, buffer, 0, length);
+        return buffer;
+    }
+
+    private static boolean isBlank(ByteBuffer chunk, int from, int to) {
+        for (int i = from; i < to; i++) {
+            byte b = chunk.get(i);
+            if (b != ' ' && b != '\t') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Champs d'une ligne CSV (RFC 4180, sans saut de ligne dans un champ
+     * entre guillemets).
+     */
+    static String[] csvFields(byte[] line, int length) {
+        List<String> fields = new ArrayList<>(4);
+        int i = 0;
+        while (true) {
+            if (i < length && line[i] == '"') {
+                StringBuilder field = new StringBuilder();
+                int from = ++i;
+                while (i < length) {
+                    if (line[i] == '"') {
+                        field.append(new String(line, from, i - from, StandardCharsets.UTF_8));
+                        if (i + 1 < length && line[i + 1] == '"') {
+                            field.append('"');
+                            i += 2;
+                            from = i;
+                            continue;
+                        }
+                        i++;
+                        break;
+                    }
+                    i++;
+                }
+                fields.add(field.toString());
+                while (i < length && line[i] != ',') {
+                    i++;
+                }
+            } else {
+                int from = i;
+                while (i < length && line[i] != ',') {
+                    i++;
+                }
+                fields.add(new String(line, from, i - from, StandardCharsets.UTF_8));
+            }
+            if (i >= length) {
+                return fields.toArray(new String[0]);
+            }
+            i++;
+        }
+    }
+
+    // Champ CSV, null s'il manque ou s'il est vide
+    static String csvField(String[] fields, int index) {
+        return fields.length <= index || fields[index].isEmpty() ? null : fields[index];
+    }
+
+    // Liste séparée par des points-virgules dans un champ CSV
+    static List<String> csvList(String[] fields, int index) {
+        if (fields.length <= index || fields[index].isEmpty()) {
+            return new ArrayList<>();
+        }
+        return new ArrayList<>(Arrays.asList(fields[index].split(";")));
+    }
+
+    /**
+     * Repère les objets de premier niveau d'un tableau JSON, octet par octet.
+     * Les crochets, virgules et blancs hors des objets sont ignorés.
+     */
+    private static final class JsonScanner {
+
+        static final int NONE = 0;
+        static final int OBJECT_START = 1;
+        static final int OBJECT_END = 2;
+
+        private int depth;
+        private boolean inString;
+        private boolean escaped;
+
+        int next(byte b) {
+            if (inString) {
+                if (escaped) {
+                    escaped = false;
+                } else if (b == '\\') {
+                    escaped = true;
+                } else if (b == '"') {
+                    inString = false;
+                }
+                return NONE;
+            }
+            if (depth == 0) {
+                if (b == '{') {
+                    depth = 1;
+                    return OBJECT_START;
+                }
+                return NONE;
+            }
+            if (b == '"') {
+                inString = true;
+            } else if (b == '{' || b == '[') {
+                depth++;
+            } else if (b == '}' || b == ']') {
+                depth--;
+                if (depth == 0) {
+                    return OBJECT_END;
+                }
+            }
+            return NONE;
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package com.wayis.classrooms.springboot.studentrestapi.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wayis.classrooms.springboot.studentrestapi.model.Course;
+import com.wayis.classrooms.springboot.studentrestapi.model.CourseRef;
+import com.wayis.classrooms.springboot.studentrestapi.model.Student;
+import jakarta.annotation.PostConstruct;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
+import org.springframework.stereotype.Component;
+
+/**
+ * Chargement au démarrage d'un catalogue et d'une liste d'étudiants depuis
+ * des fichiers CSV, JSON ou NDJSON, à la place des données d'exemple.
+ * <p>
+ * Les fichiers sont analysés en parallèle ({@link RosterFile}), puis les
+ * étudiants sont publiés en une seule fois ({@link IndexedStudentRepository#load}) sans
+ * passer par {@code addStudent}. La durée, le débit et la mémoire utilisée
+ * sont journalisés et publiés comme étape {@code students.roster.load} sur
+ * {@code /actuator/startup}.
+ * <p>
+ * Avec la persistance, les fichiers ne sont lus qu'au premier démarrage ;
+ * ensuite l'état vient de l'instantané et du journal.
+ */
+@Component
+// Le dépôt des étudiants doit être choisi avant d'être rempli
+@DependsOn("studentRepository")
+public class RosterLoader {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RosterLoader.class);
+
+    private final ObjectMapper objectMapper;
+    private final ApplicationStartup applicationStartup;
+
+    @Value("${students.loader.courses:}")
+    private String coursesFile = "";
+
+    @Value("${students.loader.students:}")
+    private String studentsFile = "";
+
+    // 0 : un thread par cœur
+    @Value("${students.loader.parallelism:0}")
+    private int parallelism;
+
+    @Value("${students.loader.chunk-size:8388608}")
+    private long chunkSize = 8 * 1024 * 1024;
+
+    @Value("${students.persistence.enabled:false}")
+    private boolean persistence;
+
+    private volatile LoadReport lastLoad;
+
+    @Autowired
+    public RosterLoader(ObjectMapper objectMapper, ApplicationStartup applicationStartup) {
+        this.objectMapper = objectMapper;
+        this.applicationStartup = applicationStartup;
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        // Avec la persistance, StudentPersistence décide s'il s'agit d'un premier démarrage
+        if (!persistence) {
+            loadConfigured();
+        }
+    }
+
+    /**
+     * Charge les fichiers configurés, s'il y en a.
+     *
+     * @return {@code false} si aucun fichier n'est configuré
+     */
+    boolean loadConfigured() throws IOException {
+        if (coursesFile.isEmpty() && studentsFile.isEmpty()) {
+            return false;
+        }
+        load(coursesFile.isEmpty() ? null : Paths.get(coursesFile),
+                studentsFile.isEmpty() ? null : Paths.get(studentsFile));
+        return true;
+    }
+
+    /**
+     * Remplace le catalogue et les étudiants par le contenu des fichiers.
+     * Les cours cités par un étudiant mais absents du catalogue y sont ajoutés.
+     *
+     * @param courses fichier des cours, ou {@code null}
+     * @param students fichier des étudiants, ou {@code null}
+     */
+    public LoadReport load(Path courses, Path students) throws IOException {
+        StartupStep step = applicationStartup.start("students.roster.load");
+        long started = System.nanoTime();
+        long heapBefore = heapUsed();
+        ForkJoinPool pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        try {
+            IndexedStudentRepository store = StudentService.store();
+            CourseCatalog catalog = StudentService.catalog();
+            catalog.clear();
+
+            if (courses != null) {
+                List<Course> loadedCourses = new RosterFile(courses, chunkSize).read(
+                        objectMapper.readerFor(Course.class),
+                        fields -> new Course(RosterFile.csvField(fields, 0), RosterFile.csvField(fields, 1),
+                                RosterFile.csvField(fields, 2), RosterFile.csvList(fields, 3)),
+                        pool);
+                // Le catalogue et son index de recherche restent alimentés un cours à la fois
+                loadedCourses.forEach(catalog::add);
+            }
+
+            List<Student> loadedStudents = new ArrayList<>();
+            if (students != null) {
+                loadedStudents = new RosterFile(students, chunkSize).read(
+                        objectMapper.readerFor(Student.class),
+                        fields -> new Student(RosterFile.csvField(fields, 0), RosterFile.csvField(fields, 1),
+                                RosterFile.csvField(fields, 2), RosterFile.csvList(fields, 3).stream()
+                                .map(courseId -> new Course(courseId, null, null, null))
+                                .collect(Collectors.toList())),
+                        pool);
+                // Rattachement au catalogue en parallèle ; chaque cours n'y est cherché qu'une fois
+                Map<String, CourseRef> refs = new ConcurrentHashMap<>();
+                List<Student> parsed = loadedStudents;
+                loadedStudents = pool.submit(() -> parsed.parallelStream()
+                        .map(student -> bind(student, catalog, refs))
+                        .collect(Collectors.toList()))
+                        .join();
+            }
+            int duplicates = store.load(loadedStudents);
+
+            long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+            LoadReport report = new LoadReport(catalog.size(), loadedStudents.size() - duplicates,
+                    duplicates, millis, heapUsed() - heapBefore);
+            lastLoad = report;
+            step.tag("courses", String.valueOf(report.getCourses()))
+                    .tag("students", String.valueOf(report.getStudents()))
+                    .tag("studentsPerSecond", String.valueOf(report.getStudentsPerSecond()))
+                    .tag("heapUsedBytes", String.valueOf(report.getHeapUsedBytes()));
+            LOGGER.info("Loaded {} courses and {} students ({} duplicates skipped) in {} ms: {} students/s, heap +{} MB",
+                    report.getCourses(), report.getStudents(), duplicates, millis, report.getStudentsPerSecond(),
+                    report.getHeapUsedBytes() / (1024 * 1024));
+            return report;
+        } finally {
+            pool.shutdown();
+            step.end();
+        }
+    }
+
+    // Comme le rattachement de StudentService, avec les références déjà résolues pendant ce chargement
+    private static Student bind(Student student, CourseCatalog catalog, Map<String, CourseRef> refs) {
+        List<CourseRef> courses = new ArrayList<>(student.getCourses().size());
+        for (Course course : student.getCourses()) {
+            CourseRef ref = refs.get(course.getId());
+            if (ref == null) {
+                ref = refs.computeIfAbsent(course.getId(), id -> catalog.register(course));
+            }
+            courses.add(ref);
+        }
+        return student.withCourseRefs(courses);
+    }
+
+    public LoadReport getLastLoad() {
+        return lastLoad;
+    }
+
+    private static long heapUsed() {
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    /**
+     * Bilan d'un chargement. La mémoire est la différence de tas occupé avant
+     * et après, déchets compris.
+     */
+    public static final class LoadReport {
+
+        private final int courses;
+        private final int students;
+        private final int duplicates;
+        private final long millis;
+        private final long heapUsedBytes;
+
+        LoadReport(int courses, int students, int duplicates, long millis, long heapUsedBytes) {
+            this.courses = courses;
+            this.students = students;
+            this.duplicates = duplicates;
+            this.millis = millis;
+            this.heapUsedBytes = heapUsedBytes;
+        }
+
+        public int getCourses() {
+            return courses;
+        }
+
+        public int getStudents() {
+            return students;
+        }
+
+        public int getDuplicates() {
+            return duplicates;
+        }
+
+        public long getMillis() {
+            return millis;
+        }
+
+        public long getStudentsPerSecond() {
+            return millis == 0 ? students : students * 1000L / millis;
+        }
+
+        public long getHeapUsedBytes() {
+            return heapUsedBytes;
+        }
+    }
+}
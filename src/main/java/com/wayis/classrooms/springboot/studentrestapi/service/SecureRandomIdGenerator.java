@@ -0,0 +1,15 @@
+package com.wayis.classrooms.springboot.studentrestapi.service;
+
+import java.math.BigInteger;
+import java.security.SecureRandom;
+
+// Identifiants aléatoires cryptographiques (130 bits en base 32), comme à l'origine
+public class SecureRandomIdGenerator implements IdGenerator {
+
+    private final SecureRandom random = new SecureRandom();
+
+    @Override
+    public String nextId() {
+        return new BigInteger(130, random).toString(32);
+    }
+}
@@ -0,0 +1,116 @@
+package com.wayis.classrooms.springboot.studentrestapi.service;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+/**
+ * Dictionnaire des libellés d'étapes d'un catalogue : chaque libellé distinct
+ * est gardé une seule fois et désigné par un entier. Un cours enregistré dans
+ * le catalogue ne garde que le tableau de ces entiers, derrière une liste en
+ * lecture seule créée une fois pour toutes.
+ * <p>
+ * Le dictionnaire appartient à {@link CourseCatalog}, qui code les étapes
+ * d'un cours au moment de l'enregistrer. Il ne fait que grandir, jusqu'à
+ * {@code capacity} libellés ; au-delà, les étapes qui citent un libellé
+ * inconnu restent des chaînes ordinaires. La lecture d'un libellé ne prend
+ * aucun verrou ; le codage est sérialisé.
+ */
+public final class StepPool {
+
+    // Code d'une étape null
+    private static final int NULL = -1;
+
+    private final int capacity;
+    private final Map<String, Integer> codes = new HashMap<>();
+    // Republié (écriture volatile) après chaque ajout
+    private volatile String[] labels = new String[16];
+    private int size;
+
+    public StepPool(int capacity) {
+        this.capacity = capacity;
+    }
+
+    /**
+     * @return une liste en lecture seule des mêmes étapes, codée si tous les
+     *         libellés ont leur place dans le dictionnaire ; {@code null} pour
+     *         {@code null}
+     */
+    public synchronized List<String> encode(List<String> steps) {
+        if (steps == null) {
+            return null;
+        }
+        if (steps.isEmpty()) {
+            return Collections.emptyList();
+        }
+        if (steps instanceof StepList && ((StepList) steps).pool() == this) {
+            return steps;
+        }
+        int[] encoded = new int[steps.size()];
+        for (int i = 0; i < encoded.length; i++) {
+            encoded[i] = encode(steps.get(i));
+            if (encoded[i] < NULL) {
+                // Dictionnaire plein
+                return Collections.unmodifiableList(new ArrayList<>(steps));
+            }
+        }
+        return new StepList(encoded);
+    }
+
+    // Code du libellé, -2 s'il est inconnu et que le dictionnaire est plein
+    private int encode(String label) {
+        if (label == null) {
+            return NULL;
+        }
+        Integer code = codes.get(label);
+        if (code != null) {
+            return code;
+        }
+        if (size == capacity) {
+            return NULL - 1;
+        }
+        String[] current = labels;
+        if (size == current.length) {
+            current = Arrays.copyOf(current, Math.min(capacity, size * 2));
+        }
+        current[size] = label;
+        labels = current;
+        codes.put(label, size);
+        return size++;
+    }
+
+    // Nombre de libellés distincts
+    public synchronized int size() {
+        return size;
+    }
+
+    // Étapes d'un cours, décodées à la lecture
+    private final class StepList extends AbstractList<String> implements RandomAccess {
+
+        private final int[] codes;
+
+        StepList(int[] codes) {
+            this.codes = codes;
+        }
+
+        StepPool pool() {
+            return StepPool.this;
+        }
+
+        @Override
+        public String get(int index) {
+            int code = codes[index];
+            return code == NULL ? null : labels[code];
+        }
+
+        @Override
+        public int size() {
+            return codes.length;
+        }
+    }
+}
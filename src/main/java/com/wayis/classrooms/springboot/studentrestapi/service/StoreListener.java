@@ -0,0 +1,26 @@
+package com.wayis.classrooms.springboot.studentrestapi.service;
+
+import com.wayis.classrooms.springboot.studentrestapi.model.Course;
+import com.wayis.classrooms.springboot.studentrestapi.model.Student;
+
+/**
+ * Observateur des écritures du magasin et du catalogue.
+ * <p>
+ * Appelé pendant l'écriture, sous le verrou qui la protège : l'ordre des
+ * notifications est celui dans lequel les écritures ont été appliquées.
+ * L'implémentation doit donc rester brève.
+ */
+public interface StoreListener {
+
+    // Nouvel état complet de l'étudiant
+    void studentWritten(Student student);
+
+    // Étudiant retiré du magasin
+    void studentRemoved(String studentId);
+
+    // Nouveau contenu du cours dans le catalogue
+    void courseWritten(Course course);
+
+    // Cours retiré du catalogue
+    void courseRemoved(String courseId);
+}
@@ -0,0 +1,450 @@
+package com.wayis.classrooms.springboot.studentrestapi.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.wayis.classrooms.springboot.studentrestapi.model.Course;
+import com.wayis.classrooms.springboot.studentrestapi.model.CourseRef;
+import com.wayis.classrooms.springboot.studentrestapi.model.Student;
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Sauvegarde et restauration du catalogue et de tous les étudiants en NDJSON
+ * compressé (gzip), un {@link MutationRecord} par ligne, au format des
+ * instantanés : les cours d'abord, puis les étudiants avec leurs cours par
+ * identifiant.
+ * <p>
+ * Les deux sens passent par le générateur et l'analyseur en flux de
+ * Jackson : l'export lit le dépôt par blocs ({@link StudentRepository#range})
+ * et l'import applique les étudiants par lots ({@link IndexedStudentRepository#addAll},
+ * puis {@code put} pour ceux qui existaient). La mémoire utilisée dépend de
+ * la taille des lots, pas de celle de l'archive. Chaque bloc exporté est lu
+ * à sa propre version : une écriture concurrente peut n'apparaître qu'en partie.
+ * <p>
+ * Un import est journalisé par la persistance comme n'importe quelle
+ * écriture. Le catalogue n'est jamais vidé : les cours de l'archive
+ * remplacent ceux qui portent le même identifiant.
+ */
+@Component
+public class StudentArchive {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(StudentArchive.class);
+
+    // Intervalle minimal entre deux journalisations de la progression d'un import
+    private static final long PROGRESS_INTERVAL = TimeUnit.SECONDS.toNanos(5);
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final ObjectReader reader;
+    private final ObjectWriter writer;
+    // Un seul import à la fois ; les exports ne sont pas limités
+    private final ReentrantLock importing = new ReentrantLock();
+
+    // Étudiants lus puis écrits à la fois, dans les deux sens
+    @Value("${students.archive.batch-size:1000}")
+    private int batchSize = 1000;
+
+    private volatile ArchiveReport lastImport;
+
+    @Autowired
+    public StudentArchive(ObjectMapper objectMapper) {
+        this.reader = objectMapper.readerFor(MutationRecord.class);
+        this.writer = objectMapper.writerFor(MutationRecord.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    StudentArchive(ObjectMapper objectMapper, int batchSize) {
+        this(objectMapper);
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Écrit l'archive dans {@code target}, qui reste ouvert.
+     */
+    public ArchiveReport export(OutputStream target) throws IOException {
+        long started = System.nanoTime();
+        CountingOutputStream compressed = new CountingOutputStream(target);
+        GZIPOutputStream gzip = new GZIPOutputStream(compressed, BUFFER_SIZE);
+        CountingOutputStream plain = new CountingOutputStream(gzip);
+        int courses = 0;
+        int students = 0;
+        try (JsonGenerator generator = writer.getFactory().createGenerator(plain)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(new SerializedString("\n"));
+            CourseCatalog catalog = StudentService.catalog();
+            for (Course course : catalog.list()) {
+                writer.writeValue(generator, MutationRecord.of(course, catalog.isImplicit(course.getId())));
+                courses++;
+            }
+            IndexedStudentRepository store = StudentService.store();
+            StudentRepository.Snapshot chunk = store.range(0, batchSize);
+            while (true) {
+                for (Student student : chunk.getStudents()) {
+                    writer.writeValue(generator, MutationRecord.of(student));
+                    students++;
+                }
+                if (!chunk.hasMore()) {
+                    break;
+                }
+                chunk = store.range(chunk.getNext(), batchSize);
+            }
+            if (generator.getOutputContext().getEntryCount() > 0) {
+                generator.writeRaw('\n');
+            }
+        }
+        gzip.finish();
+        gzip.flush();
+
+        ArchiveReport report = new ArchiveReport(courses, students, 0, 0, 0, plain.count, compressed.count,
+                elapsedMillis(started), true);
+        LOGGER.info("Exported {} courses and {} students in {} ms: {} MB ({} MB compressed), {} MB/s",
+                courses, students, report.getMillis(), megabytes(report.getBytes()),
+                megabytes(report.getCompressedBytes()), report.getMegabytesPerSecond());
+        return report;
+    }
+
+    /**
+     * Applique l'archive lue dans {@code source}, qui reste ouvert. La
+     * progression est journalisée et lisible par {@link #getLastImport}
+     * pendant l'import.
+     *
+     * @param replace retire d'abord tous les étudiants présents. L'archive est
+     *        alors copiée dans un fichier temporaire et lue une première fois
+     *        en entier : une archive tronquée ou illisible ne retire rien.
+     * @return {@code null} si un autre import est en cours
+     */
+    public ArchiveReport importFrom(InputStream source, boolean replace) throws IOException {
+        if (!importing.tryLock()) {
+            return null;
+        }
+        Path staged = null;
+        try {
+            Progress progress = new Progress();
+            try {
+                if (replace) {
+                    staged = Files.createTempFile("students-import", ".ndjson.gz");
+                    Files.copy(source, staged, StandardCopyOption.REPLACE_EXISTING);
+                    try (InputStream in = Files.newInputStream(staged)) {
+                        validate(in);
+                    }
+                    progress.removed = removeAll();
+                    try (InputStream in = Files.newInputStream(staged)) {
+                        read(in, progress);
+                    }
+                } else {
+                    read(source, progress);
+                }
+                ArchiveReport report = progress.report(true);
+                lastImport = report;
+                LOGGER.info("Imported {} courses and {} students ({} replaced, {} removed, {} skipped) in {} ms:"
+                        + " {} MB ({} MB compressed), {} MB/s", report.getCourses(), report.getStudents(),
+                        report.getReplaced(), report.getRemoved(), report.getSkipped(), report.getMillis(),
+                        megabytes(report.getBytes()), megabytes(report.getCompressedBytes()),
+                        report.getMegabytesPerSecond());
+                return report;
+            } catch (IOException | RuntimeException e) {
+                // Les lots déjà appliqués restent en place
+                lastImport = progress.report(true);
+                throw e;
+            }
+        } finally {
+            if (staged != null) {
+                Files.deleteIfExists(staged);
+            }
+            importing.unlock();
+        }
+    }
+
+    private void read(InputStream source, Progress progress) throws IOException {
+        CountingInputStream compressed = new CountingInputStream(source);
+        CountingInputStream plain = new CountingInputStream(new GZIPInputStream(compressed, BUFFER_SIZE));
+        progress.plain = plain;
+        progress.compressed = compressed;
+        try (JsonParser parser = reader.getFactory().createParser(plain)) {
+            parser.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+            MappingIterator<MutationRecord> records = reader.readValues(parser);
+            List<Student> batch = new ArrayList<>(batchSize);
+            while (records.hasNextValue()) {
+                apply(records.nextValue(), batch, progress);
+                if (batch.size() >= batchSize) {
+                    flush(batch, progress);
+                }
+            }
+            flush(batch, progress);
+        }
+    }
+
+    // Lit toute l'archive sans rien appliquer ; lève la même exception que read() sur une archive invalide
+    private void validate(InputStream source) throws IOException {
+        try (JsonParser parser = reader.getFactory().createParser(new GZIPInputStream(source, BUFFER_SIZE))) {
+            MappingIterator<MutationRecord> records = reader.readValues(parser);
+            while (records.hasNextValue()) {
+                records.nextValue();
+            }
+        }
+    }
+
+    // Import en cours, sinon le dernier terminé ; null si aucun import n'a eu lieu
+    public ArchiveReport getLastImport() {
+        return lastImport;
+    }
+
+    // Retire les étudiants bloc par bloc : chaque retrait est journalisé et publié sur le flux des changements
+    private int removeAll() {
+        IndexedStudentRepository store = StudentService.store();
+        int removed = 0;
+        StudentRepository.Snapshot chunk = store.range(0, batchSize);
+        while (true) {
+            for (Student student : chunk.getStudents()) {
+                if (store.remove(student.getId()) != null) {
+                    removed++;
+                }
+            }
+            if (!chunk.hasMore()) {
+                return removed;
+            }
+            chunk = store.range(chunk.getNext(), batchSize);
+        }
+    }
+
+    // Comme la relecture du journal par StudentPersistence, les étudiants étant regroupés par lots
+    private static void apply(MutationRecord record, List<Student> batch, Progress progress) {
+        CourseCatalog catalog = StudentService.catalog();
+        if (MutationRecord.COURSE.equals(record.getType()) && record.getCourse() != null
+                && record.getCourse().getId() != null) {
+            catalog.put(record.getCourse(), record.isImplicit());
+            progress.courses++;
+            return;
+        }
+        if (!MutationRecord.STUDENT.equals(record.getType()) || record.getId() == null) {
+            progress.skipped++;
+            return;
+        }
+        List<CourseRef> refs = new ArrayList<>();
+        if (record.getCourses() != null) {
+            for (String courseId : record.getCourses()) {
+                CourseRef ref = catalog.get(courseId);
+                refs.add(ref != null ? ref : catalog.register(new Course(courseId, null, null, null)));
+            }
+        }
+        Student student = new Student(record.getId(), record.getName(), record.getDescription(), new ArrayList<>());
+        batch.add(student.withCourseRefs(refs));
+    }
+
+    private void flush(List<Student> batch, Progress progress) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        IndexedStudentRepository store = StudentService.store();
+        boolean[] added = store.addAll(batch);
+        for (int i = 0; i < added.length; i++) {
+            if (!added[i]) {
+                store.put(batch.get(i));
+                progress.replaced++;
+            }
+        }
+        progress.students += batch.size();
+        batch.clear();
+        StudentService.awaitDurable();
+
+        ArchiveReport report = progress.report(false);
+        lastImport = report;
+        long now = System.nanoTime();
+        if (now - progress.logged >= PROGRESS_INTERVAL) {
+            progress.logged = now;
+            LOGGER.info("Importing: {} students, {} MB read, {} MB/s", report.getStudents(),
+                    megabytes(report.getBytes()), report.getMegabytesPerSecond());
+        }
+    }
+
+    private static long elapsedMillis(long started) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+    }
+
+    private static long megabytes(long bytes) {
+        return bytes / (1024 * 1024);
+    }
+
+    // État d'un import en cours, modifié par le seul thread qui l'applique
+    private static final class Progress {
+
+        final long started = System.nanoTime();
+        long logged = started;
+        CountingInputStream plain;
+        CountingInputStream compressed;
+        int courses;
+        int students;
+        int replaced;
+        int removed;
+        int skipped;
+
+        ArchiveReport report(boolean done) {
+            return new ArchiveReport(courses, students, replaced, removed, skipped,
+                    plain == null ? 0 : plain.count, compressed == null ? 0 : compressed.count,
+                    elapsedMillis(started), done);
+        }
+    }
+
+    private static final class CountingOutputStream extends FilterOutputStream {
+
+        long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+
+        // Ne ferme pas le flux de l'appelant
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+    }
+
+    private static final class CountingInputStream extends FilterInputStream {
+
+        long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = in.read();
+            if (b >= 0) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int read = in.read(b, off, len);
+            if (read > 0) {
+                count += read;
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = in.skip(n);
+            count += skipped;
+            return skipped;
+        }
+    }
+
+    /**
+     * Bilan d'un export ou d'un import. Les octets sont ceux du NDJSON, avant
+     * compression ; le débit est calculé sur eux.
+     */
+    public static final class ArchiveReport {
+
+        private final int courses;
+        private final int students;
+        private final int replaced;
+        private final int removed;
+        private final int skipped;
+        private final long bytes;
+        private final long compressedBytes;
+        private final long millis;
+        private final boolean done;
+
+        ArchiveReport(int courses, int students, int replaced, int removed, int skipped, long bytes,
+                long compressedBytes, long millis, boolean done) {
+            this.courses = courses;
+            this.students = students;
+            this.replaced = replaced;
+            this.removed = removed;
+            this.skipped = skipped;
+            this.bytes = bytes;
+            this.compressedBytes = compressedBytes;
+            this.millis = millis;
+            this.done = done;
+        }
+
+        public int getCourses() {
+            return courses;
+        }
+
+        // Étudiants écrits ou importés, remplacements compris
+        public int getStudents() {
+            return students;
+        }
+
+        // Étudiants importés qui existaient déjà
+        public int getReplaced() {
+            return replaced;
+        }
+
+        // Étudiants retirés avant l'import (replace)
+        public int getRemoved() {
+            return removed;
+        }
+
+        // Enregistrements ignorés : type inconnu ou identifiant manquant
+        public int getSkipped() {
+            return skipped;
+        }
+
+        public long getBytes() {
+            return bytes;
+        }
+
+        public long getCompressedBytes() {
+            return compressedBytes;
+        }
+
+        public long getMillis() {
+            return millis;
+        }
+
+        public double getMegabytesPerSecond() {
+            return millis == 0 ? 0 : Math.round(bytes * 1000.0 / millis / (1024 * 1024) * 100) / 100.0;
+        }
+
+        public long getStudentsPerSecond() {
+            return millis == 0 ? students : students * 1000L / millis;
+        }
+
+        // Faux tant que l'import est en cours
+        public boolean isDone() {
+            return done;
+        }
+    }
+}
@@ -0,0 +1,307 @@
+package com.wayis.classrooms.springboot.studentrestapi.service;
+
+import com.wayis.classrooms.springboot.studentrestapi.model.Student;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.web.context.WebServerInitializedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Mode partitionné : les étudiants sont répartis entre plusieurs instances
+ * par hachage cohérent de leur identifiant ({@link HashRing}).
+ * <p>
+ * Il n'y a pas de coordinateur : un nœud qui démarre avec
+ * {@code students.cluster.seeds} s'annonce à l'un d'eux, qui diffuse la
+ * nouvelle liste des membres aux autres. Chaque membre adopte alors le
+ * nouvel anneau et transfère en arrière-plan les étudiants qui ne lui
+ * appartiennent plus ; seuls ceux des arcs repris par le nouveau nœud
+ * bougent. Pendant le transfert, un étudiant en cours de déplacement peut
+ * être momentanément introuvable.
+ * <p>
+ * Un étudiant n'est retiré localement qu'une fois reçu par son nouveau
+ * propriétaire, et seulement s'il n'a pas changé depuis son envoi ; sinon
+ * sa nouvelle version est renvoyée. Un nœud injoignable est relancé
+ * jusqu'à ce qu'il réponde ou qu'un autre anneau soit adopté.
+ */
+@Component
+public class StudentCluster {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(StudentCluster.class);
+
+    // Étudiants lus puis transférés à la fois lors d'un rééquilibrage
+    static final int HANDOFF_CHUNK = 1000;
+
+    // Attente avant de renvoyer un transfert refusé, doublée à chaque échec
+    static final long RETRY_MIN_MILLIS = 1000;
+    static final long RETRY_MAX_MILLIS = 30_000;
+
+    private final ClusterClient client;
+
+    @Value("${students.cluster.enabled:false}")
+    private boolean enabled;
+
+    // URL de base de ce nœud telle que les autres l'appellent ; http://localhost:<port> par défaut
+    @Value("${students.cluster.self:}")
+    private String self = "";
+
+    @Value("${students.cluster.seeds:}")
+    private String seeds = "";
+
+    @Value("${students.cluster.virtual-nodes:128}")
+    private int virtualNodes = 128;
+
+    private volatile HashRing ring;
+
+    private final ExecutorService rebalancer = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "students-rebalance");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Autowired
+    public StudentCluster(ClusterClient client) {
+        this.client = client;
+    }
+
+    // Sans secret, un client pourrait se faire passer pour un nœud et les nœuds ne se reconnaîtraient pas
+    @PostConstruct
+    public void checkSecret() {
+        if (enabled && !client.hasSecret()) {
+            throw new IllegalStateException("students.cluster.secret must be set when students.cluster.enabled=true");
+        }
+    }
+
+    @EventListener
+    public void onWebServerInitialized(WebServerInitializedEvent event) {
+        if (self.isEmpty()) {
+            self = "http://localhost:" + event.getWebServer().getPort();
+        }
+        self = normalize(self);
+        ring = new HashRing(Collections.singletonList(self), virtualNodes);
+    }
+
+    // Une fois le serveur prêt à répondre aux transferts, rejoint l'anneau par le premier germe joignable
+    @EventListener(ApplicationReadyEvent.class)
+    public void joinSeeds() {
+        if (!enabled || seeds.isEmpty()) {
+            return;
+        }
+        for (String seed : seeds.split(",")) {
+            String node = normalize(seed.trim());
+            if (node.isEmpty() || node.equals(self)) {
+                continue;
+            }
+            try {
+                List<String> members = client.call(node, "POST",
+                        "/cluster/nodes?node=" + URLEncoder.encode(self, StandardCharsets.UTF_8), null,
+                        client.listOf(String.class));
+                adopt(members);
+                LOGGER.info("Joined cluster through {}: {}", node, members);
+                return;
+            } catch (IOException e) {
+                LOGGER.warn("Cannot join cluster through {}: {}", node, e.getMessage());
+            }
+        }
+        LOGGER.warn("No seed reachable, {} runs alone", self);
+    }
+
+    @PreDestroy
+    public void stop() {
+        rebalancer.shutdownNow();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public String self() {
+        return self;
+    }
+
+    // Membres triés : le même ordre sur tous les nœuds
+    public List<String> nodes() {
+        HashRing current = ring;
+        return current == null ? Collections.singletonList(self) : current.nodes();
+    }
+
+    public String owner(String studentId) {
+        HashRing current = ring;
+        return !enabled || current == null || studentId == null ? self : current.owner(studentId);
+    }
+
+    public boolean isLocal(String studentId) {
+        return self.equals(owner(studentId));
+    }
+
+    /**
+     * Ajoute un nœud à l'anneau et diffuse la nouvelle liste aux autres membres.
+     *
+     * @return les membres, nouveau nœud compris
+     */
+    public synchronized List<String> join(String node) {
+        String joining = normalize(node);
+        HashRing next = ring.with(joining);
+        adopt(next.nodes());
+        for (String member : next.nodes()) {
+            if (!member.equals(self) && !member.equals(joining)) {
+                try {
+                    client.call(member, "PUT", "/cluster/nodes", next.nodes(), null);
+                } catch (IOException e) {
+                    LOGGER.warn("Cannot send membership to {}: {}", member, e.getMessage());
+                }
+            }
+        }
+        return next.nodes();
+    }
+
+    /**
+     * Adopte une nouvelle liste de membres et planifie le transfert des
+     * étudiants locaux qui changent de propriétaire.
+     */
+    public synchronized void adopt(List<String> members) {
+        List<String> nodes = new ArrayList<>(members.size() + 1);
+        for (String member : members) {
+            nodes.add(normalize(member));
+        }
+        if (!nodes.contains(self)) {
+            nodes.add(self);
+        }
+        HashRing next = new HashRing(nodes, virtualNodes);
+        ring = next;
+        rebalancer.execute(() -> rebalance(next));
+    }
+
+    /**
+     * Reçoit des étudiants transférés par leur ancien propriétaire. Un
+     * étudiant déjà présent (écrit ici depuis le changement d'anneau) est
+     * conservé, sauf avec {@code replace} : l'ancien propriétaire renvoie
+     * alors un étudiant modifié chez lui après un premier envoi.
+     *
+     * @return le nombre d'étudiants ajoutés ou remplacés
+     */
+    public int accept(List<Student> students, boolean replace) {
+        List<Student> bound = new ArrayList<>(students.size());
+        for (Student student : students) {
+            bound.add(StudentService.bindToCatalog(student));
+        }
+        IndexedStudentRepository store = StudentService.store();
+        if (replace) {
+            for (Student student : bound) {
+                store.put(student);
+            }
+            return bound.size();
+        }
+        int added = 0;
+        for (boolean created : store.addAll(bound)) {
+            added += created ? 1 : 0;
+        }
+        return added;
+    }
+
+    // Parcourt les étudiants locaux par tranches et transfère ceux dont le propriétaire a changé
+    private void rebalance(HashRing target) {
+        IndexedStudentRepository store = StudentService.store();
+        long moved = 0;
+        int from = 0;
+        StudentRepository.Snapshot chunk;
+        do {
+            // Un anneau plus récent a été adopté : son propre rééquilibrage suit
+            if (ring != target) {
+                return;
+            }
+            chunk = store.range(from, HANDOFF_CHUNK);
+            from = chunk.getNext();
+            Map<String, List<Student>> leaving = chunk.getStudents().stream()
+                    .filter(student -> !self.equals(target.owner(student.getId())))
+                    .collect(Collectors.groupingBy(student -> target.owner(student.getId()),
+                            LinkedHashMap::new, Collectors.toList()));
+            for (Map.Entry<String, List<Student>> handoff : leaving.entrySet()) {
+                long handed = handOff(store, target, handoff.getKey(), handoff.getValue());
+                if (handed < 0) {
+                    return;
+                }
+                moved += handed;
+            }
+        } while (chunk.hasMore());
+        if (moved > 0) {
+            LOGGER.info("Handed {} students off to their new owners {}", moved, target.nodes());
+        }
+    }
+
+    /**
+     * Transfère ces étudiants à leur nouveau propriétaire puis les retire
+     * d'ici s'ils n'ont pas changé pendant l'envoi ; ceux qui ont changé
+     * sont renvoyés et remplacent la copie reçue.
+     *
+     * @return le nombre d'étudiants retirés, -1 si l'anneau a changé entre-temps
+     */
+    private long handOff(IndexedStudentRepository store, HashRing target, String owner, List<Student> students) {
+        long removed = 0;
+        boolean replace = false;
+        List<Student> pending = students;
+        while (!pending.isEmpty()) {
+            if (!send(target, owner, pending, replace)) {
+                // Les étudiants restent ici ; le rééquilibrage du nouvel anneau les reprendra
+                return -1;
+            }
+            List<Student> changed = new ArrayList<>();
+            for (Student sent : pending) {
+                if (store.remove(sent.getId(), sent)) {
+                    removed++;
+                    continue;
+                }
+                Student current = store.get(sent.getId());
+                if (current != null) {
+                    changed.add(current);
+                }
+            }
+            pending = changed;
+            replace = true;
+        }
+        return removed;
+    }
+
+    // Envoie les étudiants en relançant le nœud tant qu'il échoue et que l'anneau n'a pas changé
+    private boolean send(HashRing target, String owner, List<Student> students, boolean replace) {
+        long delay = RETRY_MIN_MILLIS;
+        while (ring == target) {
+            try {
+                client.call(owner, "POST", replace ? "/cluster/students?replace=true" : "/cluster/students",
+                        students, null);
+                return true;
+            } catch (IOException e) {
+                LOGGER.warn("Cannot hand {} students off to {}, retrying in {} ms: {}", students.size(), owner,
+                        delay, e.getMessage());
+            }
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+            delay = Math.min(delay * 2, RETRY_MAX_MILLIS);
+        }
+        return false;
+    }
+
+    private static String normalize(String node) {
+        return node.endsWith("/") ? node.substring(0, node.length() - 1) : node;
+    }
+}
@@ -0,0 +1,113 @@
+package com.wayis.classrooms.springboot.studentrestapi.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import java.util.concurrent.TimeUnit;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Métriques de {@link StudentService}.
+ * <p>
+ * Tous les compteurs et chronomètres sont créés au démarrage et rangés par
+ * opération : une mesure ne fait ni recherche dans le registre ni allocation.
+ */
+@Component
+public class StudentMetrics {
+
+    public enum Operation {
+        RETRIEVE_ALL_STUDENTS("retrieveAllStudents"),
+        RETRIEVE_STUDENTS_PAGE("retrieveStudentsPage"),
+        RETRIEVE_STUDENT("retrieveStudent"),
+        RETRIEVE_STUDENTS("retrieveStudents"),
+        RETRIEVE_COURSES("retrieveCourses"),
+        RETRIEVE_COURSES_PAGE("retrieveCoursesPage"),
+        RETRIEVE_COURSE("retrieveCourse"),
+        RETRIEVE_COURSE_STUDENTS("retrieveCourseStudents"),
+        ADD_STUDENT("addStudent"),
+        ADD_STUDENTS("addStudents"),
+        ADD_COURSE("addCourse"),
+        DELETE_COURSE("deleteCourse"),
+        DELETE_COURSES("deleteCourses"),
+        ENROLL_STUDENT("enrollStudent"),
+        ENROLL_STUDENT_BATCH("enrollStudentBatch"),
+        RETRIEVE_CATALOG("retrieveCatalog"),
+        RETRIEVE_CATALOG_COURSE("retrieveCatalogCourse"),
+        SEARCH_COURSES("searchCourses"),
+        ADD_CATALOG_COURSE("addCatalogCourse"),
+        UPDATE_CATALOG_COURSE("updateCatalogCourse"),
+        RETRIEVE_STATS("retrieveStats"),
+        RETRIEVE_TOP_COURSES("retrieveTopCourses"),
+        RETRIEVE_COURSE_STATS("retrieveCourseStats");
+
+        final String tag;
+
+        Operation(String tag) {
+            this.tag = tag;
+        }
+    }
+
+    private final Timer[] timers = new Timer[Operation.values().length];
+    private final Counter studentMisses;
+    private final Counter courseMisses;
+    private final Timer idGeneration;
+
+    @Autowired
+    public StudentMetrics(MeterRegistry registry) {
+        for (Operation operation : Operation.values()) {
+            timers[operation.ordinal()] = Timer.builder("students.service")
+                    .description("Durée des opérations de StudentService")
+                    .tag("operation", operation.tag)
+                    .register(registry);
+        }
+        studentMisses = Counter.builder("students.misses")
+                .description("Étudiants demandés mais inconnus")
+                .tag("kind", "student")
+                .register(registry);
+        courseMisses = Counter.builder("students.misses")
+                .description("Cours demandés mais inconnus")
+                .tag("kind", "course")
+                .register(registry);
+        idGeneration = Timer.builder("students.id.generation")
+                .description("Durée de génération d'un identifiant de cours")
+                .register(registry);
+
+        // Le dépôt est relu à chaque mesure : il peut être remplacé après la création des jauges
+        Gauge.builder("students.count", this, metrics -> StudentService.store().size())
+                .description("Nombre d'étudiants")
+                .register(registry);
+        Gauge.builder("students.enrollments", this, metrics -> StudentService.store().enrollments())
+                .description("Nombre total d'inscriptions")
+                .register(registry);
+        Gauge.builder("students.courses.per.student", this, metrics -> {
+            IndexedStudentRepository store = StudentService.store();
+            return store.size() == 0 ? 0 : store.enrollments() / (double) store.size();
+        })
+                .description("Nombre moyen de cours par étudiant")
+                .register(registry);
+    }
+
+    // Sans registre Spring (tests, benchmarks) : les mesures ne sont publiées nulle part
+    static StudentMetrics detached() {
+        return new StudentMetrics(new CompositeMeterRegistry());
+    }
+
+    void record(Operation operation, long startNanos) {
+        timers[operation.ordinal()].record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    void studentMiss() {
+        studentMisses.increment();
+    }
+
+    void courseMiss() {
+        courseMisses.increment();
+    }
+
+    void idGenerated(long startNanos) {
+        idGeneration.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+}
@@ -0,0 +1,311 @@
+package com.wayis.classrooms.springboot.studentrestapi.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.wayis.classrooms.springboot.studentrestapi.model.Course;
+import com.wayis.classrooms.springboot.studentrestapi.model.CourseRef;
+import com.wayis.classrooms.springboot.studentrestapi.model.Student;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.stereotype.Component;
+
+/**
+ * Persistance des étudiants et du catalogue : un instantané périodique et un
+ * journal d'écriture anticipée ({@link MutationLog}) rejoué au démarrage.
+ * <p>
+ * Les deux magasins signalent chaque écriture sous leur verrou ; le journal
+ * reçoit donc toutes les modifications, quelle que soit la route HTTP, dans
+ * l'ordre où elles ont été appliquées.
+ * <p>
+ * Le bilan de la restauration ({@link #getLastRecovery}) est publié dans
+ * {@code /actuator/prometheus} : enregistrements relus par source et durée.
+ */
+@Component
+// Le dépôt des étudiants doit être choisi avant d'être rempli
+@DependsOn("studentRepository")
+@ConditionalOnProperty(name = "students.persistence.enabled", havingValue = "true")
+public class StudentPersistence implements StoreListener {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(StudentPersistence.class);
+    private static final int SNAPSHOT_CHUNK = 4096;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private RosterLoader rosterLoader;
+
+    @Autowired
+    private MeterRegistry registry;
+
+    @Value("${students.persistence.directory:data}")
+    private String directoryName;
+
+    @Value("${students.persistence.snapshot-every:100000}")
+    private int snapshotEvery;
+
+    private Path directory;
+    private MutationLog log;
+    private volatile RecoveryReport lastRecovery;
+
+    private final ExecutorService snapshots = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "students-snapshot");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @PostConstruct
+    public void start() throws IOException {
+        directory = Paths.get(directoryName);
+        Files.createDirectories(directory);
+
+        long started = System.nanoTime();
+        List<Path> snapshotFiles = list("snapshot-");
+        List<Path> segments = list("wal-");
+        long nextSequence;
+        long snapshotRecords = 0;
+        long logRecords = 0;
+
+        if (snapshotFiles.isEmpty() && segments.isEmpty()) {
+            // Premier démarrage : les fichiers à charger, ou à défaut les données d'exemple,
+            // deviennent l'état initial
+            rosterLoader.loadConfigured();
+            nextSequence = 1;
+            writeSnapshot(nextSequence);
+        } else {
+            IndexedStudentRepository store = StudentService.store();
+            CourseCatalog catalog = StudentService.catalog();
+            store.clear();
+            catalog.clear();
+
+            long snapshotSequence = 0;
+            if (!snapshotFiles.isEmpty()) {
+                Path snapshot = snapshotFiles.get(snapshotFiles.size() - 1);
+                snapshotSequence = MutationLog.sequenceOf(snapshot);
+                snapshotRecords = MutationLog.replay(snapshot, objectMapper, false, this::apply);
+            }
+            nextSequence = Math.max(snapshotSequence, 1);
+            for (Path segment : segments) {
+                long first = MutationLog.sequenceOf(segment);
+                if (first < snapshotSequence) {
+                    continue;
+                }
+                // Seul le dernier segment peut se terminer par un enregistrement incomplet
+                long count = MutationLog.replay(segment, objectMapper, true, this::apply);
+                logRecords += count;
+                nextSequence = first + count;
+            }
+        }
+
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+        lastRecovery = new RecoveryReport(snapshotRecords, logRecords, elapsed);
+        LOGGER.info("Restored {} snapshot records and {} log records from {} in {} ms",
+                snapshotRecords, logRecords, directory.toAbsolutePath(), elapsed);
+        register();
+
+        log = new MutationLog(directory, nextSequence, objectMapper, snapshotEvery, this::scheduleSnapshot);
+        StudentService.attach(this);
+    }
+
+    @PreDestroy
+    public void stop() throws IOException, InterruptedException {
+        StudentService.detach();
+        snapshots.shutdown();
+        snapshots.awaitTermination(1, TimeUnit.MINUTES);
+        log.close();
+    }
+
+    public RecoveryReport getLastRecovery() {
+        return lastRecovery;
+    }
+
+    private void register() {
+        Gauge.builder("students.recovery.records", this, p -> p.getLastRecovery().getSnapshotRecords())
+                .description("Enregistrements relus au démarrage")
+                .tag("source", "snapshot")
+                .register(registry);
+        Gauge.builder("students.recovery.records", this, p -> p.getLastRecovery().getLogRecords())
+                .description("Enregistrements relus au démarrage")
+                .tag("source", "log")
+                .register(registry);
+        TimeGauge.builder("students.recovery.duration", this, TimeUnit.MILLISECONDS,
+                        p -> p.getLastRecovery().getMillis())
+                .description("Durée de la restauration au démarrage")
+                .register(registry);
+    }
+
+    @Override
+    public void studentWritten(Student student) {
+        log.append(MutationRecord.of(student));
+    }
+
+    @Override
+    public void studentRemoved(String studentId) {
+        log.append(MutationRecord.removed(studentId));
+    }
+
+    @Override
+    public void courseWritten(Course course) {
+        log.append(MutationRecord.of(course, StudentService.catalog().isImplicit(course.getId())));
+    }
+
+    @Override
+    public void courseRemoved(String courseId) {
+        log.append(MutationRecord.courseRemoved(courseId));
+    }
+
+    void awaitDurable() {
+        log.awaitDurable();
+    }
+
+    private void apply(MutationRecord record) {
+        CourseCatalog catalog = StudentService.catalog();
+        if (MutationRecord.COURSE.equals(record.getType())) {
+            catalog.put(record.getCourse(), record.isImplicit());
+            return;
+        }
+        if (MutationRecord.COURSE_REMOVED.equals(record.getType())) {
+            catalog.remove(record.getId());
+            return;
+        }
+        if (MutationRecord.STUDENT_REMOVED.equals(record.getType())) {
+            StudentService.store().remove(record.getId());
+            return;
+        }
+        List<CourseRef> refs = new ArrayList<>();
+        if (record.getCourses() != null) {
+            for (String courseId : record.getCourses()) {
+                CourseRef ref = catalog.get(courseId);
+                // Cours dont l'enregistrement n'est pas encore relu : il sera complété par put
+                refs.add(ref != null ? ref : catalog.register(new Course(courseId, null, null, null)));
+            }
+        }
+        Student student = new Student(record.getId(), record.getName(), record.getDescription(), new ArrayList<>());
+        StudentService.store().put(student.withCourseRefs(refs));
+    }
+
+    private void scheduleSnapshot(long sequence) {
+        snapshots.execute(() -> {
+            try {
+                writeSnapshot(sequence);
+            } catch (IOException e) {
+                LOGGER.warn("Snapshot {} failed, log segments are kept", sequence, e);
+            }
+        });
+    }
+
+    /**
+     * Écrit l'état courant sans bloquer les écritures. L'instantané peut
+     * contenir des modifications postérieures à {@code sequence} : elles
+     * seront rejouées à l'identique depuis le journal.
+     */
+    private void writeSnapshot(long sequence) throws IOException {
+        long started = System.nanoTime();
+        Path target = MutationLog.snapshotPath(directory, sequence);
+        Path temporary = target.resolveSibling(target.getFileName() + ".tmp");
+        ObjectWriter writer = objectMapper.writerFor(MutationRecord.class);
+        IndexedStudentRepository store = StudentService.store();
+        long count = 0;
+
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            OutputStream out = new BufferedOutputStream(Channels.newOutputStream(channel), 64 * 1024);
+            CourseCatalog catalog = StudentService.catalog();
+            for (Course course : catalog.list()) {
+                MutationLog.writeFrame(out, writer, MutationRecord.of(course, catalog.isImplicit(course.getId())));
+                count++;
+            }
+            int from = 0;
+            StudentRepository.Snapshot chunk;
+            do {
+                chunk = store.range(from, SNAPSHOT_CHUNK);
+                for (Student student : chunk.getStudents()) {
+                    MutationLog.writeFrame(out, writer, MutationRecord.of(student));
+                    count++;
+                }
+                from = chunk.getNext();
+            } while (chunk.hasMore());
+            out.flush();
+            channel.force(true);
+        }
+        Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+        // L'instantané remplace les segments et instantanés plus anciens
+        for (Path file : list("")) {
+            if (MutationLog.sequenceOf(file) < sequence) {
+                Files.deleteIfExists(file);
+            }
+        }
+        LOGGER.info("Wrote snapshot {} ({} records) in {} ms", sequence, count,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+    }
+
+    // Segments ou instantanés du répertoire, par séquence croissante
+    private List<Path> list(String prefix) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files
+                    .filter(file -> {
+                        String name = file.getFileName().toString();
+                        return name.startsWith(prefix)
+                                && (name.startsWith("wal-") && name.endsWith(".log")
+                                || name.startsWith("snapshot-") && name.endsWith(".dat"));
+                    })
+                    .sorted((a, b) -> Long.compare(MutationLog.sequenceOf(a), MutationLog.sequenceOf(b)))
+                    .collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Bilan du dernier redémarrage.
+     */
+    public static final class RecoveryReport {
+
+        private final long snapshotRecords;
+        private final long logRecords;
+        private final long millis;
+
+        RecoveryReport(long snapshotRecords, long logRecords, long millis) {
+            this.snapshotRecords = snapshotRecords;
+            this.logRecords = logRecords;
+            this.millis = millis;
+        }
+
+        public long getSnapshotRecords() {
+            return snapshotRecords;
+        }
+
+        public long getLogRecords() {
+            return logRecords;
+        }
+
+        public long getMillis() {
+            return millis;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.wayis.classrooms.springboot.studentrestapi.service;
+
+import com.wayis.classrooms.springboot.studentrestapi.model.Student;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Stockage des étudiants : lecture par identifiant ou par plage d'ordre
+ * d'insertion, écriture et retrait.
+ * <p>
+ * Les étudiants reçus et rendus sont rattachés au catalogue
+ * ({@link StudentService#bindToCatalog}) et jamais modifiés : une écriture
+ * remplace l'instance. Le dépôt n'ordonne pas les écritures entre elles et
+ * ne tient aucun index : {@link IndexedStudentRepository} les sérialise, tient
+ * l'index des inscriptions et prévient l'observateur, le flux des changements
+ * et les statistiques.
+ * <p>
+ * Implémentations : {@link StudentStore} (en mémoire),
+ * {@link FileStudentRepository} (sur disque) et
+ * {@link CachingStudentRepository} (cache devant une autre implémentation),
+ * choisies par {@link StudentRepositoryConfiguration}.
+ */
+public interface StudentRepository {
+
+    // null si l'étudiant est inconnu
+    Student get(String studentId);
+
+    // Ajoute l'étudiant en fin d'ordre d'insertion, ou remplace à sa place celui qui porte le même identifiant
+    void put(Student student);
+
+    // Comme put pour chaque étudiant ; une implémentation peut les publier ensemble
+    default void putAll(List<Student> students) {
+        for (Student student : students) {
+            put(student);
+        }
+    }
+
+    /**
+     * Retire l'étudiant ; sa position reste réservée jusqu'au prochain chargement.
+     *
+     * @return l'étudiant retiré, {@code null} s'il était inconnu
+     */
+    Student remove(String studentId);
+
+    default Snapshot snapshot() {
+        return range(0, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Lit au plus {@code limit} étudiants à partir de la position
+     * {@code from} (ordre d'insertion), tous à la même version.
+     */
+    Snapshot range(int from, int limit);
+
+    /**
+     * Position d'insertion de l'étudiant, d'où reprendre {@link #range}.
+     *
+     * @return -1 si l'étudiant est inconnu
+     */
+    int position(String studentId);
+
+    // Étudiants présents, sans les places laissées par les retraits
+    int size();
+
+    void clear();
+
+    // Libère les ressources (fichiers) ; le dépôt n'est plus utilisable ensuite
+    default void close() throws IOException {
+    }
+
+    final class Snapshot {
+
+        private final long version;
+        private final List<Student> students;
+        private final boolean hasMore;
+        private final int next;
+
+        public Snapshot(long version, List<Student> students, boolean hasMore, int next) {
+            this.version = version;
+            this.students = students;
+            this.hasMore = hasMore;
+            this.next = next;
+        }
+
+        public long getVersion() {
+            return version;
+        }
+
+        public List<Student> getStudents() {
+            return students;
+        }
+
+        // Vrai si d'autres étudiants suivent la plage lue
+        public boolean hasMore() {
+            return hasMore;
+        }
+
+        // Position où reprendre la lecture de range() ; les places des étudiants retirés sont sautées
+        public int getNext() {
+            return next;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.wayis.classrooms.springboot.studentrestapi.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.IOException;
+import java.nio.file.Path;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class StudentRepositoryConfiguration {
+
+    /**
+     * Dépôt des étudiants branché sur {@link StudentService} :
+     * {@code memory} (par défaut) ou {@code file}. Le dépôt sur fichier est
+     * précédé d'un cache borné à {@code students.repository.cache.max-weight}
+     * (0 le retire), où un étudiant pèse 1 plus son nombre de cours.
+     */
+    @Bean
+    public StudentRepository studentRepository(@Value("${students.repository:memory}") String mode,
+            @Value("${students.repository.file:data/students.dat}") Path file,
+            @Value("${students.repository.cache.max-weight:100000}") long maxWeight,
+            @Value("${students.persistence.enabled:false}") boolean persistence,
+            ObjectMapper objectMapper, MeterRegistry registry) throws IOException {
+        StudentRepository repository;
+        switch (mode) {
+            case "memory":
+                repository = new StudentStore();
+                break;
+            case "file":
+                // Le dépôt sur fichier est déjà durable : le journal rejouerait chaque écriture une seconde fois
+                if (persistence) {
+                    throw new IllegalStateException("students.persistence.enabled requires students.repository=memory");
+                }
+                repository = new FileStudentRepository(file, objectMapper, StudentService.catalog());
+                if (maxWeight > 0) {
+                    CachingStudentRepository cache = new CachingStudentRepository(repository, maxWeight,
+                            student -> 1 + student.courseRefs().size());
+                    register(cache, registry);
+                    repository = cache;
+                }
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown students.repository: " + mode);
+        }
+        StudentService.use(repository);
+        return repository;
+    }
+
+    private static void register(CachingStudentRepository cache, MeterRegistry registry) {
+        FunctionCounter.builder("students.cache.requests", cache, c -> c.stats().getHits())
+                .description("Lectures d'étudiants servies par le cache")
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("students.cache.requests", cache, c -> c.stats().getMisses())
+                .description("Lectures d'étudiants absents du cache")
+                .tag("result", "miss")
+                .register(registry);
+        FunctionCounter.builder("students.cache.loads", cache, c -> c.stats().getLoads())
+                .description("Étudiants lus dans le dépôt sur fichier")
+                .register(registry);
+        FunctionCounter.builder("students.cache.evictions", cache, c -> c.stats().getEvictions())
+                .description("Étudiants évincés du cache")
+                .register(registry);
+        FunctionCounter.builder("students.cache.page-requests", cache, c -> c.stats().getPageHits())
+                .description("Pages d'étudiants servies par le cache")
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("students.cache.page-requests", cache, c -> c.stats().getPageMisses())
+                .description("Pages d'étudiants lues dans le dépôt sur fichier")
+                .tag("result", "miss")
+                .register(registry);
+        Gauge.builder("students.cache.weight", cache, c -> c.stats().getWeight())
+                .description("Poids des étudiants en cache")
+                .register(registry);
+    }
+}
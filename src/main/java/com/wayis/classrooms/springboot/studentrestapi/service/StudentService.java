@@ -1,114 +1,620 @@
 package com.wayis.classrooms.springboot.studentrestapi.service;
 
+import com.wayis.classrooms.springboot.studentrestapi.model.BatchResult;
 import com.wayis.classrooms.springboot.studentrestapi.model.Course;
+import com.wayis.classrooms.springboot.studentrestapi.model.CourseEnrollment;
+import com.wayis.classrooms.springboot.studentrestapi.model.CourseRef;
+import com.wayis.classrooms.springboot.studentrestapi.model.EnrollmentReport;
+import com.wayis.classrooms.springboot.studentrestapi.model.Page;
 import com.wayis.classrooms.springboot.studentrestapi.model.Student;
-import java.math.BigInteger;
-import java.security.SecureRandom;
+import com.wayis.classrooms.springboot.studentrestapi.service.StudentMetrics.Operation;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 @Component
 public class StudentService {
 
-    private static List<Student> students;
+    // En mémoire par défaut ; le dépôt est remplacé au démarrage selon students.repository
+    private static final IndexedStudentRepository students = new IndexedStudentRepository(new StudentStore());
+    private static final CourseCatalog catalog = new CourseCatalog();
+    private static final EnrollmentStats stats = new EnrollmentStats(catalog);
 
     static {
+        students.setStats(stats);
         initializeData();
     }
 
+    private static volatile StudentPersistence persistence;
+    private static volatile StudentMetrics metrics = StudentMetrics.detached();
+
+    @Autowired(required = false)
+    public void setMetrics(StudentMetrics studentMetrics) {
+        metrics = studentMetrics;
+    }
+
+    // Branche la persistance sur les deux magasins, une fois l'état restauré
+    static void attach(StudentPersistence target) {
+        persistence = target;
+        students.setListener(target);
+        catalog.setListener(target);
+    }
+
+    static void detach() {
+        students.setListener(null);
+        catalog.setListener(null);
+        persistence = null;
+    }
+
+    static IndexedStudentRepository store() {
+        return students;
+    }
+
+    /**
+     * Remplace le dépôt des étudiants, avant que l'application ne serve des
+     * requêtes. Un dépôt vide reçoit les données d'exemple.
+     */
+    static void use(StudentRepository repository) {
+        // Un dépôt ouvert sur des données existantes ne les a pas notifiées une à une : index et agrégats sont recalculés
+        students.use(repository);
+        if (repository.size() == 0) {
+            initializeData();
+        }
+    }
+
+    static CourseCatalog catalog() {
+        return catalog;
+    }
+
+    static EnrollmentStats stats() {
+        return stats;
+    }
+
+    // Rend la main quand les écritures de ce thread sont sur disque (sans effet sans persistance)
+    static void awaitDurable() {
+        StudentPersistence target = persistence;
+        if (target != null) {
+            target.awaitDurable();
+        }
+    }
+
     public static void initializeData() {
-        students = new ArrayList<>();
+        students.clear();
+        catalog.clear();
         Course course1 = new Course("DEVE709", "IDE", "Utilisation des IDE", Arrays.asList("Learn Maven", "NetBeans", "Integration tests", "Coverage"));
         Course course2 = new Course("DEVE710", "CI", "Integration Continue", Arrays.asList("Jenkins", "Coverage", "Tests"));
         Course course3 = new Course("BDOE571", "SQL", "SQL Sous Oracle", Arrays.asList("SQL", "PL/SQL", "Triggers"));
         Course course4 = new Course("DEVE571", "Java", "Les fondamentaux", Arrays.asList("Variables", "Boucles", "JVM", "Exceptions"));
 
+        catalog.add(course1);
+        catalog.add(course2);
+        catalog.add(course3);
+        catalog.add(course4);
+
         Student student1 = new Student("S-001", "Luc Labbé", "Senior Developer", new ArrayList<>(Arrays.asList(course1)));
         Student student2 = new Student("S-002", "Thomas Gallinari", "Mobile Developer", new ArrayList<>(Arrays.asList(course1)));
 
-        students.add(student1);
-        students.add(student2);
+        students.add(bindToCatalog(student1));
+        students.add(bindToCatalog(student2));
+    }
+
+    // Remplace les cours embarqués de l'étudiant par les références partagées du catalogue
+    static Student bindToCatalog(Student student) {
+        List<CourseRef> refs = new ArrayList<>(student.getCourses().size());
+        for (Course course : student.getCourses()) {
+            refs.add(catalog.register(course));
+        }
+        return student.withCourseRefs(refs);
+    }
+
+    // Après l'écriture : rétablit les cours retirés du catalogue entre l'enregistrement et l'ajout
+    private static void retainCourses(Student student) {
+        for (CourseRef ref : student.courseRefs()) {
+            catalog.retain(ref);
+        }
+    }
+
+    // Étudiant refusé : ses cours implicites sans autre inscrit quittent le catalogue
+    private static void releaseCourses(Student student) {
+        for (CourseRef ref : student.courseRefs()) {
+            catalog.removeIfUnreferenced(ref.getId(), students);
+        }
     }
 
     public List<Student> retrieveAllStudents() {
-        return students;
+        long start = System.nanoTime();
+        try {
+            return students.snapshot().getStudents();
+        } finally {
+            metrics.record(Operation.RETRIEVE_ALL_STUDENTS, start);
+        }
     }
 
-    public Student retrieveStudent(String studentId) {
-        for (Student student : students) {
-            if (student.getId().equals(studentId)) {
-                return student;
+    // Page d'étudiants qui suit le curseur (identifiant du dernier étudiant lu)
+    public Page<Student> retrieveStudentsPage(String cursor, int limit) {
+        long start = System.nanoTime();
+        try {
+            int from = 0;
+            if (cursor != null) {
+                int position = students.position(cursor);
+                if (position < 0) {
+                    return null;
+                }
+                from = position + 1;
             }
+
+            StudentRepository.Snapshot snapshot = students.range(from, limit);
+            List<Student> page = snapshot.getStudents();
+            String nextCursor = snapshot.hasMore() && !page.isEmpty() ? page.get(page.size() - 1).getId() : null;
+            return new Page<>(page, nextCursor);
+        } finally {
+            metrics.record(Operation.RETRIEVE_STUDENTS_PAGE, start);
         }
-        return null;
     }
 
-    public List<Course> retrieveCourses(String studentId) {
-        Student student = retrieveStudent(studentId);
+    /**
+     * Lit les étudiants à partir d'une position d'insertion, pour parcourir
+     * tout le dépôt par lots : la lecture reprend à {@code getNext()} même si
+     * le dernier étudiant du lot précédent a été retiré entre-temps.
+     */
+    public StudentRepository.Snapshot retrieveStudentsRange(int from, int limit) {
+        long start = System.nanoTime();
+        try {
+            return students.range(from, limit);
+        } finally {
+            metrics.record(Operation.RETRIEVE_STUDENTS_PAGE, start);
+        }
+    }
 
+    public Student retrieveStudent(String studentId) {
+        long start = System.nanoTime();
+        try {
+            return findStudent(studentId);
+        } finally {
+            metrics.record(Operation.RETRIEVE_STUDENT, start);
+        }
+    }
+
+    // Lecture sans chronomètre, pour les autres opérations ; compte les étudiants inconnus
+    private static Student findStudent(String studentId) {
+        Student student = students.get(studentId);
         if (student == null) {
-            return null;
+            metrics.studentMiss();
         }
+        return student;
+    }
 
-        return student.getCourses();
+    private static CourseRef findCourse(String courseId) {
+        CourseRef ref = catalog.get(courseId);
+        if (ref == null) {
+            metrics.courseMiss();
+        }
+        return ref;
     }
 
-    public Course retrieveCourse(String studentId, String courseId) {
-        Student student = retrieveStudent(studentId);
+    // Lecture groupée : les identifiants inconnus sont ignorés, l'ordre demandé est conservé
+    public List<Student> retrieveStudents(List<String> studentIds) {
+        long start = System.nanoTime();
+        try {
+            List<Student> result = new ArrayList<>(studentIds.size());
+            for (String studentId : studentIds) {
+                Student student = students.get(studentId);
+                if (student != null) {
+                    result.add(student);
+                }
+            }
+            return result;
+        } finally {
+            metrics.record(Operation.RETRIEVE_STUDENTS, start);
+        }
+    }
 
-        if (student == null) {
-            return null;
+    public List<Course> retrieveCourses(String studentId) {
+        long start = System.nanoTime();
+        try {
+            Student student = findStudent(studentId);
+
+            if (student == null) {
+                return null;
+            }
+
+            return student.getCourses();
+        } finally {
+            metrics.record(Operation.RETRIEVE_COURSES, start);
         }
+    }
 
-        for (Course course : student.getCourses()) {
-            if (course.getId().equals(courseId)) {
-                return course;
+    public Page<Course> retrieveCoursesPage(String studentId, String cursor, int limit) {
+        long start = System.nanoTime();
+        try {
+            Student student = findStudent(studentId);
+
+            if (student == null) {
+                return null;
             }
+
+            List<CourseRef> refs = student.courseRefs();
+            int from = 0;
+            if (cursor != null) {
+                while (from < refs.size() && !refs.get(from).getId().equals(cursor)) {
+                    from++;
+                }
+                if (from == refs.size()) {
+                    return null;
+                }
+                from++;
+            }
+
+            int to = Math.min(refs.size(), from + limit);
+            List<Course> page = new ArrayList<>(to - from);
+            for (int i = from; i < to; i++) {
+                page.add(refs.get(i).getCourse());
+            }
+            String nextCursor = to < refs.size() && !page.isEmpty() ? refs.get(to - 1).getId() : null;
+            return new Page<>(page, nextCursor);
+        } finally {
+            metrics.record(Operation.RETRIEVE_COURSES_PAGE, start);
         }
+    }
+
+    public Course retrieveCourse(String studentId, String courseId) {
+        long start = System.nanoTime();
+        try {
+            Student student = findStudent(studentId);
 
-        return null;
+            if (student == null) {
+                return null;
+            }
+
+            Course course = student.getCourse(courseId);
+            if (course == null) {
+                metrics.courseMiss();
+            }
+            return course;
+        } finally {
+            metrics.record(Operation.RETRIEVE_COURSE, start);
+        }
     }
 	
 	public Student addStudent(Student student){
 		
-		if (student.getId() == null){
-			return null;
+		long start = System.nanoTime();
+		try {
+			if (student.getId() == null || students.get(student.getId()) != null){
+				return null;
+				}
+			for (Course course : student.getCourses()){
+				if (course.getId() == null){
+					course.setId(generateId());
+					}
+				}
+			Student bound = bindToCatalog(student);
+			if (!students.add(bound)){
+				releaseCourses(bound);
+				return null;
+				}
+			retainCourses(bound);
+			awaitDurable();
+			return student;
+		} finally {
+			metrics.record(Operation.ADD_STUDENT, start);
 			}
-		students.add(student);
-		return student;
 		}
 	
 	
 	
-    private final SecureRandom random = new SecureRandom();
+    // Ajout groupé : tous les étudiants valides sont publiés en une seule écriture
+    public List<BatchResult> addStudents(List<Student> batch) {
+        long start = System.nanoTime();
+        try {
+            List<Student> accepted = new ArrayList<>(batch.size());
+            List<BatchResult> results = new ArrayList<>(batch.size());
+            for (Student student : batch) {
+                if (student == null || student.getId() == null) {
+                    results.add(new BatchResult(student == null ? null : student.getId(), BatchResult.Status.INVALID));
+                    continue;
+                }
+                for (Course course : student.getCourses()) {
+                    if (course.getId() == null) {
+                        course.setId(generateId());
+                    }
+                }
+                accepted.add(bindToCatalog(student));
+                results.add(null);
+            }
+
+            boolean[] added = students.addAll(accepted);
+            int next = 0;
+            for (int i = 0; i < results.size(); i++) {
+                if (results.get(i) == null) {
+                    BatchResult.Status status = added[next] ? BatchResult.Status.CREATED : BatchResult.Status.DUPLICATE;
+                    if (added[next]) {
+                        retainCourses(accepted.get(next));
+                    } else {
+                        releaseCourses(accepted.get(next));
+                    }
+                    results.set(i, new BatchResult(accepted.get(next).getId(), status));
+                    next++;
+                }
+            }
+            awaitDurable();
+            return results;
+        } finally {
+            metrics.record(Operation.ADD_STUDENTS, start);
+        }
+    }
+
+    private static volatile IdGenerator idGenerator = new SecureRandomIdGenerator();
+
+    // Les données étant statiques, la stratégie configurée s'applique à toutes les instances
+    @Autowired(required = false)
+    public void setIdGenerator(IdGenerator generator) {
+        idGenerator = generator;
+    }
+
+    private static String generateId() {
+        long start = System.nanoTime();
+        String id = idGenerator.nextId();
+        metrics.idGenerated(start);
+        return id;
+    }
 
     public Course addCourse(String studentId, Course course) {
-        Student student = retrieveStudent(studentId);
+        long start = System.nanoTime();
+        try {
+            Student student = findStudent(studentId);
+
+            if (student == null) {
+                return null;
+            }
 
-        if (student == null) {
-            return null;
-        }
-	
-	
-        String randomId = new BigInteger(130, random).toString(32);
-        course.setId(randomId);
 
-        student.getCourses().add(course);
+            course.setId(generateId());
+            CourseRef ref = catalog.register(course);
+
+            if (!students.update(studentId, current -> current.withCourse(ref))) {
+                catalog.removeIfUnreferenced(ref.getId(), students);
+                return null;
+            }
+            catalog.retain(ref);
 
-        return course;
+            awaitDurable();
+            return course;
+        } finally {
+            metrics.record(Operation.ADD_COURSE, start);
+        }
     }
     
     public boolean deleteCourse(String studentId, String courseId) {
-        
-        Student student = retrieveStudent(studentId);
+        long start = System.nanoTime();
+        try {
+            boolean deleted = students.update(studentId, current -> current.withoutCourse(courseId));
+            if (deleted) {
+                catalog.removeIfUnreferenced(courseId, students);
+            }
+            awaitDurable();
+            return deleted;
+        } finally {
+            metrics.record(Operation.DELETE_COURSE, start);
+        }
+    }
 
-        if (student == null){
-            return false;
+    // Inscrit l'étudiant à un cours existant du catalogue
+    public Course enrollStudent(String studentId, String courseId) {
+        long start = System.nanoTime();
+        try {
+            CourseRef ref = findCourse(courseId);
+
+            if (ref == null || findStudent(studentId) == null) {
+                return null;
+            }
+
+            students.update(studentId, current -> current.getCourse(courseId) == null ? current.withCourse(ref) : current);
+            // Un cours implicite peut avoir été retiré du catalogue entre la lecture et l'inscription
+            catalog.retain(ref);
+            awaitDurable();
+            return ref.getCourse();
+        } finally {
+            metrics.record(Operation.ENROLL_STUDENT, start);
+        }
+    }
+
+    // Change dès qu'un cours du catalogue est modifié, y compris pour les étudiants inscrits
+    public long catalogVersion() {
+        return catalog.version();
+    }
+
+    // Change à chaque écriture de l'étudiant ; à lire avant l'étudiant
+    public long writeStamp(String studentId) {
+        return students.stamp(studentId);
+    }
+
+    // Inscription groupée à des cours du catalogue, en une seule nouvelle version de l'étudiant
+    public List<BatchResult> enrollStudent(String studentId, List<String> courseIds) {
+        long start = System.nanoTime();
+        try {
+            List<BatchResult> results = new ArrayList<>(courseIds.size());
+            List<CourseRef> refs = new ArrayList<>(courseIds.size());
+            boolean found = students.update(studentId, current -> {
+                results.clear();
+                refs.clear();
+                Set<String> seen = new LinkedHashSet<>();
+                for (String courseId : courseIds) {
+                    CourseRef ref = findCourse(courseId);
+                    if (ref == null) {
+                        results.add(new BatchResult(courseId, BatchResult.Status.NOT_FOUND));
+                    } else if (current.getCourse(courseId) != null || !seen.add(courseId)) {
+                        results.add(new BatchResult(courseId, BatchResult.Status.ALREADY_ENROLLED));
+                    } else {
+                        refs.add(ref);
+                        results.add(new BatchResult(courseId, BatchResult.Status.ENROLLED));
+                    }
+                }
+                return current.withCourses(refs);
+            });
+
+            if (!found && findStudent(studentId) == null) {
+                return null;
+            }
+            for (CourseRef ref : refs) {
+                catalog.retain(ref);
+            }
+            awaitDurable();
+            return results;
+        } finally {
+            metrics.record(Operation.ENROLL_STUDENT_BATCH, start);
+        }
+    }
+
+    // Désinscription groupée, en une seule nouvelle version de l'étudiant
+    public List<BatchResult> deleteCourses(String studentId, List<String> courseIds) {
+        long start = System.nanoTime();
+        try {
+            List<BatchResult> results = new ArrayList<>(courseIds.size());
+            boolean found = students.update(studentId, current -> {
+                results.clear();
+                Set<String> removed = new LinkedHashSet<>();
+                for (String courseId : courseIds) {
+                    if (current.getCourse(courseId) != null && removed.add(courseId)) {
+                        results.add(new BatchResult(courseId, BatchResult.Status.REMOVED));
+                    } else {
+                        results.add(new BatchResult(courseId, BatchResult.Status.NOT_FOUND));
+                    }
+                }
+                return current.withoutCourses(removed);
+            });
+
+            if (!found && findStudent(studentId) == null) {
+                return null;
+            }
+            // Les cours implicites qui n'ont plus d'inscrits quittent le catalogue et l'index
+            for (BatchResult result : results) {
+                if (result.getStatus() == BatchResult.Status.REMOVED) {
+                    catalog.removeIfUnreferenced(result.getId(), students);
+                }
+            }
+            awaitDurable();
+            return results;
+        } finally {
+            metrics.record(Operation.DELETE_COURSES, start);
+        }
+    }
+
+    public List<Course> retrieveCatalog() {
+        long start = System.nanoTime();
+        try {
+            return catalog.list();
+        } finally {
+            metrics.record(Operation.RETRIEVE_CATALOG, start);
+        }
+    }
+
+    public Course retrieveCatalogCourse(String courseId) {
+        long start = System.nanoTime();
+        try {
+            CourseRef ref = findCourse(courseId);
+            return ref == null ? null : ref.getCourse();
+        } finally {
+            metrics.record(Operation.RETRIEVE_CATALOG_COURSE, start);
+        }
+    }
+
+    public List<Course> searchCourses(String query, int limit) {
+        long start = System.nanoTime();
+        try {
+            return catalog.search(query, limit);
+        } finally {
+            metrics.record(Operation.SEARCH_COURSES, start);
+        }
+    }
+
+    // Étudiants inscrits au cours, par identifiant croissant, à partir du curseur (dernier identifiant lu)
+    public Page<Student> retrieveCourseStudents(String courseId, String cursor, int limit) {
+        long start = System.nanoTime();
+        try {
+            if (findCourse(courseId) == null) {
+                return null;
+            }
+
+            StudentRepository.Snapshot snapshot = students.enrolled(courseId, cursor, limit);
+            List<Student> page = snapshot.getStudents();
+            String nextCursor = snapshot.hasMore() && !page.isEmpty() ? page.get(page.size() - 1).getId() : null;
+            return new Page<>(page, nextCursor);
+        } finally {
+            metrics.record(Operation.RETRIEVE_COURSE_STUDENTS, start);
+        }
+    }
+
+    /**
+     * Statistiques des inscriptions et les {@code top} cours les plus suivis,
+     * lues dans les agrégats tenus à jour, ou recalculées sur tous les
+     * étudiants si {@code recompute} est vrai.
+     */
+    public EnrollmentReport retrieveStats(int top, boolean recompute) {
+        long start = System.nanoTime();
+        try {
+            return recompute ? stats.recompute(students.snapshot().getStudents(), top) : stats.report(top);
+        } finally {
+            metrics.record(Operation.RETRIEVE_STATS, start);
+        }
+    }
+
+    public List<CourseEnrollment> retrieveTopCourses(int limit) {
+        long start = System.nanoTime();
+        try {
+            return stats.topCourses(limit);
+        } finally {
+            metrics.record(Operation.RETRIEVE_TOP_COURSES, start);
+        }
+    }
+
+    // Nombre d'inscrits au cours, null si le cours n'est pas au catalogue
+    public CourseEnrollment retrieveCourseStats(String courseId) {
+        long start = System.nanoTime();
+        try {
+            CourseRef ref = findCourse(courseId);
+            return ref == null ? null : new CourseEnrollment(courseId, ref.getCourse().getName(), stats.students(courseId));
+        } finally {
+            metrics.record(Operation.RETRIEVE_COURSE_STATS, start);
+        }
+    }
+
+    public int countCourseStudents(String courseId) {
+        return students.enrolledCount(courseId);
+    }
+
+    public Course addCatalogCourse(Course course) {
+        long start = System.nanoTime();
+        try {
+            if (course.getId() == null) {
+                course.setId(generateId());
+            }
+            if (catalog.add(course) == null) {
+                return null;
+            }
+            awaitDurable();
+            return course;
+        } finally {
+            metrics.record(Operation.ADD_CATALOG_COURSE, start);
+        }
+    }
+
+    public Course updateCatalogCourse(String courseId, Course course) {
+        long start = System.nanoTime();
+        try {
+            course.setId(courseId);
+            if (!catalog.replace(course)) {
+                return null;
+            }
+            awaitDurable();
+            return course;
+        } finally {
+            metrics.record(Operation.UPDATE_CATALOG_COURSE, start);
         }
-            
-        return student.getCourses().removeIf(course -> (course.getId().equals(courseId)));
     }
     
     
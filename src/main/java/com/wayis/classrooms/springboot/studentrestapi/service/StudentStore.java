@@ -0,0 +1,305 @@
+package com.wayis.classrooms.springboot.studentrestapi.service;
+
+import com.wayis.classrooms.springboot.studentrestapi.model.Student;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Index multi-versions (MVCC) des étudiants par identifiant.
+ * <p>
+ * Les écrivains sont sérialisés par un verrou et publient chaque modification
+ * sous un nouveau numéro de version. Un étudiant stocké n'est jamais modifié :
+ * une écriture remplace l'instance par une copie. Les lecteurs ne prennent
+ * aucun verrou ; {@link #snapshot()} retourne une vue figée où tous les
+ * étudiants appartiennent à la même version.
+ * <p>
+ * Implémentation en mémoire de {@link StudentRepository}, utilisée par défaut.
+ */
+class StudentStore implements StudentRepository {
+
+    // Au-delà, la lecture d'un instantané se fait sous le verrou d'écriture
+    private static final int OPTIMISTIC_READ_ATTEMPTS = 8;
+    // Version nécessaire à une lecture mais déjà purgée
+    private static final Version PURGED = new Version(-1, null, null);
+
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final Map<String, Slot> slots = new ConcurrentHashMap<>();
+    // Ordre d'insertion : le tableau est publié avant la taille
+    private volatile Slot[] roster = new Slot[16];
+    private volatile int rosterSize;
+    private volatile long version;
+    // Impair pendant un vidage : le tableau et la taille y sont remplacés ensemble
+    private volatile long resets;
+
+    /**
+     * Lit l'étudiant à la dernière version publiée, comme {@link #range} : un
+     * écrivain qui n'a pas encore publié sa version reste invisible.
+     */
+    @Override
+    public Student get(String studentId) {
+        if (studentId == null) {
+            return null;
+        }
+        for (int attempt = 0; attempt < OPTIMISTIC_READ_ATTEMPTS; attempt++) {
+            long reset = resets;
+            Slot slot = slots.get(studentId);
+            // Version lue après la place : une place plus récente qu'elle n'est pas encore publiée
+            Version candidate = slot == null ? null : versionAt(slot, version);
+            if ((reset & 1) == 0 && candidate != PURGED && resets == reset) {
+                return candidate == null ? null : candidate.student;
+            }
+        }
+        // Sous le verrou, la tête de chaque place est publiée
+        writeLock.lock();
+        try {
+            Slot slot = slots.get(studentId);
+            return slot == null ? null : slot.head.student;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Lit au plus {@code limit} étudiants à partir de la position
+     * {@code from} (ordre d'insertion), tous à la même version.
+     */
+    @Override
+    public Snapshot range(int from, int limit) {
+        for (int attempt = 0; attempt < OPTIMISTIC_READ_ATTEMPTS; attempt++) {
+            Snapshot snapshot = readRange(from, limit);
+            if (snapshot != null) {
+                return snapshot;
+            }
+        }
+        writeLock.lock();
+        try {
+            return readRange(from, limit);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Position d'insertion de l'étudiant, utilisée comme curseur de pagination.
+     *
+     * @return -1 si l'étudiant est inconnu
+     */
+    @Override
+    public int position(String studentId) {
+        Slot slot = studentId == null ? null : slots.get(studentId);
+        return slot == null ? -1 : slot.position;
+    }
+
+    /**
+     * Lit les étudiants tels qu'ils étaient à la version courante.
+     *
+     * @return {@code null} si une version nécessaire a déjà été purgée ou si
+     *         un vidage a croisé la lecture
+     */
+    private Snapshot readRange(int from, int limit) {
+        long reset = resets;
+        if ((reset & 1) != 0) {
+            return null;
+        }
+        long at = version;
+        int size = rosterSize;
+        Slot[] slotsInOrder = roster;
+        List<Student> students = new ArrayList<>(Math.max(0, Math.min(limit, size - from)));
+        int i = from;
+        for (; i < size && students.size() < limit; i++) {
+            // Taille lue avant un vidage, tableau lu après
+            Slot slot = i < slotsInOrder.length ? slotsInOrder[i] : null;
+            if (slot == null) {
+                return null;
+            }
+            Version candidate = versionAt(slot, at);
+            if (candidate == PURGED) {
+                return null;
+            }
+            // Étudiant retiré ou pas encore ajouté à cette version
+            if (candidate != null && candidate.student != null) {
+                students.add(candidate.student);
+            }
+        }
+        // Les places restantes peuvent n'être que des étudiants retirés : pas de page vide annoncée
+        boolean hasMore = false;
+        for (int j = i; !hasMore && j < size; j++) {
+            Slot slot = j < slotsInOrder.length ? slotsInOrder[j] : null;
+            if (slot == null) {
+                return null;
+            }
+            Version candidate = versionAt(slot, at);
+            if (candidate == PURGED) {
+                return null;
+            }
+            hasMore = candidate != null && candidate.student != null;
+        }
+        // Un vidage pendant la lecture mélangerait des versions d'avant et d'après
+        if (resets != reset) {
+            return null;
+        }
+        return new Snapshot(at, Collections.unmodifiableList(students), hasMore, i);
+    }
+
+    // Version de la place à la version at ; null si la place est plus récente, PURGED si elle a été purgée
+    private static Version versionAt(Slot slot, long at) {
+        if (slot.created > at) {
+            return null;
+        }
+        Version candidate = slot.head;
+        while (candidate != null && candidate.number > at) {
+            candidate = candidate.previous;
+        }
+        return candidate == null ? PURGED : candidate;
+    }
+
+    @Override
+    public void put(Student student) {
+        writeLock.lock();
+        try {
+            long next = version + 1;
+            write(student, next);
+            version = next;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Écrit plusieurs étudiants sous une seule prise du verrou ; ils
+     * deviennent visibles ensemble, dans une même version.
+     */
+    @Override
+    public void putAll(List<Student> students) {
+        if (students.isEmpty()) {
+            return;
+        }
+        writeLock.lock();
+        try {
+            long next = version + 1;
+            for (Student student : students) {
+                write(student, next);
+            }
+            version = next;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    // Nouvelle place en fin d'ordre d'insertion, ou nouvelle version de la place existante
+    private void write(Student student, long next) {
+        Slot slot = slots.get(student.getId());
+        if (slot == null) {
+            slot = new Slot(next, rosterSize, new Version(next, student, null));
+            slots.put(student.getId(), slot);
+            append(slot);
+            return;
+        }
+        Version current = slot.head;
+        // On ne garde qu'une version antérieure ; un lecteur plus ancien recommence
+        current.previous = null;
+        slot.head = new Version(next, student, current);
+    }
+
+    /**
+     * Retire l'étudiant. Sa place dans l'ordre d'insertion reste occupée par
+     * une version vide, pour que les positions et les lectures en cours ne
+     * bougent pas ; elle disparaît au prochain vidage.
+     *
+     * @return l'étudiant retiré, {@code null} s'il était inconnu
+     */
+    @Override
+    public Student remove(String studentId) {
+        if (studentId == null) {
+            return null;
+        }
+        writeLock.lock();
+        try {
+            Slot slot = slots.get(studentId);
+            if (slot == null) {
+                return null;
+            }
+            Version current = slot.head;
+            long next = version + 1;
+            current.previous = null;
+            slot.head = new Version(next, null, current);
+            version = next;
+            // Retirée de l'index après la publication : jusque-là, get() lit encore la version précédente
+            slots.remove(studentId);
+            return current.student;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Vide le magasin sous le verrou d'écriture. Les lecteurs sans verrou qui
+     * croisent le vidage recommencent, comme pour une version purgée.
+     */
+    @Override
+    public void clear() {
+        writeLock.lock();
+        resets++;
+        try {
+            reset();
+        } finally {
+            resets++;
+            writeLock.unlock();
+        }
+    }
+
+    private void reset() {
+        slots.clear();
+        roster = new Slot[16];
+        rosterSize = 0;
+        version = version + 1;
+    }
+
+    // Étudiants présents, sans les places laissées par les retraits
+    @Override
+    public int size() {
+        return slots.size();
+    }
+
+    private void append(Slot slot) {
+        Slot[] current = roster;
+        int size = rosterSize;
+        if (size == current.length) {
+            current = Arrays.copyOf(current, size * 2);
+        }
+        current[size] = slot;
+        roster = current;
+        rosterSize = size + 1;
+    }
+
+    private static final class Slot {
+
+        final long created;
+        final int position;
+        volatile Version head;
+
+        Slot(long created, int position, Version head) {
+            this.created = created;
+            this.position = position;
+            this.head = head;
+        }
+    }
+
+    private static final class Version {
+
+        final long number;
+        final Student student;
+        Version previous;
+
+        Version(long number, Student student, Version previous) {
+            this.number = number;
+            this.student = student;
+            this.previous = previous;
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.wayis.classrooms.springboot.studentrestapi.service;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+// Identifiants aléatoires de 128 bits tirés d'un générateur propre à chaque thread : aucune contention
+public class ThreadLocalRandomIdGenerator implements IdGenerator {
+
+    private static final char[] ALPHABET = "0123456789abcdefghijklmnopqrstuv".toCharArray();
+
+    @Override
+    public String nextId() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return Base32.encode(random.nextLong(), random.nextLong(), ALPHABET);
+    }
+}
@@ -0,0 +1,34 @@
+package com.wayis.classrooms.springboot.studentrestapi.service;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Identifiants triables dans le temps, à la manière des ULID.
+ * <p>
+ * Les 128 bits sont : 48 bits d'horodatage en millisecondes, 16 bits
+ * d'identifiant de nœud et 64 bits de compteur propre au nœud. Le tout est
+ * encodé en base 32 de Crockford, dont l'ordre lexicographique suit celui des
+ * valeurs : les identifiants se trient par date de création. Le compteur
+ * garantit l'unicité sur un nœud même si l'horloge recule.
+ */
+public class TimeOrderedIdGenerator implements IdGenerator {
+
+    private static final char[] CROCKFORD = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+
+    private final long node;
+    private final AtomicLong sequence = new AtomicLong(ThreadLocalRandom.current().nextLong() >>> 1);
+
+    public TimeOrderedIdGenerator(int node) {
+        if (node < 0 || node > 0xFFFF) {
+            throw new IllegalArgumentException("Node id must fit in 16 bits: " + node);
+        }
+        this.node = node;
+    }
+
+    @Override
+    public String nextId() {
+        long high = (System.currentTimeMillis() << 16) | node;
+        return Base32.encode(high, sequence.getAndIncrement(), CROCKFORD);
+    }
+}
@@ -0,0 +1,48 @@
+package com.wayis.classrooms.springboot.studentrestapi.service;
+
+/**
+ * Seau à jetons d'un client : {@code rate} jetons par seconde, au plus
+ * {@code burst} accumulés. Le remplissage est calculé à chaque demande,
+ * sans thread.
+ */
+final class TokenBucket {
+
+    private final double tokensPerNano;
+    private final double burst;
+    private double tokens;
+    private long refilledAt;
+
+    TokenBucket(double rate, double burst, long now) {
+        this.tokensPerNano = rate / 1e9;
+        this.burst = burst;
+        this.tokens = burst;
+        this.refilledAt = now;
+    }
+
+    /**
+     * Prend {@code cost} jetons s'ils sont disponibles.
+     *
+     * @return 0 si les jetons ont été pris, sinon le délai en nanosecondes avant qu'ils le soient
+     */
+    synchronized long tryConsume(double cost, long now) {
+        refill(now);
+        // Une demande plus chère que le seau entier attend qu'il soit plein
+        double needed = Math.min(cost, burst);
+        if (tokens >= needed) {
+            tokens -= needed;
+            return 0;
+        }
+        return (long) Math.ceil((needed - tokens) / tokensPerNano);
+    }
+
+    // Seau plein : le client n'a rien demandé depuis un moment
+    synchronized boolean isFull(long now) {
+        refill(now);
+        return tokens >= burst;
+    }
+
+    private void refill(long now) {
+        tokens = Math.min(burst, tokens + (now - refilledAt) * tokensPerNano);
+        refilledAt = now;
+    }
+}
@@ -0,0 +1,88 @@
+package com.wayis.classrooms.springboot.studentrestapi.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.wayis.classrooms.springboot.studentrestapi.model.Course;
+import com.wayis.classrooms.springboot.studentrestapi.service.StepPool;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Tas occupé par des cours lus en JSON : {@code pooled} code leurs étapes
+ * dans un {@link StepPool}, comme le catalogue à l'enregistrement,
+ * {@code lists} les garde telles que lues, une {@code List<String>} par
+ * cours dont chaque libellé est une chaîne distincte. Le temps mesuré
+ * n'a pas d'intérêt ; la taille est affichée à chaque itération.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgs = {"-Xmx4g"})
+public class CourseFootprintBenchmark {
+
+    // Libellés d'étapes distincts, partagés par tous les cours
+    private static final int VOCABULARY = 200;
+    private static final int STEPS_PER_COURSE = 4;
+
+    @Param({"pooled", "lists"})
+    public String representation;
+
+    @Param({"100000", "1000000"})
+    public int courses;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Benchmark
+    public Object[] load() throws IOException, InterruptedException {
+        ObjectReader reader = objectMapper.readerFor(Course.class);
+        StepPool pool = "pooled".equals(representation) ? new StepPool(VOCABULARY) : null;
+        Random random = new Random(42);
+        Object[] catalog = new Object[courses];
+        long before = retainedHeap();
+        for (int i = 0; i < courses; i++) {
+            Course course = reader.readValue(json(i, random));
+            if (pool != null) {
+                course.setSteps(pool.encode(course.getSteps()));
+            }
+            catalog[i] = course;
+        }
+        long after = retainedHeap();
+        System.out.println(String.format("%n%s, %d courses: %d MB, %d bytes/course", representation, courses,
+                (after - before) / (1024 * 1024), (after - before) / courses));
+        return catalog;
+    }
+
+    private static String json(int i, Random random) {
+        StringBuilder json = new StringBuilder("{\"id\":\"C-").append(i)
+                .append("\",\"name\":\"Course ").append(i)
+                .append("\",\"description\":\"Description du cours ").append(i)
+                .append("\",\"steps\":[");
+        for (int s = 0; s < STEPS_PER_COURSE; s++) {
+            json.append(s == 0 ? "\"" : ",\"").append("Step ").append(random.nextInt(VOCABULARY)).append('"');
+        }
+        return json.append("]}").toString();
+    }
+
+    // Tas occupé après plusieurs collectes
+    private static long retainedHeap() throws InterruptedException {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+}
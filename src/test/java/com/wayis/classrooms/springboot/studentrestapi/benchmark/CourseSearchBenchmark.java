@@ -0,0 +1,87 @@
+package com.wayis.classrooms.springboot.studentrestapi.benchmark;
+
+import com.wayis.classrooms.springboot.studentrestapi.model.Course;
+import com.wayis.classrooms.springboot.studentrestapi.service.StudentService;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Latence de {@code GET /search/courses} sur un catalogue de plusieurs
+ * dizaines de milliers de cours, sans la couche HTTP.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CourseSearchBenchmark {
+
+    private static final String[] WORDS = {
+        "Intégration", "continue", "Java", "Maven", "tests", "Couverture", "Oracle", "SQL", "Déploiement",
+        "Sécurité", "Réseaux", "Algorithmes", "Données", "Architecture", "Microservices", "Docker",
+        "Kubernetes", "Spring", "Hibernate", "Performance", "Concurrence", "Mémoire", "Compilateur", "Git"
+    };
+
+    @Param({"10000", "100000"})
+    public int courses;
+
+    private final StudentService studentService = new StudentService();
+
+    @Setup
+    public void populate() {
+        StudentService.initializeData();
+        Random random = new Random(42);
+        for (int i = 0; i < courses; i++) {
+            studentService.addCatalogCourse(new Course("C-" + i, sentence(random, 2), sentence(random, 6),
+                    Arrays.asList(sentence(random, 2), sentence(random, 2), sentence(random, 3))));
+        }
+    }
+
+    private static String sentence(Random random, int words) {
+        StringBuilder sentence = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            sentence.append(i == 0 ? "" : " ").append(WORDS[random.nextInt(WORDS.length)]).append(random.nextInt(50));
+        }
+        return sentence.toString();
+    }
+
+    @Benchmark
+    public List<Course> rareTerm() {
+        return studentService.searchCourses("kubernetes17", 20);
+    }
+
+    @Benchmark
+    public List<Course> twoTermsWithPrefix() {
+        return studentService.searchCourses("integration3 cont", 20);
+    }
+
+    @Benchmark
+    public List<Course> shortPrefix() {
+        return studentService.searchCourses("sec", 20);
+    }
+
+    // Une seule lettre : les termes de plusieurs mots (Sécurité, SQL, Spring...) sont candidats
+    @Benchmark
+    public List<Course> singleLetterPrefix() {
+        return studentService.searchCourses("s", 20);
+    }
+
+    @Benchmark
+    public List<Course> singleLetterPrefixWithTerm() {
+        return studentService.searchCourses("java7 s", 20);
+    }
+}
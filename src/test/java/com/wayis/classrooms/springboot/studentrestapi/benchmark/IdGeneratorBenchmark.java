@@ -0,0 +1,57 @@
+package com.wayis.classrooms.springboot.studentrestapi.benchmark;
+
+import com.wayis.classrooms.springboot.studentrestapi.service.IdGenerator;
+import com.wayis.classrooms.springboot.studentrestapi.service.SecureRandomIdGenerator;
+import com.wayis.classrooms.springboot.studentrestapi.service.ThreadLocalRandomIdGenerator;
+import com.wayis.classrooms.springboot.studentrestapi.service.TimeOrderedIdGenerator;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Débit des générateurs d'identifiants, partagés entre tous les threads.
+ * <p>
+ * Pour mesurer la contention : {@code -Djmh.args="IdGeneratorBenchmark -t 1"}
+ * puis {@code -t 8}, {@code -t max}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IdGeneratorBenchmark {
+
+    @Param({"secure", "random", "time-ordered"})
+    public String mode;
+
+    private IdGenerator generator;
+
+    @Setup
+    public void createGenerator() {
+        switch (mode) {
+            case "secure":
+                generator = new SecureRandomIdGenerator();
+                break;
+            case "random":
+                generator = new ThreadLocalRandomIdGenerator();
+                break;
+            default:
+                generator = new TimeOrderedIdGenerator(1);
+        }
+    }
+
+    @Benchmark
+    public String nextId() {
+        return generator.nextId();
+    }
+}
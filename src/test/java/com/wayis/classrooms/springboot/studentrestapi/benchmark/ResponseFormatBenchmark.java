@@ -0,0 +1,119 @@
+package com.wayis.classrooms.springboot.studentrestapi.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wayis.classrooms.springboot.studentrestapi.controller.ResponseFormats;
+import com.wayis.classrooms.springboot.studentrestapi.model.Course;
+import com.wayis.classrooms.springboot.studentrestapi.model.Student;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+// Coût d'encodage et de décodage, et octets transmis (bruts et gzip), d'un étudiant
+// et de la liste complète des étudiants selon le format négocié
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResponseFormatBenchmark {
+
+    @Param({"json", "cbor", "smile", "protobuf"})
+    public String format;
+
+    @Param({"student", "roster"})
+    public String payload;
+
+    @Param({"10"})
+    public int coursesPerStudent;
+
+    @Param({"1000"})
+    public int rosterSize;
+
+    private ResponseFormats formats;
+    private MediaType mediaType;
+    private Object body;
+    private byte[] encoded;
+
+    @Setup
+    public void encode() throws IOException {
+        formats = new ResponseFormats(new ObjectMapper(), Jackson2ObjectMapperBuilder.json());
+        switch (format) {
+            case "cbor":
+                mediaType = ResponseFormats.CBOR;
+                break;
+            case "smile":
+                mediaType = ResponseFormats.SMILE;
+                break;
+            case "protobuf":
+                mediaType = ResponseFormats.PROTOBUF;
+                break;
+            default:
+                mediaType = MediaType.APPLICATION_JSON;
+        }
+
+        List<Course> courses = new ArrayList<>();
+        for (int i = 0; i < coursesPerStudent; i++) {
+            courses.add(new Course("C-" + i, "Course " + i, "Intégration continue",
+                    Arrays.asList("Learn Maven", "Integration tests", "Coverage", "JVM")));
+        }
+        if ("roster".equals(payload)) {
+            List<Student> roster = new ArrayList<>(rosterSize);
+            for (int i = 0; i < rosterSize; i++) {
+                roster.add(new Student("R-" + i, "Student " + i, "Benchmark", courses));
+            }
+            body = roster;
+        } else {
+            body = new Student("S-001", "Luc Labbé", "Senior Developer", courses);
+        }
+
+        encoded = formats.write(mediaType, body, null);
+        System.out.println(String.format("%n%s %s: %d bytes, %d bytes gzip",
+                format, payload, encoded.length, gzip(encoded).length));
+    }
+
+    @Benchmark
+    public byte[] serialize() throws IOException {
+        return formats.write(mediaType, body, null);
+    }
+
+    @Benchmark
+    public Object deserialize() throws IOException {
+        if (body instanceof List) {
+            return formats.readList(mediaType, encoded, Student.class);
+        }
+        return formats.read(mediaType, new ByteArrayInputStream(encoded), Student.class);
+    }
+
+    // Encodage suivi de la compression gzip, comme une réponse compressée par le serveur
+    @Benchmark
+    public byte[] serializeGzip() throws IOException {
+        return gzip(formats.write(mediaType, body, null));
+    }
+
+    private static byte[] gzip(byte[] bytes) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        }
+        return out.toByteArray();
+    }
+}
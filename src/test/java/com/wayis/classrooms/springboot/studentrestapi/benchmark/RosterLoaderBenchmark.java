@@ -0,0 +1,106 @@
+package com.wayis.classrooms.springboot.studentrestapi.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wayis.classrooms.springboot.studentrestapi.service.RosterLoader;
+import com.wayis.classrooms.springboot.studentrestapi.service.StudentService;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.metrics.ApplicationStartup;
+
+// Démarrage à froid : chargement complet d'un fichier d'étudiants selon son format
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgs = {"-Xmx4g"})
+public class RosterLoaderBenchmark {
+
+    @Param({"csv", "ndjson", "json"})
+    public String format;
+
+    @Param({"1000000"})
+    public int students;
+
+    @Param({"1000"})
+    public int courses;
+
+    @Param({"3"})
+    public int coursesPerStudent;
+
+    private Path directory;
+    private Path coursesFile;
+    private Path studentsFile;
+    private RosterLoader loader;
+
+    @Setup
+    public void writeFiles() throws IOException {
+        directory = Files.createTempDirectory("roster-benchmark");
+        coursesFile = directory.resolve("courses.ndjson");
+        studentsFile = directory.resolve("students." + format);
+        Random random = new Random(42);
+
+        try (BufferedWriter out = Files.newBufferedWriter(coursesFile)) {
+            for (int i = 0; i < courses; i++) {
+                out.write("{\"id\":\"C-" + i + "\",\"name\":\"Course " + i
+                        + "\",\"description\":\"Intégration continue\",\"steps\":[\"Learn Maven\",\"Coverage\"]}\n");
+            }
+        }
+        try (BufferedWriter out = Files.newBufferedWriter(studentsFile)) {
+            out.write("csv".equals(format) ? "id,name,description,courses\n" : "json".equals(format) ? "[\n" : "");
+            for (int i = 0; i < students; i++) {
+                List<String> ids = new ArrayList<>(coursesPerStudent);
+                List<String> refs = new ArrayList<>(coursesPerStudent);
+                for (int c = 0; c < coursesPerStudent; c++) {
+                    String id = "C-" + random.nextInt(courses);
+                    ids.add(id);
+                    refs.add("{\"id\":\"" + id + "\"}");
+                }
+                if ("csv".equals(format)) {
+                    out.write("S-" + i + ",Student " + i + ",Benchmark," + String.join(";", ids) + "\n");
+                } else {
+                    out.write((i > 0 && "json".equals(format) ? ",\n" : "")
+                            + "{\"id\":\"S-" + i + "\",\"name\":\"Student " + i
+                            + "\",\"description\":\"Benchmark\",\"courses\":[" + String.join(",", refs) + "]}"
+                            + ("ndjson".equals(format) ? "\n" : ""));
+                }
+            }
+            out.write("json".equals(format) ? "\n]\n" : "");
+        }
+        loader = new RosterLoader(new ObjectMapper(), ApplicationStartup.DEFAULT);
+    }
+
+    @TearDown
+    public void deleteFiles() throws IOException {
+        Files.delete(studentsFile);
+        Files.delete(coursesFile);
+        Files.delete(directory);
+        StudentService.initializeData();
+    }
+
+    @Benchmark
+    public RosterLoader.LoadReport load() throws IOException {
+        RosterLoader.LoadReport report = loader.load(coursesFile, studentsFile);
+        System.out.println(String.format("%n%s: %d students/s, heap +%d MB",
+                format, report.getStudentsPerSecond(), report.getHeapUsedBytes() / (1024 * 1024)));
+        return report;
+    }
+}
@@ -0,0 +1,114 @@
+package com.wayis.classrooms.springboot.studentrestapi.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.wayis.classrooms.springboot.studentrestapi.model.Course;
+import com.wayis.classrooms.springboot.studentrestapi.model.Student;
+import com.wayis.classrooms.springboot.studentrestapi.service.StudentService;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Coût Jackson d'un étudiant, d'un cours et d'une liste complète d'étudiants
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializationBenchmark {
+
+    @Param({"1", "10", "50"})
+    public int coursesPerStudent;
+
+    @Param({"1000"})
+    public int rosterSize;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private ObjectWriter studentWriter;
+    private ObjectWriter courseWriter;
+    private ObjectWriter rosterWriter;
+    private ObjectReader studentReader;
+    private ObjectReader courseReader;
+    private ObjectReader rosterReader;
+
+    private Student student;
+    private Course course;
+    private List<Student> roster;
+    private byte[] studentJson;
+    private byte[] courseJson;
+    private byte[] rosterJson;
+
+    @Setup
+    public void buildGraph() throws IOException {
+        studentWriter = objectMapper.writerFor(Student.class);
+        courseWriter = objectMapper.writerFor(Course.class);
+        rosterWriter = objectMapper.writerFor(objectMapper.getTypeFactory().constructCollectionType(List.class, Student.class));
+        studentReader = objectMapper.readerFor(Student.class);
+        courseReader = objectMapper.readerFor(Course.class);
+        rosterReader = objectMapper.readerFor(objectMapper.getTypeFactory().constructCollectionType(List.class, Student.class));
+
+        List<Course> courses = new ArrayList<>();
+        for (int i = 0; i < coursesPerStudent; i++) {
+            courses.add(new Course("C-" + i, "Course " + i, "Intégration continue",
+                    Arrays.asList("Learn Maven", "Integration tests", "Coverage", "JVM")));
+        }
+        course = courses.get(0);
+        student = new Student("S-001", "Luc Labbé", "Senior Developer", courses);
+
+        StudentService.initializeData();
+        StudentService studentService = new StudentService();
+        for (int i = 0; i < rosterSize; i++) {
+            studentService.addStudent(new Student("R-" + i, "Student " + i, "Benchmark", courses));
+        }
+        roster = studentService.retrieveAllStudents();
+
+        studentJson = studentWriter.writeValueAsBytes(student);
+        courseJson = courseWriter.writeValueAsBytes(course);
+        rosterJson = rosterWriter.writeValueAsBytes(roster);
+    }
+
+    @Benchmark
+    public byte[] serializeStudent() throws IOException {
+        return studentWriter.writeValueAsBytes(student);
+    }
+
+    @Benchmark
+    public Student deserializeStudent() throws IOException {
+        return studentReader.readValue(studentJson);
+    }
+
+    @Benchmark
+    public byte[] serializeCourse() throws IOException {
+        return courseWriter.writeValueAsBytes(course);
+    }
+
+    @Benchmark
+    public Course deserializeCourse() throws IOException {
+        return courseReader.readValue(courseJson);
+    }
+
+    @Benchmark
+    public byte[] serializeRoster() throws IOException {
+        return rosterWriter.writeValueAsBytes(roster);
+    }
+
+    @Benchmark
+    public List<Student> deserializeRoster() throws IOException {
+        return rosterReader.readValue(rosterJson);
+    }
+}
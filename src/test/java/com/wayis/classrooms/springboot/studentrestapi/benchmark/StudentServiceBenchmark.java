@@ -0,0 +1,118 @@
+package com.wayis.classrooms.springboot.studentrestapi.benchmark;
+
+import com.wayis.classrooms.springboot.studentrestapi.model.Course;
+import com.wayis.classrooms.springboot.studentrestapi.model.Page;
+import com.wayis.classrooms.springboot.studentrestapi.model.Student;
+import com.wayis.classrooms.springboot.studentrestapi.service.StudentService;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Opérations de {@link StudentService} sur un magasin de taille variable.
+ * <p>
+ * Le nombre de threads se choisit à l'exécution :
+ * {@code mvn -Pjmh test-compile exec:exec -Djmh.args="StudentServiceBenchmark -t 8"}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class StudentServiceBenchmark {
+
+    static final String[] CATALOG_COURSES = {"DEVE709", "DEVE710", "BDOE571"};
+
+    @Param({"10", "1000", "100000", "1000000"})
+    public int students;
+
+    private final StudentService studentService = new StudentService();
+    private final AtomicLong nextStudentId = new AtomicLong();
+    private String[] studentIds;
+
+    @Setup
+    public void fillStore() {
+        StudentService.initializeData();
+        studentIds = populate(studentService, students);
+    }
+
+    // Seul addStudent fait grandir le magasin : il repart de sa taille initiale à chaque itération
+    @Setup(Level.Iteration)
+    public void resetStore() {
+        if (nextStudentId.getAndSet(0) > 0) {
+            fillStore();
+        }
+    }
+
+    // Ajoute des étudiants inscrits chacun aux mêmes cours du catalogue
+    static String[] populate(StudentService studentService, int count) {
+        String[] ids = new String[count];
+        for (int i = 0; i < count; i++) {
+            ids[i] = "B-" + i;
+            studentService.addStudent(new Student(ids[i], "Student " + i, "Benchmark", new ArrayList<>()));
+            for (String courseId : CATALOG_COURSES) {
+                studentService.enrollStudent(ids[i], courseId);
+            }
+        }
+        return ids;
+    }
+
+    private String randomStudentId() {
+        return studentIds[ThreadLocalRandom.current().nextInt(studentIds.length)];
+    }
+
+    @Benchmark
+    public Student retrieveStudent() {
+        return studentService.retrieveStudent(randomStudentId());
+    }
+
+    @Benchmark
+    public Course retrieveCourse() {
+        return studentService.retrieveCourse(randomStudentId(), "DEVE710");
+    }
+
+    @Benchmark
+    public Student retrieveUnknownStudent() {
+        return studentService.retrieveStudent("any");
+    }
+
+    // Ajout suivi de la suppression, pour que la taille du magasin reste stable
+    @Benchmark
+    public boolean addThenDeleteCourse() {
+        String studentId = randomStudentId();
+        Course course = studentService.addCourse(studentId,
+                new Course(null, "Bench", "Benchmark", Arrays.asList("Tests")));
+        return studentService.deleteCourse(studentId, course.getId());
+    }
+
+    @Benchmark
+    public boolean deleteUnknownCourse() {
+        return studentService.deleteCourse(randomStudentId(), "any");
+    }
+
+    @Benchmark
+    public Student addStudent() {
+        String id = "N-" + nextStudentId.incrementAndGet();
+        return studentService.addStudent(new Student(id, "New student", "Benchmark", new ArrayList<>()));
+    }
+
+    @Benchmark
+    public Page<Student> retrieveStudentsPage() {
+        return studentService.retrieveStudentsPage(randomStudentId(), 100);
+    }
+}
@@ -0,0 +1,84 @@
+package com.wayis.classrooms.springboot.studentrestapi.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wayis.classrooms.springboot.studentrestapi.service.AdmissionControl;
+import com.wayis.classrooms.springboot.studentrestapi.service.AdmissionControl.Priority;
+import com.wayis.classrooms.springboot.studentrestapi.service.ClusterClient;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+public class AdmissionFilterTest {
+
+    @Test
+    @DisplayName("requests should map to the route templates of StudentController")
+    public void testRoutes() {
+        Assertions.assertNull(AdmissionFilter.route("/courses", "GET", null));
+        Assertions.assertEquals("GET /students", AdmissionFilter.route("/students", "GET", null));
+        Assertions.assertEquals("GET /students?ids", AdmissionFilter.route("/students", "GET", "ids=A,B&limit=2"));
+        Assertions.assertEquals("GET /students?limit", AdmissionFilter.route("/students", "GET", "limit=10"));
+        Assertions.assertEquals("POST /students/batch", AdmissionFilter.route("/students/batch", "POST", null));
+        Assertions.assertEquals("GET /students/{studentId}", AdmissionFilter.route("/students/S-001", "HEAD", null));
+        Assertions.assertEquals("DELETE /students/{studentId}/courses/{courseId}",
+                AdmissionFilter.route("/students/S-001/courses/DEVE709", "DELETE", null));
+        Assertions.assertEquals("POST /students/{studentId}/courses/batch-enroll",
+                AdmissionFilter.route("/students/S-001/courses/batch-enroll", "POST", null));
+        Assertions.assertEquals(Priority.BULK,
+                AdmissionFilter.priority(AdmissionFilter.route("/students", "GET", null), "GET"));
+        // Sauvegarde et restauration sont des opérations de masse ; le suivi de l'import est une lecture
+        Assertions.assertEquals(Priority.BULK,
+                AdmissionFilter.priority(AdmissionFilter.route("/export", "GET", null), "GET"));
+        Assertions.assertEquals(Priority.BULK,
+                AdmissionFilter.priority(AdmissionFilter.route("/import", "POST", "replace=true"), "POST"));
+        Assertions.assertEquals(Priority.INTERACTIVE,
+                AdmissionFilter.priority(AdmissionFilter.route("/import", "GET", null), "GET"));
+        Assertions.assertEquals(AdmissionFilter.OTHER, AdmissionFilter.route("/export", "DELETE", null));
+        Assertions.assertNull(AdmissionFilter.route("/exports", "GET", null));
+    }
+
+    @Test
+    @DisplayName("a streamed response should keep its place until the asynchronous response completes")
+    public void testAsyncRelease() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        AdmissionFilter filter = new AdmissionFilter();
+        ReflectionTestUtils.setField(filter, "admission", new AdmissionControl(registry));
+        ReflectionTestUtils.setField(filter, "clusterClient",
+                new ClusterClient(new ObjectMapper(), Duration.ofSeconds(1), "s3cr3t"));
+        ReflectionTestUtils.setField(filter, "enabled", true);
+        Gauge inFlight = registry.get("students.admission.inflight").gauge();
+
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/students");
+        request.setAsyncSupported(true);
+        filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> req.startAsync());
+        Assertions.assertEquals(1, inFlight.value());
+        request.getAsyncContext().complete();
+        Assertions.assertEquals(0, inFlight.value());
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/export"), new MockHttpServletResponse(),
+                (req, res) -> Assertions.assertEquals(1, inFlight.value()));
+        Assertions.assertEquals(0, inFlight.value());
+    }
+
+    @Test
+    @DisplayName("unknown methods and paths should share a single route name")
+    public void testBoundedRoutes() {
+        Set<String> routes = new HashSet<>();
+        for (int i = 0; i < 1000; i++) {
+            routes.add(AdmissionFilter.route("/students/S-" + i + "/x" + i, "GET", null));
+            routes.add(AdmissionFilter.route("/students/S-" + i + "/courses/C-" + i + "/" + i, "PUT", null));
+            routes.add(AdmissionFilter.route("/students/S-" + i, "M" + i, null));
+            routes.add(AdmissionFilter.route("/students/S-" + i + "/courses/C-" + i, "PATCH", null));
+            routes.add(AdmissionFilter.route("/students", "X-" + i, "ids=" + i));
+        }
+        Assertions.assertEquals(Set.of(AdmissionFilter.OTHER), routes);
+        Assertions.assertEquals(Priority.WRITE, AdmissionFilter.priority(AdmissionFilter.OTHER, "PATCH"));
+    }
+}
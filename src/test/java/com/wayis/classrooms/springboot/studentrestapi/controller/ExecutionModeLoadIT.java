@@ -0,0 +1,188 @@
+package com.wayis.classrooms.springboot.studentrestapi.controller;
+
+import com.wayis.classrooms.springboot.studentrestapi.StudentRestApiApplication;
+import com.wayis.classrooms.springboot.studentrestapi.model.Student;
+import com.wayis.classrooms.springboot.studentrestapi.service.StudentService;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Compare le traitement des requêtes sur threads classiques (pool Tomcat) et
+ * sur threads virtuels ({@code spring.threads.virtual.enabled}), de 1 000 à
+ * 10 000 connexions simultanées.
+ * <p>
+ * Lancé par le profil Maven {@code loadtest}. Chaque client est un thread
+ * virtuel qui garde sa connexion ouverte ; la persistance est activée pour
+ * que les écritures attendent le {@code fsync}, comme en production.
+ */
+@EnabledIfSystemProperty(named = "loadtest.enabled", matches = "true")
+public class ExecutionModeLoadIT {
+
+    private static final long HIGHEST_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+    private final String[] connections = System.getProperty("loadtest.connections", "1000,2500,5000,10000").split(",");
+    private final int warmupSeconds = Integer.getInteger("loadtest.warmupSeconds", 5);
+    private final int durationSeconds = Integer.getInteger("loadtest.durationSeconds", 20);
+    private final int students = Integer.getInteger("loadtest.students", 1000);
+    private final double writeRatio = Double.parseDouble(System.getProperty("loadtest.writeRatio", "0.1"));
+    private final boolean persistence = Boolean.parseBoolean(System.getProperty("loadtest.persistence", "true"));
+
+    @Test
+    @DisplayName("should compare platform and virtual threads from 1k to 10k connections")
+    public void testExecutionModes() throws Exception {
+        List<String> lines = new ArrayList<>();
+        long serverErrors = 0;
+        for (boolean virtual : new boolean[] {false, true}) {
+            try (ConfigurableApplicationContext context = start(virtual)) {
+                int port = Integer.parseInt(context.getEnvironment().getProperty("local.server.port"));
+                for (String level : connections) {
+                    Result result = run(port, Integer.parseInt(level.trim()));
+                    serverErrors += result.serverErrors;
+                    lines.add(result.format(virtual ? "virtual" : "platform"));
+                }
+            }
+        }
+
+        System.out.println(String.format("Execution modes: %ds per level, write ratio %.2f, persistence %s",
+                durationSeconds, writeRatio, persistence));
+        System.out.println(String.format("%-9s %11s %10s %8s %8s %8s %8s %7s %8s",
+                "mode", "connections", "requests", "req/s", "p50 ms", "p99 ms", "p999 ms", "5xx", "failed"));
+        lines.forEach(System.out::println);
+
+        Assertions.assertEquals(0L, serverErrors, "server errors");
+    }
+
+    private ConfigurableApplicationContext start(boolean virtual) throws IOException {
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(StudentRestApiApplication.class)
+                .properties("server.port=0",
+                        "spring.threads.virtual.enabled=" + virtual,
+                        "server.tomcat.max-connections=" + (maxConnections() + 1000),
+                        "server.tomcat.accept-count=" + maxConnections(),
+                        "students.persistence.enabled=" + persistence,
+                        "students.persistence.directory=" + Files.createTempDirectory("students-wal"))
+                .run();
+        StudentService.initializeData();
+        List<Student> batch = new ArrayList<>(students);
+        for (int i = 0; i < students; i++) {
+            batch.add(new Student("L-" + i, "Load " + i, "Load test", new ArrayList<>()));
+        }
+        context.getBean(StudentService.class).addStudents(batch);
+        return context;
+    }
+
+    private int maxConnections() {
+        int max = 0;
+        for (String level : connections) {
+            max = Math.max(max, Integer.parseInt(level.trim()));
+        }
+        return max;
+    }
+
+    private Result run(int port, int clients) throws Exception {
+        long start = System.nanoTime();
+        long measureFrom = start + TimeUnit.SECONDS.toNanos(warmupSeconds);
+        long end = measureFrom + TimeUnit.SECONDS.toNanos(durationSeconds);
+
+        Result total = new Result(clients);
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(30))
+                .build();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<Result>> futures = new ArrayList<>(clients);
+            for (int i = 0; i < clients; i++) {
+                futures.add(executor.submit(() -> client(client, port, clients, measureFrom, end)));
+            }
+            for (Future<Result> future : futures) {
+                total.add(future.get());
+            }
+        }
+        return total;
+    }
+
+    private Result client(HttpClient client, int port, int clients, long measureFrom, long end) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Result result = new Result(clients);
+        long now;
+        while ((now = System.nanoTime()) < end) {
+            String studentId = "L-" + random.nextInt(students);
+            HttpRequest request;
+            if (random.nextDouble() < writeRatio) {
+                request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/students/" + studentId + "/courses"))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(
+                                "{\"name\":\"Load\",\"description\":\"Load test\",\"steps\":[\"Tests\"]}"))
+                        .timeout(Duration.ofMinutes(1))
+                        .build();
+            } else {
+                request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/students/" + studentId))
+                        .timeout(Duration.ofMinutes(1))
+                        .build();
+            }
+            int status;
+            try {
+                status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+            } catch (IOException e) {
+                status = -1;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            long after = System.nanoTime();
+            if (now >= measureFrom) {
+                result.histogram.recordValue(Math.min(HIGHEST_LATENCY_MICROS, (after - now) / 1000));
+                if (status < 0) {
+                    result.failed++;
+                } else if (status >= 500) {
+                    result.serverErrors++;
+                }
+            }
+        }
+        return result;
+    }
+
+    private class Result {
+
+        final int clients;
+        final Histogram histogram = new Histogram(HIGHEST_LATENCY_MICROS, 3);
+        long serverErrors;
+        // Connexions refusées ou expirées
+        long failed;
+
+        Result(int clients) {
+            this.clients = clients;
+        }
+
+        void add(Result other) {
+            histogram.add(other.histogram);
+            serverErrors += other.serverErrors;
+            failed += other.failed;
+        }
+
+        String format(String mode) {
+            return String.format("%-9s %11d %10d %8.0f %8.2f %8.2f %8.2f %7d %8d",
+                    mode, clients, histogram.getTotalCount(), histogram.getTotalCount() / (double) durationSeconds,
+                    histogram.getValueAtPercentile(50) / 1000.0, histogram.getValueAtPercentile(99) / 1000.0,
+                    histogram.getValueAtPercentile(99.9) / 1000.0, serverErrors, failed);
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.wayis.classrooms.springboot.studentrestapi.controller;
+
+import com.wayis.classrooms.springboot.studentrestapi.StudentRestApiApplication;
+import com.wayis.classrooms.springboot.studentrestapi.model.Course;
+import com.wayis.classrooms.springboot.studentrestapi.model.Student;
+import com.wayis.classrooms.springboot.studentrestapi.service.AllocationMeter;
+import com.wayis.classrooms.springboot.studentrestapi.service.StudentService;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+/**
+ * Budgets d'allocation des routes de StudentController, en octets par
+ * requête, sur 1 000 étudiants inscrits à 4 cours chacun.
+ * <p>
+ * Les requêtes passent par MockMvc sur le thread du test : filtres,
+ * DispatcherServlet, conversion JSON et contrôleur sont mesurés ensemble. Le
+ * coût d'une requête témoin (étudiant inconnu, réponse vide) est retranché :
+ * chaque budget ne porte que sur le travail propre à la route, dominé par la
+ * taille de la réponse.
+ * <p>
+ * Chiffres relevés avec {@code mvn verify} sur Java 21.0.1 (Temurin), avec
+ * G1 et avec SerialGC : le plus haut de plusieurs exécutions. Budget : 50 % de
+ * plus, et au moins 8 Ko ({@link AllocationMeter#budget}) ; la requête
+ * témoin varie d'environ 3 Ko d'une exécution à l'autre, et son coût est
+ * retranché jusqu'à deux fois par mesure.
+ */
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(classes = StudentRestApiApplication.class, webEnvironment = SpringBootTest.WebEnvironment.MOCK)
+@AutoConfigureMockMvc
+public class StudentControllerAllocationIT {
+
+    private static final int STUDENTS = 1000;
+    // Marge minimale au-dessus d'un relevé, en octets
+    private static final long MIN_HEADROOM = 8_192;
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private StudentService studentService;
+
+    private int created;
+
+    @BeforeEach
+    public void addStudents() {
+        StudentService.initializeData();
+        Course ide = studentService.retrieveCatalogCourse("DEVE709");
+        Course ci = studentService.retrieveCatalogCourse("DEVE710");
+        Course sql = studentService.retrieveCatalogCourse("BDOE571");
+        Course java = studentService.retrieveCatalogCourse("DEVE571");
+        List<Student> batch = new ArrayList<>(STUDENTS);
+        for (int i = 0; i < STUDENTS; i++) {
+            batch.add(new Student(String.format("A-%04d", i), "Student " + i, "Allocation test",
+                    new ArrayList<>(Arrays.asList(ide, ci, sql, java))));
+        }
+        studentService.addStudents(batch);
+    }
+
+    @AfterEach
+    public void restoreSampleData() {
+        StudentService.initializeData();
+    }
+
+    private Object get(String uri) throws Exception {
+        return mvc.perform(MockMvcRequestBuilders.get(uri)).andReturn();
+    }
+
+    private Object send(MockHttpServletRequestBuilder request, String json) throws Exception {
+        return mvc.perform(request.contentType(MediaType.APPLICATION_JSON).content(json)).andReturn();
+    }
+
+    @Test
+    @DisplayName("read routes should stay within their allocation budgets")
+    public void testReadRoutes() throws Exception {
+        Assumptions.assumeTrue(AllocationMeter.isSupported(), "thread allocation counters unavailable");
+        AllocationMeter meter = new AllocationMeter(2_000, 200, MIN_HEADROOM);
+        meter.subtractBaseline("GET /students/{unknown}/courses/{courseId}", () -> get("/students/UNKNOWN/courses/DEVE709"));
+
+        meter.check("GET /students/{studentId}", 5_519, () -> get("/students/A-0500"));
+        meter.check("GET /students/{studentId}/courses", 3_840, () -> get("/students/A-0500/courses"));
+        meter.check("GET /students/{studentId}/courses?limit=2", 6_190, () -> get("/students/A-0500/courses?limit=2"));
+        meter.check("GET /students/{studentId}/courses/{courseId}", 3_381, () -> get("/students/A-0500/courses/DEVE710"));
+        meter.check("GET /students?ids= (4 ids)", 12_400, () -> get("/students?ids=A-0001,A-0500,A-0999,A-1234"));
+        meter.check("GET /students?limit=100", 295_815, () -> get("/students?cursor=A-0100&limit=100"));
+
+        AllocationMeter bulk = new AllocationMeter(200, 20, MIN_HEADROOM);
+        bulk.subtractBaseline("GET /students/{unknown}/courses/{courseId}", () -> get("/students/UNKNOWN/courses/DEVE709"));
+        bulk.check("GET /students (1000 students)", 4_253_488, () -> get("/students"));
+
+        meter.assertWithinBudgets("StudentController reads, " + STUDENTS + " students");
+        bulk.assertWithinBudgets("StudentController bulk reads, " + STUDENTS + " students");
+    }
+
+    @Test
+    @DisplayName("write routes should stay within their allocation budgets")
+    public void testWriteRoutes() throws Exception {
+        Assumptions.assumeTrue(AllocationMeter.isSupported(), "thread allocation counters unavailable");
+        AllocationMeter meter = new AllocationMeter(2_000, 200, MIN_HEADROOM);
+        meter.subtractBaseline("GET /students/{unknown}/courses/{courseId}", () -> get("/students/UNKNOWN/courses/DEVE709"));
+
+        meter.check("PUT + DELETE /students/{studentId}/courses/{courseId}", 2, 218, () -> {
+            mvc.perform(MockMvcRequestBuilders.delete("/students/A-0500/courses/DEVE709")).andReturn();
+            return mvc.perform(MockMvcRequestBuilders.put("/students/A-0500/courses/DEVE709")).andReturn();
+        });
+        meter.check("POST batch-delete + batch-enroll (2 courses)", 2, 23_222, () -> {
+            send(MockMvcRequestBuilders.post("/students/A-0500/courses/batch-delete"), "[\"DEVE709\",\"BDOE571\"]");
+            return send(MockMvcRequestBuilders.post("/students/A-0500/courses/batch-enroll"), "[\"DEVE709\",\"BDOE571\"]");
+        });
+        meter.check("POST /students", 5_104, () -> send(MockMvcRequestBuilders.post("/students"),
+                "{\"id\":\"N-" + created++ + "\",\"name\":\"New\",\"description\":\"Allocation test\",\"courses\":[]}"));
+        meter.check("POST /students/batch (10 students)", 22_426, () -> {
+            StringBuilder json = new StringBuilder("[");
+            for (int i = 0; i < 10; i++) {
+                json.append(i == 0 ? "" : ",").append("{\"id\":\"B-").append(created++)
+                        .append("\",\"name\":\"New\",\"description\":\"Allocation test\",\"courses\":[]}");
+            }
+            return send(MockMvcRequestBuilders.post("/students/batch"), json.append(']').toString());
+        });
+
+        meter.assertWithinBudgets("StudentController writes, " + STUDENTS + " students");
+    }
+}
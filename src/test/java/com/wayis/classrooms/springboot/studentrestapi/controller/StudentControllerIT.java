@@ -2,18 +2,28 @@ package com.wayis.classrooms.springboot.studentrestapi.controller;
 
 import com.wayis.classrooms.springboot.studentrestapi.StudentRestApiApplication;
 import com.wayis.classrooms.springboot.studentrestapi.model.Course;
+import com.wayis.classrooms.springboot.studentrestapi.model.Student;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
 import org.json.JSONException;
 import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.skyscreamer.jsonassert.JSONAssert;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.web.client.TestRestTemplate;
-import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.boot.test.web.server.LocalServerPort;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
@@ -21,12 +31,17 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
 @ExtendWith(SpringExtension.class)
+// Sans elle, @SpringBootTest désactive l'export des métriques et /actuator/prometheus répond 404
+@AutoConfigureObservability
 @SpringBootTest(classes = StudentRestApiApplication.class, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
 public class StudentControllerIT {
 
     @LocalServerPort
     private int port;
 
+    @Autowired
+    private ResponseFormats formats;
+
     TestRestTemplate restTemplate = new TestRestTemplate();
     HttpHeaders headers = new HttpHeaders();
 	
@@ -150,7 +165,7 @@ public class StudentControllerIT {
         public void testAddCourseWhenUserIsUnknown() {
             Student student = new Student();
 
-            HttpEntity<Course> entity = new HttpEntity<>(student, headers);
+            HttpEntity<Student> entity = new HttpEntity<>(student, headers);
 
             ResponseEntity<String> response = restTemplate.exchange(
                     createURLWithPort("/students/any/courses"),
@@ -237,8 +252,8 @@ public class StudentControllerIT {
 	
     // 3- Route permettant de récupérer la liste des étudiants :
     @Nested
-    @DisplayName("GET /students/{studentId}")
-    class GetStudentAndCourses {
+    @DisplayName("GET /students")
+    class GetAllStudents {
     
         @Test
         @DisplayName("Should return a JSON object with the students list")
@@ -249,7 +264,6 @@ public class StudentControllerIT {
             ResponseEntity<String> response = restTemplate.exchange(
                     createURLWithPort("/students"),
                     HttpMethod.GET, entity, String.class);
-					"S-002", "Thomas Gallinari", "Mobile Developer"
             
             String expected = "[{\"id\":\"S-001\",\"name\":\"Luc Labbé\",\"description\":\"Senior Developer\",\"id\":\"S-002\",\"name\":\"Thomas Gallinari\",\"description\":\"Mobile Developer\"}]";
             
@@ -260,7 +274,7 @@ public class StudentControllerIT {
 	// (test 2 dans le cas ou le précédent ne fonctionne pas, car pour le test précédent j'ai un doute concernant le expected)	
 	@Test
         @DisplayName("should return a JSON object with all students")
-        public void testGetAllStudents() throws JSONException {
+        public void testGetAllStudentsWithCourses() throws JSONException {
             HttpEntity<String> entity = new HttpEntity<>(null, headers);
 
             ResponseEntity<String> response = restTemplate.exchange(
@@ -286,7 +300,7 @@ public class StudentControllerIT {
         public void testAddStudent() {
             Student student = new Student("S-003", "Aurélien", "Senior developer", new ArrayList<>());
 
-            HttpEntity<Course> entity = new HttpEntity<>(student, headers);
+            HttpEntity<Student> entity = new HttpEntity<>(student, headers);
 
             ResponseEntity<String> response = restTemplate.exchange(
                     createURLWithPort("/students"),
@@ -302,7 +316,7 @@ public class StudentControllerIT {
 		public void testAddStudentWhenStudentUnknown() {
 			Student student = new Student();
 
-            HttpEntity<Course> entity = new HttpEntity<>(student, headers);
+            HttpEntity<Student> entity = new HttpEntity<>(student, headers);
 
             ResponseEntity<String> response = restTemplate.exchange(
                     createURLWithPort("/students"),
@@ -313,6 +327,346 @@ public class StudentControllerIT {
             Assertions.assertEquals(400, response.getStatusCode().value()); 
         }
 		}
+
+    // Pagination par curseur et flux NDJSON :
+    @Nested
+    @DisplayName("GET /students?limit=")
+    class GetStudentsPage {
+
+        @Test
+        @DisplayName("should return the first page with a cursor to the next one")
+        public void testGetFirstPage() throws JSONException {
+            HttpEntity<String> entity = new HttpEntity<>(null, headers);
+
+            ResponseEntity<String> response = restTemplate.exchange(
+                    createURLWithPort("/students?limit=1"),
+                    HttpMethod.GET, entity, String.class);
+
+            String expected = "{\"items\":[{\"id\":\"S-001\"}],\"nextCursor\":\"S-001\"}";
+
+            Assertions.assertEquals(200, response.getStatusCode().value());
+            JSONAssert.assertEquals(expected, response.getBody(), false);
+        }
+
+        @Test
+        @DisplayName("should return the page following the cursor")
+        public void testGetNextPage() throws JSONException {
+            HttpEntity<String> entity = new HttpEntity<>(null, headers);
+
+            ResponseEntity<String> response = restTemplate.exchange(
+                    createURLWithPort("/students?cursor=S-001&limit=1"),
+                    HttpMethod.GET, entity, String.class);
+
+            String expected = "{\"items\":[{\"id\":\"S-002\"}]}";
+
+            Assertions.assertEquals(200, response.getStatusCode().value());
+            JSONAssert.assertEquals(expected, response.getBody(), false);
+        }
+
+        @Test
+        @DisplayName("should return 400 when the cursor is unknown")
+        public void testGetPageWithUnknownCursor() {
+            HttpEntity<String> entity = new HttpEntity<>(null, headers);
+
+            ResponseEntity<String> response = restTemplate.exchange(
+                    createURLWithPort("/students?cursor=any&limit=1"),
+                    HttpMethod.GET, entity, String.class);
+
+            Assertions.assertEquals(400, response.getStatusCode().value());
+        }
+
+        @Test
+        @DisplayName("should stream one student per line as NDJSON")
+        public void testStreamStudents() {
+            HttpHeaders ndjsonHeaders = new HttpHeaders();
+            ndjsonHeaders.set(HttpHeaders.ACCEPT, "application/x-ndjson");
+            HttpEntity<String> entity = new HttpEntity<>(null, ndjsonHeaders);
+
+            ResponseEntity<String> response = restTemplate.exchange(
+                    createURLWithPort("/students"),
+                    HttpMethod.GET, entity, String.class);
+
+            Assertions.assertEquals(200, response.getStatusCode().value());
+            String[] lines = response.getBody().split("\n");
+            assertTrue(lines.length >= 2);
+            assertTrue(lines[0].startsWith("{\"id\":\"S-001\""));
+        }
+    }
+
+    // Cache des réponses et ETag :
+    @Nested
+    @DisplayName("GET /students/{studentId} with If-None-Match")
+    class GetStudentWithETag {
+
+        @Test
+        @DisplayName("should return 304 until the student changes")
+        public void testNotModifiedUntilStudentChanges() {
+            Student student = new Student("S-ETAG", "Cache", "ETag", new ArrayList<>());
+            restTemplate.exchange(createURLWithPort("/students"), HttpMethod.POST,
+                    new HttpEntity<>(student, headers), String.class);
+
+            ResponseEntity<String> first = restTemplate.exchange(
+                    createURLWithPort("/students/S-ETAG"),
+                    HttpMethod.GET, new HttpEntity<>(null, headers), String.class);
+            String etag = first.getHeaders().getETag();
+            Assertions.assertEquals(200, first.getStatusCode().value());
+            Assertions.assertNotNull(etag);
+
+            HttpHeaders conditional = new HttpHeaders();
+            conditional.setIfNoneMatch(etag);
+            ResponseEntity<String> notModified = restTemplate.exchange(
+                    createURLWithPort("/students/S-ETAG"),
+                    HttpMethod.GET, new HttpEntity<>(null, conditional), String.class);
+            Assertions.assertEquals(304, notModified.getStatusCode().value());
+
+            restTemplate.exchange(createURLWithPort("/students/S-ETAG/courses/DEVE710"),
+                    HttpMethod.PUT, new HttpEntity<>(null, headers), String.class);
+
+            ResponseEntity<String> modified = restTemplate.exchange(
+                    createURLWithPort("/students/S-ETAG"),
+                    HttpMethod.GET, new HttpEntity<>(null, conditional), String.class);
+            Assertions.assertEquals(200, modified.getStatusCode().value());
+            Assertions.assertNotEquals(etag, modified.getHeaders().getETag());
+            assertTrue(modified.getBody().contains("DEVE710"));
+        }
+    }
+
+    // Opérations groupées :
+    @Nested
+    @DisplayName("POST /students/batch")
+    class PostStudentsBatch {
+
+        @Test
+        @DisplayName("should return one result per student")
+        public void testAddStudentsBatch() throws JSONException {
+            Student[] students = {
+                new Student("S-B01", "Batch 1", "Batch", new ArrayList<>()),
+                new Student("S-001", "Doublon", "Batch", new ArrayList<>()),
+                new Student()
+            };
+
+            ResponseEntity<String> response = restTemplate.exchange(
+                    createURLWithPort("/students/batch"),
+                    HttpMethod.POST, new HttpEntity<>(students, headers), String.class);
+
+            String expected = "[{\"id\":\"S-B01\",\"status\":\"CREATED\"},{\"id\":\"S-001\",\"status\":\"DUPLICATE\"},{\"id\":null,\"status\":\"INVALID\"}]";
+
+            Assertions.assertEquals(200, response.getStatusCode().value());
+            JSONAssert.assertEquals(expected, response.getBody(), true);
+        }
+
+        @Test
+        @DisplayName("should enroll a student in several catalog courses")
+        public void testEnrollBatch() throws JSONException {
+            restTemplate.exchange(createURLWithPort("/students"), HttpMethod.POST,
+                    new HttpEntity<>(new Student("S-B02", "Batch 2", "Batch", new ArrayList<>()), headers), String.class);
+
+            ResponseEntity<String> response = restTemplate.exchange(
+                    createURLWithPort("/students/S-B02/courses/batch-enroll"),
+                    HttpMethod.POST, new HttpEntity<>(Arrays.asList("DEVE709", "BDOE571", "any"), headers), String.class);
+
+            String expected = "[{\"id\":\"DEVE709\",\"status\":\"ENROLLED\"},{\"id\":\"BDOE571\",\"status\":\"ENROLLED\"},{\"id\":\"any\",\"status\":\"NOT_FOUND\"}]";
+
+            Assertions.assertEquals(200, response.getStatusCode().value());
+            JSONAssert.assertEquals(expected, response.getBody(), true);
+
+            ResponseEntity<String> students = restTemplate.exchange(
+                    createURLWithPort("/students?ids=S-B02,any"),
+                    HttpMethod.GET, new HttpEntity<>(null, headers), String.class);
+            JSONAssert.assertEquals("[{\"id\":\"S-B02\",\"courses\":[{\"id\":\"DEVE709\"},{\"id\":\"BDOE571\"}]}]", students.getBody(), false);
+        }
+    }
+
+    @Nested
+    @DisplayName("GET /courses/{courseId}/students")
+    class GetCourseStudents {
+
+        @Test
+        @DisplayName("should page through the students enrolled in a course")
+        public void testGetCourseStudents() throws JSONException {
+            restTemplate.exchange(createURLWithPort("/courses"), HttpMethod.POST,
+                    new HttpEntity<>(new Course("RIDX01", "Index", "Index inverse", Arrays.asList("Tests")), headers), String.class);
+            for (String id : Arrays.asList("S-R02", "S-R01")) {
+                restTemplate.exchange(createURLWithPort("/students"), HttpMethod.POST,
+                        new HttpEntity<>(new Student(id, "Index", "Index", new ArrayList<>()), headers), String.class);
+                restTemplate.exchange(createURLWithPort("/students/" + id + "/courses/RIDX01"),
+                        HttpMethod.PUT, new HttpEntity<>(null, headers), String.class);
+            }
+
+            ResponseEntity<String> first = restTemplate.exchange(
+                    createURLWithPort("/courses/RIDX01/students?limit=1"),
+                    HttpMethod.GET, new HttpEntity<>(null, headers), String.class);
+
+            Assertions.assertEquals(200, first.getStatusCode().value());
+            Assertions.assertEquals("2", first.getHeaders().getFirst("X-Total-Count"));
+            JSONAssert.assertEquals("{\"items\":[{\"id\":\"S-R01\"}],\"nextCursor\":\"S-R01\"}", first.getBody(), false);
+
+            ResponseEntity<String> second = restTemplate.exchange(
+                    createURLWithPort("/courses/RIDX01/students?cursor=S-R01&limit=1"),
+                    HttpMethod.GET, new HttpEntity<>(null, headers), String.class);
+            JSONAssert.assertEquals("{\"items\":[{\"id\":\"S-R02\"}],\"nextCursor\":null}", second.getBody(), false);
+        }
+
+        @Test
+        @DisplayName("should return 404 for an unknown course")
+        public void testGetCourseStudentsWhenCourseUnknown() {
+            ResponseEntity<String> response = restTemplate.exchange(
+                    createURLWithPort("/courses/unknown/students"),
+                    HttpMethod.GET, new HttpEntity<>(null, headers), String.class);
+
+            Assertions.assertEquals(404, response.getStatusCode().value());
+        }
+    }
+
+    // Projections :
+    @Nested
+    @DisplayName("GET /students/{studentId}?fields=&expand=")
+    class GetStudentProjection {
+
+        @BeforeEach
+        public void addStudent() {
+            restTemplate.exchange(createURLWithPort("/students"), HttpMethod.POST,
+                    new HttpEntity<>(new Student("S-PROJ", "Projection", "Champs", new ArrayList<>()), headers), String.class);
+            restTemplate.exchange(createURLWithPort("/students/S-PROJ/courses/DEVE710"),
+                    HttpMethod.PUT, new HttpEntity<>(null, headers), String.class);
+        }
+
+        @Test
+        @DisplayName("should serialize only the requested fields")
+        public void testFields() throws JSONException {
+            ResponseEntity<String> response = restTemplate.exchange(
+                    createURLWithPort("/students/S-PROJ?fields=id,name"),
+                    HttpMethod.GET, new HttpEntity<>(null, headers), String.class);
+
+            Assertions.assertEquals(200, response.getStatusCode().value());
+            JSONAssert.assertEquals("{\"id\":\"S-PROJ\",\"name\":\"Projection\"}", response.getBody(), true);
+        }
+
+        @Test
+        @DisplayName("should return course ids unless courses are expanded")
+        public void testExpandCourses() throws JSONException {
+            ResponseEntity<String> ids = restTemplate.exchange(
+                    createURLWithPort("/students/S-PROJ?fields=id,courses"),
+                    HttpMethod.GET, new HttpEntity<>(null, headers), String.class);
+            JSONAssert.assertEquals("{\"id\":\"S-PROJ\",\"courses\":[{\"id\":\"DEVE710\"}]}", ids.getBody(), true);
+
+            ResponseEntity<String> expanded = restTemplate.exchange(
+                    createURLWithPort("/students/S-PROJ?fields=id,courses&expand=courses"),
+                    HttpMethod.GET, new HttpEntity<>(null, headers), String.class);
+            JSONAssert.assertEquals("{\"id\":\"S-PROJ\",\"courses\":[{\"id\":\"DEVE710\",\"name\":\"CI\","
+                    + "\"description\":\"Integration Continue\",\"steps\":[\"Jenkins\",\"Coverage\",\"Tests\"]}]}",
+                    expanded.getBody(), true);
+
+            ResponseEntity<String> named = restTemplate.exchange(
+                    createURLWithPort("/students/S-PROJ?fields=courses.name"),
+                    HttpMethod.GET, new HttpEntity<>(null, headers), String.class);
+            JSONAssert.assertEquals("{\"courses\":[{\"id\":\"DEVE710\",\"name\":\"CI\"}]}", named.getBody(), true);
+        }
+
+        @Test
+        @DisplayName("should apply fields to lists of students and courses")
+        public void testFieldsOnLists() throws JSONException {
+            ResponseEntity<String> students = restTemplate.exchange(
+                    createURLWithPort("/students?ids=S-PROJ&fields=name"),
+                    HttpMethod.GET, new HttpEntity<>(null, headers), String.class);
+            JSONAssert.assertEquals("[{\"name\":\"Projection\"}]", students.getBody(), true);
+
+            ResponseEntity<String> course = restTemplate.exchange(
+                    createURLWithPort("/courses/DEVE710?fields=id,steps"),
+                    HttpMethod.GET, new HttpEntity<>(null, headers), String.class);
+            JSONAssert.assertEquals("{\"id\":\"DEVE710\",\"steps\":[\"Jenkins\",\"Coverage\",\"Tests\"]}",
+                    course.getBody(), true);
+        }
+
+        @Test
+        @DisplayName("should reject unknown fields")
+        public void testUnknownField() {
+            ResponseEntity<String> response = restTemplate.exchange(
+                    createURLWithPort("/students/S-PROJ?fields=id,password"),
+                    HttpMethod.GET, new HttpEntity<>(null, headers), String.class);
+
+            Assertions.assertEquals(400, response.getStatusCode().value());
+        }
+    }
+
+    // Formats binaires et compression :
+    @Nested
+    @DisplayName("GET /students with Accept and Accept-Encoding")
+    class GetStudentFormats {
+
+        @Test
+        @DisplayName("should encode a student in CBOR")
+        public void testCbor() throws IOException {
+            HttpHeaders accept = new HttpHeaders();
+            accept.setAccept(Collections.singletonList(ResponseFormats.CBOR));
+            ResponseEntity<byte[]> response = restTemplate.exchange(createURLWithPort("/students/S-002"),
+                    HttpMethod.GET, new HttpEntity<>(null, accept), byte[].class);
+
+            Assertions.assertEquals(200, response.getStatusCode().value());
+            Assertions.assertTrue(ResponseFormats.CBOR.isCompatibleWith(response.getHeaders().getContentType()));
+            Student student = formats.read(ResponseFormats.CBOR, new ByteArrayInputStream(response.getBody()), Student.class);
+            Assertions.assertEquals("Thomas Gallinari", student.getName());
+            Assertions.assertEquals("DEVE709", student.getCourses().get(0).getId());
+        }
+
+        @Test
+        @DisplayName("should encode a list of students in Protobuf")
+        public void testProtobuf() throws IOException {
+            HttpHeaders accept = new HttpHeaders();
+            accept.setAccept(Collections.singletonList(ResponseFormats.PROTOBUF));
+            ResponseEntity<byte[]> response = restTemplate.exchange(createURLWithPort("/students?ids=S-001,S-002"),
+                    HttpMethod.GET, new HttpEntity<>(null, accept), byte[].class);
+
+            Assertions.assertEquals(200, response.getStatusCode().value());
+            List<Student> students = formats.readList(ResponseFormats.PROTOBUF, response.getBody(), Student.class);
+            Assertions.assertEquals(2, students.size());
+            Assertions.assertEquals("Luc Labbé", students.get(0).getName());
+        }
+
+        @Test
+        @DisplayName("should gzip large cached responses once and give them their own ETag")
+        public void testGzip() throws IOException {
+            String description = String.join(" ", Collections.nCopies(500, "Compression"));
+            restTemplate.exchange(createURLWithPort("/students"), HttpMethod.POST,
+                    new HttpEntity<>(new Student("S-GZIP", "Gzip", description, new ArrayList<>()), headers), String.class);
+
+            ResponseEntity<byte[]> identity = restTemplate.exchange(createURLWithPort("/students/S-GZIP"),
+                    HttpMethod.GET, new HttpEntity<>(null, headers), byte[].class);
+            HttpHeaders acceptGzip = new HttpHeaders();
+            acceptGzip.set(HttpHeaders.ACCEPT_ENCODING, "gzip");
+            ResponseEntity<byte[]> gzipped = restTemplate.exchange(createURLWithPort("/students/S-GZIP"),
+                    HttpMethod.GET, new HttpEntity<>(null, acceptGzip), byte[].class);
+
+            Assertions.assertNull(identity.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+            Assertions.assertEquals("gzip", gzipped.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+            Assertions.assertTrue(gzipped.getBody().length < identity.getBody().length);
+            Assertions.assertNotEquals(identity.getHeaders().getETag(), gzipped.getHeaders().getETag());
+            try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzipped.getBody()))) {
+                Assertions.assertArrayEquals(identity.getBody(), in.readAllBytes());
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("GET /actuator/prometheus")
+    class GetPrometheusMetrics {
+
+        @Test
+        @DisplayName("should expose student gauges and per-operation timers")
+        public void testPrometheusMetrics() {
+            restTemplate.exchange(createURLWithPort("/students/unknown"),
+                    HttpMethod.GET, new HttpEntity<>(null, headers), String.class);
+
+            ResponseEntity<String> response = restTemplate.exchange(
+                    createURLWithPort("/actuator/prometheus"),
+                    HttpMethod.GET, new HttpEntity<>(null, headers), String.class);
+
+            Assertions.assertEquals(200, response.getStatusCode().value());
+            Assertions.assertTrue(response.getBody().contains("students_count"));
+            Assertions.assertTrue(response.getBody().contains("students_enrollments"));
+            Assertions.assertTrue(response.getBody().contains("students_service_seconds_count{operation=\"retrieveStudent\""));
+            Assertions.assertTrue(response.getBody().contains("students_misses_total{kind=\"student\""));
+        }
     }
 
     private String createURLWithPort(String uri) {
@@ -0,0 +1,300 @@
+package com.wayis.classrooms.springboot.studentrestapi.controller;
+
+import com.wayis.classrooms.springboot.studentrestapi.StudentRestApiApplication;
+import com.wayis.classrooms.springboot.studentrestapi.model.Course;
+import com.wayis.classrooms.springboot.studentrestapi.model.Student;
+import java.net.URI;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+/**
+ * Test de charge HTTP des routes de {@link StudentController}.
+ * <p>
+ * Lancé uniquement par le profil Maven {@code loadtest}. Chaque paramètre se
+ * règle par propriété système ({@code -Dloadtest.concurrency=64}, ...). Le
+ * test échoue si une requête renvoie une erreur serveur, ou si un budget de
+ * latence (p99) ou de débit est configuré et dépassé.
+ */
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(classes = StudentRestApiApplication.class, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "students.admission.enabled=${loadtest.admission:false}")
+@EnabledIfSystemProperty(named = "loadtest.enabled", matches = "true")
+public class StudentControllerLoadIT {
+
+    // Latences enregistrées en microsecondes, jusqu'à une minute
+    private static final long HIGHEST_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+    @LocalServerPort
+    private int port;
+
+    TestRestTemplate restTemplate = new TestRestTemplate();
+    HttpHeaders headers = new HttpHeaders();
+
+    private final int concurrency = Integer.getInteger("loadtest.concurrency", 16);
+    private final int warmupSeconds = Integer.getInteger("loadtest.warmupSeconds", 5);
+    private final int durationSeconds = Integer.getInteger("loadtest.durationSeconds", 20);
+    private final int students = Integer.getInteger("loadtest.students", 1000);
+    private final double writeRatio = Double.parseDouble(System.getProperty("loadtest.writeRatio", "0.1"));
+    // 0 : pas de budget
+    private final double maxP99Millis = Double.parseDouble(System.getProperty("loadtest.maxP99Millis", "0"));
+    private final double minThroughput = Double.parseDouble(System.getProperty("loadtest.minThroughput", "0"));
+    // Avec le contrôle d'admission, 429 et 503 sont des refus comptés à part, pas des erreurs
+    private final boolean admission = Boolean.getBoolean("loadtest.admission");
+
+    enum Route {
+        // Lectures, avec leur poids dans le mélange de lectures
+        GET_STUDENTS("GET /students", 2, false),
+        GET_STUDENTS_PAGE("GET /students?limit=", 13, false),
+        GET_STUDENT("GET /students/{id}", 30, false),
+        GET_COURSES("GET /students/{id}/courses", 25, false),
+        GET_COURSE("GET /students/{id}/courses/{courseId}", 30, false),
+        // Écritures, avec leur poids dans le mélange d'écritures
+        POST_COURSE("POST /students/{id}/courses", 40, true),
+        DELETE_COURSE("DELETE /students/{id}/courses/{courseId}", 40, true),
+        PUT_ENROLLMENT("PUT /students/{id}/courses/{courseId}", 10, true),
+        POST_STUDENT("POST /students", 10, true);
+
+        final String label;
+        final int weight;
+        final boolean write;
+
+        Route(String label, int weight, boolean write) {
+            this.label = label;
+            this.weight = weight;
+            this.write = write;
+        }
+
+        static Route pick(List<Route> routes, ThreadLocalRandom random) {
+            int total = 0;
+            for (Route route : routes) {
+                total += route.weight;
+            }
+            int choice = random.nextInt(total);
+            for (Route route : routes) {
+                choice -= route.weight;
+                if (choice < 0) {
+                    return route;
+                }
+            }
+            return routes.get(routes.size() - 1);
+        }
+    }
+
+    @Test
+    @DisplayName("should sustain a mixed workload within the configured budgets")
+    public void testMixedWorkload() throws Exception {
+        for (int i = 0; i < students; i++) {
+            Student student = new Student("L-" + i, "Load " + i, "Load test", new ArrayList<>());
+            restTemplate.exchange(createURLWithPort("/students"), HttpMethod.POST,
+                    new HttpEntity<>(student, headers), String.class);
+        }
+
+        long start = System.nanoTime();
+        long measureFrom = start + TimeUnit.SECONDS.toNanos(warmupSeconds);
+        long end = measureFrom + TimeUnit.SECONDS.toNanos(durationSeconds);
+
+        ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+        List<Future<Worker>> futures = new ArrayList<>();
+        for (int i = 0; i < concurrency; i++) {
+            futures.add(executor.submit(new Worker(i, measureFrom, end)));
+        }
+
+        Map<Route, Histogram> histograms = new EnumMap<>(Route.class);
+        Map<Route, Long> errors = new EnumMap<>(Route.class);
+        Map<Route, Long> shed = new EnumMap<>(Route.class);
+        for (Route route : Route.values()) {
+            histograms.put(route, newHistogram());
+            errors.put(route, 0L);
+            shed.put(route, 0L);
+        }
+        for (Future<Worker> future : futures) {
+            Worker worker = future.get();
+            for (Route route : Route.values()) {
+                histograms.get(route).add(worker.histograms.get(route));
+                errors.put(route, errors.get(route) + worker.errors.get(route));
+                shed.put(route, shed.get(route) + worker.shed.get(route));
+            }
+        }
+        executor.shutdown();
+
+        Histogram all = newHistogram();
+        for (Histogram histogram : histograms.values()) {
+            all.add(histogram);
+        }
+        double throughput = all.getTotalCount() / (double) durationSeconds;
+
+        System.out.println(String.format("Load test: %d clients, %ds, write ratio %.2f, %d students",
+                concurrency, durationSeconds, writeRatio, students));
+        System.out.println(String.format("%-45s %10s %8s %8s %8s %8s %8s %7s %7s",
+                "route", "requests", "req/s", "p50 ms", "p95 ms", "p99 ms", "p999 ms", "errors", "shed"));
+        for (Route route : Route.values()) {
+            report(route.label, histograms.get(route), errors.get(route), shed.get(route));
+        }
+        report("all", all, errors.values().stream().mapToLong(Long::longValue).sum(),
+                shed.values().stream().mapToLong(Long::longValue).sum());
+
+        for (Route route : Route.values()) {
+            Assertions.assertEquals(0L, (long) errors.get(route), route.label + " returned server errors");
+            double routeBudget = Double.parseDouble(System.getProperty("loadtest.maxP99Millis." + route.name(), "0"));
+            if (routeBudget > 0 && histograms.get(route).getTotalCount() > 0) {
+                assertWithinBudget(route.label, histograms.get(route), routeBudget);
+            }
+        }
+        if (maxP99Millis > 0) {
+            assertWithinBudget("all", all, maxP99Millis);
+        }
+        if (minThroughput > 0) {
+            Assertions.assertTrue(throughput >= minThroughput,
+                    String.format("throughput %.0f req/s below budget %.0f req/s", throughput, minThroughput));
+        }
+    }
+
+    private static void assertWithinBudget(String label, Histogram histogram, double budgetMillis) {
+        double p99 = histogram.getValueAtPercentile(99) / 1000.0;
+        Assertions.assertTrue(p99 <= budgetMillis,
+                String.format("%s: p99 %.2f ms over budget %.2f ms", label, p99, budgetMillis));
+    }
+
+    private void report(String label, Histogram histogram, long errors, long shed) {
+        System.out.println(String.format("%-45s %10d %8.0f %8.2f %8.2f %8.2f %8.2f %7d %7d",
+                label, histogram.getTotalCount(), histogram.getTotalCount() / (double) durationSeconds,
+                histogram.getValueAtPercentile(50) / 1000.0, histogram.getValueAtPercentile(95) / 1000.0,
+                histogram.getValueAtPercentile(99) / 1000.0, histogram.getValueAtPercentile(99.9) / 1000.0,
+                errors, shed));
+    }
+
+    private static Histogram newHistogram() {
+        return new Histogram(HIGHEST_LATENCY_MICROS, 3);
+    }
+
+    private class Worker implements Callable<Worker> {
+
+        final int index;
+        final long measureFrom;
+        final long end;
+        final Map<Route, Histogram> histograms = new EnumMap<>(Route.class);
+        final Map<Route, Long> errors = new EnumMap<>(Route.class);
+        final Map<Route, Long> shed = new EnumMap<>(Route.class);
+        // Cours créés par ce client, que DELETE pourra supprimer
+        final Deque<String[]> createdCourses = new ArrayDeque<>();
+        final List<Route> reads = new ArrayList<>();
+        final List<Route> writes = new ArrayList<>();
+        int createdStudents;
+
+        Worker(int index, long measureFrom, long end) {
+            this.index = index;
+            this.measureFrom = measureFrom;
+            this.end = end;
+            for (Route route : Route.values()) {
+                histograms.put(route, newHistogram());
+                errors.put(route, 0L);
+                shed.put(route, 0L);
+                (route.write ? writes : reads).add(route);
+            }
+        }
+
+        @Override
+        public Worker call() {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            long now;
+            while ((now = System.nanoTime()) < end) {
+                Route route = Route.pick(random.nextDouble() < writeRatio ? writes : reads, random);
+                if (route == Route.DELETE_COURSE && createdCourses.isEmpty()) {
+                    route = Route.POST_COURSE;
+                }
+                int status = execute(route, random);
+                long after = System.nanoTime();
+                if (now >= measureFrom) {
+                    histograms.get(route).recordValue(Math.min(HIGHEST_LATENCY_MICROS, (after - now) / 1000));
+                    if (admission && (status == 429 || status == 503)) {
+                        shed.put(route, shed.get(route) + 1);
+                    } else if (status >= 500) {
+                        errors.put(route, errors.get(route) + 1);
+                    }
+                }
+            }
+            return this;
+        }
+
+        private int execute(Route route, ThreadLocalRandom random) {
+            String studentId = "L-" + random.nextInt(students);
+            switch (route) {
+                case GET_STUDENTS:
+                    return get("/students");
+                case GET_STUDENTS_PAGE:
+                    return get("/students?cursor=" + studentId + "&limit=100");
+                case GET_STUDENT:
+                    return get("/students/" + studentId);
+                case GET_COURSES:
+                    return get("/students/" + studentId + "/courses");
+                case GET_COURSE:
+                    return get("/students/S-002/courses/DEVE709");
+                case POST_COURSE: {
+                    Course course = new Course(null, "Load", "Load test", Arrays.asList("Tests", "Coverage"));
+                    ResponseEntity<String> response = restTemplate.exchange(
+                            createURLWithPort("/students/" + studentId + "/courses"),
+                            HttpMethod.POST, new HttpEntity<>(course, headers), String.class);
+                    URI location = response.getHeaders().getLocation();
+                    if (location != null) {
+                        String path = location.getPath();
+                        createdCourses.add(new String[] {studentId, path.substring(path.lastIndexOf('/') + 1)});
+                    }
+                    return response.getStatusCode().value();
+                }
+                case DELETE_COURSE: {
+                    String[] created = createdCourses.poll();
+                    return restTemplate.exchange(
+                            createURLWithPort("/students/" + created[0] + "/courses/" + created[1]),
+                            HttpMethod.DELETE, new HttpEntity<>(null, headers), String.class)
+                            .getStatusCode().value();
+                }
+                case PUT_ENROLLMENT:
+                    return restTemplate.exchange(
+                            createURLWithPort("/students/" + studentId + "/courses/DEVE710"),
+                            HttpMethod.PUT, new HttpEntity<>(null, headers), String.class)
+                            .getStatusCode().value();
+                case POST_STUDENT: {
+                    Student student = new Student("W-" + index + "-" + (createdStudents++), "Load", "Load test", new ArrayList<>());
+                    return restTemplate.exchange(createURLWithPort("/students"), HttpMethod.POST,
+                            new HttpEntity<>(student, headers), String.class).getStatusCode().value();
+                }
+                default:
+                    throw new IllegalStateException(route.name());
+            }
+        }
+
+        private int get(String uri) {
+            return restTemplate.exchange(createURLWithPort(uri), HttpMethod.GET,
+                    new HttpEntity<>(null, headers), String.class).getStatusCode().value();
+        }
+    }
+
+    private String createURLWithPort(String uri) {
+        return "http://localhost:" + port + uri;
+    }
+}
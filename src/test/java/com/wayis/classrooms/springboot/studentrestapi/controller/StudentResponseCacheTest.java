@@ -0,0 +1,72 @@
+package com.wayis.classrooms.springboot.studentrestapi.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+public class StudentResponseCacheTest {
+
+    private static StudentResponseCache cache(int maxStudents) {
+        StudentResponseCache cache = new StudentResponseCache();
+        ReflectionTestUtils.setField(cache, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(cache, "maxStudents", maxStudents);
+        cache.init();
+        return cache;
+    }
+
+    @Test
+    @DisplayName("a response should be reused until the write stamp or the catalog version changes")
+    public void testValidation() throws Exception {
+        StudentResponseCache cache = cache(100);
+        AtomicInteger encodings = new AtomicInteger();
+        StudentResponseCache.Encoder encoder = body -> {
+            encodings.incrementAndGet();
+            return body.toString().getBytes();
+        };
+
+        StudentResponseCache.CachedResponse first = cache.get("S-001", 1, 7, "", "Luc", encoder);
+        Assertions.assertSame(first, cache.get("S-001", 1, 7, "", "Luc", encoder));
+        Assertions.assertEquals(1, encodings.get());
+
+        Assertions.assertEquals("Luc Labbé", new String(cache.get("S-001", 2, 7, "", "Luc Labbé", encoder).getBody()));
+        cache.get("S-001", 2, 8, "", "Luc Labbé", encoder);
+        Assertions.assertEquals(3, encodings.get());
+
+        cache.invalidate("S-001");
+        cache.get("S-001", 2, 8, "", "Luc Labbé", encoder);
+        Assertions.assertEquals(4, encodings.get());
+    }
+
+    @Test
+    @DisplayName("a scan of one-off students should not evict frequently read students")
+    public void testScanResistance() throws Exception {
+        StudentResponseCache cache = cache(10);
+        AtomicInteger encodings = new AtomicInteger();
+        StudentResponseCache.Encoder encoder = body -> {
+            encodings.incrementAndGet();
+            return new byte[0];
+        };
+
+        for (int round = 0; round < 4; round++) {
+            for (int i = 0; i < 5; i++) {
+                cache.get("S-" + i, 0, 0, "", null, encoder);
+            }
+        }
+        // Les étudiants demandés souvent continuent de l'être pendant le parcours
+        int hotEncodings = 0;
+        for (int i = 5; i < 200; i++) {
+            cache.get("S-" + i, 0, 0, "", null, encoder);
+            if (i % 10 == 0) {
+                int before = encodings.get();
+                for (int hot = 0; hot < 5; hot++) {
+                    cache.get("S-" + hot, 0, 0, "", null, encoder);
+                }
+                hotEncodings += encodings.get() - before;
+            }
+        }
+        Assertions.assertEquals(0, hotEncodings, "hot students were evicted by the scan");
+    }
+}
@@ -0,0 +1,96 @@
+package com.wayis.classrooms.springboot.studentrestapi.service;
+
+import com.wayis.classrooms.springboot.studentrestapi.service.AdmissionControl.Admission;
+import com.wayis.classrooms.springboot.studentrestapi.service.AdmissionControl.Priority;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class AdmissionControlTest {
+
+    private static final String GET_COURSE = "GET /students/{studentId}/courses/{courseId}";
+    private static final String GET_STUDENTS = "GET /students";
+    private static final long MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final CompositeMeterRegistry registry = new CompositeMeterRegistry();
+
+    @Test
+    @DisplayName("a client over its rate should get 429 with the delay until enough tokens are back")
+    public void testRateLimit() {
+        AdmissionControl control = new AdmissionControl(registry, 100, 100, 1, 2, 4);
+        long now = 0;
+        for (int i = 0; i < 4; i++) {
+            Assertions.assertTrue(control.admit(GET_COURSE, Priority.INTERACTIVE, "alice", now).isAdmitted());
+        }
+        Admission rejected = control.admit(GET_COURSE, Priority.INTERACTIVE, "alice", now);
+        Assertions.assertEquals(429, rejected.getStatus());
+        Assertions.assertEquals(1, rejected.getRetryAfterSeconds());
+        // Les autres clients ont leur propre seau
+        Assertions.assertTrue(control.admit(GET_COURSE, Priority.INTERACTIVE, "bob", now).isAdmitted());
+        // Une liste complète coûte plus que le seau : il faut attendre qu'il soit plein
+        Assertions.assertEquals(2, control.admit(GET_STUDENTS, Priority.BULK, "alice", now).getRetryAfterSeconds());
+        Assertions.assertTrue(control.admit(GET_STUDENTS, Priority.BULK, "alice", now + 2000 * MILLI).isAdmitted());
+    }
+
+    @Test
+    @DisplayName("under overload, bulk reads should be shed before interactive reads")
+    public void testPriorities() {
+        AdmissionControl control = new AdmissionControl(registry, 10, 100, 1, 0, 0);
+        List<Admission> admitted = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            admitted.add(control.admit(GET_STUDENTS, Priority.BULK, null, 0));
+        }
+        Admission shed = control.admit(GET_STUDENTS, Priority.BULK, null, 0);
+        Assertions.assertEquals(503, shed.getStatus());
+        Assertions.assertEquals(1, shed.getRetryAfterSeconds());
+
+        for (int i = 0; i < 5; i++) {
+            admitted.add(control.admit(GET_COURSE, Priority.INTERACTIVE, null, 0));
+        }
+        Assertions.assertTrue(admitted.stream().allMatch(Admission::isAdmitted));
+        Assertions.assertFalse(control.admit(GET_COURSE, Priority.INTERACTIVE, null, 0).isAdmitted());
+
+        admitted.forEach(admission -> admission.release(true, MILLI));
+        Assertions.assertTrue(control.admit(GET_STUDENTS, Priority.BULK, null, 0).isAdmitted());
+    }
+
+    @Test
+    @DisplayName("a route limit should grow while latency is steady and shrink when it rises")
+    public void testAdaptiveLimit() {
+        AdmissionControl control = new AdmissionControl(registry, 1000, 10, 2, 0, 0);
+        long now = 0;
+        for (int round = 0; round < 10; round++) {
+            now = saturate(control, now, MILLI);
+        }
+        int grown = control.limitOf(GET_COURSE);
+        Assertions.assertTrue(grown > 10, "limit " + grown);
+
+        // Une limite peu utilisée ne grandit pas
+        for (int i = 0; i < 100; i++) {
+            control.admit(GET_COURSE, Priority.INTERACTIVE, null, now).release(true, now + MILLI);
+        }
+        Assertions.assertEquals(grown, control.limitOf(GET_COURSE));
+
+        for (int i = 0; i < 50; i++) {
+            control.admit(GET_COURSE, Priority.INTERACTIVE, null, now).release(true, now + 10 * MILLI);
+        }
+        int shrunk = control.limitOf(GET_COURSE);
+        Assertions.assertTrue(shrunk < grown / 2, "limit " + shrunk + " after " + grown);
+        Assertions.assertTrue(shrunk >= 2);
+    }
+
+    // Remplit la limite de la route, puis libère toutes les requêtes après la latence donnée
+    private static long saturate(AdmissionControl control, long now, long latency) {
+        List<Admission> admitted = new ArrayList<>();
+        Admission admission;
+        while ((admission = control.admit(GET_COURSE, Priority.INTERACTIVE, null, now)).isAdmitted()) {
+            admitted.add(admission);
+        }
+        admitted.forEach(running -> running.release(true, now + latency));
+        return now + latency;
+    }
+}
@@ -0,0 +1,117 @@
+package com.wayis.classrooms.springboot.studentrestapi.service;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import org.junit.jupiter.api.Assertions;
+
+/**
+ * Mesure les octets alloués par une opération sur le thread courant, à
+ * l'aide du compteur d'allocation par thread de HotSpot, et les compare à un
+ * budget.
+ * <p>
+ * Chaque opération est d'abord exécutée assez de fois pour être compilée par
+ * le JIT (l'analyse d'échappement supprime alors des allocations), puis
+ * mesurée sur plusieurs séries dont on garde la plus basse : une série peut
+ * être gonflée par une recompilation ou une initialisation tardive.
+ * <p>
+ * Chaque opération déclare le nombre d'octets relevé sur la cible (Java 21,
+ * HotSpot) ; son budget en est déduit par une marge unique : 50 % au-dessus
+ * du relevé, et au moins {@code minHeadroom} octets pour couvrir le bruit de
+ * mesure. Relever un chiffre revient à le remplacer par la colonne
+ * {@code B/op} du tableau affiché, avec la raison de la hausse.
+ */
+public final class AllocationMeter {
+
+    private static final com.sun.management.ThreadMXBean THREADS = threads();
+
+    private final int warmup;
+    private final int iterations;
+    private final long minHeadroom;
+    private final List<String> lines = new ArrayList<>();
+    private final List<String> failures = new ArrayList<>();
+    private long baseline;
+    // Résultats gardés visibles : le JIT ne peut pas supprimer l'opération mesurée
+    private static volatile Object sink;
+
+    public AllocationMeter(int warmup, int iterations, long minHeadroom) {
+        this.warmup = warmup;
+        this.iterations = iterations;
+        this.minHeadroom = minHeadroom;
+    }
+
+    // Budget d'une opération relevée à recorded octets par exécution
+    public long budget(long recorded) {
+        return Math.max(recorded + recorded / 2, recorded + minHeadroom);
+    }
+
+    public static boolean isSupported() {
+        return THREADS != null;
+    }
+
+    private static com.sun.management.ThreadMXBean threads() {
+        if (!(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean)) {
+            return null;
+        }
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        if (!threads.isThreadAllocatedMemorySupported()) {
+            return null;
+        }
+        threads.setThreadAllocatedMemoryEnabled(true);
+        return threads;
+    }
+
+    /**
+     * Octets alloués en moyenne par exécution de {@code operation}, sur la
+     * meilleure de cinq séries.
+     */
+    public long bytesPerOperation(Callable<?> operation) throws Exception {
+        for (int i = 0; i < warmup; i++) {
+            sink = operation.call();
+        }
+        long best = Long.MAX_VALUE;
+        for (int round = 0; round < 5; round++) {
+            long before = THREADS.getCurrentThreadAllocatedBytes();
+            for (int i = 0; i < iterations; i++) {
+                sink = operation.call();
+            }
+            best = Math.min(best, (THREADS.getCurrentThreadAllocatedBytes() - before) / iterations);
+        }
+        return best;
+    }
+
+    /**
+     * Mesure une opération témoin dont le coût sera retranché des mesures
+     * suivantes : par exemple le trajet d'une requête à travers le
+     * framework, pour ne comparer au budget que le travail propre à la route.
+     */
+    public void subtractBaseline(String name, Callable<?> operation) throws Exception {
+        baseline = bytesPerOperation(operation);
+        lines.add(String.format("%-55s %10d %10s %10s", name + " (baseline)", baseline, "-", "-"));
+    }
+
+    // Mesure l'opération et note un échec si elle dépasse le budget déduit de son relevé, en octets par exécution
+    public void check(String name, long recorded, Callable<?> operation) throws Exception {
+        check(name, 1, recorded, operation);
+    }
+
+    // Comme check, pour une opération qui enchaîne plusieurs fois le trajet témoin (plusieurs requêtes)
+    public void check(String name, int baselines, long recorded, Callable<?> operation) throws Exception {
+        long bytes = Math.max(0, bytesPerOperation(operation) - baselines * baseline);
+        long budget = budget(recorded);
+        lines.add(String.format("%-55s %10d %10d %10d%s", name, bytes, recorded, budget,
+                bytes > budget ? "  OVER" : ""));
+        if (bytes > budget) {
+            failures.add(name + ": " + bytes + " B/op over budget " + budget + " B/op");
+        }
+    }
+
+    // Affiche toutes les mesures puis échoue si un budget a été dépassé
+    public void assertWithinBudgets(String title) {
+        System.out.println(title);
+        System.out.println(String.format("%-55s %10s %10s %10s", "operation", "B/op", "recorded", "budget"));
+        lines.forEach(System.out::println);
+        Assertions.assertTrue(failures.isEmpty(), String.join("\n", failures));
+    }
+}
@@ -0,0 +1,174 @@
+package com.wayis.classrooms.springboot.studentrestapi.service;
+
+import com.wayis.classrooms.springboot.studentrestapi.model.Student;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class CachingStudentRepositoryTest {
+
+    // Dépôt en mémoire qui compte ses lectures et peut les retenir
+    private static final class CountingStore extends StudentStore {
+
+        final AtomicInteger reads = new AtomicInteger();
+        volatile CountDownLatch gate;
+        final CountDownLatch entered = new CountDownLatch(1);
+
+        @Override
+        public Student get(String studentId) {
+            reads.incrementAndGet();
+            Student student = super.get(studentId);
+            CountDownLatch current = gate;
+            if (current != null) {
+                entered.countDown();
+                try {
+                    current.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return student;
+        }
+    }
+
+    private static Student student(String id, String name) {
+        return new Student(id, name, "Cache test", new ArrayList<>());
+    }
+
+    @Test
+    @DisplayName("reads should be served from the cache until a write invalidates the student")
+    public void testHitsAndInvalidation() {
+        CountingStore store = new CountingStore();
+        store.put(student("S-001", "Luc"));
+        CachingStudentRepository cache = new CachingStudentRepository(store, 100, s -> 1);
+
+        for (int i = 0; i < 10; i++) {
+            Assertions.assertEquals("Luc", cache.get("S-001").getName());
+        }
+        Assertions.assertNull(cache.get("UNKNOWN"));
+        Assertions.assertNull(cache.get("UNKNOWN"));
+        Assertions.assertEquals(3, store.reads.get());
+
+        cache.put(student("S-001", "Luc Labbé"));
+        Assertions.assertEquals("Luc Labbé", cache.get("S-001").getName());
+        Assertions.assertNotNull(cache.remove("S-001"));
+        Assertions.assertNull(cache.get("S-001"));
+
+        CachingStudentRepository.Stats stats = cache.stats();
+        Assertions.assertEquals(9, stats.getHits());
+        Assertions.assertEquals(5, stats.getMisses());
+        Assertions.assertEquals(5, stats.getLoads());
+    }
+
+    @Test
+    @DisplayName("concurrent misses for the same student should collapse into one load")
+    public void testSingleFlight() throws Exception {
+        CountingStore store = new CountingStore();
+        store.put(student("S-001", "Luc"));
+        CachingStudentRepository cache = new CachingStudentRepository(store, 100, s -> 1);
+        store.gate = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Student>> readers = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                readers.add(executor.submit(() -> cache.get("S-001")));
+            }
+            Assertions.assertTrue(store.entered.await(10, TimeUnit.SECONDS));
+            // Laisse aux autres lecteurs le temps de trouver le chargement en cours
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (cache.stats().getMisses() < 8 && System.nanoTime() < deadline) {
+                Thread.sleep(1);
+            }
+            store.gate.countDown();
+            for (Future<Student> reader : readers) {
+                Assertions.assertEquals("Luc", reader.get().getName());
+            }
+        } finally {
+            executor.shutdown();
+        }
+        Assertions.assertEquals(1, store.reads.get());
+        Assertions.assertEquals(1, cache.stats().getLoads());
+    }
+
+    @Test
+    @DisplayName("a load overlapped by a write to the same student should not be cached")
+    public void testStaleLoad() throws Exception {
+        CountingStore store = new CountingStore();
+        store.put(student("S-001", "Luc"));
+        CachingStudentRepository cache = new CachingStudentRepository(store, 100, s -> 1);
+        store.gate = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Student> reader = executor.submit(() -> cache.get("S-001"));
+            Assertions.assertTrue(store.entered.await(10, TimeUnit.SECONDS));
+            cache.put(student("S-001", "Luc Labbé"));
+            store.gate.countDown();
+            Assertions.assertNotNull(reader.get());
+        } finally {
+            executor.shutdown();
+        }
+        store.gate = null;
+        Assertions.assertEquals("Luc Labbé", cache.get("S-001").getName());
+    }
+
+    @Test
+    @DisplayName("a scan of one-off students should not evict frequently read students")
+    public void testScanResistance() {
+        CountingStore store = new CountingStore();
+        for (int i = 0; i < 200; i++) {
+            store.put(student("S-" + i, "Student " + i));
+        }
+        CachingStudentRepository cache = new CachingStudentRepository(store, 10, s -> 1);
+
+        for (int round = 0; round < 4; round++) {
+            for (int i = 0; i < 5; i++) {
+                cache.get("S-" + i);
+            }
+        }
+        for (int i = 5; i < 200; i++) {
+            cache.get("S-" + i);
+        }
+        CachingStudentRepository.Stats afterScan = cache.stats();
+        Assertions.assertTrue(afterScan.getWeight() <= 10, "weight " + afterScan.getWeight());
+        Assertions.assertTrue(afterScan.getEvictions() >= 185, "evictions " + afterScan.getEvictions());
+
+        int reads = store.reads.get();
+        for (int i = 0; i < 5; i++) {
+            cache.get("S-" + i);
+        }
+        Assertions.assertEquals(reads, store.reads.get(), "hot students were evicted by the scan");
+    }
+
+    @Test
+    @DisplayName("a page read by range should be served from the cache until a write")
+    public void testPages() {
+        CountingStore store = new CountingStore();
+        for (int i = 0; i < 5; i++) {
+            store.put(student("S-" + i, "Student " + i));
+        }
+        CachingStudentRepository cache = new CachingStudentRepository(store, 100, s -> 1);
+
+        StudentRepository.Snapshot first = cache.range(0, 3);
+        Assertions.assertSame(first, cache.range(0, 3));
+        Assertions.assertNotSame(first, cache.range(3, 3));
+        Assertions.assertEquals(1, cache.stats().getPageHits());
+        Assertions.assertEquals(2, cache.stats().getPageMisses());
+
+        // Toute écriture vide les pages : une page lue ensuite voit l'écriture
+        cache.put(student("S-1", "Renamed"));
+        Assertions.assertEquals("Renamed", cache.range(0, 3).getStudents().get(1).getName());
+        cache.remove("S-0");
+        Assertions.assertEquals("S-1", cache.range(0, 3).getStudents().get(0).getId());
+        Assertions.assertEquals(4, cache.stats().getPageMisses());
+    }
+}
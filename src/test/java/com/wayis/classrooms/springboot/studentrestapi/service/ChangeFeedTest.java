@@ -0,0 +1,112 @@
+package com.wayis.classrooms.springboot.studentrestapi.service;
+
+import com.wayis.classrooms.springboot.studentrestapi.model.ChangeBatch;
+import com.wayis.classrooms.springboot.studentrestapi.model.ChangeEvent;
+import com.wayis.classrooms.springboot.studentrestapi.model.Course;
+import com.wayis.classrooms.springboot.studentrestapi.model.CourseRef;
+import com.wayis.classrooms.springboot.studentrestapi.model.Student;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class ChangeFeedTest {
+
+    private ChangeFeed feed;
+
+    @AfterEach
+    public void detachFeed() {
+        if (feed != null) {
+            feed.detach();
+        }
+        StudentService.initializeData();
+    }
+
+    private static List<String> describe(ChangeBatch batch) {
+        return batch.getEvents().stream()
+                .map(event -> event.getOffset() + ":" + event.getType() + ":" + event.getStudentId()
+                        + (event.getCourseId() == null ? "" : ":" + event.getCourseId()))
+                .collect(Collectors.toList());
+    }
+
+    @Test
+    @DisplayName("store writes should produce one event per enrollment change, in order")
+    public void testStoreEvents() {
+        feed = new ChangeFeed(16);
+        IndexedStudentRepository store = StudentService.store();
+        store.setChangeFeed(feed);
+        Course java = new Course("C1", "Java", "Les fondamentaux", new ArrayList<>());
+        Course sql = new Course("C2", "SQL", "Oracle", new ArrayList<>());
+
+        store.add(new Student("S-9", "Nina", "Web", new ArrayList<>(Arrays.asList(java))));
+        store.update("S-9", student -> student.withCourse(new CourseRef(sql)));
+        store.update("S-9", student -> student.withoutCourse("C1"));
+        store.remove("S-9");
+
+        ChangeBatch batch = feed.read(0, 10);
+        Assertions.assertEquals(Arrays.asList("0:STUDENT_ADDED:S-9", "1:COURSE_ADDED:S-9:C1",
+                "2:COURSE_ADDED:S-9:C2", "3:COURSE_REMOVED:S-9:C1", "4:STUDENT_REMOVED:S-9"), describe(batch));
+        Assertions.assertEquals(5, batch.getNext());
+        Assertions.assertFalse(batch.isTruncated());
+        // Reprise à partir d'un offset
+        Assertions.assertEquals(Arrays.asList("3:COURSE_REMOVED:S-9:C1"), describe(feed.read(3, 1)));
+    }
+
+    @Test
+    @DisplayName("a clear or a load should produce a single reset event")
+    public void testResetEvents() {
+        feed = new ChangeFeed(16);
+        IndexedStudentRepository store = new IndexedStudentRepository(new StudentStore());
+        store.setChangeFeed(feed);
+
+        store.add(new Student("S-1", "Nina", "Web", new ArrayList<>()));
+        store.load(Arrays.asList(new Student("S-2", "Luc", "Senior", new ArrayList<>()),
+                new Student("S-3", "Thomas", "Mobile", new ArrayList<>())));
+        store.clear();
+
+        Assertions.assertEquals(Arrays.asList("0:STUDENT_ADDED:S-1", "1:RESET:null", "2:RESET:null"),
+                describe(feed.read(0, 10)));
+    }
+
+    @Test
+    @DisplayName("a reader left behind should get the oldest retained events and a truncation flag")
+    public void testTruncation() {
+        feed = new ChangeFeed(4);
+        for (int i = 0; i < 10; i++) {
+            feed.studentChanged(null, new Student("S-" + i, "Name", "Desc", new ArrayList<>()));
+        }
+
+        ChangeBatch batch = feed.read(2, 10);
+        Assertions.assertTrue(batch.isTruncated());
+        Assertions.assertEquals(Arrays.asList(6L, 7L, 8L, 9L), batch.getEvents().stream()
+                .map(ChangeEvent::getOffset).collect(Collectors.toList()));
+        Assertions.assertEquals(10, batch.getNext());
+        Assertions.assertEquals(6, feed.oldest());
+
+        ChangeBatch upToDate = feed.read(10, 10);
+        Assertions.assertFalse(upToDate.isTruncated());
+        Assertions.assertTrue(upToDate.getEvents().isEmpty());
+        Assertions.assertEquals(10, upToDate.getNext());
+    }
+
+    @Test
+    @DisplayName("a waiting reader should wake up at the next write, or give up after its timeout")
+    public void testAwait() throws Exception {
+        feed = new ChangeFeed(16);
+        Assertions.assertFalse(feed.await(0, Duration.ofMillis(50)));
+
+        CompletableFuture<Boolean> waiting = CompletableFuture.supplyAsync(() -> feed.await(0, Duration.ofSeconds(10)));
+        Thread.sleep(50);
+        feed.studentChanged(null, new Student("S-1", "Luc", "Senior", new ArrayList<>()));
+
+        Assertions.assertTrue(waiting.get(5, TimeUnit.SECONDS));
+        Assertions.assertEquals(1, feed.read(0, 10).getEvents().size());
+    }
+}
@@ -0,0 +1,31 @@
+package com.wayis.classrooms.springboot.studentrestapi.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.Duration;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class ClusterClientTest {
+
+    private static ClusterClient client(String secret) {
+        return new ClusterClient(new ObjectMapper(), Duration.ofSeconds(1), secret);
+    }
+
+    @Test
+    @DisplayName("only the shared secret should mark a request as coming from another node")
+    public void testForwarded() {
+        ClusterClient client = client("s3cr3t");
+        Assertions.assertTrue(client.hasSecret());
+        Assertions.assertTrue(client.isForwarded("s3cr3t"));
+        Assertions.assertFalse(client.isForwarded("1"));
+        Assertions.assertFalse(client.isForwarded(""));
+        Assertions.assertFalse(client.isForwarded(null));
+
+        // Sans secret configuré, aucun en-tête n'est reconnu
+        ClusterClient open = client("");
+        Assertions.assertFalse(open.hasSecret());
+        Assertions.assertFalse(open.isForwarded(""));
+        Assertions.assertFalse(open.isForwarded("1"));
+    }
+}
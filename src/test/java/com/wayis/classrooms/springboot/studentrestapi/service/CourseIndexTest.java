@@ -0,0 +1,93 @@
+package com.wayis.classrooms.springboot.studentrestapi.service;
+
+import com.wayis.classrooms.springboot.studentrestapi.model.Course;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class CourseIndexTest {
+
+    private static CourseIndex index() {
+        CourseIndex index = new CourseIndex();
+        index.put(new Course("DEVE709", "IDE", "Utilisation des IDE", Arrays.asList("Learn Maven", "NetBeans", "Integration tests", "Coverage")));
+        index.put(new Course("DEVE710", "CI", "Intégration continue", Arrays.asList("Jenkins", "Coverage", "Tests")));
+        index.put(new Course("BDOE571", "SQL", "SQL Sous Oracle", Arrays.asList("SQL", "PL/SQL", "Triggers")));
+        return index;
+    }
+
+    @Test
+    @DisplayName("should fold accents and case")
+    public void testAccentFolding() {
+        Assertions.assertEquals(Arrays.asList("integration", "continue"), CourseIndex.tokenize("Intégration Continue"));
+        Assertions.assertEquals(Arrays.asList("DEVE710"), index().search("INTEGRATION continue", 10));
+    }
+
+    @Test
+    @DisplayName("should treat the last word as a prefix and rank by field weight")
+    public void testPrefixAndRanking() {
+        CourseIndex index = index();
+
+        // "Integration" est une étape de DEVE709 mais seulement la description de DEVE710
+        Assertions.assertEquals(Arrays.asList("DEVE709", "DEVE710"), index.search("intég", 10));
+        Assertions.assertEquals(Arrays.asList("DEVE709"), index.search("integ* mav", 10));
+        Assertions.assertEquals(Arrays.asList("DEVE709"), index.search("integration cov", 1));
+        Assertions.assertTrue(index.search("integ mav", 10).isEmpty());
+    }
+
+    @Test
+    @DisplayName("should replace the terms of an updated course")
+    public void testUpdate() {
+        CourseIndex index = index();
+        index.put(new Course("BDOE571", "PostgreSQL", "Bases de données", Arrays.asList("Index")));
+
+        Assertions.assertTrue(index.search("oracle", 10).isEmpty());
+        Assertions.assertEquals(Arrays.asList("BDOE571"), index.search("donnees", 10));
+        index.remove("BDOE571");
+        Assertions.assertTrue(index.search("postgresql", 10).isEmpty());
+    }
+
+    @Test
+    @DisplayName("removed courses should give their document numbers back")
+    public void testRenumbering() {
+        CourseIndex index = index();
+        for (int round = 0; round < 20; round++) {
+            for (int i = 0; i < 500; i++) {
+                index.put(new Course("C-" + i, "Course " + round, "Version " + round, Arrays.asList("Step " + i)));
+            }
+        }
+        for (int i = 0; i < 500; i++) {
+            index.remove("C-" + i);
+        }
+        // 10 003 versions indexées, 3 cours vivants
+        Assertions.assertTrue(index.documentCount() <= 2048, "documents: " + index.documentCount());
+        Assertions.assertEquals(Arrays.asList("DEVE709", "DEVE710"), index.search("intég", 10));
+        Assertions.assertTrue(index.search("course", 10).isEmpty());
+
+        index.put(new Course("C-1", "Course", "Again", Arrays.asList("Step")));
+        Assertions.assertEquals(Arrays.asList("C-1"), index.search("again", 10));
+    }
+
+    @Test
+    @DisplayName("a short prefix should keep the exact term and the terms found in the most courses")
+    public void testWidePrefix() {
+        CourseIndex index = new CourseIndex();
+        for (int i = 0; i < 300; i++) {
+            index.put(new Course("C-" + i, "t" + i, null, null));
+        }
+        for (int i = 0; i < 20; i++) {
+            index.put(new Course("COMMON-" + i, "tcommon", null, null));
+        }
+        index.put(new Course("EXACT", "T", null, null));
+
+        List<String> found = index.search("t", 1000);
+        Assertions.assertEquals(1 + 20 + CourseIndex.MAX_PREFIX_EXPANSIONS - 1, found.size());
+        Assertions.assertTrue(found.contains("EXACT"));
+        for (int i = 0; i < 20; i++) {
+            Assertions.assertTrue(found.contains("COMMON-" + i));
+        }
+        // Un terme écarté reste trouvé par un préfixe plus long
+        Assertions.assertEquals(Arrays.asList("C-299"), index.search("t299", 10));
+    }
+}
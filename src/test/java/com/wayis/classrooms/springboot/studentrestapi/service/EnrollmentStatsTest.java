@@ -0,0 +1,171 @@
+package com.wayis.classrooms.springboot.studentrestapi.service;
+
+import com.wayis.classrooms.springboot.studentrestapi.model.Course;
+import com.wayis.classrooms.springboot.studentrestapi.model.CourseEnrollment;
+import com.wayis.classrooms.springboot.studentrestapi.model.CourseRef;
+import com.wayis.classrooms.springboot.studentrestapi.model.EnrollmentReport;
+import com.wayis.classrooms.springboot.studentrestapi.model.Student;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class EnrollmentStatsTest {
+
+    private static final int COURSES = 20;
+
+    private final CourseCatalog catalog = new CourseCatalog();
+    private final List<CourseRef> courses = new ArrayList<>();
+
+    public EnrollmentStatsTest() {
+        for (int i = 0; i < COURSES; i++) {
+            courses.add(catalog.add(new Course("C-" + i, "Course " + i, "Stats test", Arrays.asList("Step"))));
+        }
+    }
+
+    private Student student(String id, ThreadLocalRandom random) {
+        List<CourseRef> refs = new ArrayList<>();
+        int count = random.nextInt(5);
+        for (int i = 0; i < count; i++) {
+            // Les premiers cours sont plus demandés
+            CourseRef ref = courses.get(Math.min(random.nextInt(COURSES), random.nextInt(COURSES)));
+            if (!refs.contains(ref)) {
+                refs.add(ref);
+            }
+        }
+        return new Student(id, "Student " + id, "Stats test", new ArrayList<>()).withCourseRefs(refs);
+    }
+
+    private static void assertConsistent(EnrollmentStats stats, IndexedStudentRepository store) {
+        EnrollmentReport maintained = stats.report(COURSES);
+        EnrollmentReport recomputed = stats.recompute(store.snapshot().getStudents(), COURSES);
+        Assertions.assertTrue(recomputed.isRecomputed());
+        Assertions.assertEquals(recomputed.getStudents(), maintained.getStudents());
+        Assertions.assertEquals(recomputed.getEnrollments(), maintained.getEnrollments());
+        Assertions.assertEquals(recomputed.getCoursesPerStudent(), maintained.getCoursesPerStudent());
+        Assertions.assertEquals(describe(recomputed.getTopCourses()), describe(maintained.getTopCourses()));
+        for (CourseEnrollment course : recomputed.getTopCourses()) {
+            Assertions.assertEquals(course.getStudents(), stats.students(course.getId()));
+            Assertions.assertEquals(course.getStudents(), store.enrolledCount(course.getId()));
+        }
+    }
+
+    private static List<String> describe(List<CourseEnrollment> courses) {
+        List<String> described = new ArrayList<>();
+        for (CourseEnrollment course : courses) {
+            described.add(course.getId() + "=" + course.getStudents());
+        }
+        return described;
+    }
+
+    @Test
+    @DisplayName("aggregates maintained by concurrent writers should match a full recompute")
+    public void testConcurrentWriters() throws Exception {
+        IndexedStudentRepository store = new IndexedStudentRepository(new StudentStore());
+        EnrollmentStats stats = new EnrollmentStats(catalog);
+        store.setStats(stats);
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> writers = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                writers.add(executor.submit(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    for (int i = 0; i < 5000; i++) {
+                        String id = "S-" + random.nextInt(500);
+                        CourseRef course = courses.get(random.nextInt(COURSES));
+                        switch (random.nextInt(4)) {
+                            case 0:
+                                store.add(student(id, random));
+                                break;
+                            case 1:
+                                store.update(id, current -> current.getCourse(course.getId()) == null
+                                        ? current.withCourse(course) : current);
+                                break;
+                            case 2:
+                                store.update(id, current -> current.withoutCourse(course.getId()));
+                                break;
+                            default:
+                                if (random.nextInt(4) == 0) {
+                                    store.remove(id);
+                                }
+                        }
+                    }
+                }));
+            }
+            for (Future<?> writer : writers) {
+                writer.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        Assertions.assertTrue(store.size() > 0);
+        assertConsistent(stats, store);
+    }
+
+    @Test
+    @DisplayName("a load should rebuild the aggregates in one fork-join pass")
+    public void testLoad() {
+        IndexedStudentRepository store = new IndexedStudentRepository(new StudentStore());
+        EnrollmentStats stats = new EnrollmentStats(catalog);
+        store.setStats(stats);
+        store.add(new Student("OLD", "Old", "Stats test", new ArrayList<>()).withCourseRefs(courses.subList(0, 3)));
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        List<Student> loaded = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            loaded.add(student("L-" + i, random));
+        }
+        store.load(loaded);
+        Assertions.assertNull(store.get("OLD"));
+        assertConsistent(stats, store);
+
+        List<CourseEnrollment> top = stats.topCourses(3);
+        Assertions.assertEquals(3, top.size());
+        Assertions.assertTrue(top.get(0).getStudents() >= top.get(1).getStudents());
+        Assertions.assertTrue(top.get(1).getStudents() >= top.get(2).getStudents());
+        Assertions.assertEquals("Course " + top.get(0).getId().substring(2), top.get(0).getName());
+
+        store.clear();
+        Assertions.assertEquals(0, stats.report(10).getStudents());
+        Assertions.assertTrue(stats.topCourses(10).isEmpty());
+    }
+
+    @Test
+    @DisplayName("a rebuild should publish new aggregates without showing readers zeros")
+    public void testRebuildDuringReads() throws Exception {
+        EnrollmentStats stats = new EnrollmentStats(catalog);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        List<Student> loaded = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            // Au moins un cours chacun : le classement n'est jamais vide
+            loaded.add(student("L-" + i, random).withCourse(courses.get(0)));
+        }
+        stats.rebuild(loaded);
+        long students = stats.report(1).getStudents();
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> reader = executor.submit(() -> {
+                for (int i = 0; i < 20_000; i++) {
+                    EnrollmentReport report = stats.report(1);
+                    Assertions.assertEquals(students, report.getStudents());
+                    Assertions.assertEquals(1, report.getTopCourses().size());
+                    Assertions.assertEquals(students, stats.students("C-0"));
+                }
+            });
+            while (!reader.isDone()) {
+                stats.rebuild(loaded);
+            }
+            reader.get();
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
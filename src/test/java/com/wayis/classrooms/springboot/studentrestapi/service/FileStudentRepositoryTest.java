@@ -0,0 +1,241 @@
+package com.wayis.classrooms.springboot.studentrestapi.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wayis.classrooms.springboot.studentrestapi.model.Course;
+import com.wayis.classrooms.springboot.studentrestapi.model.CourseRef;
+import com.wayis.classrooms.springboot.studentrestapi.model.Student;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class FileStudentRepositoryTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    // Le dépôt sur fichier sous l'index des inscriptions, comme dans StudentService
+    private IndexedStudentRepository open(Path file, CourseCatalog catalog) throws IOException {
+        return new IndexedStudentRepository(new FileStudentRepository(file, objectMapper, catalog));
+    }
+
+    private static Student student(String id, String name, CourseRef... courses) {
+        return new Student(id, name, "File test", new ArrayList<>()).withCourseRefs(Arrays.asList(courses));
+    }
+
+    @Test
+    @DisplayName("students, courses and removals should survive a reopen")
+    public void testReopen() throws Exception {
+        Path file = Files.createTempDirectory("repository").resolve("students.dat");
+        CourseCatalog catalog = new CourseCatalog();
+        CourseRef ide = catalog.add(new Course("DEVE709", "IDE", "Utilisation des IDE", Arrays.asList("Maven")));
+        CourseRef sql = catalog.add(new Course("BDOE571", "SQL", "SQL Sous Oracle", Arrays.asList("PL/SQL")));
+
+        IndexedStudentRepository repository = open(file, catalog);
+        repository.add(student("S-002", "Thomas", ide));
+        repository.add(student("S-001", "Luc", ide, sql));
+        repository.add(student("S-003", "Marie"));
+        repository.update("S-002", current -> current.withCourse(sql));
+        repository.remove("S-003");
+        long version = repository.version();
+        Assertions.assertFalse(repository.addAll(Arrays.asList(student("S-001", "Doublon")))[0]);
+        Assertions.assertEquals(version, repository.version());
+        repository.close();
+
+        CourseCatalog reloaded = new CourseCatalog();
+        repository = open(file, reloaded);
+        try {
+            List<Student> students = repository.snapshot().getStudents();
+            Assertions.assertEquals(2, students.size());
+            Assertions.assertEquals("S-002", students.get(0).getId());
+            Assertions.assertEquals(2, students.get(0).getCourses().size());
+            Assertions.assertNull(repository.get("S-003"));
+            Assertions.assertEquals("SQL Sous Oracle", reloaded.get("BDOE571").getCourse().getDescription());
+            Assertions.assertSame(reloaded.get("DEVE709"), repository.get("S-001").courseRefs().get(0));
+
+            Assertions.assertEquals(2, repository.enrolledCount("BDOE571"));
+            Assertions.assertEquals(4, repository.enrollments());
+            StudentRepository.Snapshot page = repository.enrolled("DEVE709", null, 1);
+            Assertions.assertEquals("S-001", page.getStudents().get(0).getId());
+            Assertions.assertTrue(page.hasMore());
+        } finally {
+            repository.close();
+        }
+    }
+
+    @Test
+    @DisplayName("a conditional remove should compare the stored state and survive a reopen")
+    public void testConditionalRemove() throws Exception {
+        Path file = Files.createTempDirectory("repository").resolve("students.dat");
+        CourseCatalog catalog = new CourseCatalog();
+        CourseRef ide = catalog.add(new Course("DEVE709", "IDE", "Utilisation des IDE", Arrays.asList("Maven")));
+
+        IndexedStudentRepository repository = open(file, catalog);
+        repository.add(student("S-001", "Luc", ide));
+        repository.add(student("S-002", "Thomas", ide));
+        Student sent = repository.get("S-001");
+        repository.update("S-001", current -> student("S-001", "Luc"));
+        Assertions.assertFalse(repository.remove("S-001", sent));
+        // Chaque lecture rend une nouvelle instance : la comparaison porte sur le contenu
+        Assertions.assertTrue(repository.remove("S-002", student("S-002", "Thomas", ide)));
+        // Seule la place de S-002 suit S-001 : la tranche est la dernière
+        Assertions.assertFalse(repository.range(0, 1).hasMore());
+        repository.close();
+
+        repository = open(file, new CourseCatalog());
+        try {
+            Assertions.assertEquals(0, repository.get("S-001").getCourses().size());
+            Assertions.assertNull(repository.get("S-002"));
+        } finally {
+            repository.close();
+        }
+    }
+
+    @Test
+    @DisplayName("the file should be compacted once replaced records outweigh live ones")
+    public void testCompaction() throws Exception {
+        Path file = Files.createTempDirectory("repository").resolve("students.dat");
+        CourseCatalog catalog = new CourseCatalog();
+        CourseRef ide = catalog.add(new Course("DEVE709", "IDE", "Utilisation des IDE", Arrays.asList("Maven")));
+
+        FileStudentRepository storage = new FileStudentRepository(file, objectMapper, catalog);
+        IndexedStudentRepository repository = new IndexedStudentRepository(storage);
+        try {
+            for (int i = 0; i < 100; i++) {
+                repository.add(student(String.format("S-%03d", i), "Student", ide));
+            }
+            long largest = 0;
+            for (int round = 0; round < 200; round++) {
+                int value = round;
+                for (int i = 0; i < 100; i++) {
+                    repository.update(String.format("S-%03d", i), current -> student(current.getId(), "Student " + value, ide));
+                }
+                largest = Math.max(largest, storage.fileSize());
+            }
+            Assertions.assertTrue(storage.fileSize() < largest, "file was never compacted");
+            Assertions.assertTrue(largest < 3 << 20, "file grew to " + largest);
+            Assertions.assertEquals(Files.size(file), storage.fileSize());
+            Assertions.assertEquals("Student 199", repository.get("S-042").getName());
+            Assertions.assertEquals(42, repository.position("S-042"));
+            Assertions.assertEquals(100, repository.enrolledCount("DEVE709"));
+        } finally {
+            repository.close();
+        }
+    }
+
+    @Test
+    @DisplayName("a compaction during a scan that removes students should keep every cursor position")
+    public void testCompactionDuringScan() throws Exception {
+        Path file = Files.createTempDirectory("repository").resolve("students.dat");
+        FileStudentRepository repository = new FileStudentRepository(file, objectMapper, new CourseCatalog());
+        try {
+            String padding = "x".repeat(500);
+            Set<String> expected = new HashSet<>();
+            for (int i = 0; i < 3000; i++) {
+                String id = String.format("S-%04d", i);
+                repository.put(student(id, padding));
+                expected.add(id);
+            }
+            long initial = repository.fileSize();
+            Assertions.assertTrue(initial > 1 << 20);
+
+            // Comme StudentArchive.removeAll : chaque bloc lu est retiré avant de lire le suivant
+            Set<String> visited = new HashSet<>();
+            StudentRepository.Snapshot chunk = repository.range(0, 100);
+            while (true) {
+                for (Student student : chunk.getStudents()) {
+                    Assertions.assertTrue(visited.add(student.getId()));
+                    repository.remove(student.getId());
+                }
+                if (!chunk.hasMore()) {
+                    break;
+                }
+                chunk = repository.range(chunk.getNext(), 100);
+            }
+            Assertions.assertTrue(repository.fileSize() < initial, "file was never compacted");
+            Assertions.assertEquals(expected, visited);
+            Assertions.assertEquals(0, repository.size());
+        } finally {
+            repository.close();
+        }
+    }
+
+    @Test
+    @DisplayName("every catalog change should be written to the file, referenced or not")
+    public void testCatalogChanges() throws Exception {
+        Path file = Files.createTempDirectory("repository").resolve("students.dat");
+        CourseCatalog catalog = new CourseCatalog();
+        CourseRef ide = catalog.add(new Course("DEVE709", "IDE", "Utilisation des IDE", Arrays.asList("Maven")));
+
+        IndexedStudentRepository repository = open(file, catalog);
+        repository.add(student("S-001", "Luc", ide));
+        catalog.replace(new Course("DEVE709", "IDE 2", "Nouvelle version", Arrays.asList("Gradle")));
+        catalog.add(new Course("BDOE571", "SQL", "Sans inscrit", Arrays.asList("PL/SQL")));
+        repository.close();
+
+        CourseCatalog reloaded = new CourseCatalog();
+        repository = open(file, reloaded);
+        try {
+            Assertions.assertEquals("IDE 2", reloaded.get("DEVE709").getCourse().getName());
+            Assertions.assertEquals(Arrays.asList("Gradle"), reloaded.get("DEVE709").getCourse().getSteps());
+            Assertions.assertEquals("Sans inscrit", reloaded.get("BDOE571").getCourse().getDescription());
+
+        } finally {
+            repository.close();
+        }
+    }
+
+    @Test
+    @DisplayName("an evicted implicit course should stay out of the catalog after a reopen")
+    public void testImplicitCourseRemoval() throws Exception {
+        Path file = Files.createTempDirectory("repository").resolve("students.dat");
+        CourseCatalog catalog = new CourseCatalog();
+        IndexedStudentRepository repository = open(file, catalog);
+        CourseRef ide = catalog.register(new Course("DEVE709", "IDE", "Utilisation des IDE", Arrays.asList("Maven")));
+        CourseRef sql = catalog.register(new Course("BDOE571", "SQL", "SQL Sous Oracle", Arrays.asList("PL/SQL")));
+        repository.add(student("S-001", "Luc", ide, sql));
+        repository.update("S-001", current -> current.withoutCourse("DEVE709"));
+        Assertions.assertTrue(catalog.removeIfUnreferenced("DEVE709", repository));
+        repository.close();
+
+        CourseCatalog reloaded = new CourseCatalog();
+        repository = open(file, reloaded);
+        try {
+            Assertions.assertNull(reloaded.get("DEVE709"));
+            Assertions.assertTrue(reloaded.search("maven", 10).isEmpty());
+            // Le cours restant garde son statut : il partira avec son dernier inscrit
+            Assertions.assertTrue(reloaded.isImplicit("BDOE571"));
+            repository.update("S-001", current -> current.withoutCourse("BDOE571"));
+            Assertions.assertTrue(reloaded.removeIfUnreferenced("BDOE571", repository));
+        } finally {
+            repository.close();
+        }
+    }
+
+    @Test
+    @DisplayName("reading a student whose course has no record should not add it to the catalog")
+    public void testUnknownCourse() throws Exception {
+        Path file = Files.createTempDirectory("repository").resolve("students.dat");
+        MutationRecord record = MutationRecord.of(student("S-001", "Luc",
+                new CourseRef(new Course("GHOST", null, null, null))));
+        try (OutputStream out = Files.newOutputStream(file)) {
+            MutationLog.writeFrame(out, objectMapper.writerFor(MutationRecord.class), record);
+        }
+
+        CourseCatalog catalog = new CourseCatalog();
+        FileStudentRepository repository = new FileStudentRepository(file, objectMapper, catalog);
+        try {
+            Assertions.assertEquals("GHOST", repository.get("S-001").getCourses().get(0).getId());
+            Assertions.assertNull(catalog.get("GHOST"));
+        } finally {
+            repository.close();
+        }
+    }
+}
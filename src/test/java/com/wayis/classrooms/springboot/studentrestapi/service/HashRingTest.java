@@ -0,0 +1,54 @@
+package com.wayis.classrooms.springboot.studentrestapi.service;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class HashRingTest {
+
+    private static final int KEYS = 30000;
+
+    private static HashRing ring(String... nodes) {
+        return new HashRing(Arrays.asList(nodes), 128);
+    }
+
+    @Test
+    @DisplayName("every node should own a fair share of the ids, whatever the order of the members")
+    public void testDistribution() {
+        HashRing ring = ring("http://localhost:8082", "http://localhost:8080", "http://localhost:8081");
+        HashRing sameMembers = ring("http://localhost:8080", "http://localhost:8081", "http://localhost:8082");
+        Map<String, Integer> owned = new HashMap<>();
+        for (int i = 0; i < KEYS; i++) {
+            String owner = ring.owner("S-" + i);
+            Assertions.assertEquals(owner, sameMembers.owner("S-" + i));
+            owned.merge(owner, 1, Integer::sum);
+        }
+
+        Assertions.assertEquals(Arrays.asList("http://localhost:8080", "http://localhost:8081", "http://localhost:8082"),
+                ring.nodes());
+        for (int count : owned.values()) {
+            Assertions.assertTrue(count > KEYS / 3 * 0.8 && count < KEYS / 3 * 1.2, "unbalanced: " + owned);
+        }
+    }
+
+    @Test
+    @DisplayName("a joining node should only take ids from the others, about its share of them")
+    public void testJoinMovesOnlyAffectedIds() {
+        HashRing before = ring("http://localhost:8080", "http://localhost:8081", "http://localhost:8082");
+        HashRing after = before.with("http://localhost:8083");
+        int moved = 0;
+        for (int i = 0; i < KEYS; i++) {
+            String owner = before.owner("S-" + i);
+            String next = after.owner("S-" + i);
+            if (!owner.equals(next)) {
+                Assertions.assertEquals("http://localhost:8083", next);
+                moved++;
+            }
+        }
+
+        Assertions.assertTrue(moved > KEYS / 4 * 0.8 && moved < KEYS / 4 * 1.2, "moved: " + moved);
+    }
+}
@@ -0,0 +1,62 @@
+package com.wayis.classrooms.springboot.studentrestapi.service;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class IdGeneratorTest {
+
+    @Test
+    @DisplayName("time-ordered ids should sort in creation order")
+    public void testTimeOrderedIdsAreSorted() throws InterruptedException {
+        IdGenerator generator = new TimeOrderedIdGenerator(7);
+        String previous = generator.nextId();
+        for (int i = 0; i < 10000; i++) {
+            if (i % 2500 == 0) {
+                Thread.sleep(2);
+            }
+            String next = generator.nextId();
+            Assertions.assertEquals(26, next.length());
+            Assertions.assertTrue(next.compareTo(previous) > 0, previous + " >= " + next);
+            previous = next;
+        }
+    }
+
+    @Test
+    @DisplayName("ids should stay unique across threads")
+    public void testUniqueAcrossThreads() throws Exception {
+        for (IdGenerator generator : new IdGenerator[] {
+            new SecureRandomIdGenerator(), new ThreadLocalRandomIdGenerator(), new TimeOrderedIdGenerator(0)}) {
+            ExecutorService executor = Executors.newFixedThreadPool(4);
+            List<Future<List<String>>> futures = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                futures.add(executor.submit(() -> {
+                    List<String> ids = new ArrayList<>();
+                    for (int i = 0; i < 5000; i++) {
+                        ids.add(generator.nextId());
+                    }
+                    return ids;
+                }));
+            }
+            Set<String> all = new HashSet<>();
+            for (Future<List<String>> future : futures) {
+                all.addAll(future.get());
+            }
+            executor.shutdown();
+            Assertions.assertEquals(20000, all.size());
+        }
+    }
+
+    @Test
+    @DisplayName("should reject a node id wider than 16 bits")
+    public void testNodeIdRange() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new TimeOrderedIdGenerator(65536));
+    }
+}
@@ -0,0 +1,249 @@
+package com.wayis.classrooms.springboot.studentrestapi.service;
+
+import com.wayis.classrooms.springboot.studentrestapi.model.Course;
+import com.wayis.classrooms.springboot.studentrestapi.model.CourseRef;
+import com.wayis.classrooms.springboot.studentrestapi.model.Student;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class IndexedStudentRepositoryTest {
+
+    private static Course course(String id) {
+        return new Course(id, "IDE", "Utilisation des IDE", Arrays.asList("Learn Maven", "Coverage"));
+    }
+
+    @Test
+    @DisplayName("should keep insertion order and reject duplicate ids")
+    public void testInsertionOrder() {
+        IndexedStudentRepository store = new IndexedStudentRepository(new StudentStore());
+
+        Assertions.assertTrue(store.add(new Student("S-002", "Thomas", "Mobile", new ArrayList<>())));
+        Assertions.assertTrue(store.add(new Student("S-001", "Luc", "Senior", new ArrayList<>())));
+        Assertions.assertFalse(store.add(new Student("S-002", "Autre", "Doublon", new ArrayList<>())));
+
+        List<Student> students = store.snapshot().getStudents();
+        Assertions.assertEquals(2, students.size());
+        Assertions.assertEquals("S-002", students.get(0).getId());
+        Assertions.assertEquals("Thomas", store.get("S-002").getName());
+    }
+
+    @Test
+    @DisplayName("a batch should be readable by id only once its version is published")
+    public void testBatchPublication() {
+        IndexedStudentRepository store = new IndexedStudentRepository(new StudentStore());
+        List<Student> batch = Arrays.asList(new Student("S-001", "Luc", "Senior", new ArrayList<>()),
+                new Student("S-002", "Thomas", "Mobile", new ArrayList<>()),
+                new Student("S-003", "Léa", "Web", new ArrayList<>()));
+        List<String> seen = new ArrayList<>();
+        // Un abonné prévenu pour le premier étudiant du lot doit voir tout le lot, par get() comme par range()
+        store.setListener(new StoreListener() {
+            @Override
+            public void studentWritten(Student student) {
+                for (Student other : batch) {
+                    Assertions.assertSame(other, store.get(other.getId()));
+                }
+                Assertions.assertEquals(batch, store.range(0, 10).getStudents());
+                seen.add(student.getId());
+            }
+
+            @Override
+            public void studentRemoved(String studentId) {
+                Assertions.assertNull(store.get(studentId));
+                seen.add("-" + studentId);
+            }
+
+            @Override
+            public void courseWritten(Course course) {
+            }
+
+            @Override
+            public void courseRemoved(String courseId) {
+            }
+        });
+
+        store.addAll(batch);
+        Assertions.assertNotNull(store.remove("S-002"));
+        Assertions.assertEquals(Arrays.asList("S-001", "S-002", "S-003", "-S-002"), seen);
+    }
+
+    @Test
+    @DisplayName("an update returning the same student or a batch of duplicates should not publish a version")
+    public void testNoOpUpdate() {
+        IndexedStudentRepository store = new IndexedStudentRepository(new StudentStore());
+        store.add(new Student("S-001", "Luc", "Senior", new ArrayList<>()));
+        long version = store.version();
+
+        Assertions.assertFalse(store.update("S-001", s -> s.withoutCourse("any")));
+        Assertions.assertFalse(store.update("any", s -> s.withCourse(new CourseRef(course("DEVE709")))));
+        Assertions.assertFalse(store.addAll(Arrays.asList(new Student("S-001", "Doublon", "", new ArrayList<>())))[0]);
+        Assertions.assertEquals(version, store.version());
+    }
+
+    @Test
+    @DisplayName("should keep the enrollment count in step with every write")
+    public void testEnrollmentCount() {
+        IndexedStudentRepository store = new IndexedStudentRepository(new StudentStore());
+        store.add(new Student("S-001", "Luc", "Senior", new ArrayList<>(Arrays.asList(course("DEVE709"), course("DEVE710")))));
+        store.addAll(Arrays.asList(
+                new Student("S-002", "Thomas", "Mobile", new ArrayList<>(Arrays.asList(course("DEVE709")))),
+                new Student("S-001", "Doublon", "", new ArrayList<>(Arrays.asList(course("BDOE571"))))));
+        Assertions.assertEquals(3, store.enrollments());
+
+        store.update("S-001", s -> s.withoutCourse("DEVE709"));
+        store.update("S-002", s -> s.withCourse(new CourseRef(course("DEVE571"))));
+        Assertions.assertEquals(3, store.enrollments());
+
+        store.clear();
+        Assertions.assertEquals(0, store.enrollments());
+    }
+
+    @Test
+    @DisplayName("the reverse index should follow enrollments and page by student id")
+    public void testEnrolledIndex() {
+        IndexedStudentRepository store = new IndexedStudentRepository(new StudentStore());
+        store.add(new Student("S-003", "Luc", "Senior", new ArrayList<>(Arrays.asList(course("DEVE709")))));
+        store.addAll(Arrays.asList(
+                new Student("S-001", "Thomas", "Mobile", new ArrayList<>(Arrays.asList(course("DEVE709")))),
+                new Student("S-002", "Marie", "Data", new ArrayList<>())));
+        store.update("S-002", s -> s.withCourse(new CourseRef(course("DEVE709"))));
+        store.update("S-003", s -> s.withoutCourse("DEVE709"));
+
+        Assertions.assertEquals(2, store.enrolledCount("DEVE709"));
+        StudentRepository.Snapshot first = store.enrolled("DEVE709", null, 1);
+        Assertions.assertEquals("S-001", first.getStudents().get(0).getId());
+        Assertions.assertTrue(first.hasMore());
+        StudentRepository.Snapshot second = store.enrolled("DEVE709", "S-001", 1);
+        Assertions.assertEquals("S-002", second.getStudents().get(0).getId());
+        Assertions.assertFalse(second.hasMore());
+        Assertions.assertEquals(0, store.enrolled("DEVE710", null, 10).getStudents().size());
+    }
+
+    @Test
+    @DisplayName("a removed student should leave the indexes but not older snapshots")
+    public void testRemove() {
+        IndexedStudentRepository store = new IndexedStudentRepository(new StudentStore());
+        store.add(new Student("S-001", "Luc", "Senior", new ArrayList<>(Arrays.asList(course("DEVE709")))));
+        store.add(new Student("S-002", "Thomas", "Mobile", new ArrayList<>(Arrays.asList(course("DEVE709")))));
+        store.add(new Student("S-003", "Marie", "Data", new ArrayList<>()));
+        StudentRepository.Snapshot before = store.snapshot();
+
+        Assertions.assertEquals("Luc", store.remove("S-001").getName());
+        Assertions.assertNull(store.remove("S-001"));
+        Assertions.assertNull(store.get("S-001"));
+        Assertions.assertEquals(-1, store.position("S-001"));
+        Assertions.assertEquals(2, store.size());
+        Assertions.assertEquals(1, store.enrollments());
+        Assertions.assertEquals(1, store.enrolledCount("DEVE709"));
+        Assertions.assertEquals(3, before.getStudents().size());
+
+        // La place laissée est sautée : la lecture par tranches reprend après elle
+        StudentRepository.Snapshot first = store.range(0, 1);
+        Assertions.assertEquals("S-002", first.getStudents().get(0).getId());
+        Assertions.assertEquals("S-003", store.range(first.getNext(), 1).getStudents().get(0).getId());
+        // Seules des places vides suivent S-002 : la tranche est la dernière
+        store.remove("S-003");
+        Assertions.assertFalse(store.range(0, 1).hasMore());
+
+        // Ajouté à nouveau, l'étudiant prend une nouvelle place en fin de liste
+        Assertions.assertTrue(store.add(new Student("S-001", "Luc", "Senior", new ArrayList<>())));
+        Assertions.assertEquals(3, store.position("S-001"));
+    }
+
+    @Test
+    @DisplayName("a conditional remove should keep a student written since it was read")
+    public void testConditionalRemove() {
+        IndexedStudentRepository store = new IndexedStudentRepository(new StudentStore());
+        store.add(new Student("S-001", "Luc", "Senior", new ArrayList<>(Arrays.asList(course("DEVE709")))));
+        Student sent = store.get("S-001");
+
+        store.update("S-001", current -> current.withoutCourse("DEVE709"));
+        Assertions.assertFalse(store.remove("S-001", sent));
+        Assertions.assertNotNull(store.get("S-001"));
+
+        // Une copie de même contenu suffit : seul l'état compte
+        Student copy = new Student("S-001", "Luc", "Senior", new ArrayList<>());
+        long version = store.version();
+        Assertions.assertTrue(store.remove("S-001", copy));
+        Assertions.assertNull(store.get("S-001"));
+        Assertions.assertEquals(version + 1, store.version());
+        Assertions.assertFalse(store.remove("S-001", copy));
+    }
+
+    @Test
+    @DisplayName("an implicit course should leave the catalog and the search index with its last enrollment")
+    public void testImplicitCourseEviction() {
+        IndexedStudentRepository store = new IndexedStudentRepository(new StudentStore());
+        CourseCatalog catalog = new CourseCatalog();
+        CourseRef listed = catalog.add(course("DEVE709"));
+        CourseRef bound = catalog.register(new Course("DEVE710", "CI", "Intégration continue", Arrays.asList("Jenkins")));
+        store.add(new Student("S-001", "Luc", "Senior", new ArrayList<>()).withCourseRefs(Arrays.asList(listed, bound)));
+        store.add(new Student("S-002", "Thomas", "Mobile", new ArrayList<>()).withCourseRefs(Arrays.asList(bound)));
+
+        // Encore un inscrit : le cours reste
+        store.update("S-001", current -> current.withoutCourses(Arrays.asList("DEVE709", "DEVE710")));
+        Assertions.assertFalse(catalog.removeIfUnreferenced("DEVE710", store));
+        Assertions.assertEquals(1, catalog.search("jenkins", 10).size());
+
+        store.update("S-002", current -> current.withoutCourse("DEVE710"));
+        Assertions.assertTrue(catalog.removeIfUnreferenced("DEVE710", store));
+        Assertions.assertNull(catalog.get("DEVE710"));
+        Assertions.assertTrue(catalog.search("jenkins", 10).isEmpty());
+
+        // Un cours ajouté au catalogue y reste sans inscrit
+        Assertions.assertFalse(catalog.removeIfUnreferenced("DEVE709", store));
+        Assertions.assertSame(listed, catalog.get("DEVE709"));
+
+        // Une inscription qui suit le retrait rétablit la même référence
+        store.update("S-002", current -> current.withCourse(bound));
+        catalog.retain(bound);
+        Assertions.assertSame(bound, catalog.get("DEVE710"));
+        Assertions.assertTrue(catalog.isImplicit("DEVE710"));
+        Assertions.assertEquals(1, catalog.search("jenkins", 10).size());
+    }
+
+    @Test
+    @DisplayName("readers should see consistent snapshots while writers run")
+    public void testConcurrentReaders() throws Exception {
+        IndexedStudentRepository store = new IndexedStudentRepository(new StudentStore());
+        for (int i = 0; i < 100; i++) {
+            store.add(new Student("S-" + i, "Student " + i, "", new ArrayList<>()));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int w = 0; w < 2; w++) {
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < 5000; i++) {
+                    String id = "S-" + (i % 100);
+                    store.update(id, s -> s.withCourse(new CourseRef(course("C"))));
+                    store.update(id, s -> s.withoutCourse("C"));
+                }
+            }));
+        }
+        for (int r = 0; r < 2; r++) {
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < 500; i++) {
+                    StudentRepository.Snapshot snapshot = store.snapshot();
+                    Assertions.assertEquals(100, snapshot.getStudents().size());
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+        Assertions.assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        for (Student student : store.snapshot().getStudents()) {
+            Assertions.assertTrue(student.getCourses().isEmpty());
+        }
+    }
+}
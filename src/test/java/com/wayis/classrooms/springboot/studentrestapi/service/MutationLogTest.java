@@ -0,0 +1,152 @@
+package com.wayis.classrooms.springboot.studentrestapi.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wayis.classrooms.springboot.studentrestapi.model.Course;
+import com.wayis.classrooms.springboot.studentrestapi.model.Student;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class MutationLogTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private static MutationRecord student(String id) {
+        return MutationRecord.of(new Student(id, "Luc", "Senior", new ArrayList<>()));
+    }
+
+    private List<MutationRecord> replay(Path file) throws Exception {
+        List<MutationRecord> records = new ArrayList<>();
+        MutationLog.replay(file, objectMapper, true, records::add);
+        return records;
+    }
+
+    @Test
+    @DisplayName("records acknowledged by concurrent writers should all be replayed")
+    public void testConcurrentAppend() throws Exception {
+        Path directory = Files.createTempDirectory("wal");
+        MutationLog log = new MutationLog(directory, 1, objectMapper, Integer.MAX_VALUE, sequence -> { });
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> writers = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                int writer = t;
+                writers.add(executor.submit(() -> {
+                    for (int i = 0; i < 200; i++) {
+                        log.append(student("S-" + writer + "-" + i));
+                        log.awaitDurable();
+                    }
+                }));
+            }
+            for (Future<?> writer : writers) {
+                writer.get();
+            }
+        } finally {
+            executor.shutdown();
+            log.close();
+        }
+
+        List<MutationRecord> records = replay(MutationLog.segmentPath(directory, 1));
+        Assertions.assertEquals(1600, records.size());
+        Assertions.assertEquals(MutationRecord.STUDENT, records.get(0).getType());
+    }
+
+    @Test
+    @DisplayName("replay should stop at a torn record and truncate it")
+    public void testTornTail() throws Exception {
+        Path directory = Files.createTempDirectory("wal");
+        MutationLog log = new MutationLog(directory, 1, objectMapper, Integer.MAX_VALUE, sequence -> { });
+        log.append(student("S-001"));
+        log.append(MutationRecord.of(new Course("DEVE709", "IDE", "Utilisation des IDE", Arrays.asList("Learn Maven")), false));
+        log.awaitDurable();
+        log.close();
+
+        Path segment = MutationLog.segmentPath(directory, 1);
+        long complete = Files.size(segment);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            // Arrêt brutal au milieu d'un enregistrement : longueur écrite, contenu absent
+            channel.write(ByteBuffer.wrap(new byte[] {0, 0, 0, 42, 1, 2}));
+        }
+
+        List<MutationRecord> records = replay(segment);
+        Assertions.assertEquals(2, records.size());
+        Assertions.assertEquals("DEVE709", records.get(1).getCourse().getId());
+        Assertions.assertEquals(complete, Files.size(segment));
+    }
+
+    @Test
+    @DisplayName("a torn length header should be truncated so that later appends survive a restart")
+    public void testTornHeader() throws Exception {
+        Path directory = Files.createTempDirectory("wal");
+        Path segment = MutationLog.segmentPath(directory, 1);
+        // Arrêt brutal juste après l'ouverture d'un segment : trois octets de la première longueur
+        new MutationLog(directory, 1, objectMapper, Integer.MAX_VALUE, sequence -> { }).close();
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            channel.write(ByteBuffer.wrap(new byte[] {0, 0, 0}));
+        }
+
+        // Redémarrage : comme StudentPersistence, le journal reprend à first + count, ici le même segment
+        Assertions.assertEquals(0, replay(segment).size());
+        Assertions.assertEquals(0, Files.size(segment));
+        MutationLog log = new MutationLog(directory, 1, objectMapper, Integer.MAX_VALUE, sequence -> { });
+        log.append(student("S-001"));
+        log.append(student("S-002"));
+        log.awaitDurable();
+        log.close();
+
+        // Second redémarrage : les enregistrements acquittés sont tous relus
+        List<MutationRecord> records = replay(segment);
+        Assertions.assertEquals(2, records.size());
+        Assertions.assertEquals("S-002", records.get(1).getId());
+    }
+
+    @Test
+    @DisplayName("a corrupt length should stop the replay without allocating it")
+    public void testCorruptLength() throws Exception {
+        Path directory = Files.createTempDirectory("wal");
+        MutationLog log = new MutationLog(directory, 1, objectMapper, Integer.MAX_VALUE, sequence -> { });
+        log.append(student("S-001"));
+        log.awaitDurable();
+        log.close();
+
+        Path segment = MutationLog.segmentPath(directory, 1);
+        long complete = Files.size(segment);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            channel.write(ByteBuffer.wrap(new byte[] {0x7f, -1, -1, -1, 0, 0, 0, 0, 1, 2, 3}));
+        }
+
+        Assertions.assertEquals(1, replay(segment).size());
+        Assertions.assertEquals(complete, Files.size(segment));
+    }
+
+    @Test
+    @DisplayName("should open a new segment after the configured number of records")
+    public void testRoll() throws Exception {
+        Path directory = Files.createTempDirectory("wal");
+        AtomicLong rolledAt = new AtomicLong();
+        MutationLog log = new MutationLog(directory, 1, objectMapper, 3, rolledAt::set);
+        for (int i = 0; i < 3; i++) {
+            log.append(student("S-" + i));
+        }
+        log.awaitDurable();
+        log.append(student("S-3"));
+        log.awaitDurable();
+        log.close();
+
+        Assertions.assertEquals(4, rolledAt.get());
+        Assertions.assertEquals(3, replay(MutationLog.segmentPath(directory, 1)).size());
+        Assertions.assertEquals(1, replay(MutationLog.segmentPath(directory, 4)).size());
+    }
+}
@@ -0,0 +1,119 @@
+package com.wayis.classrooms.springboot.studentrestapi.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wayis.classrooms.springboot.studentrestapi.model.Course;
+import com.wayis.classrooms.springboot.studentrestapi.model.Student;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.metrics.ApplicationStartup;
+
+public class RosterLoaderTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ForkJoinPool pool = new ForkJoinPool(4);
+
+    // Supprimé par JUnit après chaque test, avec les fichiers écrits dedans
+    @TempDir
+    Path directory;
+
+    @AfterEach
+    public void restoreSampleData() {
+        pool.shutdown();
+        StudentService.initializeData();
+    }
+
+    private Path write(String suffix, String content) throws Exception {
+        Path file = Files.createTempFile(directory, "roster", suffix);
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    private List<String> ids(Path file, long chunkSize) throws Exception {
+        return new RosterFile(file, chunkSize)
+                .read(objectMapper.readerFor(Student.class),
+                        fields -> new Student(fields[0], fields[1], fields[2], new ArrayList<>()), pool)
+                .stream()
+                .map(Student::getId)
+                .collect(Collectors.toList());
+    }
+
+    @Test
+    @DisplayName("every format should yield all records in file order, whatever the chunk size")
+    public void testChunkBoundaries() throws Exception {
+        StringBuilder csv = new StringBuilder("id,name,description,courses\r\n");
+        StringBuilder ndjson = new StringBuilder();
+        StringBuilder json = new StringBuilder("[\n");
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            String id = "S-" + i;
+            expected.add(id);
+            csv.append(id).append(",\"Name, \"\"").append(i).append("\"\"\",Desc\r\n");
+            ndjson.append("{\"id\":\"").append(id).append("\",\"name\":\"}{\\\"\"}\n");
+            json.append(i == 0 ? "" : ",\n").append("{\"id\":\"").append(id)
+                    .append("\",\"courses\":[{\"id\":\"C\",\"steps\":[\"],[\"]}]}");
+        }
+        json.append("\n]\n");
+
+        for (long chunkSize : new long[] {1, 7, 100, 1 << 20}) {
+            Assertions.assertEquals(expected, ids(write(".csv", csv.toString()), chunkSize));
+            Assertions.assertEquals(expected, ids(write(".ndjson", ndjson.toString()), chunkSize));
+            Assertions.assertEquals(expected, ids(write(".json", json.toString()), chunkSize));
+        }
+    }
+
+    @Test
+    @DisplayName("quoted CSV fields should keep commas and escaped quotes")
+    public void testCsvFields() {
+        byte[] line = "S-1,\"Labbé, Luc\",\"He said \"\"hi\"\"\",".getBytes(StandardCharsets.UTF_8);
+        Assertions.assertArrayEquals(new String[] {"S-1", "Labbé, Luc", "He said \"hi\"", ""},
+                RosterFile.csvFields(line, line.length));
+    }
+
+    @Test
+    @DisplayName("loading should replace the sample data and build the indexes")
+    public void testLoad() throws Exception {
+        Path courses = write(".ndjson",
+                "{\"id\":\"C1\",\"name\":\"Java\",\"description\":\"Les fondamentaux\",\"steps\":[\"JVM\"]}\n"
+                + "{\"id\":\"C2\",\"name\":\"SQL\",\"description\":\"Oracle\",\"steps\":[]}\n");
+        Path students = write(".csv", "id,name,description,courses\n"
+                + "S-1,Luc,Senior,C1;C2\n"
+                + "S-2,Thomas,Mobile,C1\n"
+                + "S-1,Duplicate,Ignored,\n"
+                + "S-3,Anne,Data,C3\n");
+
+        RosterLoader.LoadReport report = new RosterLoader(objectMapper, ApplicationStartup.DEFAULT).load(courses, students);
+
+        Assertions.assertEquals(3, report.getStudents());
+        Assertions.assertEquals(1, report.getDuplicates());
+        // C3 n'est cité que par un étudiant : il est ajouté au catalogue
+        Assertions.assertEquals(3, report.getCourses());
+
+        IndexedStudentRepository store = StudentService.store();
+        Assertions.assertNull(store.get("S-001"));
+        Assertions.assertEquals(Arrays.asList("S-1", "S-2", "S-3"), store.snapshot().getStudents().stream()
+                .map(Student::getId).collect(Collectors.toList()));
+        Assertions.assertEquals("Luc", store.get("S-1").getName());
+        Assertions.assertEquals("Java", store.get("S-1").getCourse("C1").getName());
+        Assertions.assertEquals(4, store.enrollments());
+        Assertions.assertEquals(2, store.enrolledCount("C1"));
+        Assertions.assertEquals(Arrays.asList("S-1", "S-2"), store.enrolled("C1", null, 10).getStudents().stream()
+                .map(Student::getId).collect(Collectors.toList()));
+        Assertions.assertEquals(Arrays.asList("C1"), StudentService.catalog().search("fondamentaux", 10).stream()
+                .map(Course::getId).collect(Collectors.toList()));
+
+        // Les écritures suivantes passent par le chemin habituel
+        Assertions.assertTrue(store.add(new Student("S-4", "Nina", "Web", new ArrayList<>())));
+        Assertions.assertEquals(3, store.position("S-4"));
+    }
+}
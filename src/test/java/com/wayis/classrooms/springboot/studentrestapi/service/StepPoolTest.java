@@ -0,0 +1,72 @@
+package com.wayis.classrooms.springboot.studentrestapi.service;
+
+import com.wayis.classrooms.springboot.studentrestapi.model.Course;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class StepPoolTest {
+
+    @Test
+    @DisplayName("encoded steps should decode to the same labels, null and empty included")
+    public void testRoundTrip() {
+        StepPool pool = new StepPool(16);
+        Assertions.assertNull(pool.encode(null));
+        Assertions.assertEquals(Collections.emptyList(), pool.encode(new ArrayList<>()));
+
+        List<String> steps = Arrays.asList("Maven", null, "NetBeans", "Maven");
+        List<String> encoded = pool.encode(steps);
+        Assertions.assertEquals(steps, encoded);
+        Assertions.assertNull(encoded.get(1));
+        Assertions.assertEquals(2, pool.size());
+        Assertions.assertThrows(UnsupportedOperationException.class, () -> encoded.set(0, "Gradle"));
+
+        // Un libellé connu n'est pas ajouté une seconde fois, et une liste déjà codée est gardée telle quelle
+        Assertions.assertEquals(Arrays.asList("NetBeans"), pool.encode(Arrays.asList("NetBeans")));
+        Assertions.assertEquals(2, pool.size());
+        Assertions.assertSame(encoded, pool.encode(encoded));
+    }
+
+    @Test
+    @DisplayName("a full pool should keep new labels as plain strings")
+    public void testFullPool() {
+        StepPool pool = new StepPool(2);
+        pool.encode(Arrays.asList("Maven", "Gradle"));
+
+        List<String> steps = new ArrayList<>(Arrays.asList("Maven", "Ant"));
+        List<String> kept = pool.encode(steps);
+        Assertions.assertEquals(Arrays.asList("Maven", "Ant"), kept);
+        Assertions.assertEquals(2, pool.size());
+        // Copie en lecture seule : la liste d'origine peut changer sans toucher au cours
+        steps.set(1, "Make");
+        Assertions.assertEquals("Ant", kept.get(1));
+        Assertions.assertThrows(UnsupportedOperationException.class, () -> kept.add("Bazel"));
+
+        // Les libellés déjà connus sont toujours codés
+        Assertions.assertEquals(Arrays.asList("Gradle", null), pool.encode(Arrays.asList("Gradle", null)));
+    }
+
+    @Test
+    @DisplayName("the catalog should encode steps when a course is stored, and return the same list on every read")
+    public void testCatalogEncodes() {
+        CourseCatalog catalog = new CourseCatalog();
+        List<String> steps = new ArrayList<>(Arrays.asList("Learn Maven", "Coverage"));
+        Course course = new Course("DEVE709", "IDE", "Utilisation des IDE", steps);
+        Assertions.assertSame(steps, course.getSteps());
+
+        catalog.add(course);
+        List<String> stored = catalog.get("DEVE709").getCourse().getSteps();
+        Assertions.assertNotSame(steps, stored);
+        Assertions.assertEquals(steps, stored);
+        Assertions.assertSame(stored, catalog.get("DEVE709").getCourse().getSteps());
+
+        catalog.replace(new Course("DEVE709", "IDE", null, null));
+        Assertions.assertNull(catalog.get("DEVE709").getCourse().getSteps());
+        catalog.register(new Course("DEVE710", "CI", null, new ArrayList<>()));
+        Assertions.assertEquals(Collections.emptyList(), catalog.get("DEVE710").getCourse().getSteps());
+    }
+}
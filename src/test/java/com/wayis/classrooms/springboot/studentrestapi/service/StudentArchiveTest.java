@@ -0,0 +1,131 @@
+package com.wayis.classrooms.springboot.studentrestapi.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wayis.classrooms.springboot.studentrestapi.model.Course;
+import com.wayis.classrooms.springboot.studentrestapi.model.Student;
+import com.wayis.classrooms.springboot.studentrestapi.service.StudentArchive.ArchiveReport;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class StudentArchiveTest {
+
+    private final StudentArchive archive = new StudentArchive(new ObjectMapper(), 7);
+
+    @AfterEach
+    public void restoreSampleData() {
+        StudentService.initializeData();
+    }
+
+    private static List<String> describe(StudentRepository store) {
+        List<String> described = new ArrayList<>();
+        for (Student student : store.snapshot().getStudents()) {
+            StringBuilder line = new StringBuilder(student.getId()).append('|').append(student.getName());
+            for (Course course : student.getCourses()) {
+                line.append('|').append(course.getId()).append('=').append(course.getName())
+                        .append(course.getSteps());
+            }
+            described.add(line.toString());
+        }
+        return described;
+    }
+
+    @Test
+    @DisplayName("an exported archive should restore the same catalog and students in batches")
+    public void testRoundTrip() throws Exception {
+        IndexedStudentRepository store = StudentService.store();
+        CourseCatalog catalog = StudentService.catalog();
+        Course extra = new Course("ARCH100", "Archives", "Sauvegardes", Arrays.asList("gzip", "NDJSON"));
+        catalog.add(extra);
+        for (int i = 0; i < 100; i++) {
+            store.add(StudentService.bindToCatalog(new Student("A-" + i, "Student " + i, "Archive test",
+                    new ArrayList<>(i % 2 == 0 ? Arrays.asList(extra) : List.of()))));
+        }
+        List<String> expected = describe(store);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ArchiveReport exported = archive.export(out);
+        Assertions.assertEquals(102, exported.getStudents());
+        Assertions.assertEquals(5, exported.getCourses());
+        Assertions.assertEquals(out.size(), exported.getCompressedBytes());
+        Assertions.assertTrue(exported.getBytes() > exported.getCompressedBytes());
+        // Un enregistrement par ligne
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            String text = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            Assertions.assertEquals(exported.getBytes(), text.getBytes(StandardCharsets.UTF_8).length);
+            Assertions.assertEquals(107, text.split("\n").length);
+        }
+
+        // Modifications à défaire : un étudiant en plus, un retiré, un nom changé
+        store.add(new Student("EXTRA", "Extra", "Not archived", new ArrayList<>()));
+        store.remove("A-3");
+        store.update("A-4", current -> new Student("A-4", "Renamed", "Archive test", new ArrayList<>()));
+
+        ArchiveReport imported = archive.importFrom(new ByteArrayInputStream(out.toByteArray()), true);
+        Assertions.assertTrue(imported.isDone());
+        Assertions.assertEquals(102, imported.getStudents());
+        Assertions.assertEquals(0, imported.getReplaced());
+        Assertions.assertEquals(102, imported.getRemoved());
+        Assertions.assertEquals(exported.getBytes(), imported.getBytes());
+        Assertions.assertSame(imported, archive.getLastImport());
+        Assertions.assertNull(store.get("EXTRA"));
+        Assertions.assertEquals(expected, describe(store));
+        Assertions.assertEquals(50, store.enrolledCount("ARCH100"));
+        Assertions.assertEquals(50, StudentService.stats().students("ARCH100"));
+
+        // Sans replace, les étudiants de l'archive remplacent ceux qui existent
+        store.update("A-4", current -> new Student("A-4", "Renamed", "Archive test", new ArrayList<>()));
+        imported = archive.importFrom(new ByteArrayInputStream(out.toByteArray()), false);
+        Assertions.assertEquals(102, imported.getReplaced());
+        Assertions.assertEquals(expected, describe(store));
+    }
+
+    @Test
+    @DisplayName("records without an identifier or of an unknown type should be skipped")
+    public void testSkippedRecords() throws Exception {
+        String ndjson = "{\"type\":\"student\",\"id\":\"N-1\",\"name\":\"New\",\"courses\":[\"NEW1\"]}\n"
+                + "{\"type\":\"student\",\"name\":\"No id\"}\n"
+                + "{\"type\":\"unknown\",\"id\":\"N-2\"}\n";
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(ndjson.getBytes(StandardCharsets.UTF_8));
+        }
+
+        ArchiveReport report = archive.importFrom(new ByteArrayInputStream(out.toByteArray()), false);
+        Assertions.assertEquals(1, report.getStudents());
+        Assertions.assertEquals(2, report.getSkipped());
+        Assertions.assertEquals(3, StudentService.store().size());
+        // Cours cité sans enregistrement : ajouté au catalogue sans contenu
+        Assertions.assertNotNull(StudentService.catalog().get("NEW1"));
+
+        Assertions.assertThrows(IOException.class, () -> archive.importFrom(
+                new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)), false));
+    }
+
+    @Test
+    @DisplayName("a truncated archive imported with replace should leave every student in place")
+    public void testTruncatedReplace() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        archive.export(out);
+        byte[] truncated = Arrays.copyOf(out.toByteArray(), out.size() / 2);
+        IndexedStudentRepository store = StudentService.store();
+        store.add(new Student("EXTRA", "Extra", "Not archived", new ArrayList<>()));
+        List<String> before = describe(store);
+
+        Assertions.assertThrows(IOException.class,
+                () -> archive.importFrom(new ByteArrayInputStream(truncated), true));
+        Assertions.assertEquals(before, describe(store));
+        Assertions.assertEquals(0, archive.getLastImport().getRemoved());
+    }
+}
@@ -0,0 +1,94 @@
+package com.wayis.classrooms.springboot.studentrestapi.service;
+
+import com.wayis.classrooms.springboot.studentrestapi.model.Course;
+import com.wayis.classrooms.springboot.studentrestapi.model.Student;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Budgets d'allocation des opérations de {@link StudentService}, en octets
+ * par appel, sur 1 000 étudiants inscrits à 4 cours chacun. Un budget
+ * dépassé fait échouer le build : une modification qui rend un chemin
+ * fréquent plus gourmand doit le justifier en relevant le budget.
+ * <p>
+ * Chiffres relevés avec {@code mvn test} sur Java 21.0.1 (Temurin), avec G1
+ * et avec SerialGC : le plus haut de plusieurs exécutions. Les octets alloués
+ * ne dépendent pas du collecteur. Budget : 50 % de plus, et au moins 32 octets
+ * ({@link AllocationMeter#budget}). Les lectures unitaires n'allouent rien une
+ * fois compilées ; une liste coûte surtout son tableau de références.
+ */
+public class StudentServiceAllocationTest {
+
+    private static final int STUDENTS = 1000;
+
+    private final StudentService service = new StudentService();
+    private final AllocationMeter meter = new AllocationMeter(20_000, 2_000, 32);
+    private int created;
+
+    @BeforeEach
+    public void addStudents() {
+        StudentService.initializeData();
+        List<Student> batch = new ArrayList<>(STUDENTS);
+        for (int i = 0; i < STUDENTS; i++) {
+            batch.add(new Student(String.format("A-%04d", i), "Student " + i, "Allocation test",
+                    new ArrayList<>(Arrays.asList(course("DEVE709"), course("DEVE710"), course("BDOE571"), course("DEVE571")))));
+        }
+        service.addStudents(batch);
+    }
+
+    @AfterEach
+    public void restoreSampleData() {
+        StudentService.initializeData();
+    }
+
+    private static Course course(String id) {
+        return StudentService.catalog().get(id).getCourse();
+    }
+
+    @Test
+    @DisplayName("reads should stay within their allocation budgets")
+    public void testReads() throws Exception {
+        Assumptions.assumeTrue(AllocationMeter.isSupported(), "thread allocation counters unavailable");
+        List<String> ids = Arrays.asList("A-0001", "A-0500", "A-0999", "A-1234");
+
+        meter.check("retrieveStudent", 0, () -> service.retrieveStudent("A-0500"));
+        meter.check("retrieveCourses", 0, () -> service.retrieveCourses("A-0500"));
+        meter.check("retrieveCourse", 0, () -> service.retrieveCourse("A-0500", "DEVE710"));
+        meter.check("retrieveCoursesPage(limit=2)", 120, () -> service.retrieveCoursesPage("A-0500", "DEVE709", 2));
+        meter.check("retrieveStudents(4 ids)", 80, () -> service.retrieveStudents(ids));
+        meter.check("retrieveStudentsPage(limit=100)", 520, () -> service.retrieveStudentsPage("A-0100", 100));
+        meter.check("retrieveAllStudents(1000)", 4_104, () -> service.retrieveAllStudents());
+        meter.check("retrieveCourseStudents(limit=100)", 616,
+                () -> service.retrieveCourseStudents("DEVE710", "A-0100", 100));
+        meter.check("retrieveCatalogCourse", 0, () -> service.retrieveCatalogCourse("DEVE571"));
+        meter.check("searchCourses", 1_808, () -> service.searchCourses("fondamentaux", 10));
+
+        meter.assertWithinBudgets("StudentService reads, " + STUDENTS + " students");
+    }
+
+    @Test
+    @DisplayName("writes should stay within their allocation budgets")
+    public void testWrites() throws Exception {
+        Assumptions.assumeTrue(AllocationMeter.isSupported(), "thread allocation counters unavailable");
+        List<String> courseIds = Arrays.asList("DEVE709", "BDOE571");
+
+        meter.check("deleteCourse + enrollStudent", 1_899, () -> {
+            service.deleteCourse("A-0500", "DEVE709");
+            return service.enrollStudent("A-0500", "DEVE709");
+        });
+        meter.check("deleteCourses + enrollStudent(2 courses)", 2_895, () -> {
+            service.deleteCourses("A-0500", courseIds);
+            return service.enrollStudent("A-0500", courseIds);
+        });
+        meter.check("addStudent", 784, () -> service.addStudent(
+                new Student("N-" + created++, "New", "Allocation test", new ArrayList<>())));
+
+        meter.assertWithinBudgets("StudentService writes, " + STUDENTS + " students");
+    }
+}
@@ -0,0 +1,181 @@
+package com.wayis.classrooms.springboot.studentrestapi.service;
+
+import com.wayis.classrooms.springboot.studentrestapi.model.Course;
+import com.wayis.classrooms.springboot.studentrestapi.model.CourseRef;
+import com.wayis.classrooms.springboot.studentrestapi.model.Student;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class StudentStoreTest {
+
+    private static Course course(String id) {
+        return new Course(id, "IDE", "Utilisation des IDE", Arrays.asList("Learn Maven", "Coverage"));
+    }
+
+    @Test
+    @DisplayName("a put should append a new id and replace a known one in place")
+    public void testPut() {
+        StudentStore store = new StudentStore();
+
+        store.put(new Student("S-002", "Thomas", "Mobile", new ArrayList<>()));
+        store.put(new Student("S-001", "Luc", "Senior", new ArrayList<>()));
+        store.put(new Student("S-002", "Autre", "Remplaçant", new ArrayList<>()));
+
+        List<Student> students = store.snapshot().getStudents();
+        Assertions.assertEquals(2, students.size());
+        Assertions.assertEquals("S-002", students.get(0).getId());
+        Assertions.assertEquals("Autre", store.get("S-002").getName());
+        Assertions.assertEquals(0, store.position("S-002"));
+    }
+
+    @Test
+    @DisplayName("a snapshot should not change after later writes")
+    public void testSnapshotIsolation() {
+        StudentStore store = new StudentStore();
+        store.put(new Student("S-001", "Luc", "Senior", new ArrayList<>(Arrays.asList(course("DEVE709")))));
+
+        StudentRepository.Snapshot before = store.snapshot();
+        store.put(store.get("S-001").withCourse(new CourseRef(course("DEVE710"))));
+        store.put(store.get("S-001").withoutCourse("DEVE709"));
+        store.put(new Student("S-002", "Thomas", "Mobile", new ArrayList<>()));
+
+        Assertions.assertEquals(1, before.getStudents().size());
+        Assertions.assertEquals(1, before.getStudents().get(0).getCourses().size());
+        Assertions.assertEquals("DEVE709", before.getStudents().get(0).getCourses().get(0).getId());
+        Assertions.assertTrue(store.snapshot().getVersion() > before.getVersion());
+        Assertions.assertEquals("DEVE710", store.get("S-001").getCourses().get(0).getId());
+    }
+
+    @Test
+    @DisplayName("a batch should be published in a single version")
+    public void testPutAll() {
+        StudentStore store = new StudentStore();
+        store.put(new Student("S-001", "Luc", "Senior", new ArrayList<>()));
+        StudentRepository.Snapshot before = store.snapshot();
+
+        store.putAll(Arrays.asList(new Student("S-002", "Thomas", "Mobile", new ArrayList<>()),
+                new Student("S-001", "Luc", "Lead", new ArrayList<>())));
+
+        StudentRepository.Snapshot after = store.snapshot();
+        Assertions.assertEquals(before.getVersion() + 1, after.getVersion());
+        Assertions.assertEquals(2, after.getStudents().size());
+        Assertions.assertEquals("Lead", after.getStudents().get(0).getDescription());
+        Assertions.assertEquals("Senior", before.getStudents().get(0).getDescription());
+    }
+
+    @Test
+    @DisplayName("a removed student should leave a skipped place but not older snapshots")
+    public void testRemove() {
+        StudentStore store = new StudentStore();
+        store.put(new Student("S-001", "Luc", "Senior", new ArrayList<>()));
+        store.put(new Student("S-002", "Thomas", "Mobile", new ArrayList<>()));
+        store.put(new Student("S-003", "Marie", "Data", new ArrayList<>()));
+        StudentRepository.Snapshot before = store.snapshot();
+
+        Assertions.assertEquals("Luc", store.remove("S-001").getName());
+        Assertions.assertNull(store.remove("S-001"));
+        Assertions.assertNull(store.get("S-001"));
+        Assertions.assertEquals(-1, store.position("S-001"));
+        Assertions.assertEquals(2, store.size());
+        Assertions.assertEquals(3, before.getStudents().size());
+
+        // La place laissée est sautée : la lecture par tranches reprend après elle
+        StudentRepository.Snapshot first = store.range(0, 1);
+        Assertions.assertEquals("S-002", first.getStudents().get(0).getId());
+        Assertions.assertEquals("S-003", store.range(first.getNext(), 1).getStudents().get(0).getId());
+        store.remove("S-003");
+        Assertions.assertFalse(store.range(0, 1).hasMore());
+
+        // Écrit à nouveau, l'étudiant prend une nouvelle place en fin de liste
+        store.put(new Student("S-001", "Luc", "Senior", new ArrayList<>()));
+        Assertions.assertEquals(3, store.position("S-001"));
+    }
+
+    @Test
+    @DisplayName("readers should see consistent snapshots while writers run")
+    public void testConcurrentReaders() throws Exception {
+        StudentStore store = new StudentStore();
+        for (int i = 0; i < 100; i++) {
+            store.put(new Student("S-" + i, "Student " + i, "", new ArrayList<>()));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int w = 0; w < 2; w++) {
+            int writer = w;
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < 5000; i++) {
+                    String id = "S-" + (writer * 50 + i % 50);
+                    // Un seul écrivain par identifiant : le dépôt n'ordonne pas les écritures entre elles
+                    store.put(store.get(id).withCourse(new CourseRef(course("C"))));
+                    store.put(store.get(id).withoutCourse("C"));
+                }
+            }));
+        }
+        for (int r = 0; r < 2; r++) {
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < 500; i++) {
+                    StudentRepository.Snapshot snapshot = store.snapshot();
+                    Assertions.assertEquals(100, snapshot.getStudents().size());
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+        Assertions.assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        for (Student student : store.snapshot().getStudents()) {
+            Assertions.assertTrue(student.getCourses().isEmpty());
+        }
+    }
+
+    @Test
+    @DisplayName("a reader crossing a clear should see the students of a single generation")
+    public void testClearDuringReads() throws Exception {
+        StudentStore store = new StudentStore();
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        List<Future<?>> futures = new ArrayList<>();
+        futures.add(executor.submit(() -> {
+            for (int generation = 0; generation < 2000; generation++) {
+                List<Student> batch = new ArrayList<>();
+                for (int i = 0; i < 50; i++) {
+                    batch.add(new Student("S-" + i, "G" + generation, "", new ArrayList<>()));
+                }
+                store.clear();
+                store.putAll(batch);
+            }
+        }));
+        for (int r = 0; r < 2; r++) {
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < 5000; i++) {
+                    StudentRepository.Snapshot snapshot = store.range(0, 100);
+                    List<Student> students = snapshot.getStudents();
+                    // Versions impaires : juste après un vidage ; paires : génération version / 2 - 1 complète
+                    if (snapshot.getVersion() % 2 == 1) {
+                        Assertions.assertTrue(students.isEmpty());
+                    } else if (snapshot.getVersion() > 0) {
+                        Assertions.assertEquals(50, students.size());
+                        for (Student student : students) {
+                            Assertions.assertEquals("G" + (snapshot.getVersion() / 2 - 1), student.getName());
+                        }
+                    }
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+        Assertions.assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+    }
+}